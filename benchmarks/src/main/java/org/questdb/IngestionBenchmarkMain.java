@@ -0,0 +1,497 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.questdb;
+
+import io.questdb.BuildInformationHolder;
+import io.questdb.Metrics;
+import io.questdb.PropServerConfiguration;
+import io.questdb.ServerMain;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.O3Utils;
+import io.questdb.cairo.PartitionBy;
+import io.questdb.cutlass.line.LineTcpSender;
+import io.questdb.cutlass.line.tcp.LineTcpReceiver;
+import io.questdb.cutlass.pgwire.PGWireServer;
+import io.questdb.cutlass.text.Atomicity;
+import io.questdb.cutlass.text.ParallelCsvFileImporter;
+import io.questdb.cutlass.text.TextImportJob;
+import io.questdb.griffin.DatabaseSnapshotAgent;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.FunctionFactoryCache;
+import io.questdb.griffin.engine.groupby.vect.GroupByJob;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.metrics.Histogram;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.mp.WorkerPool;
+import io.questdb.network.Net;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Os;
+import io.questdb.std.Rnd;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.str.StringSink;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process ingestion harness. Starts the same receivers as ServerMain on loopback and drives
+ * ILP, PGWire and CSV import load against them. For every phase it reports rows/sec, commit latency
+ * percentiles and, for ILP, how many times IO threads found writer queue full.
+ * <p>
+ * Everything is configured via system properties, for example:
+ * <pre>
+ * java -Dingest.phases=ilp,pg -Dingest.connections=8 -Dingest.rows=50000000 -Dingest.o3.ratio=0.1 \
+ *      -Dingest.server.line.tcp.writer.worker.count=2 -cp benchmarks.jar org.questdb.IngestionBenchmarkMain
+ * </pre>
+ * Properties prefixed with <code>ingest.server.</code> are passed to the server as server.conf keys.
+ */
+public class IngestionBenchmarkMain {
+    private static final String CSV_FILE_NAME = "ingest.csv";
+    private static final String CSV_TIMESTAMP_FORMAT = "yyyy-MM-ddTHH:mm:ss.SSSSSSZ";
+    private static final String SERVER_PROPERTY_PREFIX = "ingest.server.";
+    private static final long START_MICROS = 1_640_995_200_000_000L; // 2022-01-01
+
+    private final String phases = System.getProperty("ingest.phases", "ilp,pg,csv");
+    private final String root = System.getProperty("ingest.root", new File(System.getProperty("java.io.tmpdir"), "questdb-ingestion-benchmark").getAbsolutePath());
+    private final int workerCount = Integer.getInteger("ingest.workers", 4);
+    private final int ilpPort = Integer.getInteger("ingest.ilp.port", 9009);
+    private final int pgPort = Integer.getInteger("ingest.pg.port", 8812);
+    private final int connections = Integer.getInteger("ingest.connections", 4);
+    private final long rows = Long.getLong("ingest.rows", 10_000_000L);
+    private final int tableCount = Integer.getInteger("ingest.tables", 4);
+    private final int symbolCount = Integer.getInteger("ingest.symbols", 1000);
+    // share of ILP rows sent with timestamp in the past
+    private final double o3Ratio = Double.parseDouble(System.getProperty("ingest.o3.ratio", "0"));
+    private final long o3LagMicros = Long.getLong("ingest.o3.lag.micros", 60_000_000L);
+    // number of columns every ILP table gains while the load is running
+    private final int newColumnCount = Integer.getInteger("ingest.new.columns", 0);
+    // length of string field, zero to send none
+    private final int stringLength = Integer.getInteger("ingest.string.length", 0);
+    private final int ilpBufferCapacity = Integer.getInteger("ingest.ilp.buffer", 64 * 1024);
+    private final int pgBatchSize = Integer.getInteger("ingest.pg.batch", 10_000);
+    private final long timeoutMillis = Long.getLong("ingest.timeout.seconds", 600L) * 1000;
+
+    private Metrics metrics;
+    private CairoEngine engine;
+    private WorkerPool workerPool;
+    private final ObjList<Closeable> instancesToClean = new ObjList<>();
+
+    public static void main(String[] args) throws Exception {
+        final IngestionBenchmarkMain harness = new IngestionBenchmarkMain();
+        try {
+            harness.startServer();
+            for (String phase : harness.phases.split(",")) {
+                switch (phase.trim()) {
+                    case "ilp":
+                        harness.runIlp();
+                        break;
+                    case "pg":
+                        harness.runPg();
+                        break;
+                    case "csv":
+                        harness.runCsv();
+                        break;
+                    default:
+                        System.err.println("unknown phase: " + phase);
+                        break;
+                }
+            }
+        } finally {
+            harness.stopServer();
+            LogFactory.INSTANCE.haltThread();
+        }
+    }
+
+    private static long percentile(Histogram histogram, long[] before, long total, double quantile) {
+        final long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0, n = Histogram.LATENCY_MICROS_BOUNDS.length; i < n; i++) {
+            seen += histogram.getBucketCount(i) - before[i];
+            if (seen >= rank) {
+                return Histogram.LATENCY_MICROS_BOUNDS[i];
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static void appendPercentile(StringBuilder sb, String name, long bound) {
+        sb.append(' ').append(name);
+        if (bound == Long.MAX_VALUE) {
+            sb.append(">").append(Histogram.LATENCY_MICROS_BOUNDS[Histogram.LATENCY_MICROS_BOUNDS.length - 1]);
+        } else {
+            sb.append("<=").append(bound);
+        }
+    }
+
+    private static String nextString(Rnd rnd, int len) {
+        final StringSink sink = new StringSink();
+        for (int i = 0; i < len; i++) {
+            sink.put((char) ('a' + rnd.nextPositiveInt() % 26));
+        }
+        return sink.toString();
+    }
+
+    private void runCsv() throws Exception {
+        final File csv = new File(new File(root, "import"), CSV_FILE_NAME);
+        System.out.println("[csv] generating " + rows + " rows");
+        try (Writer writer = new BufferedWriter(new FileWriter(csv), 1024 * 1024)) {
+            final Rnd rnd = new Rnd();
+            final String[] symbols = symbols(rnd);
+            final String note = nextString(rnd, stringLength);
+            final StringSink sink = new StringSink();
+            final long step = stepMicros();
+            writer.write("ts,sym,price,qty,note\n");
+            for (long i = 0; i < rows; i++) {
+                sink.clear();
+                TimestampFormatUtils.appendDateTimeUSec(sink, START_MICROS + i * step);
+                sink.put(',').put(symbols[rnd.nextPositiveInt() % symbolCount])
+                        .put(',').put(rnd.nextDouble())
+                        .put(',').put(rnd.nextPositiveLong() % 1000)
+                        .put(',').put(note)
+                        .put('\n');
+                writer.append(sink);
+            }
+        }
+
+        final Snapshot snapshot = new Snapshot();
+        try (ParallelCsvFileImporter importer = new ParallelCsvFileImporter(engine, workerCount)) {
+            importer.of(
+                    "csv_bench",
+                    CSV_FILE_NAME,
+                    1,
+                    PartitionBy.DAY,
+                    (byte) ',',
+                    "ts",
+                    CSV_TIMESTAMP_FORMAT,
+                    true,
+                    null,
+                    Atomicity.SKIP_COL
+            );
+            importer.process();
+        }
+        snapshot.report("csv", rows);
+    }
+
+    private void runIlp() {
+        final long rowsPerConnection = rows / connections;
+        final Snapshot snapshot = new Snapshot();
+        final SOCountDownLatch haltLatch = new SOCountDownLatch(connections);
+        final AtomicLong errors = new AtomicLong();
+        for (int i = 0; i < connections; i++) {
+            final int k = i;
+            new Thread(() -> {
+                try {
+                    sendIlp(k, rowsPerConnection);
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                    errors.incrementAndGet();
+                } finally {
+                    haltLatch.countDown();
+                }
+            }).start();
+        }
+        haltLatch.await();
+        if (errors.get() > 0) {
+            throw new IllegalStateException("ILP senders failed");
+        }
+        snapshot.sent();
+        // rows are committed asynchronously, wait for writers to catch up
+        final long expected = rowsPerConnection * connections;
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (metrics.tableWriter().getCommittedRows() - snapshot.committedRows < expected) {
+            if (System.currentTimeMillis() > deadline) {
+                System.err.println("[ilp] timed out waiting for commits");
+                break;
+            }
+            Os.sleep(10);
+        }
+        snapshot.report("ilp", expected);
+    }
+
+    private void runPg() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("user", "admin");
+        properties.setProperty("password", "quest");
+        properties.setProperty("sslmode", "disable");
+        properties.setProperty("binaryTransfer", "true");
+        final String url = "jdbc:postgresql://127.0.0.1:" + pgPort + "/qdb";
+
+        // connection holds table writer until commit, so each connection inserts into its own table
+        try (Connection connection = DriverManager.getConnection(url, properties)) {
+            for (int i = 0; i < connections; i++) {
+                connection.createStatement().execute("create table if not exists pg_bench_" + i + " (ts timestamp, sym symbol, price double, qty long, note string) timestamp(ts) partition by DAY");
+            }
+        }
+
+        final long rowsPerConnection = rows / connections;
+        final Snapshot snapshot = new Snapshot();
+        final SOCountDownLatch haltLatch = new SOCountDownLatch(connections);
+        final AtomicLong errors = new AtomicLong();
+        for (int i = 0; i < connections; i++) {
+            final int k = i;
+            new Thread(() -> {
+                try (Connection connection = DriverManager.getConnection(url, properties)) {
+                    sendPg(connection, k, rowsPerConnection);
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                    errors.incrementAndGet();
+                } finally {
+                    haltLatch.countDown();
+                }
+            }).start();
+        }
+        haltLatch.await();
+        if (errors.get() > 0) {
+            throw new IllegalStateException("PG senders failed");
+        }
+        snapshot.report("pg", rowsPerConnection * connections);
+    }
+
+    private void sendIlp(int k, long count) {
+        final Rnd rnd = new Rnd(k, k);
+        final String[] symbols = symbols(rnd);
+        final String[] tables = new String[tableCount];
+        for (int i = 0; i < tableCount; i++) {
+            tables[i] = "ilp_bench_" + i;
+        }
+        final String[] newColumns = new String[newColumnCount];
+        for (int i = 0; i < newColumnCount; i++) {
+            newColumns[i] = "extra_" + i;
+        }
+        final String[] notes = new String[16];
+        for (int i = 0; i < notes.length; i++) {
+            notes[i] = nextString(rnd, stringLength);
+        }
+        final long step = stepMicros() * connections;
+
+        try (LineTcpSender sender = LineTcpSender.newSender(Net.parseIPv4("127.0.0.1"), ilpPort, ilpBufferCapacity)) {
+            for (long i = 0; i < count; i++) {
+                long timestamp = START_MICROS + i * step + k;
+                if (o3Ratio > 0 && rnd.nextDouble() < o3Ratio) {
+                    timestamp -= rnd.nextPositiveLong() % o3LagMicros;
+                }
+                sender.metric(tables[(int) ((i + k) % tableCount)])
+                        .tag("sym", symbols[rnd.nextPositiveInt() % symbolCount])
+                        .field("price", rnd.nextDouble())
+                        .field("qty", rnd.nextPositiveLong() % 1000);
+                if (stringLength > 0) {
+                    sender.field("note", notes[rnd.nextPositiveInt() % notes.length]);
+                }
+                if (newColumnCount > 0) {
+                    // columns show up one after another as the load progresses
+                    sender.field(newColumns[(int) (i * newColumnCount / count)], i);
+                }
+                sender.$(timestamp * 1000);
+            }
+            sender.flush();
+        }
+    }
+
+    private void sendPg(Connection connection, int k, long count) throws Exception {
+        final Rnd rnd = new Rnd(k, k);
+        final String[] symbols = symbols(rnd);
+        final String note = nextString(rnd, stringLength);
+        final long step = stepMicros() * connections;
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement("insert into pg_bench_" + k + " values (?, ?, ?, ?, ?)")) {
+            for (long i = 0; i < count; i++) {
+                final long timestamp = START_MICROS + i * step + k;
+                final Timestamp ts = new Timestamp(timestamp / 1000);
+                ts.setNanos((int) (timestamp % 1_000_000) * 1000);
+                statement.setTimestamp(1, ts);
+                statement.setString(2, symbols[rnd.nextPositiveInt() % symbolCount]);
+                statement.setDouble(3, rnd.nextDouble());
+                statement.setLong(4, rnd.nextPositiveLong() % 1000);
+                statement.setString(5, note);
+                statement.addBatch();
+                if ((i + 1) % pgBatchSize == 0) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private void startServer() throws Exception {
+        final File rootDir = new File(root);
+        ServerMain.deleteOrException(rootDir);
+        final File importDir = new File(rootDir, "import");
+        final File confDir = new File(rootDir, PropServerConfiguration.CONFIG_DIRECTORY);
+        if (!new File(rootDir, PropServerConfiguration.DB_DIRECTORY).mkdirs() || !importDir.mkdirs() || !confDir.mkdirs()) {
+            throw new IOException("could not create " + rootDir);
+        }
+        // text import settings are read along with HTTP settings, so HTTP stays enabled in
+        // configuration and needs mime types, HTTP server itself is not started
+        try (InputStream is = ServerMain.class.getResourceAsStream("/io/questdb/site/conf/mime.types")) {
+            if (is == null) {
+                throw new IOException("mime.types resource not found");
+            }
+            Files.copy(is, new File(confDir, "mime.types").toPath());
+        }
+
+        final Properties properties = new Properties();
+        properties.setProperty("http.min.enabled", "false");
+        properties.setProperty("line.udp.enabled", "false");
+        properties.setProperty("telemetry.enabled", "false");
+        properties.setProperty("shared.worker.count", Integer.toString(workerCount));
+        properties.setProperty("line.tcp.net.bind.to", "127.0.0.1:" + ilpPort);
+        properties.setProperty("pg.net.bind.to", "127.0.0.1:" + pgPort);
+        properties.setProperty("cairo.sql.copy.root", importDir.getAbsolutePath());
+        // idle ILP tables are committed by maintenance job, keep the tail short
+        properties.setProperty("line.tcp.maintenance.job.interval", "1000");
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(SERVER_PROPERTY_PREFIX)) {
+                properties.setProperty(name.substring(SERVER_PROPERTY_PREFIX.length()), System.getProperty(name));
+            }
+        }
+
+        final Log log = LogFactory.getLog("ingestion-benchmark");
+        final PropServerConfiguration configuration = new PropServerConfiguration(
+                root,
+                properties,
+                null,
+                log,
+                BuildInformationHolder.INSTANCE
+        );
+
+        metrics = Metrics.enabled();
+        workerPool = new WorkerPool(configuration.getWorkerPoolConfiguration(), metrics);
+        final FunctionFactoryCache functionFactoryCache = new FunctionFactoryCache(
+                configuration.getCairoConfiguration(),
+                ServiceLoader.load(FunctionFactory.class, FunctionFactory.class.getClassLoader())
+        );
+        engine = new CairoEngine(configuration.getCairoConfiguration(), metrics);
+        workerPool.assign(engine.getEngineMaintenanceJob());
+        final DatabaseSnapshotAgent snapshotAgent = new DatabaseSnapshotAgent(engine);
+        instancesToClean.add(snapshotAgent);
+
+        O3Utils.setupWorkerPool(workerPool, engine, null, functionFactoryCache);
+        workerPool.assign(new GroupByJob(engine.getMessageBus()));
+        TextImportJob.assignToPool(engine.getMessageBus(), workerPool);
+
+        instancesToClean.add(PGWireServer.create(
+                configuration.getPGWireConfiguration(),
+                workerPool,
+                log,
+                engine,
+                functionFactoryCache,
+                snapshotAgent,
+                metrics
+        ));
+        instancesToClean.add(LineTcpReceiver.create(
+                configuration.getLineTcpReceiverConfiguration(),
+                workerPool,
+                log,
+                engine,
+                metrics
+        ));
+        workerPool.start(log);
+    }
+
+    private void stopServer() {
+        if (workerPool != null) {
+            workerPool.halt();
+        }
+        for (int i = 0, n = instancesToClean.size(); i < n; i++) {
+            Misc.free(instancesToClean.getQuick(i));
+        }
+        Misc.free(engine);
+    }
+
+    // spreads timestamps of all rows over 10 days, i.e. 10 partitions
+    private long stepMicros() {
+        return Math.max(1, 10 * 24 * 60 * 60 * 1_000_000L / rows);
+    }
+
+    private String[] symbols(Rnd rnd) {
+        final String[] symbols = new String[symbolCount];
+        for (int i = 0; i < symbolCount; i++) {
+            symbols[i] = "s" + i + "_" + nextString(rnd, 4);
+        }
+        return symbols;
+    }
+
+    /**
+     * Counters at the start of a phase, report prints the difference.
+     */
+    private class Snapshot {
+        final long startNanos = System.nanoTime();
+        final long committedRows = metrics.tableWriter().getCommittedRows();
+        final long commits = metrics.tableWriter().getCommitCount();
+        final long queueFull = metrics.lineTcp().getQueueFullCount();
+        final long[] commitBuckets = new long[Histogram.LATENCY_MICROS_BOUNDS.length + 1];
+        final long commitCount;
+        long sentNanos = -1;
+
+        Snapshot() {
+            final Histogram histogram = metrics.tableWriter().getCommitTimeHistogram();
+            for (int i = 0; i < commitBuckets.length; i++) {
+                commitBuckets[i] = histogram.getBucketCount(i);
+            }
+            commitCount = histogram.getCount();
+        }
+
+        void sent() {
+            sentNanos = System.nanoTime() - startNanos;
+        }
+
+        void report(String phase, long rows) {
+            final long nanos = System.nanoTime() - startNanos;
+            final Histogram histogram = metrics.tableWriter().getCommitTimeHistogram();
+            final long latencyCount = histogram.getCount() - commitCount;
+            final StringBuilder sb = new StringBuilder();
+            sb.append('[').append(phase).append(']')
+                    .append(" rows=").append(rows)
+                    .append(" committed=").append(metrics.tableWriter().getCommittedRows() - committedRows)
+                    .append(" seconds=").append(nanos / 1_000_000 / 1000.0)
+                    .append(" rows/sec=").append(rows * 1_000_000_000L / Math.max(1, nanos));
+            if (sentNanos > -1) {
+                sb.append(" sent_rows/sec=").append(rows * 1_000_000_000L / Math.max(1, sentNanos));
+            }
+            sb.append(" commits=").append(metrics.tableWriter().getCommitCount() - commits);
+            if (latencyCount > 0) {
+                sb.append(" commit_micros");
+                appendPercentile(sb, "p50", percentile(histogram, commitBuckets, latencyCount, 0.5));
+                appendPercentile(sb, "p90", percentile(histogram, commitBuckets, latencyCount, 0.9));
+                appendPercentile(sb, "p99", percentile(histogram, commitBuckets, latencyCount, 0.99));
+                appendPercentile(sb, "max", percentile(histogram, commitBuckets, latencyCount, 1.0));
+            }
+            sb.append(" writer_queue_full=").append(metrics.lineTcp().getQueueFullCount() - queueFull);
+            System.out.println(sb);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.questdb;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.O3Utils;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.groupby.vect.GroupByJob;
+import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.Rnd;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of SQL operators. Runs queries over deterministic synthetic tables:
+ * <ul>
+ *     <li>trades - ticks of high-cardinality symbols spread over 10 daily partitions</li>
+ *     <li>quotes - bid/ask of the same symbols, interleaved with trades in time</li>
+ *     <li>instruments - one row per symbol</li>
+ * </ul>
+ * Tables are created once per row count under java.io.tmpdir and reused by later runs.
+ * Queries run on a worker pool of the given size, e.g. to compare 1M rows on 1 and 4 workers:
+ * <pre>
+ * java -jar benchmarks.jar SqlOperatorBenchmark -p rowCount=1000000 -p workerCount=1,4
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SqlOperatorBenchmark {
+
+    private static final long SPAN_MICROS = 10 * 24 * 60 * 60 * 1_000_000L;
+    private static final int SYMBOL_COUNT = 10_000;
+
+    @Param({"1000000", "10000000"})
+    public long rowCount;
+    @Param({"1", "4"})
+    public int workerCount;
+    @Param
+    public Query query;
+
+    private CairoEngine engine;
+    private WorkerPool workerPool;
+    private SqlExecutionContextImpl ctx;
+    private SqlCompiler compiler;
+    private RecordCursorFactory factory;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SqlOperatorBenchmark.class.getSimpleName())
+                .warmupIterations(2)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+
+        LogFactory.INSTANCE.haltThread();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws SqlException {
+        final File root = new File(System.getProperty("java.io.tmpdir"), "questdb-sql-operator-benchmark" + File.separator + "rows-" + rowCount);
+        if (!root.exists() && !root.mkdirs()) {
+            throw new IllegalStateException("could not create " + root);
+        }
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(root.getAbsolutePath());
+        engine = new CairoEngine(configuration);
+        // the same seed produces the same tables on every machine
+        ctx = new SqlExecutionContextImpl(engine, workerCount).with(AllowAllCairoSecurityContext.INSTANCE, null, new Rnd(), -1, null);
+        compiler = new SqlCompiler(engine);
+        createTables();
+
+        workerPool = new WorkerPool(() -> workerCount);
+        O3Utils.setupWorkerPool(workerPool, engine, null, null);
+        final MessageBus messageBus = engine.getMessageBus();
+        workerPool.assign(new GroupByJob(messageBus));
+        workerPool.assign(new LatestByAllIndexedJob(messageBus));
+        workerPool.start();
+
+        ctx.setJitMode(query.jitMode);
+        factory = compiler.compile(query.sql, ctx).getRecordCursorFactory();
+        if (query.jitMode != SqlJitMode.JIT_MODE_DISABLED && !factory.usesCompiledFilter()) {
+            throw new IllegalStateException("filter is expected to be JIT compiled: " + query.sql);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        factory.close();
+        workerPool.halt();
+        compiler.close();
+        engine.close();
+    }
+
+    @Benchmark
+    public long testQuery() throws SqlException {
+        long rows = 0;
+        try (RecordCursor cursor = factory.getCursor(ctx)) {
+            while (cursor.hasNext()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private void createTables() throws SqlException {
+        final long step = SPAN_MICROS / rowCount;
+        compiler.compile("create table if not exists trades as (select" +
+                " rnd_symbol(" + SYMBOL_COUNT + ", 4, 8, 0) sym," +
+                " rnd_double() price," +
+                " rnd_long(1, 1000, 0) qty," +
+                " timestamp_sequence(0, " + step + ") ts" +
+                " from long_sequence(" + rowCount + ")) timestamp(ts) partition by DAY", ctx);
+        compiler.compile("create table if not exists quotes as (select" +
+                " rnd_symbol(" + SYMBOL_COUNT + ", 4, 8, 0) sym," +
+                " rnd_double() bid," +
+                " rnd_double() ask," +
+                " timestamp_sequence(" + step / 2 + ", " + step + ") ts" +
+                " from long_sequence(" + rowCount + ")) timestamp(ts) partition by DAY", ctx);
+        compiler.compile("create table if not exists instruments as (select" +
+                " sym," +
+                " rnd_int(1, 100, 0) lot" +
+                " from (select distinct sym from trades))", ctx);
+    }
+
+    public enum Query {
+        FILTER_JIT("select * from trades where price > 0.5 and qty < 100", SqlJitMode.JIT_MODE_ENABLED),
+        FILTER_NO_JIT("select * from trades where price > 0.5 and qty < 100"),
+        GROUP_BY_KEYED("select sym, count(), sum(qty), avg(price) from trades"),
+        SAMPLE_BY_FILL_NONE("select sym, avg(price), sum(qty) from trades sample by 1h"),
+        SAMPLE_BY_FILL_NULL("select sym, avg(price), sum(qty) from trades sample by 1h fill(null)"),
+        SAMPLE_BY_FILL_PREV("select sym, avg(price), sum(qty) from trades sample by 1h fill(prev)"),
+        SAMPLE_BY_FILL_LINEAR("select sym, avg(price), sum(qty) from trades sample by 1h fill(linear)"),
+        LATEST_BY("select * from trades latest on ts partition by sym"),
+        ASOF_JOIN("select t.ts, t.sym, t.price, q.bid, q.ask from trades t asof join quotes q on (sym)"),
+        ORDER_BY_LIMIT("select * from trades order by price desc limit 100"),
+        HASH_JOIN("select t.ts, t.qty, i.lot from trades t join instruments i on (sym)");
+
+        final String sql;
+        final int jitMode;
+
+        Query(String sql) {
+            this(sql, SqlJitMode.JIT_MODE_DISABLED);
+        }
+
+        Query(String sql, int jitMode) {
+            this.sql = sql;
+            this.jitMode = jitMode;
+        }
+    }
+}
@@ -25,6 +25,7 @@
 package io.questdb;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.async.PageFrameReduceScheduler;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.cutlass.text.TextImportRequestTask;
 import io.questdb.cutlass.text.TextImportTask;
@@ -91,6 +92,8 @@ public interface MessageBus extends Closeable {
 
     RingQueue<PageFrameReduceTask> getPageFrameReduceQueue(int shard);
 
+    PageFrameReduceScheduler getPageFrameReduceScheduler();
+
     int getPageFrameReduceShardCount();
 
     MCSequence getPageFrameReduceSubSeq(int shard);
@@ -124,4 +127,10 @@ public interface MessageBus extends Closeable {
     MPSequence getTextImportRequestPubSeq();
 
     Sequence getTextImportRequestSubSeq();
+
+    MPSequence getUpdateColumnPubSeq();
+
+    RingQueue<UpdateColumnTask> getUpdateColumnQueue();
+
+    MCSequence getUpdateColumnSubSeq();
 }
@@ -25,6 +25,7 @@
 package io.questdb;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.async.PageFrameReduceScheduler;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.cutlass.text.TextImportRequestTask;
 import io.questdb.cutlass.text.TextImportTask;
@@ -79,6 +80,7 @@ public class MessageBusImpl implements MessageBus {
     private final int pageFrameReduceShardCount;
     private final MPSequence[] pageFrameReducePubSeq;
     private final MCSequence[] pageFrameReduceSubSeq;
+    private final PageFrameReduceScheduler pageFrameReduceScheduler;
     private final RingQueue<PageFrameReduceTask>[] pageFrameReduceQueue;
     private final FanOut[] pageFrameCollectFanOut;
     private final RingQueue<ColumnPurgeTask> columnPurgeQueue;
@@ -93,6 +95,10 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence textImportRequestPubSeq;
     private final SCSequence textImportRequestSubSeq;
 
+    private final RingQueue<UpdateColumnTask> updateColumnQueue;
+    private final MPSequence updateColumnPubSeq;
+    private final MCSequence updateColumnSubSeq;
+
     public MessageBusImpl(@NotNull CairoConfiguration configuration) {
         this.configuration = configuration;
         this.indexerQueue = new RingQueue<>(ColumnIndexerTask::new, configuration.getColumnIndexerQueueCapacity());
@@ -179,6 +185,7 @@ public class MessageBusImpl implements MessageBus {
             pageFrameReduceSubSeq[i] = reduceSubSeq;
             pageFrameCollectFanOut[i] = collectFanOut;
         }
+        this.pageFrameReduceScheduler = new PageFrameReduceScheduler(configuration);
 
         this.textImportQueue = new RingQueue<>(TextImportTask::new, configuration.getSqlCopyQueueCapacity());
         this.textImportPubSeq = new SPSequence(textImportQueue.getCycle());
@@ -191,6 +198,11 @@ public class MessageBusImpl implements MessageBus {
         this.textImportRequestPubSeq = new MPSequence(textImportRequestQueue.getCycle());
         this.textImportRequestSubSeq = new SCSequence();
         textImportRequestPubSeq.then(textImportRequestSubSeq).then(textImportRequestPubSeq);
+
+        this.updateColumnQueue = new RingQueue<>(UpdateColumnTask::new, configuration.getUpdateColumnQueueCapacity());
+        this.updateColumnPubSeq = new MPSequence(updateColumnQueue.getCycle());
+        this.updateColumnSubSeq = new MCSequence(updateColumnQueue.getCycle());
+        updateColumnPubSeq.then(updateColumnSubSeq).then(updateColumnPubSeq);
     }
 
     @Override
@@ -340,6 +352,11 @@ public class MessageBusImpl implements MessageBus {
         return pageFrameReduceQueue[shard];
     }
 
+    @Override
+    public PageFrameReduceScheduler getPageFrameReduceScheduler() {
+        return pageFrameReduceScheduler;
+    }
+
     @Override
     public int getPageFrameReduceShardCount() {
         return pageFrameReduceShardCount;
@@ -424,4 +441,19 @@ public class MessageBusImpl implements MessageBus {
     public Sequence getTextImportRequestSubSeq() {
         return textImportRequestSubSeq;
     }
+
+    @Override
+    public MPSequence getUpdateColumnPubSeq() {
+        return updateColumnPubSeq;
+    }
+
+    @Override
+    public RingQueue<UpdateColumnTask> getUpdateColumnQueue() {
+        return updateColumnQueue;
+    }
+
+    @Override
+    public MCSequence getUpdateColumnSubSeq() {
+        return updateColumnSubSeq;
+    }
 }
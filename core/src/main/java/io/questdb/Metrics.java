@@ -24,9 +24,11 @@
 
 package io.questdb;
 
+import io.questdb.cairo.TableIngestionMetrics;
 import io.questdb.cairo.TableWriterMetrics;
 import io.questdb.cutlass.http.processors.HealthCheckMetrics;
 import io.questdb.cutlass.http.processors.JsonQueryMetrics;
+import io.questdb.cutlass.line.tcp.LineTcpMetrics;
 import io.questdb.cutlass.pgwire.PGWireMetrics;
 import io.questdb.metrics.*;
 import io.questdb.std.MemoryTag;
@@ -39,7 +41,9 @@ public class Metrics implements Scrapable {
     private final JsonQueryMetrics jsonQuery;
     private final PGWireMetrics pgWire;
     private final HealthCheckMetrics healthCheck;
+    private final LineTcpMetrics lineTcp;
     private final TableWriterMetrics tableWriter;
+    private final TableIngestionMetrics tableIngestion;
     private final MetricsRegistry metricsRegistry;
     private final Runtime runtime = Runtime.getRuntime();
     private final VirtualGauge.StatProvider jvmFreeMemRef = runtime::freeMemory;
@@ -52,7 +56,10 @@ public class Metrics implements Scrapable {
         this.jsonQuery = new JsonQueryMetrics(metricsRegistry);
         this.pgWire = new PGWireMetrics(metricsRegistry);
         this.healthCheck = new HealthCheckMetrics(metricsRegistry);
+        this.lineTcp = new LineTcpMetrics(metricsRegistry);
         this.tableWriter = new TableWriterMetrics(metricsRegistry);
+        this.tableIngestion = new TableIngestionMetrics();
+        metricsRegistry.addScrapable(tableIngestion);
         createMemoryGauges(metricsRegistry);
         this.metricsRegistry = metricsRegistry;
     }
@@ -95,10 +102,18 @@ public class Metrics implements Scrapable {
         return healthCheck;
     }
 
+    public LineTcpMetrics lineTcp() {
+        return lineTcp;
+    }
+
     public TableWriterMetrics tableWriter() {
         return tableWriter;
     }
 
+    public TableIngestionMetrics tableIngestion() {
+        return tableIngestion;
+    }
+
     @Override
     public void scrapeIntoPrometheus(CharSink sink) {
         metricsRegistry.scrapeIntoPrometheus(sink);
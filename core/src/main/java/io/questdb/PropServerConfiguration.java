@@ -27,6 +27,7 @@ package io.questdb;
 import io.questdb.cairo.*;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
+import io.questdb.cairo.sql.async.PageFrameReduceScheduler;
 import io.questdb.cutlass.http.*;
 import io.questdb.cutlass.http.processors.JsonQueryProcessorConfiguration;
 import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
@@ -63,6 +64,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     public static final String CONFIG_DIRECTORY = "conf";
     public static final String DB_DIRECTORY = "db";
     public static final String SNAPSHOT_DIRECTORY = "snapshot";
+    public static final String SPILL_DIRECTORY = "spill";
     public static final long COMMIT_INTERVAL_DEFAULT = 2000;
     private static final LowerCaseCharSequenceIntHashMap WRITE_FO_OPTS = new LowerCaseCharSequenceIntHashMap();
     private static final Map<String, String> OBSOLETE_SETTINGS = new HashMap<>();
@@ -138,6 +140,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sharedWorkerCount;
     private final boolean sharedWorkerHaltOnError;
     private final long sharedWorkerYieldThreshold;
+    private final boolean sharedWorkerBusySpin;
     private final long sharedWorkerSleepThreshold;
     private final long sharedWorkerSleepTimeout;
     private final WorkerPoolConfiguration workerPoolConfiguration = new PropWorkerPoolConfiguration();
@@ -207,14 +210,17 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final String dbDirectory;
     private final String confRoot;
     private final String snapshotRoot;
+    private final String sqlSpillRoot;
     private final String snapshotInstanceId;
     private final boolean snapshotRecoveryEnabled;
+    private final boolean snapshotIncrementalEnabled;
     private final long maxRerunWaitCapMs;
     private final double rerunExponentialWaitMultiplier;
     private final int rerunInitialWaitQueueSize;
     private final int rerunMaxProcessingQueueSize;
     private final BuildInformation buildInformation;
     private final int columnIndexerQueueCapacity;
+    private final int updateColumnQueueCapacity;
     private final int vectorAggregateQueueCapacity;
     private final int o3CallbackQueueCapacity;
     private final int o3PartitionQueueCapacity;
@@ -229,13 +235,38 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long instanceHashHi;
     private final int sqlTxnScoreboardEntryCount;
     private final boolean o3QuickSortEnabled;
+    private final boolean bloomFilterEnabled;
+    private final int bloomFilterBitsPerValue;
+    private final boolean columnMappingCacheEnabled;
+    private final boolean sqlPageFramePrefetchEnabled;
+    private final int sqlPageFramePrefetchFrameCount;
+    private final int sqlPageFramePrefetchBufferCount;
+    private final int sqlPageFramePrefetchBufferSize;
+    private final long sqlSpillThreshold;
+    private final int sqlHeavyQueryFrameCount;
+    private final int sqlMaxConcurrentHeavyQueries;
+    private final boolean sqlAsOfJoinIndexLookupEnabled;
+    private final boolean sqlParallelUpdateEnabled;
+    private final boolean sqlPlanCacheEnabled;
+    private final int sqlPlanCacheCapacity;
+    private final int sqlPlanCachePoolCapacity;
+    private final boolean sqlResultCacheEnabled;
+    private final long sqlResultCacheMemorySize;
+    private final long sqlResultCacheEntryMaxSize;
+    private final int sqlResultCachePageSize;
+    private final int queryLogCapacity;
+    private final int queryLogSqlTextMaxLength;
+    private final boolean latestByCacheEnabled;
     private final MetricsConfiguration metricsConfiguration = new PropMetricsConfiguration();
     private final boolean metricsEnabled;
+    private final long metricsRenderInterval;
     private final int sqlDistinctTimestampKeyCapacity;
     private final double sqlDistinctTimestampLoadFactor;
     private final int circuitBreakerThrottle;
     private final int circuitBreakerBufferSize;
     private final long circuitBreakerTimeout;
+    private final long circuitBreakerQueryMemoryLimit;
+    private final long circuitBreakerGlobalMemoryLimit;
     private final int latestByQueueCapacity;
     private final int sampleByIndexSearchPageSize;
     private final int binaryEncodingMaxLength;
@@ -290,6 +321,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int httpWorkerCount;
     private boolean httpWorkerHaltOnError;
     private long httpWorkerYieldThreshold;
+    private boolean httpWorkerBusySpin;
     private long httpWorkerSleepThreshold;
     private long httpWorkerSleepTimeout;
     private boolean httpServerKeepAlive;
@@ -298,6 +330,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private String publicDirectory;
     private int httpNetConnectionLimit;
     private boolean httpNetConnectionHint;
+    private int httpNetDispatcherCount;
+    private boolean httpNetIOURingEnabled;
     private long httpNetConnectionTimeout;
     private long httpNetConnectionQueueTimeout;
     private int httpNetConnectionSndBuf;
@@ -326,10 +360,13 @@ public class PropServerConfiguration implements ServerConfiguration {
     private boolean httpFrozenClock;
     private boolean httpReadOnlySecurityContext;
     private long maxHttpQueryResponseRowLimit;
+    private int httpQueryPriority;
     private boolean interruptOnClosedConnection;
     private long cairoSqlCopyMaxIndexChunkSize;
     private int pgNetConnectionLimit;
     private boolean pgNetConnectionHint;
+    private int pgNetDispatcherCount;
+    private boolean pgNetIOURingEnabled;
     private int pgNetBindIPv4Address;
     private int pgNetBindPort;
     private long pgNetIdleConnectionTimeout;
@@ -351,9 +388,11 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int pgWorkerCount;
     private boolean pgHaltOnError;
     private long pgWorkerYieldThreshold;
+    private boolean pgWorkerBusySpin;
     private long pgWorkerSleepThreshold;
     private boolean pgDaemonPool;
     private boolean pgSelectCacheEnabled;
+    private int pgQueryPriority;
     private int pgSelectCacheBlockCount;
     private int pgSelectCacheRowCount;
     private boolean pgInsertCacheEnabled;
@@ -368,6 +407,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int pgPendingWritersCacheCapacity;
     private int lineTcpNetConnectionLimit;
     private boolean lineTcpNetConnectionHint;
+    private int lineTcpNetDispatcherCount;
+    private boolean lineTcpNetIOURingEnabled;
     private int lineTcpNetBindIPv4Address;
     private int lineTcpNetBindPort;
     private long lineTcpNetConnectionTimeout;
@@ -382,11 +423,13 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int[] lineTcpWriterWorkerAffinity;
     private boolean lineTcpWriterWorkerPoolHaltOnError;
     private long lineTcpWriterWorkerYieldThreshold;
+    private boolean lineTcpWriterWorkerBusySpin;
     private long lineTcpWriterWorkerSleepThreshold;
     private int lineTcpIOWorkerCount;
     private int[] lineTcpIOWorkerAffinity;
     private boolean lineTcpIOWorkerPoolHaltOnError;
     private long lineTcpIOWorkerYieldThreshold;
+    private boolean lineTcpIOWorkerBusySpin;
     private long lineTcpIOWorkerSleepThreshold;
     private long lineTcpMaintenanceInterval;
     private double lineTcpCommitIntervalFraction;
@@ -435,16 +478,19 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.root = this.dbDirectory;
             this.confRoot = rootSubdir(this.root, CONFIG_DIRECTORY); // ../conf
             this.snapshotRoot = rootSubdir(this.root, SNAPSHOT_DIRECTORY); // ../snapshot
+            this.sqlSpillRoot = rootSubdir(this.root, SPILL_DIRECTORY); // ../spill
         } else {
             this.root = new File(root, this.dbDirectory).getAbsolutePath();
             this.confRoot = new File(root, CONFIG_DIRECTORY).getAbsolutePath();
             this.snapshotRoot = new File(root, SNAPSHOT_DIRECTORY).getAbsolutePath();
+            this.sqlSpillRoot = new File(root, SPILL_DIRECTORY).getAbsolutePath();
         }
         this.cairoAttachPartitionSuffix = getString(properties, env, PropertyKey.CAIRO_ATTACH_PARTITION_SUFFIX, ".attachable");
         this.cairoAttachPartitionCopy = getBoolean(properties, env, PropertyKey.CAIRO_ATTACH_PARTITION_COPY, false);
 
         this.snapshotInstanceId = getString(properties, env, PropertyKey.CAIRO_SNAPSHOT_INSTANCE_ID, "");
         this.snapshotRecoveryEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SNAPSHOT_RECOVERY_ENABLED, true);
+        this.snapshotIncrementalEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SNAPSHOT_INCREMENTAL_ENABLED, false);
         this.simulateCrashEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SIMULATE_CRASH_ENABLED, false);
 
         int cpuAvailable = Runtime.getRuntime().availableProcessors();
@@ -529,6 +575,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.httpWorkerAffinity = getAffinity(properties, env, PropertyKey.HTTP_WORKER_AFFINITY, httpWorkerCount);
                 this.httpWorkerHaltOnError = getBoolean(properties, env, PropertyKey.HTTP_WORKER_HALT_ON_ERROR, false);
                 this.httpWorkerYieldThreshold = getLong(properties, env, PropertyKey.HTTP_WORKER_YIELD_THRESHOLD, 10);
+                this.httpWorkerBusySpin = getBoolean(properties, env, PropertyKey.HTTP_WORKER_BUSY_SPIN, false);
                 this.httpWorkerSleepThreshold = getLong(properties, env, PropertyKey.HTTP_WORKER_SLEEP_THRESHOLD, 10000);
                 this.httpWorkerSleepTimeout = getLong(properties, env, PropertyKey.HTTP_WORKER_SLEEP_TIMEOUT, 100);
                 this.sendBufferSize = getIntSize(properties, env, PropertyKey.HTTP_SEND_BUFFER_SIZE, 2 * 1024 * 1024);
@@ -563,6 +610,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.httpNetConnectionLimit = getInt(properties, env, PropertyKey.HTTP_NET_ACTIVE_CONNECTION_LIMIT, 64);
                 this.httpNetConnectionLimit = getInt(properties, env, PropertyKey.HTTP_NET_CONNECTION_LIMIT, this.httpNetConnectionLimit);
                 this.httpNetConnectionHint = getBoolean(properties, env, PropertyKey.HTTP_NET_CONNECTION_HINT, false);
+                this.httpNetDispatcherCount = getInt(properties, env, PropertyKey.HTTP_NET_DISPATCHER_COUNT, 1);
+                this.httpNetIOURingEnabled = getBoolean(properties, env, PropertyKey.HTTP_NET_IO_URING_ENABLED, false);
                 // deprecated
                 this.httpNetConnectionTimeout = getLong(properties, env, PropertyKey.HTTP_NET_IDLE_CONNECTION_TIMEOUT, 5 * 60 * 1000L);
                 this.httpNetConnectionTimeout = getLong(properties, env, PropertyKey.HTTP_NET_CONNECTION_TIMEOUT, this.httpNetConnectionTimeout);
@@ -598,6 +647,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.jsonQueryDoubleScale = getInt(properties, env, PropertyKey.HTTP_JSON_QUERY_DOUBLE_SCALE, 12);
                 this.httpReadOnlySecurityContext = getBoolean(properties, env, PropertyKey.HTTP_SECURITY_READONLY, false);
                 this.maxHttpQueryResponseRowLimit = getLong(properties, env, PropertyKey.HTTP_SECURITY_MAX_RESPONSE_ROWS, Long.MAX_VALUE);
+                this.httpQueryPriority = getQueryPriority(properties, env, PropertyKey.HTTP_QUERY_PRIORITY, PageFrameReduceScheduler.PRIORITY_NORMAL);
                 this.interruptOnClosedConnection = getBoolean(properties, env, PropertyKey.HTTP_SECURITY_INTERRUPT_ON_CLOSED_CONNECTION, true);
 
                 String httpBindTo = getString(properties, env, PropertyKey.HTTP_BIND_TO, "0.0.0.0:9000");
@@ -619,6 +669,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.circuitBreakerThrottle = getInt(properties, env, PropertyKey.CIRCUIT_BREAKER_THROTTLE, 2_000_000);
             this.circuitBreakerBufferSize = getInt(properties, env, PropertyKey.CIRCUIT_BREAKER_BUFFER_SIZE, 64);
             this.circuitBreakerTimeout = (long) (getDouble(properties, env, PropertyKey.QUERY_TIMEOUT_SEC, 60) * Timestamps.SECOND_MILLIS);
+            this.circuitBreakerQueryMemoryLimit = getLongSize(properties, env, PropertyKey.CIRCUIT_BREAKER_QUERY_MEMORY_LIMIT, 0);
+            this.circuitBreakerGlobalMemoryLimit = getLongSize(properties, env, PropertyKey.CIRCUIT_BREAKER_GLOBAL_MEMORY_LIMIT, 0);
 
             this.pgEnabled = getBoolean(properties, env, PropertyKey.PG_ENABLED, true);
             if (pgEnabled) {
@@ -626,6 +678,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 pgNetConnectionLimit = getInt(properties, env, PropertyKey.PG_NET_ACTIVE_CONNECTION_LIMIT, 64);
                 pgNetConnectionLimit = getInt(properties, env, PropertyKey.PG_NET_CONNECTION_LIMIT, pgNetConnectionLimit);
                 pgNetConnectionHint = getBoolean(properties, env, PropertyKey.PG_NET_CONNECTION_HINT, false);
+                pgNetDispatcherCount = getInt(properties, env, PropertyKey.PG_NET_DISPATCHER_COUNT, 1);
+                pgNetIOURingEnabled = getBoolean(properties, env, PropertyKey.PG_NET_IO_URING_ENABLED, false);
                 parseBindTo(properties, env, PropertyKey.PG_NET_BIND_TO, "0.0.0.0:8812", (a, p) -> {
                     pgNetBindIPv4Address = a;
                     pgNetBindPort = p;
@@ -664,9 +718,11 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.pgWorkerAffinity = getAffinity(properties, env, PropertyKey.PG_WORKER_AFFINITY, pgWorkerCount);
                 this.pgHaltOnError = getBoolean(properties, env, PropertyKey.PG_HALT_ON_ERROR, false);
                 this.pgWorkerYieldThreshold = getLong(properties, env, PropertyKey.PG_WORKER_YIELD_THRESHOLD, 10);
+                this.pgWorkerBusySpin = getBoolean(properties, env, PropertyKey.PG_WORKER_BUSY_SPIN, false);
                 this.pgWorkerSleepThreshold = getLong(properties, env, PropertyKey.PG_WORKER_SLEEP_THRESHOLD, 10000);
                 this.pgDaemonPool = getBoolean(properties, env, PropertyKey.PG_DAEMON_POOL, true);
                 this.pgSelectCacheEnabled = getBoolean(properties, env, PropertyKey.PG_SELECT_CACHE_ENABLED, true);
+                this.pgQueryPriority = getQueryPriority(properties, env, PropertyKey.PG_QUERY_PRIORITY, PageFrameReduceScheduler.PRIORITY_NORMAL);
                 this.pgSelectCacheBlockCount = getInt(properties, env, PropertyKey.PG_SELECT_CACHE_BLOCK_COUNT, 8);
                 this.pgSelectCacheRowCount = getInt(properties, env, PropertyKey.PG_SELECT_CACHE_ROW_COUNT, 8);
                 this.pgInsertCacheEnabled = getBoolean(properties, env, PropertyKey.PG_INSERT_CACHE_ENABLED, true);
@@ -835,6 +891,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.backupTempDirName = getString(properties, env, PropertyKey.CAIRO_SQL_BACKUP_DIR_TMP_NAME, "tmp");
             this.backupMkdirMode = getInt(properties, env, PropertyKey.CAIRO_SQL_BACKUP_MKDIR_MODE, 509);
             this.columnIndexerQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_COLUMN_INDEXER_QUEUE_CAPACITY, 64);
+            this.updateColumnQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_UPDATE_COLUMN_QUEUE_CAPACITY, 64);
             this.vectorAggregateQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_VECTOR_AGGREGATE_QUEUE_CAPACITY, 128);
             this.o3CallbackQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_O3_CALLBACK_QUEUE_CAPACITY, 128);
             this.o3PartitionQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_O3_PARTITION_QUEUE_CAPACITY, 128);
@@ -846,6 +903,28 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.maxUncommittedRows = getInt(properties, env, PropertyKey.CAIRO_MAX_UNCOMMITTED_ROWS, 500_000);
             this.commitLag = getLong(properties, env, PropertyKey.CAIRO_COMMIT_LAG, 300_000) * 1_000;
             this.o3QuickSortEnabled = getBoolean(properties, env, PropertyKey.CAIRO_O3_QUICKSORT_ENABLED, false);
+            this.bloomFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, false);
+            this.bloomFilterBitsPerValue = getInt(properties, env, PropertyKey.CAIRO_BLOOM_FILTER_BITS_PER_VALUE, 10);
+            this.columnMappingCacheEnabled = getBoolean(properties, env, PropertyKey.CAIRO_COLUMN_MAPPING_CACHE_ENABLED, false);
+            this.sqlPageFramePrefetchEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_ENABLED, false);
+            this.sqlPageFramePrefetchFrameCount = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_FRAME_COUNT, 4);
+            this.sqlPageFramePrefetchBufferCount = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_BUFFER_COUNT, 16);
+            this.sqlPageFramePrefetchBufferSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_BUFFER_SIZE, 256 * 1024);
+            this.sqlSpillThreshold = getLongSize(properties, env, PropertyKey.CAIRO_SQL_SPILL_THRESHOLD, 0);
+            this.sqlHeavyQueryFrameCount = getInt(properties, env, PropertyKey.CAIRO_SQL_HEAVY_QUERY_FRAME_COUNT, 64);
+            this.sqlMaxConcurrentHeavyQueries = getInt(properties, env, PropertyKey.CAIRO_SQL_MAX_CONCURRENT_HEAVY_QUERIES, 0);
+            this.sqlAsOfJoinIndexLookupEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_ASOF_JOIN_INDEX_LOOKUP_ENABLED, true);
+            this.sqlParallelUpdateEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_UPDATE_ENABLED, true);
+            this.sqlPlanCacheEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PLAN_CACHE_ENABLED, false);
+            this.sqlPlanCacheCapacity = getInt(properties, env, PropertyKey.CAIRO_SQL_PLAN_CACHE_CAPACITY, 256);
+            this.sqlPlanCachePoolCapacity = getInt(properties, env, PropertyKey.CAIRO_SQL_PLAN_CACHE_POOL_CAPACITY, 16);
+            this.sqlResultCacheEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_ENABLED, false);
+            this.sqlResultCacheMemorySize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_MEMORY_SIZE, 64 * 1024 * 1024);
+            this.sqlResultCacheEntryMaxSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_ENTRY_MAX_SIZE, 4 * 1024 * 1024);
+            this.sqlResultCachePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_PAGE_SIZE, 64 * 1024);
+            this.queryLogCapacity = getInt(properties, env, PropertyKey.CAIRO_QUERY_LOG_CAPACITY, 1024);
+            this.queryLogSqlTextMaxLength = getInt(properties, env, PropertyKey.CAIRO_QUERY_LOG_SQL_TEXT_MAX_LENGTH, 256);
+            this.latestByCacheEnabled = getBoolean(properties, env, PropertyKey.CAIRO_LATEST_BY_CACHE_ENABLED, false);
             this.rndFunctionMemoryPageSize = Numbers.ceilPow2(getIntSize(properties, env, PropertyKey.CAIRO_RND_MEMORY_PAGE_SIZE, 8192));
             this.rndFunctionMemoryMaxPages = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_RND_MEMORY_MAX_PAGES, 128));
             this.replaceFunctionBufferMaxSize = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_REPLACE_BUFFER_MAX_SIZE, 1024 * 1024));
@@ -894,6 +973,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 lineTcpNetConnectionLimit = getInt(properties, env, PropertyKey.LINE_TCP_NET_ACTIVE_CONNECTION_LIMIT, 256);
                 lineTcpNetConnectionLimit = getInt(properties, env, PropertyKey.LINE_TCP_NET_CONNECTION_LIMIT, lineTcpNetConnectionLimit);
                 lineTcpNetConnectionHint = getBoolean(properties, env, PropertyKey.LINE_TCP_NET_CONNECTION_HINT, false);
+                lineTcpNetDispatcherCount = getInt(properties, env, PropertyKey.LINE_TCP_NET_DISPATCHER_COUNT, 1);
+                lineTcpNetIOURingEnabled = getBoolean(properties, env, PropertyKey.LINE_TCP_NET_IO_URING_ENABLED, false);
                 parseBindTo(properties, env, PropertyKey.LINE_TCP_NET_BIND_TO, "0.0.0.0:9009", (a, p) -> {
                     lineTcpNetBindIPv4Address = a;
                     lineTcpNetBindPort = p;
@@ -925,6 +1006,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.lineTcpWriterWorkerAffinity = getAffinity(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_AFFINITY, lineTcpWriterWorkerCount);
                 this.lineTcpWriterWorkerPoolHaltOnError = getBoolean(properties, env, PropertyKey.LINE_TCP_WRITER_HALT_ON_ERROR, false);
                 this.lineTcpWriterWorkerYieldThreshold = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_YIELD_THRESHOLD, 10);
+                this.lineTcpWriterWorkerBusySpin = getBoolean(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_BUSY_SPIN, false);
                 this.lineTcpWriterWorkerSleepThreshold = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_SLEEP_THRESHOLD, 10000);
                 this.symbolCacheWaitUsBeforeReload = getLong(properties, env, PropertyKey.LINE_TCP_SYMBOL_CACHE_WAIT_US_BEFORE_RELOAD, 500_000);
 
@@ -941,6 +1023,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.lineTcpIOWorkerAffinity = getAffinity(properties, env, PropertyKey.LINE_TCP_IO_WORKER_AFFINITY, lineTcpIOWorkerCount);
                 this.lineTcpIOWorkerPoolHaltOnError = getBoolean(properties, env, PropertyKey.LINE_TCP_IO_HALT_ON_ERROR, false);
                 this.lineTcpIOWorkerYieldThreshold = getLong(properties, env, PropertyKey.LINE_TCP_IO_WORKER_YIELD_THRESHOLD, 10);
+                this.lineTcpIOWorkerBusySpin = getBoolean(properties, env, PropertyKey.LINE_TCP_IO_WORKER_BUSY_SPIN, false);
                 this.lineTcpIOWorkerSleepThreshold = getLong(properties, env, PropertyKey.LINE_TCP_IO_WORKER_SLEEP_THRESHOLD, 10000);
                 this.lineTcpMaintenanceInterval = getLong(properties, env, PropertyKey.LINE_TCP_MAINTENANCE_JOB_INTERVAL, 30_000);
                 this.lineTcpCommitIntervalFraction = getDouble(properties, env, PropertyKey.LINE_TCP_COMMIT_INTERVAL_FRACTION, 0.5);
@@ -986,10 +1069,12 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sharedWorkerAffinity = getAffinity(properties, env, PropertyKey.SHARED_WORKER_AFFINITY, sharedWorkerCount);
             this.sharedWorkerHaltOnError = getBoolean(properties, env, PropertyKey.SHARED_WORKER_HALT_ON_ERROR, false);
             this.sharedWorkerYieldThreshold = getLong(properties, env, PropertyKey.SHARED_WORKER_YIELD_THRESHOLD, 100);
+            this.sharedWorkerBusySpin = getBoolean(properties, env, PropertyKey.SHARED_WORKER_BUSY_SPIN, false);
             this.sharedWorkerSleepThreshold = getLong(properties, env, PropertyKey.SHARED_WORKER_SLEEP_THRESHOLD, 10_000);
             this.sharedWorkerSleepTimeout = getLong(properties, env, PropertyKey.SHARED_WORKER_SLEEP_TIMEOUT, 100);
 
             this.metricsEnabled = getBoolean(properties, env, PropertyKey.METRICS_ENABLED, false);
+            this.metricsRenderInterval = getLong(properties, env, PropertyKey.METRICS_RENDER_INTERVAL, 1000);
             this.writerAsyncCommandBusyWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_BUSY_WAIT_TIMEOUT, 500);
             this.writerAsyncCommandMaxWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_MAX_WAIT_TIMEOUT, 30_000L);
             this.writerTickRowsCountMod = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_WRITER_TICK_ROWS_COUNT, 1024)) - 1;
@@ -1325,6 +1410,17 @@ public class PropServerConfiguration implements ServerConfiguration {
         return SqlJitMode.JIT_MODE_ENABLED;
     }
 
+    private int getQueryPriority(Properties properties, @Nullable Map<String, String> env, PropertyKey key, int defaultValue) {
+        final String priority = overrideWithEnv(properties, env, key);
+
+        if (priority == null) {
+            return defaultValue;
+        }
+
+        final int value = PageFrameReduceScheduler.priorityOf(priority);
+        return value != -1 ? value : defaultValue;
+    }
+
     private String getString(Properties properties, @Nullable Map<String, String> env, PropertyKey key, String defaultValue) {
         String value = overrideWithEnv(properties, env, key);
         if (value == null) {
@@ -1480,6 +1576,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherCount() {
+            return httpNetDispatcherCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "http-server";
@@ -1510,6 +1611,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return NetworkFacadeImpl.INSTANCE;
         }
 
+        @Override
+        public boolean isIOURingEnabled() {
+            return httpNetIOURingEnabled;
+        }
+
         @Override
         public int getRcvBufSize() {
             return httpNetConnectionRcvBuf;
@@ -1691,6 +1797,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return NetworkFacadeImpl.INSTANCE;
         }
 
+        @Override
+        public long getQueryMemoryLimit() {
+            return circuitBreakerQueryMemoryLimit;
+        }
+
+        @Override
+        public long getGlobalQueryMemoryLimit() {
+            return circuitBreakerGlobalMemoryLimit;
+        }
+
         @Override
         public boolean isEnabled() {
             return interruptOnClosedConnection;
@@ -1797,6 +1913,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return jsonQueryProcessorConfiguration;
         }
 
+        @Override
+        public long getMetricsRenderInterval() {
+            return metricsRenderInterval;
+        }
+
         @Override
         public boolean isQueryCacheEnabled() {
             return httpSqlCacheEnabled;
@@ -1847,6 +1968,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return httpWorkerYieldThreshold;
         }
 
+        @Override
+        public boolean isBusySpin() {
+            return httpWorkerBusySpin;
+        }
+
         @Override
         public long getSleepThreshold() {
             return httpWorkerSleepThreshold;
@@ -1910,6 +2036,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlBindVariablePoolSize;
         }
 
+        @Override
+        public int getBloomFilterBitsPerValue() {
+            return bloomFilterBitsPerValue;
+        }
+
         @Override
         public BuildInformation getBuildInformation() {
             return buildInformation;
@@ -2220,6 +2351,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return queryCacheEventQueueCapacity;
         }
 
+        @Override
+        public int getQueryLogCapacity() {
+            return queryLogCapacity;
+        }
+
+        @Override
+        public int getQueryLogSqlTextMaxLength() {
+            return queryLogSqlTextMaxLength;
+        }
+
         @Override
         public int getReaderPoolMaxSegments() {
             return readerPoolMaxSegments;
@@ -2395,6 +2536,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlHashJoinValuePageSize;
         }
 
+        @Override
+        public int getSqlHeavyQueryFrameCount() {
+            return sqlHeavyQueryFrameCount;
+        }
+
         @Override
         public int getSqlJitBindVarsMemoryMaxPages() {
             return sqlJitBindVarsMemoryMaxPages;
@@ -2475,6 +2621,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlMapPageSize;
         }
 
+        @Override
+        public int getSqlMaxConcurrentHeavyQueries() {
+            return sqlMaxConcurrentHeavyQueries;
+        }
+
         @Override
         public int getSqlMaxNegativeLimit() {
             return sqlMaxNegativeLimit;
@@ -2495,6 +2646,46 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlPageFrameMinRows;
         }
 
+        @Override
+        public int getSqlPageFramePrefetchBufferCount() {
+            return sqlPageFramePrefetchBufferCount;
+        }
+
+        @Override
+        public int getSqlPageFramePrefetchBufferSize() {
+            return sqlPageFramePrefetchBufferSize;
+        }
+
+        @Override
+        public int getSqlPageFramePrefetchFrameCount() {
+            return sqlPageFramePrefetchFrameCount;
+        }
+
+        @Override
+        public int getSqlPlanCacheCapacity() {
+            return sqlPlanCacheCapacity;
+        }
+
+        @Override
+        public int getSqlPlanCachePoolCapacity() {
+            return sqlPlanCachePoolCapacity;
+        }
+
+        @Override
+        public long getSqlResultCacheEntryMaxSize() {
+            return sqlResultCacheEntryMaxSize;
+        }
+
+        @Override
+        public long getSqlResultCacheMemorySize() {
+            return sqlResultCacheMemorySize;
+        }
+
+        @Override
+        public int getSqlResultCachePageSize() {
+            return sqlResultCachePageSize;
+        }
+
         @Override
         public int getSqlSmallMapKeyCapacity() {
             return sqlSmallMapKeyCapacity;
@@ -2530,6 +2721,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortValuePageSize;
         }
 
+        @Override
+        public CharSequence getSqlSpillRoot() {
+            return sqlSpillRoot;
+        }
+
+        @Override
+        public long getSqlSpillThreshold() {
+            return sqlSpillThreshold;
+        }
+
         @Override
         public CharSequence getSystemTableNamePrefix() {
             return systemTableNamePrefix;
@@ -2549,6 +2750,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlTxnScoreboardEntryCount;
         }
 
+        @Override
+        public int getUpdateColumnQueueCapacity() {
+            return updateColumnQueueCapacity;
+        }
+
         @Override
         public int getVectorAggregateQueueCapacity() {
             return vectorAggregateQueueCapacity;
@@ -2599,11 +2805,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return writerTickRowsCountMod;
         }
 
+        @Override
+        public boolean isBloomFilterEnabled() {
+            return bloomFilterEnabled;
+        }
+
+        @Override
+        public boolean isColumnMappingCacheEnabled() {
+            return columnMappingCacheEnabled;
+        }
+
         @Override
         public boolean isIOURingEnabled() {
             return ioURingEnabled;
         }
 
+        @Override
+        public boolean isLatestByCacheEnabled() {
+            return latestByCacheEnabled;
+        }
+
         @Override
         public boolean isO3QuickSortEnabled() {
             return o3QuickSortEnabled;
@@ -2614,16 +2835,31 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexingEnabled;
         }
 
+        @Override
+        public boolean isSnapshotIncrementalEnabled() {
+            return snapshotIncrementalEnabled;
+        }
+
         @Override
         public boolean isSnapshotRecoveryEnabled() {
             return snapshotRecoveryEnabled;
         }
 
+        @Override
+        public boolean isSqlAsOfJoinIndexLookupEnabled() {
+            return sqlAsOfJoinIndexLookupEnabled;
+        }
+
         @Override
         public boolean isSqlJitDebugEnabled() {
             return sqlJitDebugEnabled;
         }
 
+        @Override
+        public boolean isSqlPageFramePrefetchEnabled() {
+            return sqlPageFramePrefetchEnabled;
+        }
+
         @Override
         public boolean isSqlParallelFilterEnabled() {
             return sqlParallelFilterEnabled;
@@ -2633,6 +2869,18 @@ public class PropServerConfiguration implements ServerConfiguration {
         public boolean isSqlParallelFilterPreTouchEnabled() {
             return sqlParallelFilterPreTouchEnabled;
         }
+        @Override
+        public boolean isSqlParallelUpdateEnabled() {
+            return sqlParallelUpdateEnabled;
+        }
+        @Override
+        public boolean isSqlPlanCacheEnabled() {
+            return sqlPlanCacheEnabled;
+        }
+        @Override
+        public boolean isSqlResultCacheEnabled() {
+            return sqlResultCacheEnabled;
+        }
     }
 
     private class PropLineUdpReceiverConfiguration implements LineUdpReceiverConfiguration {
@@ -2764,6 +3012,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public boolean isIOURingEnabled() {
+            return lineTcpNetIOURingEnabled;
+        }
+
+        @Override
+        public int getDispatcherCount() {
+            return lineTcpNetDispatcherCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "tcp-line-server";
@@ -2840,6 +3098,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpWriterWorkerYieldThreshold;
         }
 
+        @Override
+        public boolean isBusySpin() {
+            return lineTcpWriterWorkerBusySpin;
+        }
+
         @Override
         public long getSleepThreshold() {
             return lineTcpWriterWorkerSleepThreshold;
@@ -2877,6 +3140,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpIOWorkerYieldThreshold;
         }
 
+        @Override
+        public boolean isBusySpin() {
+            return lineTcpIOWorkerBusySpin;
+        }
+
         @Override
         public long getSleepThreshold() {
             return lineTcpIOWorkerSleepThreshold;
@@ -3072,6 +3340,10 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getMaxQueryResponseRowLimit() {
             return maxHttpQueryResponseRowLimit;
         }
+        @Override
+        public int getQueryPriority() {
+            return httpQueryPriority;
+        }
     }
 
     private class PropWorkerPoolConfiguration implements WorkerPoolConfiguration {
@@ -3095,6 +3367,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sharedWorkerYieldThreshold;
         }
 
+        @Override
+        public boolean isBusySpin() {
+            return sharedWorkerBusySpin;
+        }
+
         @Override
         public long getSleepThreshold() {
             return sharedWorkerSleepThreshold;
@@ -3156,6 +3433,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherCount() {
+            return pgNetDispatcherCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "pg-server";
@@ -3185,6 +3467,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return NetworkFacadeImpl.INSTANCE;
         }
 
+        @Override
+        public boolean isIOURingEnabled() {
+            return pgNetIOURingEnabled;
+        }
+
         @Override
         public int getRcvBufSize() {
             return pgNetConnectionRcvBuf;
@@ -3237,6 +3524,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return pgUsername;
         }
 
+        @Override
+        public int getQueryPriority() {
+            return pgQueryPriority;
+        }
+
         @Override
         public boolean readOnlySecurityContext() {
             return pgReadOnlySecurityContext;
@@ -3372,6 +3664,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return pgWorkerYieldThreshold;
         }
 
+        @Override
+        public boolean isBusySpin() {
+            return pgWorkerBusySpin;
+        }
+
         @Override
         public long getSleepThreshold() {
             return pgWorkerSleepThreshold;
@@ -3418,6 +3715,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return httpContextConfiguration;
         }
 
+        @Override
+        public long getMetricsRenderInterval() {
+            return metricsRenderInterval;
+        }
+
         @Override
         public WaitProcessorConfiguration getWaitProcessorConfiguration() {
             return httpWaitProcessorConfiguration;
@@ -34,6 +34,7 @@ public enum PropertyKey {
     CAIRO_ROOT("cairo.root"),
     CAIRO_SNAPSHOT_INSTANCE_ID("cairo.snapshot.instance.id"),
     CAIRO_SNAPSHOT_RECOVERY_ENABLED("cairo.snapshot.recovery.enabled"),
+    CAIRO_SNAPSHOT_INCREMENTAL_ENABLED("cairo.snapshot.incremental.enabled"),
     CAIRO_MKDIR_MODE("cairo.mkdir.mode"),
     CAIRO_SQL_APPEND_PAGE_SIZE("cairo.sql.append.page.size"),
     CAIRO_WRITER_ALTER_BUSY_WAIT_TIMEOUT("cairo.writer.alter.busy.wait.timeout"),
@@ -140,6 +141,7 @@ public enum PropertyKey {
     CAIRO_SQL_BACKUP_DIR_TMP_NAME("cairo.sql.backup.dir.tmp.name"),
     CAIRO_SQL_BACKUP_MKDIR_MODE("cairo.sql.backup.mkdir.mode"),
     CAIRO_COLUMN_INDEXER_QUEUE_CAPACITY("cairo.column.indexer.queue.capacity"),
+    CAIRO_UPDATE_COLUMN_QUEUE_CAPACITY("cairo.update.column.queue.capacity"),
     CAIRO_VECTOR_AGGREGATE_QUEUE_CAPACITY("cairo.vector.aggregate.queue.capacity"),
     CAIRO_O3_CALLBACK_QUEUE_CAPACITY("cairo.o3.callback.queue.capacity"),
     CAIRO_O3_PARTITION_QUEUE_CAPACITY("cairo.o3.partition.queue.capacity"),
@@ -151,6 +153,28 @@ public enum PropertyKey {
     CAIRO_MAX_UNCOMMITTED_ROWS("cairo.max.uncommitted.rows"),
     CAIRO_COMMIT_LAG("cairo.commit.lag"),
     CAIRO_O3_QUICKSORT_ENABLED("cairo.o3.quicksort.enabled"),
+    CAIRO_BLOOM_FILTER_ENABLED("cairo.bloom.filter.enabled"),
+    CAIRO_BLOOM_FILTER_BITS_PER_VALUE("cairo.bloom.filter.bits.per.value"),
+    CAIRO_COLUMN_MAPPING_CACHE_ENABLED("cairo.column.mapping.cache.enabled"),
+    CAIRO_SQL_PAGE_FRAME_PREFETCH_ENABLED("cairo.sql.page.frame.prefetch.enabled"),
+    CAIRO_SQL_PAGE_FRAME_PREFETCH_FRAME_COUNT("cairo.sql.page.frame.prefetch.frame.count"),
+    CAIRO_SQL_PAGE_FRAME_PREFETCH_BUFFER_COUNT("cairo.sql.page.frame.prefetch.buffer.count"),
+    CAIRO_SQL_PAGE_FRAME_PREFETCH_BUFFER_SIZE("cairo.sql.page.frame.prefetch.buffer.size"),
+    CAIRO_SQL_SPILL_THRESHOLD("cairo.sql.spill.threshold"),
+    CAIRO_SQL_HEAVY_QUERY_FRAME_COUNT("cairo.sql.heavy.query.frame.count"),
+    CAIRO_SQL_MAX_CONCURRENT_HEAVY_QUERIES("cairo.sql.max.concurrent.heavy.queries"),
+    CAIRO_SQL_ASOF_JOIN_INDEX_LOOKUP_ENABLED("cairo.sql.asof.join.index.lookup.enabled"),
+    CAIRO_SQL_PARALLEL_UPDATE_ENABLED("cairo.sql.parallel.update.enabled"),
+    CAIRO_SQL_PLAN_CACHE_ENABLED("cairo.sql.plan.cache.enabled"),
+    CAIRO_SQL_PLAN_CACHE_CAPACITY("cairo.sql.plan.cache.capacity"),
+    CAIRO_SQL_PLAN_CACHE_POOL_CAPACITY("cairo.sql.plan.cache.pool.capacity"),
+    CAIRO_SQL_RESULT_CACHE_ENABLED("cairo.sql.result.cache.enabled"),
+    CAIRO_SQL_RESULT_CACHE_MEMORY_SIZE("cairo.sql.result.cache.memory.size"),
+    CAIRO_SQL_RESULT_CACHE_ENTRY_MAX_SIZE("cairo.sql.result.cache.entry.max.size"),
+    CAIRO_SQL_RESULT_CACHE_PAGE_SIZE("cairo.sql.result.cache.page.size"),
+    CAIRO_QUERY_LOG_CAPACITY("cairo.query.log.capacity"),
+    CAIRO_QUERY_LOG_SQL_TEXT_MAX_LENGTH("cairo.query.log.sql.text.max.length"),
+    CAIRO_LATEST_BY_CACHE_ENABLED("cairo.latest.by.cache.enabled"),
     CAIRO_RND_MEMORY_PAGE_SIZE("cairo.rnd.memory.page.size"),
     CAIRO_RND_MEMORY_MAX_PAGES("cairo.rnd.memory.max.pages"),
     CAIRO_REPLACE_BUFFER_MAX_SIZE("cairo.replace.buffer.max.size"),
@@ -169,6 +193,8 @@ public enum PropertyKey {
     CAIRO_MAX_CRASH_FILES("cairo.max.crash.files"),
     CIRCUIT_BREAKER_THROTTLE("circuit.breaker.throttle"),
     CIRCUIT_BREAKER_BUFFER_SIZE("circuit.breaker.buffer.size"),
+    CIRCUIT_BREAKER_QUERY_MEMORY_LIMIT("circuit.breaker.query.memory.limit"),
+    CIRCUIT_BREAKER_GLOBAL_MEMORY_LIMIT("circuit.breaker.global.memory.limit"),
     CONFIG_VALIDATION_STRICT("config.validation.strict"),
     HTTP_MIN_ENABLED("http.min.enabled"),
     HTTP_MIN_WORKER_AFFINITY("http.min.worker.affinity"),
@@ -194,6 +220,7 @@ public enum PropertyKey {
     HTTP_WORKER_AFFINITY("http.worker.affinity"),
     HTTP_WORKER_HALT_ON_ERROR("http.worker.haltOnError"),
     HTTP_WORKER_YIELD_THRESHOLD("http.worker.yield.threshold"),
+    HTTP_WORKER_BUSY_SPIN("http.worker.busy.spin"),
     HTTP_WORKER_SLEEP_THRESHOLD("http.worker.sleep.threshold"),
     HTTP_WORKER_SLEEP_TIMEOUT("http.worker.sleep.timeout"),
     HTTP_SEND_BUFFER_SIZE("http.send.buffer.size"),
@@ -204,6 +231,8 @@ public enum PropertyKey {
     HTTP_VERSION("http.version"),
     HTTP_STATIC_PUBLIC_DIRECTORY("http.static.public.directory"),
     HTTP_NET_CONNECTION_HINT("http.net.connection.hint"),
+    HTTP_NET_DISPATCHER_COUNT("http.net.dispatcher.count"),
+    HTTP_NET_IO_URING_ENABLED("http.net.io.uring.enabled"),
     HTTP_NET_IDLE_CONNECTION_TIMEOUT("http.net.idle.connection.timeout"),
     HTTP_NET_CONNECTION_TIMEOUT("http.net.connection.timeout"),
     HTTP_NET_QUEUED_CONNECTION_TIMEOUT("http.net.queued.connection.timeout"),
@@ -220,6 +249,7 @@ public enum PropertyKey {
     HTTP_TEXT_UTF8_SINK_SIZE("http.text.utf8.sink.size"),
     HTTP_SECURITY_READONLY("http.security.readonly"),
     HTTP_SECURITY_MAX_RESPONSE_ROWS("http.security.max.response.rows"),
+    HTTP_QUERY_PRIORITY("http.query.priority"),
     HTTP_SECURITY_INTERRUPT_ON_CLOSED_CONNECTION("http.security.interrupt.on.closed.connection"),
     HTTP_BIND_TO("http.bind.to"),
     HTTP_BUSY_RETRY_MAXIMUM_WAIT_BEFORE_RETRY("http.busy.retry.maximum.wait.before.retry"),
@@ -265,6 +295,8 @@ public enum PropertyKey {
     LINE_TCP_NET_ACTIVE_CONNECTION_LIMIT("line.tcp.net.active.connection.limit"),
     LINE_TCP_NET_CONNECTION_LIMIT("line.tcp.net.connection.limit"),
     LINE_TCP_NET_CONNECTION_HINT("line.tcp.net.connection.hint"),
+    LINE_TCP_NET_DISPATCHER_COUNT("line.tcp.net.dispatcher.count"),
+    LINE_TCP_NET_IO_URING_ENABLED("line.tcp.net.io.uring.enabled"),
     LINE_TCP_NET_BIND_TO("line.tcp.net.bind.to"),
     LINE_TCP_NET_IDLE_TIMEOUT("line.tcp.net.idle.timeout"),
     LINE_TCP_NET_CONNECTION_TIMEOUT("line.tcp.net.connection.timeout"),
@@ -281,12 +313,14 @@ public enum PropertyKey {
     LINE_TCP_WRITER_WORKER_AFFINITY("line.tcp.writer.worker.affinity"),
     LINE_TCP_WRITER_HALT_ON_ERROR("line.tcp.writer.halt.on.error"),
     LINE_TCP_WRITER_WORKER_YIELD_THRESHOLD("line.tcp.writer.worker.yield.threshold"),
+    LINE_TCP_WRITER_WORKER_BUSY_SPIN("line.tcp.writer.worker.busy.spin"),
     LINE_TCP_WRITER_WORKER_SLEEP_THRESHOLD("line.tcp.writer.worker.sleep.threshold"),
     LINE_TCP_SYMBOL_CACHE_WAIT_US_BEFORE_RELOAD("line.tcp.symbol.cache.wait.us.before.reload"),
     LINE_TCP_IO_WORKER_COUNT("line.tcp.io.worker.count"),
     LINE_TCP_IO_WORKER_AFFINITY("line.tcp.io.worker.affinity"),
     LINE_TCP_IO_HALT_ON_ERROR("line.tcp.io.halt.on.error"),
     LINE_TCP_IO_WORKER_YIELD_THRESHOLD("line.tcp.io.worker.yield.threshold"),
+    LINE_TCP_IO_WORKER_BUSY_SPIN("line.tcp.io.worker.busy.spin"),
     LINE_TCP_IO_WORKER_SLEEP_THRESHOLD("line.tcp.io.worker.sleep.threshold"),
     LINE_TCP_MAINTENANCE_JOB_INTERVAL("line.tcp.maintenance.job.interval"),
     LINE_TCP_COMMIT_INTERVAL_FRACTION("line.tcp.commit.interval.fraction"),
@@ -304,8 +338,11 @@ public enum PropertyKey {
     LINE_TCP_NET_IO_QUEUE_CAPACITY("line.tcp.net.io.queue.capacity"),
     LINE_TCP_IO_AGGRESIVE_RECV("line.tcp.io.aggressive.recv"),
     METRICS_ENABLED("metrics.enabled"),
+    METRICS_RENDER_INTERVAL("metrics.render.interval"),
     PG_ENABLED("pg.enabled"),
     PG_NET_CONNECTION_HINT("pg.net.connection.hint"),
+    PG_NET_DISPATCHER_COUNT("pg.net.dispatcher.count"),
+    PG_NET_IO_URING_ENABLED("pg.net.io.uring.enabled"),
     PG_NET_BIND_TO("pg.net.bind.to"),
     PG_NET_IDLE_TIMEOUT("pg.net.idle.timeout"),
     PG_NET_CONNECTION_TIMEOUT("pg.net.connection.timeout"),
@@ -323,9 +360,11 @@ public enum PropertyKey {
     PG_WORKER_AFFINITY("pg.worker.affinity"),
     PG_HALT_ON_ERROR("pg.halt.on.error"),
     PG_WORKER_YIELD_THRESHOLD("pg.worker.yield.threshold"),
+    PG_WORKER_BUSY_SPIN("pg.worker.busy.spin"),
     PG_WORKER_SLEEP_THRESHOLD("pg.worker.sleep.threshold"),
     PG_DAEMON_POOL("pg.daemon.pool"),
     PG_SELECT_CACHE_ENABLED("pg.select.cache.enabled"),
+    PG_QUERY_PRIORITY("pg.query.priority"),
     PG_NET_ACTIVE_CONNECTION_LIMIT("pg.net.active.connection.limit"),
     PG_NET_CONNECTION_LIMIT("pg.net.connection.limit"),
     PG_CHARACTER_STORE_CAPACITY("pg.character.store.capacity"),
@@ -350,6 +389,7 @@ public enum PropertyKey {
     SHARED_WORKER_SLEEP_THRESHOLD("shared.worker.sleep.threshold"),
     SHARED_WORKER_SLEEP_TIMEOUT("shared.worker.sleep.timeout"),
     SHARED_WORKER_YIELD_THRESHOLD("shared.worker.yield.threshold"),
+    SHARED_WORKER_BUSY_SPIN("shared.worker.busy.spin"),
     TELEMETRY_ENABLED("telemetry.enabled"),
     TELEMETRY_DISABLE_COMPLETELY("telemetry.disable.completely"),
     TELEMETRY_QUEUE_CAPACITY("telemetry.queue.capacity"),
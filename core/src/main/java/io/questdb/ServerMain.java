@@ -36,6 +36,7 @@ import io.questdb.cutlass.text.TextImportRequestJob;
 import io.questdb.griffin.DatabaseSnapshotAgent;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.FunctionFactoryCache;
+import io.questdb.griffin.RollupRefreshJob;
 import io.questdb.griffin.engine.groupby.vect.GroupByJob;
 import io.questdb.griffin.engine.table.AsyncFilterAtom;
 import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
@@ -243,6 +244,10 @@ public class ServerMain {
                 workerPool.freeOnHalt(textImportRequestJob);
             }
 
+            final RollupRefreshJob rollupRefreshJob = new RollupRefreshJob(cairoEngine, functionFactoryCache);
+            workerPool.assign(rollupRefreshJob);
+            workerPool.freeOnHalt(rollupRefreshJob);
+
             instancesToClean.add(createHttpServer(workerPool, log, cairoEngine, functionFactoryCache, snapshotAgent, metrics));
             instancesToClean.add(createMinHttpServer(workerPool, log, cairoEngine, functionFactoryCache, snapshotAgent, metrics));
 
@@ -48,13 +48,15 @@ public abstract class AbstractDataFrameCursorFactory implements DataFrameCursorF
     }
 
     protected TableReader getReader(SqlExecutionContext executionContext) throws SqlException {
-        return executionContext.getCairoEngine()
+        final TableReader reader = executionContext.getCairoEngine()
                 .getReader(
                         executionContext.getCairoSecurityContext(),
                         tableName,
                         tableId,
                         tableVersion
                 );
+        executionContext.onTableRead(tableName, reader.getMetadata().getId(), reader.getTxn());
+        return reader;
     }
 
     @Override
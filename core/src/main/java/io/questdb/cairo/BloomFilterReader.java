@@ -0,0 +1,104 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.QuietClosable;
+import io.questdb.std.str.LPSZ;
+
+public class BloomFilterReader implements QuietClosable {
+    private static final Log LOG = LogFactory.getLog(BloomFilterReader.class);
+    private final MemoryCMR mem = Vm.getCMRInstance();
+    private long bitsAddr;
+    private long bitMask;
+    private int hashCount;
+
+    @Override
+    public void close() {
+        mem.close();
+        bitsAddr = 0;
+    }
+
+    public boolean isOpen() {
+        return bitsAddr != 0;
+    }
+
+    /**
+     * Checks if value with the given hash could have been added to the filter.
+     *
+     * @param hash value hash as calculated by {@link BloomFilterUtils}
+     * @return false when value is definitely not in the partition
+     */
+    public boolean mightContain(long hash) {
+        assert isOpen();
+        return BloomFilterUtils.mightContain(bitsAddr, bitMask, hashCount, hash);
+    }
+
+    /**
+     * Opens filter file. Filter is rejected when it was built for different number of rows
+     * than partition has now, e.g. partition has been appended to since the filter was written.
+     *
+     * @param ff       files facade
+     * @param path     filter file name
+     * @param rowCount current row count of the partition
+     * @return true when filter is usable
+     */
+    public boolean of(FilesFacade ff, LPSZ path, long rowCount) {
+        close();
+        if (!ff.exists(path)) {
+            return false;
+        }
+        final long fileSize = ff.length(path);
+        if (fileSize < BloomFilterUtils.HEADER_SIZE + Long.BYTES) {
+            LOG.error().$("bloom filter file is too small [path=").utf8(path).$(", size=").$(fileSize).I$();
+            return false;
+        }
+        mem.of(ff, path, fileSize, fileSize, MemoryTag.MMAP_TABLE_READER);
+        final long bitMask = mem.getLong(BloomFilterUtils.HEADER_OFFSET_BIT_MASK);
+        final int hashCount = mem.getInt(BloomFilterUtils.HEADER_OFFSET_HASH_COUNT);
+        if (mem.getInt(BloomFilterUtils.HEADER_OFFSET_SIGNATURE) != BloomFilterUtils.SIGNATURE
+                || hashCount < 1
+                || hashCount > BloomFilterUtils.MAX_HASH_COUNT
+                || BloomFilterUtils.HEADER_SIZE + ((bitMask + 1) >>> 3) != fileSize) {
+            LOG.error().$("bloom filter file is corrupt [path=").utf8(path).I$();
+            mem.close();
+            return false;
+        }
+        if (mem.getLong(BloomFilterUtils.HEADER_OFFSET_ROW_COUNT) != rowCount) {
+            mem.close();
+            return false;
+        }
+        this.bitMask = bitMask;
+        this.hashCount = hashCount;
+        this.bitsAddr = mem.addressOf(BloomFilterUtils.HEADER_SIZE);
+        return true;
+    }
+}
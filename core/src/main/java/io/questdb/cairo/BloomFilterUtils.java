@@ -0,0 +1,132 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+
+import static io.questdb.cairo.TableUtils.COLUMN_NAME_TXN_NONE;
+
+/**
+ * Bloom filter file layout and hashing shared by {@link BloomFilterWriter} and {@link BloomFilterReader}.
+ * <p>
+ * Filter file is written per partition and per column. It starts with fixed size header followed
+ * by the bit set, which size is always a power of 2.
+ */
+public final class BloomFilterUtils {
+    static final long HEADER_OFFSET_SIGNATURE = 0;
+    static final long HEADER_OFFSET_HASH_COUNT = 4;
+    static final long HEADER_OFFSET_ROW_COUNT = 8;
+    static final long HEADER_OFFSET_BIT_MASK = 16;
+    static final long HEADER_SIZE = 32;
+    static final int SIGNATURE = 0x4246_5144;
+    static final int MAX_HASH_COUNT = 16;
+    static final long MIN_BIT_COUNT = 512;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private BloomFilterUtils() {
+    }
+
+    public static Path fileName(Path path, CharSequence name, long columnNameTxn) {
+        path.concat(name).put(".bf");
+        if (columnNameTxn > COLUMN_NAME_TXN_NONE) {
+            path.put('.').put(columnNameTxn);
+        }
+        return path.$();
+    }
+
+    public static long hash(CharSequence value) {
+        long h = FNV_OFFSET;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            h = (h ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return mix(h ^ value.length());
+    }
+
+    /**
+     * Hashes string value stored in column memory. Must produce the same result as {@link #hash(CharSequence)}.
+     *
+     * @param lo  address of the first char
+     * @param len number of chars
+     * @return hash of the value
+     */
+    public static long hash(long lo, int len) {
+        long h = FNV_OFFSET;
+        for (long p = lo, hi = lo + ((long) len << 1); p < hi; p += Character.BYTES) {
+            h = (h ^ Unsafe.getUnsafe().getChar(p)) * FNV_PRIME;
+        }
+        return mix(h ^ len);
+    }
+
+    public static long hash(int symbolKey) {
+        return mix(symbolKey);
+    }
+
+    public static boolean isSupportedColumnType(int columnType, boolean indexed) {
+        // indexed symbols already have a better way to find rows by value
+        return ColumnType.isString(columnType) || (ColumnType.isSymbol(columnType) && !indexed);
+    }
+
+    static void add(long bitsAddr, long bitMask, int hashCount, long hash) {
+        final long h2 = Long.rotateLeft(hash, 32) | 1;
+        long h = hash;
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = h & bitMask;
+            final long addr = bitsAddr + ((bit >>> 6) << 3);
+            Unsafe.getUnsafe().putLong(addr, Unsafe.getUnsafe().getLong(addr) | (1L << (bit & 63)));
+            h += h2;
+        }
+    }
+
+    static int hashCount(long bitCount, long valueCount) {
+        // optimal number of hash functions is (m/n)*ln(2)
+        final long k = Math.round((double) bitCount / Math.max(valueCount, 1) * 0.6931471805599453);
+        return (int) Math.max(1, Math.min(MAX_HASH_COUNT, k));
+    }
+
+    static boolean mightContain(long bitsAddr, long bitMask, int hashCount, long hash) {
+        final long h2 = Long.rotateLeft(hash, 32) | 1;
+        long h = hash;
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = h & bitMask;
+            if ((Unsafe.getUnsafe().getLong(bitsAddr + ((bit >>> 6) << 3)) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+            h += h2;
+        }
+        return true;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
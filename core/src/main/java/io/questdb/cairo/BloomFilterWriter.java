@@ -0,0 +1,187 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Builds Bloom filter of string or symbol column values in a partition. The filter is written
+ * into a temporary file first and then renamed, so that readers never observe partially written filter.
+ */
+public class BloomFilterWriter implements Closeable, Mutable {
+    private static final Log LOG = LogFactory.getLog(BloomFilterWriter.class);
+    private final FilesFacade ff;
+    private final int bitsPerValue;
+    private final long fileOpenOpts;
+    private final MemoryCMR fixMem = Vm.getCMRInstance();
+    private final MemoryCMR varMem = Vm.getCMRInstance();
+    private final Path other = new Path();
+    private long bufAddr;
+    private long bufSize;
+
+    public BloomFilterWriter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.bitsPerValue = configuration.getBloomFilterBitsPerValue();
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+    }
+
+    @Override
+    public void clear() {
+        // filters of large partitions take a lot of memory, we do not hold on to it between commits
+        if (bufAddr != 0) {
+            bufAddr = Unsafe.free(bufAddr, bufSize, MemoryTag.NATIVE_TABLE_WRITER);
+            bufSize = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(fixMem);
+        Misc.free(varMem);
+        Misc.free(other);
+    }
+
+    /**
+     * Writes Bloom filter file for the column.
+     *
+     * @param path          path to the partition directory, it is left unchanged when method exits
+     * @param columnName    name of the column
+     * @param columnNameTxn column name txn of the column files in this partition
+     * @param columnType    either STRING or SYMBOL
+     * @param columnTop     column top in the partition
+     * @param rowCount      partition row count
+     * @param symbolCount   number of distinct symbol values, ignored for strings
+     */
+    public void write(
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnType,
+            long columnTop,
+            long rowCount,
+            int symbolCount
+    ) {
+        final int plen = path.length();
+        final long columnRowCount = rowCount - columnTop;
+        try {
+            final long valueCount = ColumnType.isSymbol(columnType) ? Math.min(columnRowCount, symbolCount) : columnRowCount;
+            final long bitCount = Numbers.ceilPow2(Math.max(BloomFilterUtils.MIN_BIT_COUNT, valueCount * bitsPerValue));
+            final long bitMask = bitCount - 1;
+            final int hashCount = BloomFilterUtils.hashCount(bitCount, valueCount);
+            final long size = BloomFilterUtils.HEADER_SIZE + (bitCount >>> 3);
+            final long bitsAddr = allocate(size) + BloomFilterUtils.HEADER_SIZE;
+
+            if (columnRowCount > 0) {
+                if (ColumnType.isSymbol(columnType)) {
+                    addSymbols(path, columnName, columnNameTxn, columnRowCount, bitsAddr, bitMask, hashCount);
+                } else {
+                    addStrings(path, columnName, columnNameTxn, columnRowCount, bitsAddr, bitMask, hashCount);
+                }
+            }
+
+            Unsafe.getUnsafe().putInt(bufAddr + BloomFilterUtils.HEADER_OFFSET_SIGNATURE, BloomFilterUtils.SIGNATURE);
+            Unsafe.getUnsafe().putInt(bufAddr + BloomFilterUtils.HEADER_OFFSET_HASH_COUNT, hashCount);
+            Unsafe.getUnsafe().putLong(bufAddr + BloomFilterUtils.HEADER_OFFSET_ROW_COUNT, rowCount);
+            Unsafe.getUnsafe().putLong(bufAddr + BloomFilterUtils.HEADER_OFFSET_BIT_MASK, bitMask);
+
+            BloomFilterUtils.fileName(path.trimTo(plen), columnName, columnNameTxn);
+            other.of(path).chop$().put(".tmp").$();
+            writeFile(size);
+            if (ff.rename(other, path) != Files.FILES_RENAME_OK) {
+                throw CairoException.critical(ff.errno()).put("could not rename [from=").put(other).put(", to=").put(path).put(']');
+            }
+            LOG.debug().$("written bloom filter [path=").utf8(path)
+                    .$(", rowCount=").$(rowCount)
+                    .$(", bitCount=").$(bitCount)
+                    .$(", hashCount=").$(hashCount)
+                    .I$();
+        } finally {
+            fixMem.close();
+            varMem.close();
+            path.trimTo(plen);
+        }
+    }
+
+    private void addStrings(Path path, CharSequence columnName, long columnNameTxn, long columnRowCount, long bitsAddr, long bitMask, int hashCount) {
+        final int plen = path.length();
+        fixMem.of(ff, TableUtils.iFile(path.trimTo(plen), columnName, columnNameTxn), 0, (columnRowCount + 1) * Long.BYTES, MemoryTag.MMAP_TABLE_WRITER);
+        final long dataSize = fixMem.getLong(columnRowCount * Long.BYTES);
+        if (dataSize > 0) {
+            varMem.of(ff, TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn), 0, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+            final long lo = varMem.addressOf(0);
+            final long hi = lo + dataSize;
+            long p = lo;
+            while (p < hi) {
+                final int len = Unsafe.getUnsafe().getInt(p);
+                p += Integer.BYTES;
+                if (len > TableUtils.NULL_LEN) {
+                    BloomFilterUtils.add(bitsAddr, bitMask, hashCount, BloomFilterUtils.hash(p, len));
+                    p += (long) len << 1;
+                }
+            }
+        }
+    }
+
+    private void addSymbols(Path path, CharSequence columnName, long columnNameTxn, long columnRowCount, long bitsAddr, long bitMask, int hashCount) {
+        fixMem.of(ff, TableUtils.dFile(path, columnName, columnNameTxn), 0, columnRowCount * Integer.BYTES, MemoryTag.MMAP_TABLE_WRITER);
+        final long lo = fixMem.addressOf(0);
+        final long hi = lo + columnRowCount * Integer.BYTES;
+        for (long p = lo; p < hi; p += Integer.BYTES) {
+            final int key = Unsafe.getUnsafe().getInt(p);
+            if (key > -1) {
+                BloomFilterUtils.add(bitsAddr, bitMask, hashCount, BloomFilterUtils.hash(key));
+            }
+        }
+    }
+
+    private long allocate(long size) {
+        if (size > bufSize) {
+            bufAddr = Unsafe.realloc(bufAddr, bufSize, size, MemoryTag.NATIVE_TABLE_WRITER);
+            bufSize = size;
+        }
+        Vect.memset(bufAddr, size, 0);
+        return bufAddr;
+    }
+
+    private void writeFile(long size) {
+        final long fd = TableUtils.openRW(ff, other, LOG, fileOpenOpts);
+        try {
+            if (!ff.truncate(fd, size) || ff.write(fd, bufAddr, size, 0) != size) {
+                throw CairoException.critical(ff.errno()).put("could not write bloom filter [path=").put(other).put(']');
+            }
+        } finally {
+            ff.close(fd);
+        }
+    }
+}
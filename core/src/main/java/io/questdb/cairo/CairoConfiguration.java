@@ -71,6 +71,8 @@ public interface CairoConfiguration {
 
     int getBindVariablePoolSize();
 
+    int getBloomFilterBitsPerValue();
+
     BuildInformation getBuildInformation();
 
     SqlExecutionCircuitBreakerConfiguration getCircuitBreakerConfiguration();
@@ -214,6 +216,10 @@ public interface CairoConfiguration {
 
     int getQueryCacheEventQueueCapacity();
 
+    int getQueryLogCapacity();
+
+    int getQueryLogSqlTextMaxLength();
+
     default Rnd getRandom() {
         Rnd rnd = RANDOM.get();
         if (rnd == null) {
@@ -307,6 +313,8 @@ public interface CairoConfiguration {
 
     int getSqlHashJoinValuePageSize();
 
+    int getSqlHeavyQueryFrameCount();
+
     int getSqlJitBindVarsMemoryMaxPages();
 
     int getSqlJitBindVarsMemoryPageSize();
@@ -344,6 +352,8 @@ public interface CairoConfiguration {
 
     int getSqlMapPageSize();
 
+    int getSqlMaxConcurrentHeavyQueries();
+
     int getSqlMaxNegativeLimit();
 
     int getSqlModelPoolCapacity();
@@ -352,6 +362,22 @@ public interface CairoConfiguration {
 
     int getSqlPageFrameMinRows();
 
+    int getSqlPageFramePrefetchBufferCount();
+
+    int getSqlPageFramePrefetchBufferSize();
+
+    int getSqlPageFramePrefetchFrameCount();
+
+    int getSqlPlanCacheCapacity();
+
+    int getSqlPlanCachePoolCapacity();
+
+    long getSqlResultCacheEntryMaxSize();
+
+    long getSqlResultCacheMemorySize();
+
+    int getSqlResultCachePageSize();
+
     int getSqlSmallMapKeyCapacity();
 
     int getSqlSortKeyMaxPages();
@@ -366,6 +392,17 @@ public interface CairoConfiguration {
 
     int getSqlSortValuePageSize();
 
+    CharSequence getSqlSpillRoot(); // same as root/../spill
+
+    /**
+     * Size of memory, in bytes, that a query-scoped record chain keeps in RAM. Once the chain
+     * grows beyond it, the chain is moved to a memory-mapped temp file under {@link #getSqlSpillRoot()}.
+     * Zero disables spilling.
+     *
+     * @return spill threshold in bytes
+     */
+    long getSqlSpillThreshold();
+
     CharSequence getSystemTableNamePrefix();
 
     TelemetryConfiguration getTelemetryConfiguration();
@@ -374,6 +411,8 @@ public interface CairoConfiguration {
 
     int getTxnScoreboardEntryCount();
 
+    int getUpdateColumnQueueCapacity();
+
     int getVectorAggregateQueueCapacity();
 
     boolean getWallEnabledDefault();
@@ -394,12 +433,40 @@ public interface CairoConfiguration {
 
     int getWriterTickRowsCountMod();
 
+    /**
+     * Enables Bloom filters on STRING and non-indexed SYMBOL columns. Filters are written by
+     * table writer for every partition that stops being the last one and are used by equality
+     * and IN filters to skip partitions that do not contain the value.
+     *
+     * @return true when filters should be written and consulted
+     */
+    boolean isBloomFilterEnabled();
+
+    /**
+     * Enables engine-wide cache of read-only column mappings. Table readers share
+     * mappings of the same column file instead of mapping it each on their own.
+     *
+     * @return true when table readers should share column mappings
+     */
+    boolean isColumnMappingCacheEnabled();
+
     boolean isIOURingEnabled();
 
+    boolean isLatestByCacheEnabled();
+
     boolean isO3QuickSortEnabled();
 
     boolean isParallelIndexingEnabled();
 
+    /**
+     * A flag to enable/disable incremental snapshots. When enabled, SNAPSHOT PREPARE hard links
+     * immutable partitions and copies the active partition into the snapshot directory, so that
+     * the snapshot is self-contained. Defaults to {@code false}.
+     *
+     * @return enable/disable incremental snapshot flag
+     */
+    boolean isSnapshotIncrementalEnabled();
+
     /**
      * A flag to enable/disable snapshot recovery mechanism. Defaults to {@code true}.
      *
@@ -407,9 +474,20 @@ public interface CairoConfiguration {
      */
     boolean isSnapshotRecoveryEnabled();
 
+    boolean isSqlAsOfJoinIndexLookupEnabled();
+
     boolean isSqlJitDebugEnabled();
 
+    /**
+     * Returns true when column files backing upcoming page frames of parallel SQL
+     * queries should be read ahead of time.
+     */
+    boolean isSqlPageFramePrefetchEnabled();
+
     boolean isSqlParallelFilterEnabled();
 
     boolean isSqlParallelFilterPreTouchEnabled();
+    boolean isSqlParallelUpdateEnabled();
+    boolean isSqlPlanCacheEnabled();
+    boolean isSqlResultCacheEnabled();
 }
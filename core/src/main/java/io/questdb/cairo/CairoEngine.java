@@ -31,9 +31,14 @@ import io.questdb.cairo.mig.EngineMigration;
 import io.questdb.cairo.pool.*;
 import io.questdb.cairo.sql.AsyncWriterCommand;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
 import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cutlass.text.TextImportExecutionContext;
 import io.questdb.griffin.DatabaseSnapshotAgent;
+import io.questdb.griffin.QueryLog;
+import io.questdb.griffin.QueryPlanCache;
+import io.questdb.griffin.QueryResultCache;
+import io.questdb.griffin.RollupRegistry;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -42,6 +47,7 @@ import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
+import io.questdb.std.Unsafe;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.str.Path;
 import io.questdb.tasks.TelemetryTask;
@@ -60,6 +66,8 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
     private static final Log LOG = LogFactory.getLog(CairoEngine.class);
     private final WriterPool writerPool;
     private final ReaderPool readerPool;
+    private final ColumnMappingCache columnMappingCache;
+    private final LatestByCacheRegistry latestByCacheRegistry;
     private final CairoConfiguration configuration;
     private final Metrics metrics;
     private final EngineMaintenanceJob engineMaintenanceJob;
@@ -70,6 +78,12 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
     private final AtomicLong asyncCommandCorrelationId = new AtomicLong();
     private final IDGenerator tableIdGenerator;
     private final TableRegistry tableRegistry;
+    private final QueryPlanCache queryPlanCache;
+    private final QueryResultCache queryResultCache;
+    private final QueryLog queryLog;
+    private final RollupRegistry rollupRegistry;
+    // bumped after any table changes structure, is dropped or renamed
+    private final AtomicLong tableStructureEpoch = new AtomicLong();
 
     private final TextImportExecutionContext textImportExecutionContext;
     // Kept for embedded API purposes. The second constructor (the one with metrics)
@@ -84,9 +98,30 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         this.metrics = metrics;
         this.tableRegistry = new TableRegistry(this);
         this.messageBus = new MessageBusImpl(configuration);
-        this.writerPool = new WriterPool(configuration, messageBus, metrics);
-        this.readerPool = new ReaderPool(configuration, messageBus);
+        this.latestByCacheRegistry = configuration.isLatestByCacheEnabled() ? new LatestByCacheRegistry() : null;
+        this.writerPool = new WriterPool(configuration, messageBus, metrics, latestByCacheRegistry);
+        this.columnMappingCache = configuration.isColumnMappingCacheEnabled() ? new ColumnMappingCache() : null;
+        this.readerPool = new ReaderPool(configuration, messageBus, columnMappingCache);
+        this.queryPlanCache = configuration.isSqlPlanCacheEnabled() ? new QueryPlanCache(configuration, this) : null;
+        this.queryResultCache = configuration.isSqlResultCacheEnabled() ? new QueryResultCache(configuration, this) : null;
+        this.queryLog = configuration.getQueryLogCapacity() > 0 ? new QueryLog(configuration) : null;
+        this.rollupRegistry = new RollupRegistry(this);
+        this.writerPool.setCommitListener(new TableWriter.CommitListener() {
+            @Override
+            public void onCommit(CharSequence tableName, long txn) {
+                rollupRegistry.onCommit(tableName, txn);
+            }
+
+            @Override
+            public void onStructureChange(CharSequence tableName) {
+                tableStructureEpoch.incrementAndGet();
+            }
+        });
         this.engineMaintenanceJob = new EngineMaintenanceJob(configuration);
+        final SqlExecutionCircuitBreakerConfiguration circuitBreakerConfiguration = configuration.getCircuitBreakerConfiguration();
+        if (circuitBreakerConfiguration != null) {
+            Unsafe.setQueryMemLimit(circuitBreakerConfiguration.getGlobalQueryMemoryLimit());
+        }
         if (configuration.getTelemetryConfiguration().getEnabled()) {
             this.telemetryQueue = new RingQueue<>(TelemetryTask::new, configuration.getTelemetryConfiguration().getQueueCapacity());
             this.telemetryPubSeq = new MPSequence(telemetryQueue.getCycle());
@@ -118,11 +153,16 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
             close();
             throw e;
         }
+        rollupRegistry.reload();
     }
 
     @TestOnly
     public boolean clear() {
         tableRegistry.clear();
+        rollupRegistry.clear();
+        if (latestByCacheRegistry != null) {
+            latestByCacheRegistry.clear();
+        }
         boolean b1 = readerPool.releaseAll();
         boolean b2 = writerPool.releaseAll();
         return b1 & b2;
@@ -130,8 +170,12 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
 
     @Override
     public void close() {
+        Misc.free(queryPlanCache);
+        Misc.free(queryResultCache);
+        Misc.free(queryLog);
         Misc.free(writerPool);
         Misc.free(readerPool);
+        Misc.free(columnMappingCache);
         Misc.free(tableIdGenerator);
         Misc.free(messageBus);
         tableRegistry.close();
@@ -220,6 +264,11 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         return writerPool.getBusyCount();
     }
 
+    @Nullable
+    public ColumnMappingCache getColumnMappingCache() {
+        return columnMappingCache;
+    }
+
     public long getCommandCorrelationId() {
         return asyncCommandCorrelationId.incrementAndGet();
     }
@@ -232,6 +281,14 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         return engineMaintenanceJob;
     }
 
+    /**
+     * @return registry of writer-maintained LATEST BY caches or null when the caches are disabled
+     */
+    @Nullable
+    public LatestByCacheRegistry getLatestByCacheRegistry() {
+        return latestByCacheRegistry;
+    }
+
     public MessageBus getMessageBus() {
         return messageBus;
     }
@@ -240,6 +297,34 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         return metrics;
     }
 
+    /**
+     * @return shared cache of compiled SELECT statements or null when the cache is disabled
+     */
+    @Nullable
+    public QueryPlanCache getQueryPlanCache() {
+        return queryPlanCache;
+    }
+
+    /**
+     * @return log of recently completed queries or null when the log is disabled
+     */
+    @Nullable
+    public QueryLog getQueryLog() {
+        return queryLog;
+    }
+
+    /**
+     * @return cache of SELECT results or null when the cache is disabled
+     */
+    @Nullable
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
+    public RollupRegistry getRollupRegistry() {
+        return rollupRegistry;
+    }
+
     public PoolListener getPoolListener() {
         return this.writerPool.getPoolListener();
     }
@@ -248,6 +333,14 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         return tableIdGenerator;
     }
 
+    /**
+     * Returns counter of table structure changes, drops and renames. Caches of compiled queries
+     * need to re-check table versions only when the counter has moved.
+     */
+    public long getTableStructureEpoch() {
+        return tableStructureEpoch.get();
+    }
+
     public void setPoolListener(PoolListener poolListener) {
         this.writerPool.setPoolListener(poolListener);
         this.readerPool.setPoolListener(poolListener);
@@ -437,6 +530,7 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
                     LOG.error().$("remove failed [tableName='").utf8(tableName).$("', error=").$(errno).$(']').$();
                     throw CairoException.critical(errno).put("Table remove failed");
                 }
+                tableStructureEpoch.incrementAndGet();
                 return;
             } finally {
                 unlock(securityContext, tableName, null, false);
@@ -467,6 +561,7 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         if (null == lockedReason) {
             try {
                 rename0(path, tableName, otherPath, newName);
+                tableStructureEpoch.incrementAndGet();
             } finally {
                 unlock(securityContext, tableName, null, false);
             }
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.ConcurrentHashMap;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+/**
+ * Engine-wide cache of read-only column file mappings shared by table readers.
+ * <p>
+ * Mappings are keyed by table id and column file path, which includes partition name txn
+ * and column name txn. Each mapping is reference counted and unmapped as soon as the last
+ * reader releases it. When a reader needs more of the file than the current mapping
+ * covers, e.g. after the writer appended rows, or the file has been replaced, a new mapping
+ * is created for everyone that comes after. Readers still holding the old mapping keep using it until they release it,
+ * hence mapped addresses never change underneath a reader.
+ */
+public class ColumnMappingCache implements Closeable {
+    private static final Log LOG = LogFactory.getLog(ColumnMappingCache.class);
+    private final ConcurrentHashMap<Mapping> mappings = new ConcurrentHashMap<>();
+    private final StringSink keySink = new StringSink();
+    private final Path path = new Path();
+    private long mappingCount;
+
+    /**
+     * Acquires mapping of at least the given size. Returned mapping must be released
+     * via {@link #release(Mapping)}.
+     *
+     * @param ff       files facade
+     * @param tableId  id of the table the column belongs to
+     * @param fileName column file path
+     * @param size     minimum size of the mapping, must be positive
+     * @return shared mapping
+     */
+    public synchronized Mapping acquire(FilesFacade ff, int tableId, CharSequence fileName, long size) {
+        assert size > 0;
+        keySink.clear();
+        keySink.put(tableId).put(':').put(fileName);
+        final Mapping mapping = mappings.get(keySink);
+        if (mapping != null) {
+            // file could have been removed and created again under the same name,
+            // e.g. when partition is truncated, such mapping cannot be shared anymore
+            if (mapping.size >= size && ff.exists(mapping.fd)) {
+                mapping.refCount++;
+                return mapping;
+            }
+            // old mapping stays alive until released by its owners
+            final Mapping next = map(ff, mapping.key, fileName, size);
+            mapping.current = false;
+            mappings.put(mapping.key, next);
+            return next;
+        }
+        final Mapping next = map(ff, keySink.toString(), fileName, size);
+        mappings.put(next.key, next);
+        return next;
+    }
+
+    @Override
+    public synchronized void close() {
+        // readers should have released all mappings by now
+        if (mappings.size() > 0) {
+            LOG.error().$("closing column mapping cache with mappings in use [count=").$(mappings.size()).I$();
+        }
+        mappings.clear();
+        Misc.free(path);
+    }
+
+    /**
+     * @return number of live mappings, including superseded ones that are still in use
+     */
+    public synchronized long getMappingCount() {
+        return mappingCount;
+    }
+
+    public synchronized void release(Mapping mapping) {
+        assert mapping.refCount > 0;
+        if (--mapping.refCount == 0) {
+            if (mapping.current) {
+                mappings.remove(mapping.key);
+            }
+            mapping.ff.munmap(mapping.address, mapping.size, MemoryTag.MMAP_TABLE_READER);
+            mapping.ff.close(mapping.fd);
+            mappingCount--;
+            LOG.debug().$("unmapped [key=").$(mapping.key).$(", size=").$(mapping.size).I$();
+        }
+    }
+
+    private Mapping map(FilesFacade ff, String key, CharSequence fileName, long size) {
+        final long fd = TableUtils.openRO(ff, path.of(fileName).$(), LOG);
+        final long address;
+        try {
+            address = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_READER);
+        } catch (Throwable e) {
+            ff.close(fd);
+            throw e;
+        }
+        mappingCount++;
+        LOG.debug().$("mapped [key=").$(key).$(", fd=").$(fd).$(", size=").$(size).I$();
+        return new Mapping(ff, key, fd, address, size);
+    }
+
+    public static class Mapping {
+        private final FilesFacade ff;
+        private final String key;
+        private final long fd;
+        private final long address;
+        private final long size;
+        private int refCount = 1;
+        private boolean current = true;
+
+        private Mapping(FilesFacade ff, String key, long fd, long address, long size) {
+            this.ff = ff;
+            this.key = key;
+            this.fd = fd;
+            this.address = address;
+            this.size = size;
+        }
+
+        public long getAddress() {
+            return address;
+        }
+
+        public long getFd() {
+            return fd;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+}
@@ -280,6 +280,16 @@ public class ColumnPurgeOperator implements Closeable {
                         continue;
                     }
                 }
+
+                // Bloom filter may exist for string and symbol columns
+                if (ColumnType.isSymbolOrString(task.getColumnType())) {
+                    path.trimTo(pathTrimToPartition);
+                    BloomFilterUtils.fileName(path, task.getColumnName(), columnVersion);
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
+                }
                 completedRowIds.add(updateRowId);
             }
         } finally {
@@ -43,6 +43,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
     private final CharSequence root;
     private final CharSequence confRoot;
     private final CharSequence snapshotRoot;
+    private final CharSequence sqlSpillRoot;
 
     private final TextConfiguration textConfiguration;
     private final DefaultTelemetryConfiguration telemetryConfiguration = new DefaultTelemetryConfiguration();
@@ -58,6 +59,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         this.confRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.CONFIG_DIRECTORY);
         this.textConfiguration = new DefaultTextConfiguration(Chars.toString(confRoot));
         this.snapshotRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.SNAPSHOT_DIRECTORY);
+        this.sqlSpillRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.SPILL_DIRECTORY);
         Rnd rnd = new Rnd(NanosecondClockImpl.INSTANCE.getTicks(), MicrosecondClockImpl.INSTANCE.getTicks());
         this.databaseIdLo = rnd.nextLong();
         this.databaseIdHi = rnd.nextLong();
@@ -113,6 +115,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 8;
     }
 
+    @Override
+    public int getBloomFilterBitsPerValue() {
+        return 10;
+    }
+
     @Override
     public BuildInformation getBuildInformation() {
         return buildInformation;
@@ -178,6 +185,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 127;
     }
 
+    @Override
+    public int getQueryLogCapacity() {
+        return 1024;
+    }
+
+    @Override
+    public int getQueryLogSqlTextMaxLength() {
+        return 256;
+    }
+
     @Override
     public int getSqlCopyQueueCapacity() {
         return 32;
@@ -193,11 +210,91 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return "";
     }
 
+    @Override
+    public int getSqlHeavyQueryFrameCount() {
+        return 64;
+    }
+
+    @Override
+    public int getSqlMaxConcurrentHeavyQueries() {
+        return 0;
+    }
+
+    @Override
+    public int getSqlPageFramePrefetchBufferCount() {
+        return 16;
+    }
+
+    @Override
+    public int getSqlPageFramePrefetchBufferSize() {
+        return 256 * 1024;
+    }
+
+    @Override
+    public int getSqlPageFramePrefetchFrameCount() {
+        return 4;
+    }
+
+    @Override
+    public int getSqlPlanCacheCapacity() {
+        return 256;
+    }
+
+    @Override
+    public int getSqlPlanCachePoolCapacity() {
+        return 16;
+    }
+
+    @Override
+    public long getSqlResultCacheEntryMaxSize() {
+        return 4 * 1024 * 1024;
+    }
+
+    @Override
+    public long getSqlResultCacheMemorySize() {
+        return 64 * 1024 * 1024;
+    }
+
+    @Override
+    public int getSqlResultCachePageSize() {
+        return 64 * 1024;
+    }
+
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return sqlSpillRoot;
+    }
+
+    @Override
+    public long getSqlSpillThreshold() {
+        return 0;
+    }
+
     @Override
     public CharSequence getSystemTableNamePrefix() {
         return "__sys";
     }
 
+    @Override
+    public int getUpdateColumnQueueCapacity() {
+        return 64;
+    }
+
+    @Override
+    public boolean isColumnMappingCacheEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isLatestByCacheEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSnapshotIncrementalEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isSnapshotRecoveryEnabled() {
         return true;
@@ -418,6 +515,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public boolean isSqlAsOfJoinIndexLookupEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlPageFramePrefetchEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return true;
@@ -834,6 +941,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 4;
     }
 
+    @Override
+    public boolean isBloomFilterEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isIOURingEnabled() {
         return true;
@@ -843,4 +955,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
     public int getMaxCrashFiles() {
         return 1;
     }
+    @Override
+    public boolean isSqlParallelUpdateEnabled() {
+        return true;
+    }
+    @Override
+    public boolean isSqlPlanCacheEnabled() {
+        return false;
+    }
+    @Override
+    public boolean isSqlResultCacheEnabled() {
+        return false;
+    }
 }
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.Rows;
+import io.questdb.std.Unsafe;
+
+import java.util.Arrays;
+
+/**
+ * Location of the latest row for every key of a symbol column of a partitioned table,
+ * as of a single table transaction. The writer advances it on commits, re-resolving keys of the partitions
+ * rewritten by out-of-order merges, readers that had to scan the table publish their result, and any other
+ * change makes it stale until the next scan.
+ * <p>
+ * Readers do not lock; they copy row locations and re-check the version, which is odd
+ * while the cache is being modified.
+ */
+public class LatestByCache {
+    // partition timestamp and row within partition per key slot, slot 0 is the null key
+    private static final int ENTRY_SIZE = 2;
+    private final String columnName;
+    private volatile long version;
+    private long txn = -1;
+    private long[] entries = new long[16 * ENTRY_SIZE];
+    private int keyCount;
+
+    public LatestByCache(CharSequence columnName) {
+        this.columnName = columnName.toString();
+    }
+
+    public static int slotOf(int symbolKey) {
+        return symbolKey == SymbolTable.VALUE_IS_NULL ? 0 : symbolKey + 1;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public long getTxn() {
+        return txn;
+    }
+
+    public synchronized void invalidate() {
+        version++;
+        txn = -1;
+        version++;
+    }
+
+    /**
+     * Replaces cache content with the result of a table scan. Results older than the cache are ignored.
+     *
+     * @param txn  reader transaction the scan ran at
+     * @param rows triplets of key slot, partition timestamp and row within partition
+     */
+    public synchronized void publish(long txn, LongList rows) {
+        if (txn <= this.txn) {
+            return;
+        }
+        version++;
+        Arrays.fill(entries, 0, keyCount * ENTRY_SIZE, -1);
+        keyCount = 0;
+        put(rows);
+        this.txn = txn;
+        version++;
+    }
+
+    /**
+     * Appends row ids of the latest row of every key to the list and opens partitions they point to.
+     *
+     * @return false when the cache is not at the reader's transaction, or it changed while being read
+     */
+    public boolean read(TableReader reader, DirectLongList rows, long rowIdOffset) {
+        final long v = version;
+        if ((v & 1) != 0 || txn != reader.getTxn()) {
+            return false;
+        }
+        final long[] entries = this.entries;
+        final int n = Math.min(keyCount, entries.length / ENTRY_SIZE);
+        final long size = rows.size();
+        for (int i = 0; i < n; i++) {
+            final long row = entries[i * ENTRY_SIZE + 1];
+            if (row > -1) {
+                final long partitionTimestamp = entries[i * ENTRY_SIZE];
+                final int partitionIndex = reader.getPartitionIndexByTimestamp(partitionTimestamp);
+                if (
+                        partitionIndex < 0
+                                || reader.getPartitionTimestampByIndex(partitionIndex) != partitionTimestamp
+                                || reader.openPartition(partitionIndex) <= row
+                ) {
+                    rows.setPos(size);
+                    return false;
+                }
+                rows.add(Rows.toRowID(partitionIndex, row) + rowIdOffset);
+            }
+        }
+        Unsafe.getUnsafe().loadFence();
+        if (version != v) {
+            rows.setPos(size);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Applies latest rows of the keys changed by the transaction that moved the table from prevTxn to txn.
+     *
+     * @param slotRows partition timestamp and row within partition per key slot
+     * @param slots    key slots that have their entries set in slotRows
+     */
+    synchronized void apply(long prevTxn, long txn, LongList slotRows, IntList slots) {
+        if (this.txn != prevTxn || prevTxn == -1) {
+            return;
+        }
+        version++;
+        for (int i = 0, n = slots.size(); i < n; i++) {
+            final int slot = slots.getQuick(i);
+            put(slot, slotRows.getQuick(slot * ENTRY_SIZE), slotRows.getQuick(slot * ENTRY_SIZE + 1));
+        }
+        this.txn = txn;
+        version++;
+    }
+
+    private void put(LongList rows) {
+        for (int i = 0, n = rows.size(); i < n; i += 3) {
+            put((int) rows.getQuick(i), rows.getQuick(i + 1), rows.getQuick(i + 2));
+        }
+    }
+
+    private void put(int slot, long partitionTimestamp, long row) {
+        if (slot >= keyCount) {
+            final int required = (slot + 1) * ENTRY_SIZE;
+            if (required > entries.length) {
+                final long[] next = Arrays.copyOf(entries, Math.max(required, entries.length * 2));
+                Arrays.fill(next, entries.length, next.length, -1);
+                entries = next;
+            }
+            Arrays.fill(entries, keyCount * ENTRY_SIZE, required, -1);
+            keyCount = slot + 1;
+        }
+        entries[slot * ENTRY_SIZE] = partitionTimestamp;
+        entries[slot * ENTRY_SIZE + 1] = row;
+    }
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.Chars;
+import io.questdb.std.IntObjHashMap;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Per-table {@link LatestByCache} instances keyed by table id. A cache is created for the
+ * first symbol column a LATEST BY query asks for, writers pick it up on their next commit.
+ */
+public class LatestByCacheRegistry {
+    private final IntObjHashMap<LatestByCache> caches = new IntObjHashMap<>();
+    private volatile int version;
+
+    public synchronized void clear() {
+        caches.clear();
+        version++;
+    }
+
+    @Nullable
+    public synchronized LatestByCache get(int tableId) {
+        return caches.get(tableId);
+    }
+
+    /**
+     * @return cache of the given column or null when the table already caches another column
+     */
+    @Nullable
+    public synchronized LatestByCache getOrCreate(int tableId, CharSequence columnName) {
+        LatestByCache cache = caches.get(tableId);
+        if (cache == null) {
+            cache = new LatestByCache(columnName);
+            caches.put(tableId, cache);
+            version++;
+            return cache;
+        }
+        return Chars.equalsIgnoreCase(cache.getColumnName(), columnName) ? cache : null;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+}
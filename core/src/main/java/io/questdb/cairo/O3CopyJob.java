@@ -52,6 +52,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             int blockType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcDataFixFd,
             long srcDataFixAddr,
             long srcDataFixOffset,
@@ -125,6 +126,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                         columnType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         // this is a hack, when we have column top we can have only of the two:
                         // srcDataFixOffset, when we had to shift data to back-fill nulls or
                         // srcDataTopOffset - if we kept the column top
@@ -189,6 +191,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                 partCounter,
                 timestampMergeIndexAddr,
                 timestampMergeIndexSize,
+                dedupRowCount,
                 srcDataFixFd,
                 srcDataFixAddr,
                 srcDataFixSize,
@@ -229,6 +232,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
         final int blockType = task.getBlockType();
         final long timestampMergeIndexAddr = task.getTimestampMergeIndexAddr();
         final long timestampMergeIndexSize = task.getTimestampMergeIndexSize();
+        final long dedupRowCount = task.getDedupRowCount();
         final long srcDataFixFd = task.getSrcDataFixFd();
         final long srcDataFixAddr = task.getSrcDataFixAddr();
         final long srcDataFixOffset = task.getSrcDataFixOffset();
@@ -283,6 +287,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                 blockType,
                 timestampMergeIndexAddr,
                 timestampMergeIndexSize,
+                dedupRowCount,
                 srcDataFixFd,
                 srcDataFixAddr,
                 srcDataFixOffset,
@@ -335,6 +340,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             @Nullable AtomicInteger partCounter,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcDataFixFd,
             long srcDataFixAddr,
             long srcDataFixSize,
@@ -413,6 +419,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                 updatePartition(
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         srcDataMax,
                         srcOooMax,
                         srcOooPartitionLo,
@@ -433,6 +440,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
     private static void updatePartition(
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcDataMax,
             long srcOooMax,
             long srcOooPartitionLo,
@@ -460,6 +468,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                         partitionTimestamp,
                         srcOooMax,
                         srcDataMax,
+                        dedupRowCount,
                         partitionMutates,
                         tableWriter
                 );
@@ -699,6 +708,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             long partitionTimestamp,
             long srcOooMax,
             long srcDataMax,
+            long dedupRowCount,
             boolean partitionMutates,
             TableWriter tableWriter
     ) {
@@ -710,6 +720,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                     srcOooPartitionHi,
                     partitionTimestamp,
                     srcDataMax,
+                    dedupRowCount,
                     partitionMutates,
                     tableWriter
             );
@@ -723,6 +734,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                     partitionTimestamp,
                     srcOooMax,
                     srcDataMax,
+                    dedupRowCount,
                     partitionMutates,
                     tableWriter
             );
@@ -738,6 +750,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             long partitionTimestamp,
             long srcOooMax,
             long srcDataMax,
+            long dedupRowCount,
             boolean partitionMutates,
             TableWriter tableWriter
     ) {
@@ -752,6 +765,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                     srcOooPartitionHi,
                     partitionTimestamp,
                     srcDataMax,
+                    dedupRowCount,
                     partitionMutates,
                     tableWriter
             );
@@ -764,7 +778,8 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                     srcOooPartitionHi,
                     partitionMutates,
                     srcOooMax,
-                    srcDataMax
+                    srcDataMax,
+                    dedupRowCount
             );
         }
     }
@@ -775,6 +790,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             long srcOooPartitionHi,
             long partitionTimestamp,
             long srcDataMax,
+            long dedupRowCount,
             boolean partitionMutates,
             TableWriter tableWriter
     ) {
@@ -784,6 +800,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                 srcOooPartitionLo,
                 srcOooPartitionHi,
                 srcDataMax,
+                dedupRowCount,
                 partitionMutates
         );
         tableWriter.getO3PartitionUpdatePubSeq().done(cursor);
@@ -1051,6 +1068,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcDataFixAddr,
             long srcDataVarAddr,
             long srcDataLo,
@@ -1064,7 +1082,8 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             long dstVarOffset,
             long dstVarOffsetEnd
     ) {
-        final long rowCount = srcOooHi - srcOooLo + 1 + srcDataHi - srcDataLo + 1;
+        // rows superseded by dedup have been removed from the merge index
+        final long rowCount = srcOooHi - srcOooLo + 1 + srcDataHi - srcDataLo + 1 - dedupRowCount;
         switch (ColumnType.tagOf(columnType)) {
             case ColumnType.BOOLEAN:
             case ColumnType.BYTE:
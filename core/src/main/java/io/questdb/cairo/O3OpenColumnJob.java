@@ -212,6 +212,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         final int mergeType = task.getMergeType();
         final long timestampMergeIndexAddr = task.getTimestampMergeIndexAddr();
         final long timestampMergeIndexSize = task.getTimestampMergeIndexSize();
+        final long dedupRowCount = task.getDedupRowCount();
         final long activeFixFd = task.getActiveFixFd();
         final long activeVarFd = task.getActiveVarFd();
         final long srcDataTop = task.getSrcDataTop();
@@ -232,6 +233,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                 columnType,
                 timestampMergeIndexAddr,
                 timestampMergeIndexSize,
+                dedupRowCount,
                 srcOooFixAddr,
                 srcOooVarAddr,
                 srcOooLo,
@@ -279,6 +281,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcOooFixAddr,
             long srcOooVarAddr,
             long srcOooLo,
@@ -315,7 +318,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int columnIndex,
             long columnNameTxn
     ) {
-        final long mergeLen = mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1;
+        final long mergeLen = mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1 - dedupRowCount;
         final Path pathToPartition = Path.getThreadLocal(pathToTable);
         TableUtils.setPathForPartition(pathToPartition, tableWriter.getPartitionBy(), oooTimestampLo, false);
         final int pplen = pathToPartition.length();
@@ -362,6 +365,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         columnType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         srcOooFixAddr,
                         srcOooVarAddr,
                         srcOooLo,
@@ -407,6 +411,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         columnType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         srcOooFixAddr,
                         srcOooVarAddr,
                         srcOooLo,
@@ -755,6 +760,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                 0,
                 0,
                 0,
+                0,
                 srcOooLo,
                 srcOooHi,
                 srcDataTop << shl,
@@ -866,6 +872,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                 0,
                 0,
                 0,
+                0,
                 srcOooLo,
                 srcOooHi,
                 0, // designated timestamp column cannot be added after table is created
@@ -1003,6 +1010,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                 0,
                 0,
                 0,
+                0,
                 srcOooLo,
                 srcOooHi,
                 srcDataTop,
@@ -1049,6 +1057,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int blockType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcDataFixFd,
             long srcDataFixAddr,
             long srcDataFixOffset,
@@ -1103,6 +1112,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                     blockType,
                     timestampMergeIndexAddr,
                     timestampMergeIndexSize,
+                    dedupRowCount,
                     srcDataFixFd,
                     srcDataFixAddr,
                     srcDataFixOffset,
@@ -1158,6 +1168,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                     blockType,
                     timestampMergeIndexAddr,
                     timestampMergeIndexSize,
+                    dedupRowCount,
                     srcDataFixFd,
                     srcDataFixAddr,
                     srcDataFixOffset,
@@ -1214,6 +1225,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int blockType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcDataFixFd,
             long srcDataFixAddr,
             long srcDataFixOffset,
@@ -1271,6 +1283,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                     blockType,
                     timestampMergeIndexAddr,
                     timestampMergeIndexSize,
+                    dedupRowCount,
                     srcDataFixFd,
                     srcDataFixAddr,
                     srcDataFixOffset,
@@ -1324,6 +1337,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                     blockType,
                     timestampMergeIndexAddr,
                     timestampMergeIndexSize,
+                    dedupRowCount,
                     srcDataFixFd,
                     srcDataFixAddr,
                     srcDataFixOffset,
@@ -1380,6 +1394,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int blockType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcDataFixFd,
             long srcDataFixAddr,
             long srcDataFixOffset,
@@ -1434,6 +1449,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                 blockType,
                 timestampMergeIndexAddr,
                 timestampMergeIndexSize,
+                dedupRowCount,
                 srcDataFixFd,
                 srcDataFixAddr,
                 srcDataFixOffset,
@@ -1491,6 +1507,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcOooFixAddr,
             long srcOooVarAddr,
             long srcOooLo,
@@ -1538,6 +1555,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         columnType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         srcOooFixAddr,
                         srcOooVarAddr,
                         srcOooLo,
@@ -1582,6 +1600,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         columnType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         srcOooFixAddr,
                         srcOooVarAddr,
                         srcOooLo,
@@ -1629,6 +1648,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcOooFixAddr,
             long srcOooVarAddr,
             long srcOooLo,
@@ -1724,6 +1744,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         columnType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         srcOooFixAddr,
                         srcOooVarAddr,
                         srcOooLo,
@@ -1792,6 +1813,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         columnType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         srcOooFixAddr,
                         srcOooVarAddr,
                         srcOooLo,
@@ -1860,6 +1882,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcOooFixAddr,
             long srcOooVarAddr,
             long srcOooLo,
@@ -1943,7 +1966,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
 
             dFile(pathToPartition.trimTo(pDirNameLen), columnName, columnNameTxn);
             dstFixFd = openRW(ff, pathToPartition, LOG, tableWriter.getConfiguration().getWriterFileOpenOpts());
-            dstFixSize = ((srcOooHi - srcOooLo + 1) + srcDataMax - srcDataTop) << shl;
+            dstFixSize = ((srcOooHi - srcOooLo + 1) + srcDataMax - srcDataTop - dedupRowCount) << shl;
             dstFixAddr = mapRW(ff, dstFixFd, dstFixSize, MemoryTag.MMAP_O3);
 
             // when prefix is "data" we need to reduce it by "srcDataTop"
@@ -2009,6 +2032,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                 columnType,
                 timestampMergeIndexAddr,
                 timestampMergeIndexSize,
+                dedupRowCount,
                 srcDataFixFd,
                 srcDataFixAddr,
                 srcDataFixOffset,
@@ -2068,6 +2092,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcOooFixAddr,
             long srcOooVarAddr,
             long srcOooLo,
@@ -2241,7 +2266,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
 
             iFile(pathToPartition.trimTo(pDirNameLen), columnName, columnNameTxn);
             dstFixFd = openRW(ff, pathToPartition, LOG, tableWriter.getConfiguration().getWriterFileOpenOpts());
-            dstFixSize = (srcOooHi - srcOooLo + 1 + srcDataMax - srcDataTop + 1) * Long.BYTES;
+            dstFixSize = (srcOooHi - srcOooLo + 1 + srcDataMax - srcDataTop - dedupRowCount + 1) * Long.BYTES;
             dstFixAddr = mapRW(ff, dstFixFd, dstFixSize, MemoryTag.MMAP_O3);
 
             dFile(pathToPartition.trimTo(pDirNameLen), columnName, columnNameTxn);
@@ -2340,6 +2365,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                 columnType,
                 timestampMergeIndexAddr,
                 timestampMergeIndexSize,
+                dedupRowCount,
                 srcDataFixFd,
                 srcDataFixAddr,
                 srcDataFixOffset,
@@ -2480,6 +2506,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                 0,
                 0,
                 0,
+                0,
                 srcDataMax,
                 // this is new partition
                 srcOooFixAddr,
@@ -2523,6 +2550,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcDataFixFd,
             long srcDataFixAddr,
             long srcDataFixOffset,
@@ -2581,6 +2609,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         prefixType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         srcDataFixFd,
                         srcDataFixAddr,
                         srcDataFixOffset,
@@ -2635,6 +2664,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         prefixType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         srcDataFixFd,
                         srcDataFixAddr,
                         srcDataFixOffset,
@@ -2694,6 +2724,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         mergeType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         srcDataFixFd,
                         srcDataFixAddr,
                         srcDataFixOffset,
@@ -2746,6 +2777,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         mergeType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         srcDataFixFd,
                         srcDataFixAddr,
                         srcDataFixOffset,
@@ -2800,6 +2832,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         mergeType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         srcDataFixFd,
                         srcDataFixAddr,
                         srcDataFixOffset,
@@ -2859,6 +2892,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         suffixType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         srcDataFixFd,
                         srcDataFixAddr,
                         srcDataFixOffset,
@@ -2913,6 +2947,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         suffixType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
+                        dedupRowCount,
                         srcDataFixFd,
                         srcDataFixAddr,
                         srcDataFixOffset,
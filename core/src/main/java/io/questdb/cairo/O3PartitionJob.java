@@ -46,6 +46,7 @@ import static io.questdb.cairo.TableWriter.*;
 public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
 
     private static final Log LOG = LogFactory.getLog(O3PartitionJob.class);
+    private static final int DEDUP_KEY_ENTRY_BYTES = 8 * Long.BYTES;
 
     public O3PartitionJob(MessageBus messageBus) {
         super(messageBus.getO3PartitionQueue(), messageBus.getO3PartitionSubSeq());
@@ -76,8 +77,10 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
         // is out of order data hitting the last partition?
         // if so we do not need to re-open files and write to existing file descriptors
         final long o3TimestampLo = getTimestampIndexValue(sortedTimestampsAddr, srcOooLo);
-        final RecordMetadata metadata = tableWriter.getMetadata();
+        final TableWriterMetadata metadata = tableWriter.getMetadata();
         final int timestampIndex = metadata.getTimestampIndex();
+        // with deduplication rows sharing a timestamp with existing data must go through the merge
+        final boolean dedup = metadata.isDedupEnabled();
         final Path path = Path.getThreadLocal(pathToTable);
         TableUtils.setPathForPartition(path, partitionBy, o3TimestampLo, false);
         final int pplen = path.length();
@@ -222,7 +225,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     //   |      |  | OOO |
                     //   |      |  |     |
 
-                    if (o3TimestampLo >= dataTimestampHi) {
+                    if (o3TimestampLo > dataTimestampHi || (o3TimestampLo == dataTimestampHi && !dedup)) {
 
                         // +------+
                         // | data |
@@ -250,7 +253,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                         prefixLo = 0;
                         prefixHi = Vect.boundedBinarySearch64Bit(
                                 srcTimestampAddr,
-                                o3TimestampLo,
+                                dedup ? o3TimestampLo - 1 : o3TimestampLo,
                                 0,
                                 srcDataMax - 1,
                                 BinarySearch.SCAN_DOWN
@@ -270,7 +273,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                             mergeO3Hi = srcOooHi;
                             mergeDataHi = Vect.boundedBinarySearch64Bit(
                                     srcTimestampAddr,
-                                    o3TimestampMax - 1,
+                                    dedup ? o3TimestampMax : o3TimestampMax - 1,
                                     mergeDataLo,
                                     srcDataMax - 1,
                                     BinarySearch.SCAN_DOWN
@@ -307,7 +310,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                                     dataTimestampHi,
                                     srcOooLo,
                                     srcOooHi,
-                                    BinarySearch.SCAN_UP
+                                    dedup ? BinarySearch.SCAN_DOWN : BinarySearch.SCAN_UP
                             );
 
                             mergeDataHi = srcDataMax - 1;
@@ -342,7 +345,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
 
                     prefixType = O3_BLOCK_O3;
                     prefixLo = srcOooLo;
-                    if (dataTimestampLo < o3TimestampMax) {
+                    if (dataTimestampLo < o3TimestampMax || (dataTimestampLo == o3TimestampMax && dedup)) {
 
                         //
                         //  +------+  | OOO |
@@ -352,12 +355,18 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                         mergeDataLo = 0;
                         prefixHi = Vect.boundedBinarySearchIndexT(
                                 sortedTimestampsAddr,
-                                dataTimestampLo,
+                                dedup ? dataTimestampLo - 1 : dataTimestampLo,
                                 srcOooLo,
                                 srcOooHi,
                                 BinarySearch.SCAN_DOWN
                         );
                         mergeO3Lo = prefixHi + 1;
+                        if (prefixHi < prefixLo) {
+                            // all O3 rows collide with or follow the first data row
+                            prefixType = O3_BLOCK_NONE;
+                            prefixLo = 0;
+                            prefixHi = -1;
+                        }
 
                         if (o3TimestampMax < dataTimestampHi) {
 
@@ -394,7 +403,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                             mergeDataHi = srcDataMax - 1;
                             mergeO3Hi = Vect.boundedBinarySearchIndexT(
                                     sortedTimestampsAddr,
-                                    dataTimestampHi - 1,
+                                    dedup ? dataTimestampHi : dataTimestampHi - 1,
                                     mergeO3Lo,
                                     srcOooHi,
                                     BinarySearch.SCAN_DOWN
@@ -462,7 +471,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                         .$(", table=").$(pathToTable)
                         .I$();
 
-                if (prefixType == O3_BLOCK_NONE) {
+                if (prefixType == O3_BLOCK_NONE && mergeType == O3_BLOCK_NONE) {
                     // We do not need to create a copy of partition when we simply need to append
                     // existing the one.
                     openColumnMode = OPEN_MID_PARTITION_FOR_APPEND;
@@ -613,6 +622,127 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
         }
     }
 
+    /**
+     * Removes data rows from the merge index that are superseded by O3 rows with the same timestamp
+     * and dedup key values. O3 rows are already free of duplicates between themselves, so only
+     * data/O3 pairs within runs of equal timestamps have to be compared.
+     *
+     * @return number of data rows removed from the merge index
+     */
+    private static long dedupMergeIndex(
+            Path pathToTable,
+            TableWriter tableWriter,
+            ReadOnlyObjList<? extends MemoryCR> oooColumns,
+            long partitionTimestamp,
+            long srcDataTxn,
+            long srcDataMax,
+            boolean last,
+            long mergeIndexAddr,
+            long mergeRowCount
+    ) {
+        final TableWriterMetadata metadata = tableWriter.getMetadata();
+        final IntList keys = metadata.getDedupKeyIndexes();
+        final int keyCount = keys.size();
+        final FilesFacade ff = tableWriter.getFilesFacade();
+        // per key column: fd, address, mapped size, column top and a null value to compare with rows above the top
+        final long keyMemSize = (long) keyCount * DEDUP_KEY_ENTRY_BYTES;
+        final long keyMem = keyCount > 0 ? Unsafe.calloc(keyMemSize, MemoryTag.NATIVE_O3) : 0;
+        try {
+            if (keyCount > 0) {
+                final Path path = Path.getThreadLocal2(pathToTable);
+                TableUtils.setPathForPartition(path, tableWriter.getPartitionBy(), partitionTimestamp, false);
+                TableUtils.txnPartitionConditionally(path, srcDataTxn);
+                final int plen = path.length();
+                for (int k = 0; k < keyCount; k++) {
+                    final int columnIndex = keys.getQuick(k);
+                    final int columnType = metadata.getColumnType(columnIndex);
+                    final long keyEntry = keyMem + (long) k * DEDUP_KEY_ENTRY_BYTES;
+                    final long columnTop = last
+                            ? tableWriter.getColumnTop(columnIndex)
+                            : tableWriter.getColumnTop(partitionTimestamp, columnIndex, srcDataMax);
+                    Unsafe.getUnsafe().putLong(keyEntry + 3 * Long.BYTES, columnTop);
+                    TableUtils.setNull(columnType, keyEntry + 4 * Long.BYTES, 1);
+                    if (columnTop < srcDataMax) {
+                        dFile(path.trimTo(plen), metadata.getColumnName(columnIndex), tableWriter.getColumnNameTxn(partitionTimestamp, columnIndex));
+                        final long fd = TableUtils.openRO(ff, path, LOG);
+                        Unsafe.getUnsafe().putLong(keyEntry, fd);
+                        final long size = (srcDataMax - columnTop) * ColumnType.sizeOf(columnType);
+                        Unsafe.getUnsafe().putLong(keyEntry + Long.BYTES, TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_O3));
+                        Unsafe.getUnsafe().putLong(keyEntry + 2 * Long.BYTES, size);
+                    }
+                }
+            }
+
+            long keptCount = 0;
+            for (long i = 0; i < mergeRowCount; i++) {
+                final long entryAddr = mergeIndexAddr + i * TIMESTAMP_MERGE_ENTRY_BYTES;
+                final long timestamp = Unsafe.getUnsafe().getLong(entryAddr);
+                final long row = Unsafe.getUnsafe().getLong(entryAddr + Long.BYTES);
+                boolean superseded = false;
+                for (long j = keptCount - 1; j > -1; j--) {
+                    final long keptAddr = mergeIndexAddr + j * TIMESTAMP_MERGE_ENTRY_BYTES;
+                    if (Unsafe.getUnsafe().getLong(keptAddr) != timestamp) {
+                        break;
+                    }
+                    final long keptRow = Unsafe.getUnsafe().getLong(keptAddr + Long.BYTES);
+                    // data rows carry the sign bit, exactly one of the pair must come from data
+                    if ((keptRow ^ row) < 0) {
+                        final long dataRow = (row < 0 ? row : keptRow) & ~Long.MIN_VALUE;
+                        final long o3Row = row < 0 ? keptRow : row;
+                        if (dedupKeysEqual(metadata, keys, keyMem, oooColumns, dataRow, o3Row)) {
+                            // the O3 row is the newer write, it takes the slot of the data row
+                            Unsafe.getUnsafe().putLong(keptAddr + Long.BYTES, o3Row);
+                            superseded = true;
+                            break;
+                        }
+                    }
+                }
+                if (!superseded) {
+                    if (keptCount != i) {
+                        final long dstAddr = mergeIndexAddr + keptCount * TIMESTAMP_MERGE_ENTRY_BYTES;
+                        Unsafe.getUnsafe().putLong(dstAddr, timestamp);
+                        Unsafe.getUnsafe().putLong(dstAddr + Long.BYTES, row);
+                    }
+                    keptCount++;
+                }
+            }
+            return mergeRowCount - keptCount;
+        } finally {
+            for (int k = 0; k < keyCount; k++) {
+                final long keyEntry = keyMem + (long) k * DEDUP_KEY_ENTRY_BYTES;
+                O3Utils.unmap(ff, Unsafe.getUnsafe().getLong(keyEntry + Long.BYTES), Unsafe.getUnsafe().getLong(keyEntry + 2 * Long.BYTES));
+                O3Utils.close(ff, Unsafe.getUnsafe().getLong(keyEntry));
+            }
+            if (keyMem != 0) {
+                Unsafe.free(keyMem, keyMemSize, MemoryTag.NATIVE_O3);
+            }
+        }
+    }
+
+    private static boolean dedupKeysEqual(
+            TableWriterMetadata metadata,
+            IntList keys,
+            long keyMem,
+            ReadOnlyObjList<? extends MemoryCR> oooColumns,
+            long dataRow,
+            long o3Row
+    ) {
+        for (int k = 0, n = keys.size(); k < n; k++) {
+            final int columnIndex = keys.getQuick(k);
+            final int size = ColumnType.sizeOf(metadata.getColumnType(columnIndex));
+            final long keyEntry = keyMem + (long) k * DEDUP_KEY_ENTRY_BYTES;
+            final long columnTop = Unsafe.getUnsafe().getLong(keyEntry + 3 * Long.BYTES);
+            final long dataAddr = dataRow < columnTop
+                    ? keyEntry + 4 * Long.BYTES
+                    : Unsafe.getUnsafe().getLong(keyEntry + Long.BYTES) + (dataRow - columnTop) * size;
+            final long o3Addr = oooColumns.getQuick(getPrimaryColumnIndex(columnIndex)).addressOf(o3Row * size);
+            if (!O3Utils.fixedValueEquals(dataAddr, o3Addr, size)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static void publishOpenColumnTaskHarmonized(
             long cursor,
             int openColumnMode,
@@ -623,6 +753,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
             int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcOooFixAddr,
             long srcOooVarAddr,
             long srcOooLo,
@@ -669,6 +800,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                 columnType,
                 timestampMergeIndexAddr,
                 timestampMergeIndexSize,
+                dedupRowCount,
                 srcOooFixAddr,
                 srcOooVarAddr,
                 srcOooLo,
@@ -756,6 +888,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
 
         final long timestampMergeIndexAddr;
         final long timestampMergeIndexSize;
+        long dedupRowCount = 0;
         if (mergeType == O3_BLOCK_MERGE) {
             timestampMergeIndexSize = (mergeDataHi - mergeDataLo + 1) * TIMESTAMP_MERGE_ENTRY_BYTES;
             assert timestampMergeIndexSize > 0; // avoid SIGSEGV
@@ -769,6 +902,36 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     mergeOOOHi,
                     timestampMergeIndexSize
             );
+
+            if (tableWriter.getMetadata().isDedupEnabled()) {
+                try {
+                    dedupRowCount = dedupMergeIndex(
+                            pathToTable,
+                            tableWriter,
+                            oooColumns,
+                            partitionTimestamp,
+                            srcDataTxn,
+                            srcDataMax,
+                            openColumnMode == OPEN_LAST_PARTITION_FOR_MERGE,
+                            timestampMergeIndexAddr,
+                            mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1
+                    );
+                } catch (Throwable e) {
+                    LOG.error().$("merge dedup error [table=").$(tableWriter.getTableName())
+                            .$(", e=").$(e)
+                            .I$();
+                    tableWriter.o3BumpErrorCount();
+                    O3CopyJob.closeColumnIdleQuick(
+                            timestampMergeIndexAddr,
+                            timestampMergeIndexSize,
+                            srcTimestampFd,
+                            srcTimestampAddr,
+                            srcTimestampSize,
+                            tableWriter
+                    );
+                    throw e;
+                }
+            }
         } else {
             timestampMergeIndexAddr = 0;
             timestampMergeIndexSize = 0;
@@ -842,6 +1005,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                                 notTheTimestamp ? columnType : ColumnType.setDesignatedTimestampBit(columnType, true),
                                 timestampMergeIndexAddr,
                                 timestampMergeIndexSize,
+                                dedupRowCount,
                                 srcOooFixAddr,
                                 srcOooVarAddr,
                                 srcOooLo,
@@ -889,6 +1053,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                                 notTheTimestamp ? columnType : ColumnType.setDesignatedTimestampBit(columnType, true),
                                 timestampMergeIndexAddr,
                                 timestampMergeIndexSize,
+                                dedupRowCount,
                                 srcOooFixAddr,
                                 srcOooVarAddr,
                                 srcOooLo,
@@ -961,6 +1126,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
             int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcOooFixAddr,
             long srcOooVarAddr,
             long srcOooLo,
@@ -1012,6 +1178,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     columnType,
                     timestampMergeIndexAddr,
                     timestampMergeIndexSize,
+                    dedupRowCount,
                     srcOooFixAddr,
                     srcOooVarAddr,
                     srcOooLo,
@@ -1058,6 +1225,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     columnType,
                     timestampMergeIndexAddr,
                     timestampMergeIndexSize,
+                    dedupRowCount,
                     srcOooFixAddr,
                     srcOooVarAddr,
                     srcOooLo,
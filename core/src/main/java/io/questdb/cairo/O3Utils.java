@@ -29,6 +29,7 @@ import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
 import io.questdb.cairo.sql.async.PageFrameReduceJob;
 import io.questdb.griffin.FunctionFactoryCache;
 import io.questdb.griffin.SqlException;
+import io.questdb.griffin.UpdateColumnJob;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.Job;
@@ -58,6 +59,7 @@ public class O3Utils {
         workerPool.assign(new O3OpenColumnJob(messageBus));
         workerPool.assign(new O3CopyJob(messageBus));
         workerPool.assign(new O3CallbackJob(messageBus));
+        workerPool.assign(new UpdateColumnJob(messageBus));
         workerPool.freeOnHalt(purgeDiscoveryJob);
         workerPool.freeOnHalt(columnPurgeJob);
 
@@ -81,6 +83,24 @@ public class O3Utils {
         return findVarOffset(srcFixAddr, srcHi + 1) - findVarOffset(srcFixAddr, srcLo);
     }
 
+    static boolean fixedValueEquals(long addrA, long addrB, int size) {
+        switch (size) {
+            case Byte.BYTES:
+                return Unsafe.getUnsafe().getByte(addrA) == Unsafe.getUnsafe().getByte(addrB);
+            case Short.BYTES:
+                return Unsafe.getUnsafe().getShort(addrA) == Unsafe.getUnsafe().getShort(addrB);
+            case Integer.BYTES:
+                return Unsafe.getUnsafe().getInt(addrA) == Unsafe.getUnsafe().getInt(addrB);
+            default:
+                for (int i = 0; i < size; i += Long.BYTES) {
+                    if (Unsafe.getUnsafe().getLong(addrA + i) != Unsafe.getUnsafe().getLong(addrB + i)) {
+                        return false;
+                    }
+                }
+                return true;
+        }
+    }
+
     static long findVarOffset(long srcFixAddr, long srcLo) {
         return Unsafe.getUnsafe().getLong(srcFixAddr + srcLo * Long.BYTES);
     }
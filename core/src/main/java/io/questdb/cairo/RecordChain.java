@@ -50,7 +50,22 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
     private SymbolTableSource symbolTableResolver;
 
     public RecordChain(@Transient ColumnTypes columnTypes, RecordSink recordSink, long pageSize, int maxPages) {
-        this.mem = Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN);
+        this(columnTypes, recordSink, pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN);
+    }
+
+    public RecordChain(@Transient ColumnTypes columnTypes, RecordSink recordSink, long pageSize, int maxPages, int memoryTag) {
+        this(columnTypes, recordSink, Vm.getARWInstance(pageSize, maxPages, memoryTag));
+    }
+
+    /**
+     * Creates a chain that spills to disk once it grows beyond {@link CairoConfiguration#getSqlSpillThreshold()}.
+     */
+    public RecordChain(CairoConfiguration configuration, @Transient ColumnTypes columnTypes, RecordSink recordSink, long pageSize, int maxPages) {
+        this(columnTypes, recordSink, Vm.getSpillableARWInstance(configuration, pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN));
+    }
+
+    private RecordChain(@Transient ColumnTypes columnTypes, RecordSink recordSink, MemoryARW mem) {
+        this.mem = mem;
         this.recordSink = recordSink;
         int count = columnTypes.getColumnCount();
         long varOffset = 0L;
@@ -105,6 +120,13 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return addressOf(getOffsetOfColumn(recordOffset, columnIndex));
     }
 
+    /**
+     * @return number of bytes taken by records appended to the chain
+     */
+    public long getMemUsed() {
+        return varAppendOffset;
+    }
+
     public long getOffsetOfColumn(long recordOffset, int columnIndex) {
         return rowToDataOffset(recordOffset) + varOffset + columnOffsets[columnIndex];
     }
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.metrics.PrometheusFormatUtils;
+import io.questdb.metrics.Scrapable;
+import io.questdb.std.IntObjHashMap;
+import io.questdb.std.ObjList;
+import io.questdb.std.SimpleReadWriteLock;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
+import io.questdb.std.str.CharSink;
+
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Registry of per-table ingestion counters, see {@link TableIngestionStats}. A table is
+ * registered for as long as its writer is open. Counters are exposed via the
+ * table_ingestion_stats() function and, when metrics are enabled, via Prometheus with
+ * the table name as a label.
+ * <p>
+ * Tables are keyed by table id. Scrapes iterate a dense list of registered tables under
+ * a read lock, writers only take the write lock when they open or close.
+ */
+public class TableIngestionMetrics implements Scrapable {
+    private static final String LABEL_TABLE = "table";
+    private final IntObjHashMap<TableIngestionStats> statsByTableId = new IntObjHashMap<>();
+    private final ObjList<TableIngestionStats> stats = new ObjList<>();
+    private final ReadWriteLock lock = new SimpleReadWriteLock();
+    private final MicrosecondClock clock;
+
+    public TableIngestionMetrics() {
+        this(MicrosecondClockImpl.INSTANCE);
+    }
+
+    public TableIngestionMetrics(MicrosecondClock clock) {
+        this.clock = clock;
+    }
+
+    public void close(TableIngestionStats tableStats) {
+        if (tableStats != null) {
+            lock.writeLock().lock();
+            try {
+                final int index = statsByTableId.keyIndex(tableStats.getTableId());
+                if (index < 0 && statsByTableId.valueAt(index) == tableStats) {
+                    statsByTableId.removeAt(index);
+                    stats.remove(tableStats);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Collects counters of all tables that currently have an open writer.
+     */
+    public void getStats(ObjList<TableIngestionStats> sink) {
+        lock.readLock().lock();
+        try {
+            sink.addAll(stats);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public TableIngestionStats open(int tableId, CharSequence tableName) {
+        final TableIngestionStats tableStats = new TableIngestionStats(tableId, tableName);
+        lock.writeLock().lock();
+        try {
+            final int index = statsByTableId.keyIndex(tableId);
+            if (index < 0) {
+                // previous writer of this table id has not unregistered, newer writer wins
+                stats.remove(statsByTableId.valueAt(index));
+            }
+            statsByTableId.putAt(index, tableId, tableStats);
+            stats.add(tableStats);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return tableStats;
+    }
+
+    @Override
+    public void scrapeIntoPrometheus(CharSink sink) {
+        lock.readLock().lock();
+        try {
+            if (stats.size() > 0) {
+                scrape0(sink);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void scrape0(CharSink sink) {
+        final long now = clock.getTicks();
+        appendCounter(sink, "table_committed_rows", now, (s, t) -> s.getCommittedRows());
+        appendCounter(sink, "table_o3_rows", now, (s, t) -> s.getO3Rows());
+        appendCounter(sink, "table_physically_written_rows", now, (s, t) -> s.getPhysicallyWrittenRows());
+        appendCounter(sink, "table_ingested_bytes", now, (s, t) -> s.getBytes());
+        appendCounter(sink, "table_commits", now, (s, t) -> s.getCommits());
+        appendGauge(sink, "table_uncommitted_rows", now, (s, t) -> s.getUncommittedRows());
+        appendGauge(sink, "table_rows_per_second", now, TableIngestionStats::getRowsPerSecond);
+        appendGauge(sink, "table_bytes_per_second", now, TableIngestionStats::getBytesPerSecond);
+        appendGauge(sink, "table_last_commit_time_micros", now, (s, t) -> s.getLastCommitTimeMicros());
+        appendGauge(sink, "table_writer_thread", now, (s, t) -> s.getWriterThreadId());
+    }
+
+    private void appendCounter(CharSink sink, CharSequence name, long now, StatValue value) {
+        PrometheusFormatUtils.appendCounterType(name, sink);
+        for (int i = 0, n = stats.size(); i < n; i++) {
+            final TableIngestionStats tableStats = stats.getQuick(i);
+            PrometheusFormatUtils.appendCounterNamePrefix(name, sink);
+            appendSample(sink, tableStats, value.get(tableStats, now));
+        }
+        PrometheusFormatUtils.appendNewLine(sink);
+    }
+
+    private void appendGauge(CharSink sink, CharSequence name, long now, StatValue value) {
+        PrometheusFormatUtils.appendGaugeType(name, sink);
+        for (int i = 0, n = stats.size(); i < n; i++) {
+            final TableIngestionStats tableStats = stats.getQuick(i);
+            sink.put(PrometheusFormatUtils.METRIC_NAME_PREFIX).put(name);
+            appendSample(sink, tableStats, value.get(tableStats, now));
+        }
+        PrometheusFormatUtils.appendNewLine(sink);
+    }
+
+    private static void appendSample(CharSink sink, TableIngestionStats tableStats, long value) {
+        sink.put('{');
+        PrometheusFormatUtils.appendLabel(sink, LABEL_TABLE, tableStats.getTableName());
+        sink.put('}');
+        PrometheusFormatUtils.appendSampleLineSuffix(sink, value);
+    }
+
+    @FunctionalInterface
+    private interface StatValue {
+        long get(TableIngestionStats tableStats, long nowMicros);
+    }
+}
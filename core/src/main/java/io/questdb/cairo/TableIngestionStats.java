@@ -0,0 +1,178 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ingestion counters of a single table. Counters are updated by the thread that owns
+ * the table writer and read concurrently by queries and metric scrapes, so there is
+ * one writer at a time and plain volatile stores are enough to publish the values.
+ * The exception is physically written rows, which O3 partition jobs add from
+ * multiple threads.
+ * <p>
+ * Rates are calculated by the writer over windows of at least {@link #RATE_WINDOW_MICROS}
+ * as commits happen; a rate is reported as zero once the table has been idle for
+ * longer than two windows.
+ */
+@SuppressWarnings("NonAtomicOperationOnVolatileField")
+public class TableIngestionStats {
+    public static final long RATE_WINDOW_MICROS = 1_000_000;
+    private final int tableId;
+    private final String tableName;
+    private volatile long bytes;
+    private volatile long commitTimeMicros;
+    private volatile long commits;
+    private volatile long committedRows;
+    private volatile long lastCommitTimeMicros;
+    private volatile long o3Rows;
+    private final LongAdder physicallyWrittenRows = new LongAdder();
+    private volatile long uncommittedRows;
+    private volatile int writerThreadId = -1;
+    // rates as of the last completed window
+    private volatile long bytesPerSecond;
+    private volatile long rowsPerSecond;
+    private volatile long rateTimestamp;
+    private volatile long rateWindow;
+    // start of the current window, only accessed by the writer
+    private long windowStart = Long.MIN_VALUE;
+    private long windowStartBytes;
+    private long windowStartRows;
+
+    public TableIngestionStats(int tableId, CharSequence tableName) {
+        this.tableId = tableId;
+        this.tableName = tableName.toString();
+    }
+
+    public void addBytes(long bytes) {
+        this.bytes += bytes;
+    }
+
+    public void addO3Rows(long rows) {
+        o3Rows += rows;
+    }
+
+    public void addPhysicallyWrittenRows(long rows) {
+        physicallyWrittenRows.add(rows);
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getBytesPerSecond(long nowMicros) {
+        return isRateStale(nowMicros) ? 0 : bytesPerSecond;
+    }
+
+    /**
+     * @return average commit latency in microseconds
+     */
+    public long getCommitTimeAvgMicros() {
+        final long commits = this.commits;
+        return commits > 0 ? commitTimeMicros / commits : 0;
+    }
+
+    public long getCommits() {
+        return commits;
+    }
+
+    public long getCommittedRows() {
+        return committedRows;
+    }
+
+    public long getLastCommitTimeMicros() {
+        return lastCommitTimeMicros;
+    }
+
+    public long getO3Rows() {
+        return o3Rows;
+    }
+
+    public long getPhysicallyWrittenRows() {
+        return physicallyWrittenRows.sum();
+    }
+
+    public long getRowsPerSecond(long nowMicros) {
+        return isRateStale(nowMicros) ? 0 : rowsPerSecond;
+    }
+
+    public int getTableId() {
+        return tableId;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getUncommittedRows() {
+        return uncommittedRows;
+    }
+
+    /**
+     * @return ID of the ILP writer thread the table is assigned to or -1 when the table
+     * is not written via ILP
+     */
+    public int getWriterThreadId() {
+        return writerThreadId;
+    }
+
+    public void onCommit(long rows, long uncommittedRows, long latencyMicros, long nowMicros) {
+        committedRows += rows;
+        commits++;
+        commitTimeMicros += latencyMicros;
+        lastCommitTimeMicros = latencyMicros;
+        this.uncommittedRows = uncommittedRows;
+
+        if (windowStart == Long.MIN_VALUE) {
+            windowStart = nowMicros - latencyMicros;
+            windowStartBytes = 0;
+            windowStartRows = 0;
+        }
+        final long elapsed = nowMicros - windowStart;
+        if (elapsed >= RATE_WINDOW_MICROS) {
+            final long bytes = this.bytes;
+            final long committedRows = this.committedRows;
+            rowsPerSecond = (committedRows - windowStartRows) * 1_000_000 / elapsed;
+            bytesPerSecond = (bytes - windowStartBytes) * 1_000_000 / elapsed;
+            rateWindow = elapsed;
+            rateTimestamp = nowMicros;
+            windowStart = nowMicros;
+            windowStartBytes = bytes;
+            windowStartRows = committedRows;
+        }
+    }
+
+    public void setUncommittedRows(long uncommittedRows) {
+        this.uncommittedRows = uncommittedRows;
+    }
+
+    public void setWriterThreadId(int writerThreadId) {
+        this.writerThreadId = writerThreadId;
+    }
+
+    private boolean isRateStale(long nowMicros) {
+        return nowMicros - rateTimestamp > 2 * rateWindow;
+    }
+}
@@ -27,6 +27,7 @@ package io.questdb.cairo;
 import io.questdb.MessageBus;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.MemoryCMRSharedImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
@@ -69,6 +70,7 @@ public class TableReader implements Closeable, SymbolTableSource {
     private final MemoryMR todoMem = Vm.getMRInstance();
     private final TxnScoreboard txnScoreboard;
     private final ColumnVersionReader columnVersionReader;
+    private final ColumnMappingCache columnMappingCache;
     private int partitionCount;
     private LongList columnTops;
     private ObjList<MemoryMR> columns;
@@ -86,7 +88,17 @@ public class TableReader implements Closeable, SymbolTableSource {
     }
 
     public TableReader(CairoConfiguration configuration, CharSequence tableName, @Nullable MessageBus messageBus) {
+        this(configuration, tableName, messageBus, null);
+    }
+
+    public TableReader(
+            CairoConfiguration configuration,
+            CharSequence tableName,
+            @Nullable MessageBus messageBus,
+            @Nullable ColumnMappingCache columnMappingCache
+    ) {
         this.configuration = configuration;
+        this.columnMappingCache = columnMappingCache;
         this.clock = configuration.getMillisecondClock();
         this.ff = configuration.getFilesFacade();
         this.tableName = Chars.toString(tableName);
@@ -215,6 +227,40 @@ public class TableReader implements Closeable, SymbolTableSource {
         return createBitmapIndexReaderAt(index, columnBase, columnIndex, columnNameTxn, direction, txFile.getPartitionNameTxn(partitionIndex));
     }
 
+    /**
+     * Opens Bloom filter of the column in the given partition. Filters are only maintained for
+     * partitions, which are no longer last, hence the last partition never has a usable filter.
+     *
+     * @param partitionIndex index of partition
+     * @param columnIndex    reader index of the column
+     * @param filter         filter instance to be opened
+     * @return true when filter is open and up-to-date with partition data, false otherwise
+     */
+    public boolean openBloomFilter(int partitionIndex, int columnIndex, BloomFilterReader filter) {
+        if (partitionIndex >= partitionCount - 1) {
+            return false;
+        }
+        final long partitionSize = openPartition(partitionIndex);
+        if (partitionSize < 1) {
+            return false;
+        }
+        final int offset = partitionIndex * PARTITIONS_SLOT_SIZE;
+        final long partitionTimestamp = openPartitionInfo.getQuick(offset);
+        final long partitionNameTxn = openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN);
+        final int writerIndex = metadata.getWriterIndex(columnIndex);
+        if (columnVersionReader.getColumnTop(partitionTimestamp, writerIndex) < 0) {
+            return false;
+        }
+        final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, writerIndex);
+        try {
+            pathGenPartitioned(partitionIndex);
+            TableUtils.txnPartitionConditionally(path, partitionNameTxn);
+            return filter.of(ff, BloomFilterUtils.fileName(path, metadata.getColumnName(columnIndex), columnNameTxn), partitionSize);
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     public MemoryR getColumn(int absoluteIndex) {
         return columns.getQuick(absoluteIndex);
     }
@@ -784,7 +830,12 @@ public class TableReader implements Closeable, SymbolTableSource {
         if (mem != null && mem != NullMemoryMR.INSTANCE) {
             mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
         } else {
-            mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER);
+            if (columnMappingCache != null) {
+                mem = new MemoryCMRSharedImpl(columnMappingCache, metadata.getId());
+                mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
+            } else {
+                mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER);
+            }
             columns.setQuick(primaryIndex, mem);
         }
         return mem;
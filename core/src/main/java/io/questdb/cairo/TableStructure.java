@@ -53,5 +53,9 @@ public interface TableStructure {
 
     boolean isIndexed(int columnIndex);
 
+    default boolean isDedupKey(int columnIndex) {
+        return false;
+    }
+
     boolean isSequential(int columnIndex);
 }
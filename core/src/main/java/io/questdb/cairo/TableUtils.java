@@ -63,6 +63,10 @@ public final class TableUtils {
     public static final String TAB_INDEX_FILE_NAME = "_tab_index.d";
     public static final String WAL_INDEX_FILE_NAME = "_wal_index.d";
     public static final String SNAPSHOT_META_FILE_NAME = "_snapshot";
+    public static final String SNAPSHOT_MANIFEST_FILE_NAME = "_manifest";
+    public static final long SNAPSHOT_MANIFEST_OFFSET_TABLE_ID = 4;
+    public static final long SNAPSHOT_MANIFEST_OFFSET_TRUNCATE_VERSION = 8;
+    public static final long SNAPSHOT_MANIFEST_OFFSET_ENTRIES = 16;
     public static final int INITIAL_TXN = 0;
     public static final int NULL_LEN = -1;
     public static final int ANY_TABLE_ID = -1;
@@ -144,6 +148,7 @@ public final class TableUtils {
     static final int META_FLAG_BIT_NOT_INDEXED = 0;
     static final int META_FLAG_BIT_INDEXED = 1;
     static final int META_FLAG_BIT_SEQUENTIAL = 1 << 1;
+    static final int META_FLAG_BIT_DEDUP_KEY = 1 << 2;
     static final String TODO_FILE_NAME = "_todo_";
     private static final int MIN_SYMBOL_CAPACITY = 2;
     private static final int MAX_SYMBOL_CAPACITY = Numbers.ceilPow2(Integer.MAX_VALUE);
@@ -275,6 +280,10 @@ public final class TableUtils {
                     flags |= META_FLAG_BIT_SEQUENTIAL;
                 }
 
+                if (structure.isDedupKey(i)) {
+                    flags |= META_FLAG_BIT_DEDUP_KEY;
+                }
+
                 mem.putLong(flags);
                 mem.putInt(structure.getIndexBlockCapacity(i));
                 mem.putLong(structure.getColumnHash(i));
@@ -1251,6 +1260,10 @@ public final class TableUtils {
         return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_INDEXED) != 0;
     }
 
+    static boolean isDedupKey(MemoryR metaMem, int columnIndex) {
+        return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_DEDUP_KEY) != 0;
+    }
+
     static boolean isSequential(MemoryR metaMem, int columnIndex) {
         return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_SEQUENTIAL) != 0;
     }
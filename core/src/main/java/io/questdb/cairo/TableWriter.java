@@ -46,6 +46,7 @@ import io.questdb.log.LogRecord;
 import io.questdb.mp.*;
 import io.questdb.std.*;
 import io.questdb.std.datetime.DateFormat;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
@@ -149,12 +150,18 @@ public class TableWriter implements Closeable {
     private final AlterOperation alterTableStatement = new AlterOperation();
     private final ColumnVersionWriter columnVersionWriter;
     private final Metrics metrics;
+    private final TableIngestionStats ingestionStats;
+    private final MicrosecondClock microClock;
     private final RingQueue<TableWriterTask> commandQueue;
     private final SCSequence commandSubSeq;
     private final MPSequence commandPubSeq;
     private final WeakClosableObjectPool<MemoryCMOR> walColumnMemoryPool;
     private final ObjList<MemoryCMOR> walMappedColumns = new ObjList<>();
     private final IntList symbolRewriteMap = new IntList();
+    // timestamps of partitions, which Bloom filters have to be (re)built after commit
+    private final LongList bloomFilterPartitions = new LongList();
+    private final BloomFilterWriter bloomFilterWriter;
+    private long bloomFilterLastPartitionTimestamp;
     private MemoryCMR attachMetaMem;
     private TableWriterMetadata attachMetadata;
     private ColumnVersionReader attachColumnVersionReader;
@@ -195,6 +202,8 @@ public class TableWriter implements Closeable {
     private LifecycleManager lifecycleManager;
     private String designatedTimestampColumnName;
     private long o3RowCount;
+    private long o3DedupRowCount;
+    private long o3DedupLastPartitionRowCount;
     private final O3ColumnUpdateMethod o3MoveUncommittedRef = this::o3MoveUncommitted0;
     private long lastPartitionTimestamp;
     private boolean o3InError = false;
@@ -209,6 +218,19 @@ public class TableWriter implements Closeable {
     private long commitInterval;
     private UpdateOperator updateOperator;
     private DropIndexOperator dropIndexOperator;
+    // LATEST BY cache maintenance, column index is -1 when the table has no cache
+    private final LatestByCacheRegistry latestByCacheRegistry;
+    // latest row per key slot of the pending transaction, as partition timestamp and row within partition
+    private final LongList latestByRows = new LongList();
+    // key slots that have rows in the pending transaction
+    private final IntList latestBySlots = new IntList();
+    private LatestByCache latestByCache;
+    private CommitListener commitListener;
+    private long latestByO3TimestampMin;
+    private int latestByColumnIndex = -1;
+    private int latestByRegistryVersion = -1;
+    private int latestByKey;
+    private long latestByKeyRef = -1;
 
 
     public TableWriter(
@@ -220,10 +242,26 @@ public class TableWriter implements Closeable {
             LifecycleManager lifecycleManager,
             CharSequence root,
             Metrics metrics
+    ) {
+        this(configuration, tableName, messageBus, ownMessageBus, lock, lifecycleManager, root, metrics, null);
+    }
+
+    public TableWriter(
+            CairoConfiguration configuration,
+            CharSequence tableName,
+            MessageBus messageBus,
+            MessageBus ownMessageBus,
+            boolean lock,
+            LifecycleManager lifecycleManager,
+            CharSequence root,
+            Metrics metrics,
+            @Nullable LatestByCacheRegistry latestByCacheRegistry
     ) {
         LOG.info().$("open '").utf8(tableName).$('\'').$();
         this.configuration = configuration;
         this.metrics = metrics;
+        this.microClock = configuration.getMicrosecondClock();
+        this.latestByCacheRegistry = latestByCacheRegistry;
         this.ownMessageBus = ownMessageBus;
         if (ownMessageBus != null) {
             this.messageBus = ownMessageBus;
@@ -238,6 +276,7 @@ public class TableWriter implements Closeable {
         this.fileOperationRetryCount = configuration.getFileOperationRetryCount();
         this.tableName = Chars.toString(tableName);
         this.o3QuickSortEnabled = configuration.isO3QuickSortEnabled();
+        this.bloomFilterWriter = configuration.isBloomFilterEnabled() ? new BloomFilterWriter(configuration) : null;
         this.o3PartitionUpdateQueue = new RingQueue<>(O3PartitionUpdateTask.CONSTRUCTOR, configuration.getO3PartitionUpdateQueueCapacity());
         this.o3PartitionUpdatePubSeq = new MPSequence(this.o3PartitionUpdateQueue.getCycle());
         this.o3PartitionUpdateSubSeq = new SCSequence();
@@ -312,6 +351,7 @@ public class TableWriter implements Closeable {
                 partitionDirFmt = null;
             }
             this.commitInterval = calculateCommitInterval();
+            this.bloomFilterLastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
 
             configureColumnMemory();
             configureTimestampSetter();
@@ -330,6 +370,8 @@ public class TableWriter implements Closeable {
             commandPubSeq = new MPSequence(commandQueue.getCycle());
             commandPubSeq.then(commandSubSeq).then(commandPubSeq);
             walColumnMemoryPool = new WeakClosableObjectPool<>(GET_MEMORY_CMOR, columnCount);
+            attachLatestByCache();
+            this.ingestionStats = metrics.tableIngestion().open(metadata.getId(), this.tableName);
         } catch (Throwable e) {
             doClose(false);
             throw e;
@@ -581,6 +623,7 @@ public class TableWriter implements Closeable {
 
     public void addPhysicallyWrittenRows(long rows) {
         metrics.tableWriter().addPhysicallyWrittenRows(rows);
+        ingestionStats.addPhysicallyWrittenRows(rows);
     }
 
     public AttachDetachStatus attachPartition(long timestamp) {
@@ -702,6 +745,7 @@ public class TableWriter implements Closeable {
             columnVersionWriter.commit();
             txWriter.setColumnVersion(columnVersionWriter.getVersion());
             txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+            notifyCommitListener();
 
             LOG.info().$("partition attached [table=").$(tableName)
                     .$(", partition=").$ts(timestamp).I$();
@@ -913,6 +957,7 @@ public class TableWriter implements Closeable {
 
                 txWriter.setColumnVersion(columnVersionWriter.getVersion());
                 txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+                notifyCommitListener();
                 // return at the end of the method after removing partition directory
             } else {
                 // rollback detached copy
@@ -1115,6 +1160,10 @@ public class TableWriter implements Closeable {
         return txnScoreboard;
     }
 
+    public TableIngestionStats getIngestionStats() {
+        return ingestionStats;
+    }
+
     public long getUncommittedRowCount() {
         return (masterRef - committedMasterRef) >> 1;
     }
@@ -1153,8 +1202,11 @@ public class TableWriter implements Closeable {
 
             default: // switch partition
                 bumpMasterRef();
-                if (timestamp > partitionTimestampHi || timestamp < txWriter.getMaxTimestamp()) {
-                    if (timestamp < txWriter.getMaxTimestamp()) {
+                final long maxTimestamp = txWriter.getMaxTimestamp();
+                if (timestamp > partitionTimestampHi || timestamp <= maxTimestamp) {
+                    // deduplicated tables send rows matching the max timestamp through
+                    // O3 merge, where they can replace their committed counterparts
+                    if (timestamp < maxTimestamp || (timestamp == maxTimestamp && metadata.isDedupEnabled())) {
                         return newRowO3(timestamp);
                     }
 
@@ -1321,6 +1373,7 @@ public class TableWriter implements Closeable {
             throw CairoException.critical(0).put("cannot process WAL while in transaction");
         }
 
+        final long commitStart = microClock.getTicks();
         txWriter.beginPartitionSizeUpdate();
         if (processO3Block(
                 walPath,
@@ -1343,6 +1396,7 @@ public class TableWriter implements Closeable {
         columnVersionWriter.commit();
         txWriter.setColumnVersion(columnVersionWriter.getVersion());
         txWriter.commit(defaultCommitMode, this.denseSymbolMapWriters);
+        notifyCommitListener();
 
         // Bookmark masterRef to track how many rows is in uncommitted state
         this.committedMasterRef = masterRef;
@@ -1350,6 +1404,11 @@ public class TableWriter implements Closeable {
 
         metrics.tableWriter().incrementCommits();
         metrics.tableWriter().addCommittedRows(rowsAdded);
+        if (!inOrder) {
+            ingestionStats.addO3Rows(rowHi - rowLo);
+        }
+        final long commitEnd = microClock.getTicks();
+        ingestionStats.onCommit(rowsAdded, 0, commitEnd - commitStart, commitEnd);
     }
 
     public void publishAsyncWriterCommand(AsyncWriterCommand asyncWriterCommand) {
@@ -1366,6 +1425,16 @@ public class TableWriter implements Closeable {
         }
     }
 
+    /**
+     * Picks up LATEST BY cache of this table created since the writer last checked. Rows are tracked
+     * from the start of a transaction, so the cache is attached only when there are no pending rows.
+     */
+    public void refreshLatestByCache() {
+        if (latestByCacheRegistry != null && latestByRegistryVersion != latestByCacheRegistry.getVersion() && !inTransaction()) {
+            attachLatestByCache();
+        }
+    }
+
     public void removeColumn(CharSequence name) {
         checkDistressed();
         checkColumnName(name);
@@ -1434,6 +1503,7 @@ public class TableWriter implements Closeable {
         }
 
         LOG.info().$("REMOVED column '").utf8(name).$("' from ").$(path).$();
+        attachLatestByCache();
     }
 
     public boolean removePartition(long timestamp) {
@@ -1488,6 +1558,7 @@ public class TableWriter implements Closeable {
         columnVersionWriter.commit();
         txWriter.setColumnVersion(columnVersionWriter.getVersion());
         txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+        notifyCommitListener();
 
         // Call O3 methods to remove check TxnScoreboard and remove partition directly
         safeDeletePartitionDir(timestamp, partitionNameTxn);
@@ -1544,6 +1615,7 @@ public class TableWriter implements Closeable {
         }
 
         LOG.info().$("RENAMED column '").utf8(currentName).$("' to '").utf8(newName).$("' from ").$(path).$();
+        attachLatestByCache();
     }
 
     public TableSyncModel replCreateTableSyncModel(long slaveTxAddress, long slaveTxDataSize, long slaveMetaData, long slaveMetaDataSize) {
@@ -1693,6 +1765,7 @@ public class TableWriter implements Closeable {
                 }
                 freeColumns(false);
                 this.txWriter.unsafeLoadAll();
+                bloomFilterPartitions.clear();
                 rollbackIndexes();
                 rollbackSymbolTables();
                 columnVersionWriter.readUnsafe();
@@ -1701,6 +1774,7 @@ public class TableWriter implements Closeable {
                 o3InError = false;
                 // when we rolled transaction back, hasO3() has to be false
                 o3MasterRef = -1;
+                clearLatestByRows();
                 LOG.info().$("tx rollback complete [name=").$(tableName).I$();
                 processCommandQueue(false);
                 metrics.tableWriter().incrementRollbacks();
@@ -1715,6 +1789,10 @@ public class TableWriter implements Closeable {
         columnVersionWriter.readUnsafe();
     }
 
+    public void setCommitListener(@Nullable CommitListener commitListener) {
+        this.commitListener = commitListener;
+    }
+
     public void setExtensionListener(ExtensionListener listener) {
         txWriter.setExtensionListener(listener);
     }
@@ -1857,6 +1935,7 @@ public class TableWriter implements Closeable {
         txWriter.resetTimestamp();
         columnVersionWriter.truncate(PartitionBy.isPartitioned(partitionBy));
         txWriter.truncate(columnVersionWriter.getVersion());
+        notifyCommitListener();
         row = regularRow;
         try {
             clearTodoLog();
@@ -1876,6 +1955,9 @@ public class TableWriter implements Closeable {
     public void upsertColumnVersion(long partitionTimestamp, int columnIndex, long columnTop) {
         columnVersionWriter.upsert(partitionTimestamp, columnIndex, txWriter.txn, columnTop);
         txWriter.updatePartitionColumnVersion(partitionTimestamp);
+        if (bloomFilterWriter != null) {
+            bloomFilterPartitions.add(partitionTimestamp);
+        }
     }
 
     /**
@@ -2314,6 +2396,23 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void attachLatestByCache() {
+        latestByCache = null;
+        latestByColumnIndex = -1;
+        if (latestByCacheRegistry != null) {
+            latestByRegistryVersion = latestByCacheRegistry.getVersion();
+            // cached row locations are partition timestamps, only partitioned tables qualify
+            final LatestByCache cache = PartitionBy.isPartitioned(partitionBy) ? latestByCacheRegistry.get(metadata.getId()) : null;
+            if (cache != null) {
+                final int columnIndex = metadata.getColumnIndexQuiet(cache.getColumnName());
+                if (columnIndex > -1 && ColumnType.isSymbol(metadata.getColumnType(columnIndex))) {
+                    latestByCache = cache;
+                    latestByColumnIndex = columnIndex;
+                }
+            }
+        }
+    }
+
     private void bumpMasterRef() {
         if ((masterRef & 1) == 0) {
             masterRef++;
@@ -2327,6 +2426,9 @@ public class TableWriter implements Closeable {
         txWriter.setColumnVersion(columnVersionWriter.getVersion());
         txWriter.bumpStructureVersion(this.denseSymbolMapWriters);
         assert txWriter.getStructureVersion() == metadata.getStructureVersion();
+        if (commitListener != null) {
+            commitListener.onStructureChange(tableName);
+        }
     }
 
     private long calculateCommitInterval() {
@@ -2425,11 +2527,20 @@ public class TableWriter implements Closeable {
         }
 
         if (inTransaction()) {
+            final long commitStart = microClock.getTicks();
             final boolean o3 = hasO3();
-            if (o3 && o3Commit(commitLag)) {
-                // Bookmark masterRef to track how many rows is in uncommitted state
-                this.committedMasterRef = masterRef;
-                return;
+            if (o3) {
+                // rows moved to the lag by previous commits are not counted again
+                ingestionStats.addO3Rows(getO3RowCount0());
+                final boolean lagOnly = o3Commit(commitLag);
+                metrics.tableWriter().recordO3MergeTime(microClock.getTicks() - commitStart);
+                if (lagOnly) {
+                    // Bookmark masterRef to track how many rows is in uncommitted state
+                    this.committedMasterRef = masterRef;
+                    // all rows went to the lag, table has not changed
+                    clearLatestByRows();
+                    return;
+                }
             }
 
             if (commitMode != CommitMode.NOSYNC) {
@@ -2439,17 +2550,25 @@ public class TableWriter implements Closeable {
             final long committedRowCount = txWriter.unsafeCommittedFixedRowCount() + txWriter.unsafeCommittedTransientRowCount();
             final long rowsAdded = txWriter.getRowCount() - committedRowCount;
 
+            final long prevTxn = txWriter.getTxn();
+            final long prevColumnVersion = txWriter.getColumnVersion();
             updateIndexes();
             columnVersionWriter.commit();
             txWriter.setColumnVersion(columnVersionWriter.getVersion());
             txWriter.commit(commitMode, denseSymbolMapWriters);
+            notifyCommitListener();
 
             // Bookmark masterRef to track how many rows is in uncommitted state
             this.committedMasterRef = masterRef;
             o3ProcessPartitionRemoveCandidates();
+            updateBloomFilters();
+            applyLatestByRows(o3, prevTxn, prevColumnVersion);
 
             metrics.tableWriter().incrementCommits();
             metrics.tableWriter().addCommittedRows(rowsAdded);
+            final long commitEnd = microClock.getTicks();
+            metrics.tableWriter().recordCommitTime(commitEnd - commitStart);
+            ingestionStats.onCommit(rowsAdded, getUncommittedRowCount(), commitEnd - commitStart, commitEnd);
             if (!o3) {
                 // If `o3`, the metric is tracked inside `o3Commit`, possibly async.
                 addPhysicallyWrittenRows(rowsAdded);
@@ -2589,6 +2708,9 @@ public class TableWriter implements Closeable {
                     if (isSequential(metaMem, i)) {
                         flags |= META_FLAG_BIT_SEQUENTIAL;
                     }
+                    if (isDedupKey(metaMem, i)) {
+                        flags |= META_FLAG_BIT_DEDUP_KEY;
+                    }
                     ddlMem.putLong(flags);
                     ddlMem.putInt(indexValueBlockSize);
                     ddlMem.putLong(getColumnHash(metaMem, i));
@@ -2754,6 +2876,7 @@ public class TableWriter implements Closeable {
         Misc.free(attachMetadata);
         Misc.free(attachColumnVersionReader);
         Misc.free(attachIndexBuilder);
+        Misc.free(bloomFilterWriter);
         Misc.free(columnVersionWriter);
         Misc.free(o3ColumnTopSink);
         Misc.free(slaveTxReader);
@@ -2761,6 +2884,7 @@ public class TableWriter implements Closeable {
         updateOperator = Misc.free(updateOperator);
         dropIndexOperator = Misc.free(dropIndexOperator);
         freeColumns(truncate & !distressed);
+        metrics.tableIngestion().close(ingestionStats);
         try {
             releaseLock(!truncate | tx | performRecovery | distressed);
         } finally {
@@ -3164,6 +3288,7 @@ public class TableWriter implements Closeable {
         // will have to switch partition internally
         long partitionTimestampHiLimit = partitionCeilMethod.ceil(partitionTimestampHi) - 1;
         try {
+            final long o3MovedRowLo = o3RowCount;
             o3RowCount += o3MoveUncommitted(timestampIndex);
 
             // we may need to re-use file descriptors when this partition is the "current" one
@@ -3184,6 +3309,10 @@ public class TableWriter implements Closeable {
                 Vect.quickSortLongIndexAscInPlace(sortedTimestampsAddr, o3RowCount);
             }
 
+            if (metadata.isDedupEnabled()) {
+                o3RowCount = o3Dedup(sortedTimestampsAddr, o3RowCount, o3MovedRowLo);
+            }
+
             // we have three frames:
             // partition logical "lo" and "hi" - absolute bounds (partitionLo, partitionHi)
             // partition actual data "lo" and "hi" (dataLo, dataHi)
@@ -3204,6 +3333,7 @@ public class TableWriter implements Closeable {
 
             // Safe check of the sort. No known way to reproduce
             assert o3TimestampMin <= o3TimestampMax;
+            latestByO3TimestampMin = o3TimestampMin;
 
             if (lag > 0) {
                 long lagThresholdTimestamp = o3TimestampMax - lag;
@@ -3362,6 +3492,7 @@ public class TableWriter implements Closeable {
                 final long srcOooPartitionLo = task.getSrcOooPartitionLo();
                 final long srcOooPartitionHi = task.getSrcOooPartitionHi();
                 final long srcDataMax = task.getSrcDataMax();
+                final long dedupRowCount = task.getDedupRowCount();
                 final boolean partitionMutates = task.isPartitionMutates();
 
                 o3ClockDownPartitionUpdateCount();
@@ -3377,6 +3508,7 @@ public class TableWriter implements Closeable {
                             srcOooPartitionHi,
                             srcOooMax,
                             srcDataMax,
+                            dedupRowCount,
                             partitionMutates
                     );
                 }
@@ -3474,6 +3606,61 @@ public class TableWriter implements Closeable {
         o3DoneLatch.countDown();
     }
 
+    /**
+     * Removes rows that share designated timestamp and dedup key values from the sorted O3 index,
+     * keeping the most recently written row of each group. Uncommitted rows moved from the last
+     * partition, indexed from movedRowLo, always precede the O3 rows they collide with.
+     *
+     * @return number of rows left in the index
+     */
+    private long o3Dedup(long sortedTimestampsAddr, long rowCount, long movedRowLo) {
+        final IntList keys = metadata.getDedupKeyIndexes();
+        long keptCount = 0;
+        for (long i = 0; i < rowCount; i++) {
+            final long timestamp = getTimestampIndexValue(sortedTimestampsAddr, i);
+            final long row = Unsafe.getUnsafe().getLong(sortedTimestampsAddr + i * 16 + Long.BYTES);
+            boolean duplicate = false;
+            for (long j = keptCount - 1; j > -1 && getTimestampIndexValue(sortedTimestampsAddr, j) == timestamp; j--) {
+                final long keptRowAddr = sortedTimestampsAddr + j * 16 + Long.BYTES;
+                final long keptRow = Unsafe.getUnsafe().getLong(keptRowAddr);
+                if (o3KeysEqual(keys, row, keptRow)) {
+                    if (row < movedRowLo && (keptRow >= movedRowLo || row > keptRow)) {
+                        Unsafe.getUnsafe().putLong(keptRowAddr, row);
+                    }
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                if (keptCount != i) {
+                    Unsafe.getUnsafe().putLong(sortedTimestampsAddr + keptCount * 16, timestamp);
+                    Unsafe.getUnsafe().putLong(sortedTimestampsAddr + keptCount * 16 + Long.BYTES, row);
+                }
+                keptCount++;
+            }
+        }
+
+        if (keptCount < rowCount) {
+            LOG.info().$("o3 dedup [table=").utf8(tableName)
+                    .$(", rows=").$(rowCount)
+                    .$(", duplicates=").$(rowCount - keptCount)
+                    .I$();
+        }
+        return keptCount;
+    }
+
+    private boolean o3KeysEqual(IntList keys, long rowA, long rowB) {
+        for (int k = 0, n = keys.size(); k < n; k++) {
+            final int columnIndex = keys.getQuick(k);
+            final int size = ColumnType.sizeOf(metadata.getColumnType(columnIndex));
+            final MemoryCARW mem = o3MemColumns.getQuick(getPrimaryColumnIndex(columnIndex));
+            if (!O3Utils.fixedValueEquals(mem.addressOf(rowA * size), mem.addressOf(rowB * size), size)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void o3MoveLag0(
             int columnIndex,
             final int columnType,
@@ -3704,12 +3891,19 @@ public class TableWriter implements Closeable {
             long srcOooPartitionHi,
             long srcOooMax,
             long srcDataMax,
+            long dedupRowCount,
             boolean partitionMutates
     ) {
         this.txWriter.minTimestamp = Math.min(timestampMin, this.txWriter.minTimestamp);
-        final long partitionSize = srcDataMax + srcOooPartitionHi - srcOooPartitionLo + 1;
+        final long partitionSize = srcDataMax + srcOooPartitionHi - srcOooPartitionLo + 1 - dedupRowCount;
         final long rowDelta = srcOooPartitionHi - srcOooMax;
         final int partitionIndex = txWriter.findAttachedPartitionIndexByLoTimestamp(partitionTimestamp);
+        if (dedupRowCount > 0) {
+            o3DedupRowCount += dedupRowCount;
+            if (partitionTimestamp == lastPartitionTimestamp) {
+                o3DedupLastPartitionRowCount += dedupRowCount;
+            }
+        }
         if (partitionTimestamp == lastPartitionTimestamp) {
             if (partitionMutates) {
                 closeActivePartition(true);
@@ -3748,6 +3942,9 @@ public class TableWriter implements Closeable {
             }
             txWriter.updatePartitionSizeByIndex(partitionIndex, partitionTimestamp, partitionSize);
         }
+        if (bloomFilterWriter != null) {
+            bloomFilterPartitions.add(partitionTimestamp);
+        }
     }
 
     synchronized void o3PartitionUpdateSynchronized(
@@ -3758,7 +3955,8 @@ public class TableWriter implements Closeable {
             long srcOooPartitionHi,
             boolean partitionMutates,
             long srcOooMax,
-            long srcDataMax
+            long srcDataMax,
+            long dedupRowCount
     ) {
         o3ClockDownPartitionUpdateCount();
         o3PartitionUpdate(
@@ -3769,6 +3967,7 @@ public class TableWriter implements Closeable {
                 srcOooPartitionHi,
                 srcOooMax,
                 srcDataMax,
+                dedupRowCount,
                 partitionMutates
         );
     }
@@ -4467,6 +4666,8 @@ public class TableWriter implements Closeable {
             long rowLo
     ) {
         o3ErrorCount.set(0);
+        o3DedupRowCount = 0;
+        o3DedupLastPartitionRowCount = 0;
         o3PartitionRemoveCandidates.clear();
         o3ColumnCounters.clear();
         o3BasketPool.clear();
@@ -4541,7 +4742,11 @@ public class TableWriter implements Closeable {
                     }
 
                     // We're appending onto the last partition.
-                    final boolean append = last && (srcDataMax == 0 || o3Timestamp >= maxTimestamp);
+                    final boolean append = last && (
+                            srcDataMax == 0
+                                    || o3Timestamp > maxTimestamp
+                                    || (o3Timestamp == maxTimestamp && !metadata.isDedupEnabled())
+                    );
 
                     // Number of rows to insert from the O3 segment into this partition.
                     final long srcOooBatchRowSize = srcOooHi - srcOooLo + 1;
@@ -4744,6 +4949,15 @@ public class TableWriter implements Closeable {
             }
         }
 
+        if (o3DedupRowCount > 0) {
+            // partition sizes above were estimated before merge removed the replaced rows
+            final long lastPartitionDedupRowCount = partitionFloorMethod.floor(o3TimestampMax) > lastPartitionTimestamp
+                    ? 0
+                    : o3DedupLastPartitionRowCount;
+            txWriter.transientRowCount -= lastPartitionDedupRowCount;
+            txWriter.fixedRowCount -= o3DedupRowCount - lastPartitionDedupRowCount;
+        }
+
         if (o3LagRowCount > 0) {
             o3ShiftLagRowsUp(timestampIndex, o3LagRowCount, srcOooMax);
         }
@@ -5160,6 +5374,7 @@ public class TableWriter implements Closeable {
         removeFileAndOrLog(ff, iFile(path.trimTo(plen), columnName, columnNameTxn));
         removeFileAndOrLog(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn));
         removeFileAndOrLog(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn));
+        removeFileAndOrLog(ff, BloomFilterUtils.fileName(path.trimTo(plen), columnName, columnNameTxn));
         path.trimTo(rootLen);
     }
 
@@ -5407,6 +5622,7 @@ public class TableWriter implements Closeable {
         renameFileOrLog(ff, iFile(path.trimTo(plen), columnName, columnNameTxn), iFile(other.trimTo(plen), newName, columnNameTxn));
         renameFileOrLog(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn), keyFileName(other.trimTo(plen), newName, columnNameTxn));
         renameFileOrLog(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn), valueFileName(other.trimTo(plen), newName, columnNameTxn));
+        renameFileOrLog(ff, BloomFilterUtils.fileName(path.trimTo(plen), columnName, columnNameTxn), BloomFilterUtils.fileName(other.trimTo(plen), newName, columnNameTxn));
         path.trimTo(rootLen);
         other.trimTo(rootLen);
     }
@@ -5908,6 +6124,9 @@ public class TableWriter implements Closeable {
         // added so far. Index writers will start point to different
         // files after switch.
         updateIndexes();
+        if (bloomFilterWriter != null) {
+            bloomFilterPartitions.add(txWriter.getLastPartitionTimestamp());
+        }
         txWriter.switchPartitions(timestamp);
         openPartition(timestamp);
         setAppendPosition(0, false);
@@ -5930,6 +6149,45 @@ public class TableWriter implements Closeable {
         throw new CairoError(cause);
     }
 
+    private void updateBloomFilters() {
+        if (bloomFilterWriter == null) {
+            return;
+        }
+
+        // partition that was the last one at previous commit might have been sealed by O3 commit,
+        // which added newer partition(s)
+        final long lastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
+        if (bloomFilterLastPartitionTimestamp != lastPartitionTimestamp) {
+            bloomFilterPartitions.add(bloomFilterLastPartitionTimestamp);
+            bloomFilterLastPartitionTimestamp = lastPartitionTimestamp;
+        }
+
+        final int n = bloomFilterPartitions.size();
+        if (n == 0) {
+            return;
+        }
+
+        bloomFilterPartitions.sort();
+        try {
+            long prevPartitionTimestamp = Long.MIN_VALUE;
+            for (int i = 0; i < n; i++) {
+                final long partitionTimestamp = bloomFilterPartitions.getQuick(i);
+                // last partition is mutable, it will get its filters once it is sealed
+                if (partitionTimestamp == prevPartitionTimestamp || partitionTimestamp == lastPartitionTimestamp) {
+                    continue;
+                }
+                prevPartitionTimestamp = partitionTimestamp;
+                final int partitionIndex = txWriter.getPartitionIndex(partitionTimestamp);
+                if (partitionIndex > -1) {
+                    writeBloomFilters(partitionIndex, partitionTimestamp);
+                }
+            }
+        } finally {
+            bloomFilterPartitions.clear();
+            bloomFilterWriter.clear();
+        }
+    }
+
     private void updateIndexes() {
         if (indexCount == 0 || avoidIndexOnCommit) {
             avoidIndexOnCommit = false;
@@ -6048,6 +6306,100 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void applyLatestByRows(boolean o3, long prevTxn, long prevColumnVersion) {
+        if (latestByCache != null) {
+            if (prevColumnVersion != txWriter.getColumnVersion() || (o3 && metadata.isDedupEnabled())) {
+                // column updates and deduplication can replace the latest row of any key,
+                // the cache stays stale until next LATEST BY scan publishes it again
+                latestByCache.invalidate();
+            } else if (latestByCache.getTxn() == prevTxn) {
+                if (o3) {
+                    // merge moves rows within partitions it rewrites, in-order rows may have gone to the lag
+                    clearLatestByRows();
+                    scanLatestByRows(latestByO3TimestampMin);
+                }
+                latestByCache.apply(prevTxn, txWriter.getTxn(), latestByRows, latestBySlots);
+            }
+        }
+        clearLatestByRows();
+        refreshLatestByCache();
+    }
+
+    private void clearLatestByRows() {
+        for (int i = 0, n = latestBySlots.size(); i < n; i++) {
+            latestByRows.setQuick(latestBySlots.getQuick(i) * 2 + 1, -1);
+        }
+        latestBySlots.clear();
+    }
+
+    private void putLatestByRow(int slot, long partitionTimestamp, long row) {
+        final int index = slot * 2;
+        final int size = latestByRows.size();
+        if (index >= size) {
+            latestByRows.setPos(index + 2);
+            latestByRows.fill(size, index + 2, -1);
+        }
+        if (latestByRows.getQuick(index + 1) == -1) {
+            latestBySlots.add(slot);
+        }
+        latestByRows.setQuick(index, partitionTimestamp);
+        latestByRows.setQuick(index + 1, row);
+    }
+
+    /**
+     * Finds latest rows of the keys that have rows in partitions at or after the given timestamp. Keys
+     * that are not found keep their cached rows, which are in older partitions untouched by the merge.
+     */
+    private void scanLatestByRows(long timestampMin) {
+        final int columnIndex = latestByColumnIndex;
+        final CharSequence columnName = metadata.getColumnName(columnIndex);
+        // all symbol keys and the null key
+        final int keyCount = symbolMapWriters.getQuick(columnIndex).getSymbolCount() + 1;
+        final long partitionTimestampMin = partitionFloorMethod.floor(timestampMin);
+        final int partitionCount = txWriter.getPartitionCount();
+        try (final MemoryMR roMem = indexMem) {
+            for (int i = partitionCount - 1; i > -1 && latestBySlots.size() < keyCount; i--) {
+                final long timestamp = txWriter.getPartitionTimestamp(i);
+                if (timestamp < partitionTimestampMin) {
+                    break;
+                }
+                final long partitionSize = i == partitionCount - 1 ? txWriter.getTransientRowCount() : txWriter.getPartitionSize(i);
+                long columnTop = columnVersionWriter.getColumnTop(timestamp, columnIndex);
+                if (columnTop < 0 || columnTop > partitionSize) {
+                    columnTop = partitionSize;
+                }
+
+                long row = partitionSize - 1;
+                if (row >= columnTop) {
+                    path.trimTo(rootLen);
+                    setStateForTimestamp(path, timestamp, false);
+                    TableUtils.dFile(path, columnName, columnVersionWriter.getColumnNameTxn(timestamp, columnIndex));
+                    final long columnSize = (partitionSize - columnTop) << ColumnType.pow2SizeOf(ColumnType.INT);
+                    roMem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_WRITER);
+                    for (; row >= columnTop && latestBySlots.size() < keyCount; row--) {
+                        final int slot = LatestByCache.slotOf(roMem.getInt((row - columnTop) << ColumnType.pow2SizeOf(ColumnType.INT)));
+                        // partitions are scanned backwards, the first row found is the latest
+                        if (slot * 2 >= latestByRows.size() || latestByRows.getQuick(slot * 2 + 1) == -1) {
+                            putLatestByRow(slot, timestamp, row);
+                        }
+                    }
+                }
+                // rows above column top are nulls
+                if (row > -1 && (latestByRows.size() == 0 || latestByRows.getQuick(1) == -1)) {
+                    putLatestByRow(0, timestamp, row);
+                }
+            }
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
+    private void notifyCommitListener() {
+        if (commitListener != null) {
+            commitListener.onCommit(tableName, txWriter.getTxn());
+        }
+    }
+
     private void updateMaxTimestamp(long timestamp) {
         txWriter.updateMaxTimestamp(timestamp);
         this.timestampSetter.accept(timestamp);
@@ -6117,6 +6469,10 @@ public class TableWriter implements Closeable {
         if (isSequential(metaMem, i)) {
             flags |= META_FLAG_BIT_SEQUENTIAL;
         }
+
+        if (isDedupKey(metaMem, i)) {
+            flags |= META_FLAG_BIT_DEDUP_KEY;
+        }
         ddlMem.putLong(flags);
         ddlMem.putInt(getIndexBlockCapacity(metaMem, i));
         ddlMem.putLong(getColumnHash(metaMem, i));
@@ -6131,6 +6487,45 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void writeBloomFilters(int partitionIndex, long partitionTimestamp) {
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+        setPathForPartition(path, partitionBy, partitionTimestamp, false);
+        txnPartitionConditionally(path, txWriter.getPartitionNameTxn(partitionIndex));
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (columnType < 0 || !BloomFilterUtils.isSupportedColumnType(columnType, metadata.isColumnIndexed(i))) {
+                    continue;
+                }
+                final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, i);
+                if (columnTop < 0) {
+                    // column does not exist in this partition
+                    continue;
+                }
+                try {
+                    bloomFilterWriter.write(
+                            path,
+                            metadata.getColumnName(i),
+                            columnVersionWriter.getColumnNameTxn(partitionTimestamp, i),
+                            columnType,
+                            columnTop,
+                            partitionSize,
+                            ColumnType.isSymbol(columnType) ? symbolMapWriters.getQuick(i).getSymbolCount() : 0
+                    );
+                } catch (CairoException e) {
+                    // data is already committed, queries will scan partition without the filter
+                    LOG.error().$("could not write bloom filter [table=").utf8(tableName)
+                            .$(", column=").utf8(metadata.getColumnName(i))
+                            .$(", partition=").$ts(partitionTimestamp)
+                            .$(", e=").$((Sinkable) e)
+                            .I$();
+                }
+            }
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     private void writeRestoreMetaTodo() {
         todoMem.putLong(0, ++todoTxn); // write txn, reader will first read txn at offset 24 and then at offset 0
         Unsafe.getUnsafe().storeFence(); // make sure we do not write hash before writing txn (view from another thread)
@@ -6236,6 +6631,21 @@ public class TableWriter implements Closeable {
         }
     }
 
+    @FunctionalInterface
+    public interface CommitListener {
+        /**
+         * Called by the writer thread after a transaction has been committed to the _txn file,
+         * including truncate and partition attach, detach and removal.
+         */
+        void onCommit(CharSequence tableName, long txn);
+
+        /**
+         * Called by the writer thread after table structure version has been bumped.
+         */
+        default void onStructureChange(CharSequence tableName) {
+        }
+    }
+
     @FunctionalInterface
     public interface ExtensionListener {
         void onTableExtended(long timestamp);
@@ -6244,6 +6654,14 @@ public class TableWriter implements Closeable {
     private class RowImpl implements Row {
         @Override
         public void append() {
+            if (latestByColumnIndex > -1 && (masterRef & 1) != 0 && rowAction != ROW_ACTION_O3) {
+                // rows appended in order are the latest for their key as of this transaction
+                putLatestByRow(
+                        LatestByCache.slotOf(latestByKeyRef == masterRef ? latestByKey : SymbolTable.VALUE_IS_NULL),
+                        txWriter.getLastPartitionTimestamp(),
+                        txWriter.getTransientRowCount() - 1
+                );
+            }
             rowAppend(activeNullSetters);
         }
 
@@ -6382,14 +6800,22 @@ public class TableWriter implements Closeable {
 
         @Override
         public void putSym(int columnIndex, CharSequence value) {
-            getPrimaryColumn(columnIndex).putInt(symbolMapWriters.getQuick(columnIndex).put(value));
-            setRowValueNotNull(columnIndex);
+            putSymIndex(columnIndex, symbolMapWriters.getQuick(columnIndex).put(value));
         }
 
         @Override
         public void putSym(int columnIndex, char value) {
-            getPrimaryColumn(columnIndex).putInt(symbolMapWriters.getQuick(columnIndex).put(value));
+            putSymIndex(columnIndex, symbolMapWriters.getQuick(columnIndex).put(value));
+        }
+
+        @Override
+        public void putSymIndex(int columnIndex, int key) {
+            getPrimaryColumn(columnIndex).putInt(key);
             setRowValueNotNull(columnIndex);
+            if (columnIndex == latestByColumnIndex) {
+                latestByKey = key;
+                latestByKeyRef = masterRef;
+            }
         }
 
         private MemoryA getPrimaryColumn(int columnIndex) {
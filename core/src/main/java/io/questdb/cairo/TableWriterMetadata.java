@@ -27,10 +27,12 @@ package io.questdb.cairo;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.std.Chars;
+import io.questdb.std.IntList;
 import io.questdb.std.LowerCaseCharSequenceIntHashMap;
 import io.questdb.std.ObjList;
 
 public class TableWriterMetadata extends BaseRecordMetadata {
+    private final IntList dedupKeyIndexes = new IntList();
     private int id;
     private int metaFileSize;
     private int symbolMapCount;
@@ -38,6 +40,7 @@ public class TableWriterMetadata extends BaseRecordMetadata {
     private int maxUncommittedRows;
     private long commitLag;
     private long structureVersion;
+    private boolean dedup;
 
     public TableWriterMetadata(MemoryMR metaMem) {
         reload(metaMem);
@@ -57,6 +60,8 @@ public class TableWriterMetadata extends BaseRecordMetadata {
 
         long offset = TableUtils.getColumnNameOffset(columnCount);
         this.symbolMapCount = 0;
+        this.dedup = false;
+        dedupKeyIndexes.clear();
         columnNameIndexMap.clear();
         // don't create strings in this loop, we already have them in columnNameIndexMap
         for (int i = 0; i < columnCount; i++) {
@@ -77,6 +82,13 @@ public class TableWriterMetadata extends BaseRecordMetadata {
                     )
             );
             columnNameIndexMap.put(nameStr, i);
+            if (type > 0 && TableUtils.isDedupKey(metaMem, i)) {
+                if (i == timestampIndex) {
+                    dedup = true;
+                } else {
+                    dedupKeyIndexes.add(i);
+                }
+            }
             if (ColumnType.isSymbol(type)) {
                 symbolMapCount++;
             }
@@ -89,6 +101,14 @@ public class TableWriterMetadata extends BaseRecordMetadata {
         return commitLag;
     }
 
+    /**
+     * Indexes of the non-timestamp columns that, together with the designated timestamp,
+     * identify a row when the table deduplicates on ingestion.
+     */
+    public IntList getDedupKeyIndexes() {
+        return dedupKeyIndexes;
+    }
+
     public int getDenseColumnCount() {
         int count = 0;
         for (int i = 0; i < columnCount; i++) {
@@ -99,6 +119,10 @@ public class TableWriterMetadata extends BaseRecordMetadata {
         return count;
     }
 
+    public boolean isDedupEnabled() {
+        return dedup;
+    }
+
     public void setCommitLag(long micros) {
         this.commitLag = micros;
     }
@@ -180,6 +204,7 @@ public class TableWriterMetadata extends BaseRecordMetadata {
             symbolMapCount--;
         }
         deletedMeta.markDeleted();
+        dedupKeyIndexes.remove(columnIndex);
         columnNameIndexMap.remove(deletedMeta.getName());
     }
 
@@ -25,6 +25,7 @@
 package io.questdb.cairo;
 
 import io.questdb.metrics.Counter;
+import io.questdb.metrics.Histogram;
 import io.questdb.metrics.MetricsRegistry;
 
 public class TableWriterMetrics {
@@ -37,6 +38,10 @@ public class TableWriterMetrics {
 
     // For write amplification metric, `physicallyWrittenRowCounter / committedRowCounter`.
     private final Counter physicallyWrittenRowCounter;
+    // Time to commit transaction, including O3 merge and sync
+    private final Histogram commitTimeHistogram;
+    // Time spent in O3 merge, including merges that only move rows to the lag
+    private final Histogram o3MergeTimeHistogram;
 
     public TableWriterMetrics(MetricsRegistry metricsRegistry) {
         this.commitCounter = metricsRegistry.newCounter("commits");
@@ -44,6 +49,8 @@ public class TableWriterMetrics {
         this.committedRowCounter = metricsRegistry.newCounter("committed_rows");
         this.rollbackCounter = metricsRegistry.newCounter("rollbacks");
         this.physicallyWrittenRowCounter = metricsRegistry.newCounter("physically_written_rows");
+        this.commitTimeHistogram = metricsRegistry.newHistogram("commit_time_micros", Histogram.LATENCY_MICROS_BOUNDS);
+        this.o3MergeTimeHistogram = metricsRegistry.newHistogram("o3_merge_time_micros", Histogram.LATENCY_MICROS_BOUNDS);
     }
 
     public void addCommittedRows(long rows) {
@@ -54,6 +61,14 @@ public class TableWriterMetrics {
         physicallyWrittenRowCounter.add(rows);
     }
 
+    public Histogram getCommitTimeHistogram() {
+        return commitTimeHistogram;
+    }
+
+    public Histogram getO3MergeTimeHistogram() {
+        return o3MergeTimeHistogram;
+    }
+
     public long getCommitCount() {
         return commitCounter.getValue();
     }
@@ -85,4 +100,12 @@ public class TableWriterMetrics {
     public void incrementRollbacks() {
         rollbackCounter.inc();
     }
+
+    public void recordCommitTime(long micros) {
+        commitTimeHistogram.record(micros);
+    }
+
+    public void recordO3MergeTime(long micros) {
+        o3MergeTimeHistogram.record(micros);
+    }
 }
@@ -27,6 +27,7 @@ package io.questdb.cairo.pool;
 import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnMappingCache;
 import io.questdb.cairo.EntryUnavailableException;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.pool.ex.EntryLockedException;
@@ -35,6 +36,7 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.ConcurrentHashMap;
 import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.Map;
@@ -52,12 +54,18 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
     private final ConcurrentHashMap<Entry> entries = new ConcurrentHashMap<>();
     private final int maxSegments;
     private final MessageBus messageBus;
+    private final ColumnMappingCache columnMappingCache;
     private final int maxEntries;
 
     public ReaderPool(CairoConfiguration configuration, MessageBus messageBus) {
+        this(configuration, messageBus, null);
+    }
+
+    public ReaderPool(CairoConfiguration configuration, MessageBus messageBus, @Nullable ColumnMappingCache columnMappingCache) {
         super(configuration, configuration.getInactiveReaderTTL());
         this.maxSegments = configuration.getReaderPoolMaxSegments();
         this.messageBus = messageBus;
+        this.columnMappingCache = columnMappingCache;
         this.maxEntries = maxSegments * ENTRY_SIZE;
     }
 
@@ -380,7 +388,7 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         private Entry entry;
 
         public R(ReaderPool pool, Entry entry, int index, CharSequence name, MessageBus messageBus) {
-            super(pool.getConfiguration(), name, messageBus);
+            super(pool.getConfiguration(), name, messageBus, pool.columnMappingCache);
             this.pool = pool;
             this.entry = entry;
             this.index = index;
@@ -83,6 +83,8 @@ public class WriterPool extends AbstractPool {
     private final MessageBus messageBus;
     @NotNull
     private final Metrics metrics;
+    private final LatestByCacheRegistry latestByCacheRegistry;
+    private volatile TableWriter.CommitListener commitListener;
 
     /**
      * Pool constructor. WriterPool root directory is passed via configuration.
@@ -92,6 +94,23 @@ public class WriterPool extends AbstractPool {
      * @param metrics       metrics instance to be used by table writers.
      */
     public WriterPool(CairoConfiguration configuration, @NotNull MessageBus messageBus, @NotNull Metrics metrics) {
+        this(configuration, messageBus, metrics, null);
+    }
+
+    /**
+     * Pool constructor. WriterPool root directory is passed via configuration.
+     *
+     * @param configuration         configuration parameters.
+     * @param messageBus            message bus instance to allow index tasks to be communicated to available threads.
+     * @param metrics               metrics instance to be used by table writers.
+     * @param latestByCacheRegistry LATEST BY caches to be maintained by table writers, null when disabled.
+     */
+    public WriterPool(
+            CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull Metrics metrics,
+            @Nullable LatestByCacheRegistry latestByCacheRegistry
+    ) {
         super(configuration, configuration.getInactiveWriterTTL());
         this.configuration = configuration;
         this.messageBus = messageBus;
@@ -100,6 +119,7 @@ public class WriterPool extends AbstractPool {
         this.path.concat(this.root);
         this.rootLen = this.path.length();
         this.metrics = metrics;
+        this.latestByCacheRegistry = latestByCacheRegistry;
         notifyListener(Thread.currentThread().getId(), null, PoolListener.EV_POOL_OPEN);
     }
 
@@ -215,6 +235,14 @@ public class WriterPool extends AbstractPool {
         return reinterpretOwnershipReason(e.ownershipReason);
     }
 
+    /**
+     * Sets listener to be notified of commits by writers created from now on.
+     * Has to be set before the pool hands out any writers.
+     */
+    public void setCommitListener(@Nullable TableWriter.CommitListener commitListener) {
+        this.commitListener = commitListener;
+    }
+
     public int size() {
         return entries.size();
     }
@@ -248,7 +276,7 @@ public class WriterPool extends AbstractPool {
                 // created twice), we cache the writer in the WriterPool whose access via the engine is thread safe.
                 assert writer == null && e.lockFd != -1;
                 LOG.info().$("created [table=`").utf8(name).$("`, thread=").$(thread).$(']').$();
-                writer = new TableWriter(configuration, name, messageBus, null, false, e, root, metrics);
+                writer = new TableWriter(configuration, name, messageBus, null, false, e, root, metrics, latestByCacheRegistry);
             }
 
             if (writer == null) {
@@ -265,6 +293,7 @@ public class WriterPool extends AbstractPool {
             } else {
                 e.writer = writer;
                 writer.setLifecycleManager(e);
+                writer.setCommitListener(commitListener);
                 writer.transferLock(e.lockFd);
                 e.lockFd = -1;
                 e.ownershipReason = OWNERSHIP_REASON_NONE;
@@ -332,6 +361,7 @@ public class WriterPool extends AbstractPool {
             return e.goodbye();
         }
         e.ownershipReason = lockReason;
+        e.writer.refreshLatestByCache();
         return logAndReturn(e, PoolListener.EV_GET);
     }
 
@@ -424,7 +454,8 @@ public class WriterPool extends AbstractPool {
         try {
             checkClosed();
             LOG.info().$("open [table=`").utf8(name).$("`, thread=").$(thread).$(']').$();
-            e.writer = new TableWriter(configuration, name, messageBus, null, true, e, root, metrics);
+            e.writer = new TableWriter(configuration, name, messageBus, null, true, e, root, metrics, latestByCacheRegistry);
+            e.writer.setCommitListener(commitListener);
             e.ownershipReason = lockReason;
             return logAndReturn(e, PoolListener.EV_CREATE);
         } catch (CairoException ex) {
@@ -50,6 +50,11 @@ public interface BindVariableService extends Mutable {
      */
     int getIndexedVariableCount();
 
+    /**
+     * @return number of named bind variables, those referred to as :name in a query
+     */
+    int getNamedVariableCount();
+
     /**
      * Set the type of bind variable by name as binary and provide a value
      *
@@ -26,6 +26,7 @@ package io.questdb.cairo.sql;
 
 import io.questdb.cairo.CairoException;
 import io.questdb.network.NetworkFacade;
+import io.questdb.std.MemoryAccountant;
 import io.questdb.std.Unsafe;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 
@@ -44,6 +45,8 @@ public class NetworkSqlExecutionCircuitBreaker implements SqlExecutionCircuitBre
     private long fd = -1;
     private long powerUpTime;
     private final int memoryTag;
+    private final MemoryAccountant defaultMemoryAccountant = new MemoryAccountant();
+    private MemoryAccountant memoryAccountant = defaultMemoryAccountant;
 
     public NetworkSqlExecutionCircuitBreaker(SqlExecutionCircuitBreakerConfiguration configuration, int memoryTag) {
         this.configuration = configuration;
@@ -60,6 +63,7 @@ public class NetworkSqlExecutionCircuitBreaker implements SqlExecutionCircuitBre
             this.timeout = Long.MAX_VALUE;
         }
         this.defaultMaxTime = this.timeout;
+        this.defaultMemoryAccountant.setLimit(configuration.getQueryMemoryLimit());
     }
 
     @Override
@@ -79,6 +83,11 @@ public class NetworkSqlExecutionCircuitBreaker implements SqlExecutionCircuitBre
         return fd;
     }
 
+    @Override
+    public MemoryAccountant getMemoryAccountant() {
+        return memoryAccountant;
+    }
+
     public void resetMaxTimeToDefault() {
         this.timeout = defaultMaxTime;
     }
@@ -94,6 +103,7 @@ public class NetworkSqlExecutionCircuitBreaker implements SqlExecutionCircuitBre
         } else {
             testCount = 0;
             testTimeout();
+            testMemory();
             if (testConnection(this.fd)) {
                 throw CairoException.nonCritical().put("remote disconnected, query aborted [fd=").put(fd).put(']').setInterruption(true);
             }
@@ -110,6 +120,9 @@ public class NetworkSqlExecutionCircuitBreaker implements SqlExecutionCircuitBre
         if (clock.getTicks() - timeout > millis) {
             return true;
         }
+        if (memoryAccountant.isLimitExceeded() || Unsafe.getQueryMemUsed() > Unsafe.getQueryMemLimit()) {
+            return true;
+        }
         return testConnection(fd);
     }
 
@@ -123,13 +136,48 @@ public class NetworkSqlExecutionCircuitBreaker implements SqlExecutionCircuitBre
         powerUpTime = clock.getTicks();
     }
 
+    /**
+     * Charges query-scoped memory the current thread allocates from now on to this circuit
+     * breaker's accountant, until {@link #unbind()} is called.
+     */
+    public void bind() {
+        Unsafe.setMemoryAccountant(memoryAccountant);
+    }
+
+    /**
+     * Prepares the circuit breaker for executing a request on the current thread. Query-scoped
+     * memory the thread allocates from now on is charged to this circuit breaker's own accountant.
+     * The caller must {@link #unbind()} the accountant when the request finishes or suspends.
+     */
     public NetworkSqlExecutionCircuitBreaker of(long fd) {
+        return of(fd, defaultMemoryAccountant);
+    }
+
+    /**
+     * Same as {@link #of(long)}, but charges memory to the accountant of the request. Circuit breakers
+     * shared by requests of several connections use it to keep accounting of a suspended request
+     * intact while other requests run. The accountant is not reset, callers reset it when a query starts.
+     */
+    public NetworkSqlExecutionCircuitBreaker of(long fd, MemoryAccountant memoryAccountant) {
         assert buffer != 0;
         testCount = 0;
         this.fd = fd;
+        this.memoryAccountant = memoryAccountant;
+        memoryAccountant.setLimit(configuration.getQueryMemoryLimit());
+        bind();
         return this;
     }
 
+    /**
+     * Stops charging memory of the current thread to this circuit breaker's accountant, so that
+     * work the thread picks up next is not accounted as part of this request.
+     */
+    public void unbind() {
+        if (Unsafe.getMemoryAccountant() == memoryAccountant) {
+            Unsafe.setMemoryAccountant(null);
+        }
+    }
+
     private boolean testConnection(long fd) {
         assert fd != -1;
         final int nRead = nf.peek(fd, buffer, bufferSize);
@@ -159,6 +207,24 @@ public class NetworkSqlExecutionCircuitBreaker implements SqlExecutionCircuitBre
         return false;
     }
 
+    private void testMemory() {
+        if (memoryAccountant.isLimitExceeded()) {
+            throw CairoException.nonCritical()
+                    .put("query memory limit exceeded, query aborted [used=").put(memoryAccountant.getUsed())
+                    .put(", limit=").put(memoryAccountant.getLimit())
+                    .put(", fd=").put(fd)
+                    .put(']').setInterruption(true);
+        }
+        final long queryMemUsed = Unsafe.getQueryMemUsed();
+        if (queryMemUsed > Unsafe.getQueryMemLimit()) {
+            throw CairoException.nonCritical()
+                    .put("global query memory limit exceeded, query aborted [used=").put(queryMemUsed)
+                    .put(", limit=").put(Unsafe.getQueryMemLimit())
+                    .put(", fd=").put(fd)
+                    .put(']').setInterruption(true);
+        }
+    }
+
     private void testTimeout() {
         if (clock.getTicks() - timeout > powerUpTime) {
             throw CairoException.nonCritical().put("timeout, query aborted [fd=").put(fd).put(']').setInterruption(true);
@@ -41,6 +41,16 @@ public interface PageFrame {
      */
     int getColumnShiftBits(int columnIndex);
 
+    /**
+     * Appends file ranges that back this page frame to the given list. Each range
+     * is a (fd, lo, hi) triplet, where lo and hi are file offsets. Ranges are used to
+     * read column data ahead of time, before frame is handed over to the workers.
+     *
+     * @param ranges list to append file ranges to
+     */
+    default void getFileRanges(LongList ranges) {
+    }
+
     /**
      * Return the address of the start of the page frame or if this page represents
      * a column top (a column that was added to the table when other columns already had data) then return 0
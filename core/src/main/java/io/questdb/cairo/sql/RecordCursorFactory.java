@@ -103,6 +103,16 @@ public interface RecordCursorFactory extends Closeable, Sinkable, Plannable {
         return null;
     }
 
+    /**
+     * Page frame sequence used to reduce page frames in parallel, if any. Used by
+     * EXPLAIN ANALYZE to report per-worker reduce time.
+     *
+     * @return frame sequence or null when factory does not reduce page frames in parallel
+     */
+    default PageFrameSequence<?> getPageFrameSequence() {
+        return null;
+    }
+
     boolean recordCursorSupportsRandomAccess();
 
     default boolean supportPageFrameCursor() {
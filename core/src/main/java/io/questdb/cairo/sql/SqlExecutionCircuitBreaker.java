@@ -24,6 +24,8 @@
 
 package io.questdb.cairo.sql;
 
+import io.questdb.std.MemoryAccountant;
+
 public interface SqlExecutionCircuitBreaker extends ExecutionCircuitBreaker {
     SqlExecutionCircuitBreaker NOOP_CIRCUIT_BREAKER = new SqlExecutionCircuitBreaker() {
         @Override
@@ -57,6 +59,11 @@ public interface SqlExecutionCircuitBreaker extends ExecutionCircuitBreaker {
         public long getFd() {
             return -1;
         }
+
+        @Override
+        public MemoryAccountant getMemoryAccountant() {
+            return null;
+        }
     };
 
     SqlExecutionCircuitBreakerConfiguration getConfiguration();
@@ -74,4 +81,10 @@ public interface SqlExecutionCircuitBreaker extends ExecutionCircuitBreaker {
     void setFd(long fd);
 
     long getFd();
+
+    /**
+     * Returns accountant that is charged with query-scoped memory allocated while the circuit
+     * breaker is in use, or null when memory is not accounted.
+     */
+    MemoryAccountant getMemoryAccountant();
 }
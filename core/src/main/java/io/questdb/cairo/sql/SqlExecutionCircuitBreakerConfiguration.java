@@ -35,6 +35,12 @@ public interface SqlExecutionCircuitBreakerConfiguration {
 
     NetworkFacade getNetworkFacade();
 
+    // maximum memory of query-scoped memory tags a single query may allocate, 0 means no limit
+    long getQueryMemoryLimit();
+
+    // maximum memory of query-scoped memory tags all queries may allocate, 0 means no limit
+    long getGlobalQueryMemoryLimit();
+
     boolean isEnabled();
 
     MillisecondClock getClock();
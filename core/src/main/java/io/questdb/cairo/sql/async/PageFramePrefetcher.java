@@ -0,0 +1,234 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Reads column data of upcoming page frames ahead of time, so that reduce jobs don't
+ * stall on page faults when a query scans partitions that are not in the page cache.
+ * <p>
+ * When io_uring is enabled and available, file ranges backing page frames are read
+ * into a bounded pool of scratch buffers. Read results are discarded, the reads are
+ * only there to populate the page cache, which is then hit by the memory-mapped
+ * column access. Otherwise, the prefetcher falls back to fadvise(POSIX_FADV_WILLNEED).
+ * <p>
+ * This class is not thread safe. It is always used on the "query owner" thread.
+ */
+public class PageFramePrefetcher implements Closeable {
+    private static final Log LOG = LogFactory.getLog(PageFramePrefetcher.class);
+    private final FilesFacade ff;
+    private final IOURingFacade rf;
+    private final boolean ioURingEnabled;
+    private final int frameCount;
+    private final int bufferCount;
+    private final int bufferSize;
+    // (fd, lo, hi) triplets of file ranges for all frames of the sequence
+    private final LongList ranges = new LongList();
+    // index of the first range of each frame in the range list
+    private final IntList frameRangeIndexes = new IntList();
+    private IOURing ring;
+    private long bufferAddr;
+    private int bufferIndex;
+    private int inFlightCount;
+    // range that is to be read next and the file offset to start reading it from
+    private int nextRangeIndex;
+    private long nextRangeLo;
+    // index of the first frame that has not been fully requested yet
+    private int requestedFrameHi;
+
+    public PageFramePrefetcher(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.rf = configuration.getIOURingFacade();
+        this.ioURingEnabled = configuration.isIOURingEnabled();
+        this.frameCount = Math.max(1, configuration.getSqlPageFramePrefetchFrameCount());
+        this.bufferCount = Numbers.ceilPow2(Math.max(1, configuration.getSqlPageFramePrefetchBufferCount()));
+        this.bufferSize = Math.max((int) Files.PAGE_SIZE, configuration.getSqlPageFramePrefetchBufferSize());
+    }
+
+    public void add(PageFrame frame) {
+        frameRangeIndexes.add(ranges.size());
+        frame.getFileRanges(ranges);
+    }
+
+    public void clear() {
+        awaitInFlight();
+        ranges.clear();
+        frameRangeIndexes.clear();
+        toTop();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        ring = Misc.free(ring);
+        if (bufferAddr != 0) {
+            Unsafe.free(bufferAddr, (long) bufferCount * bufferSize, MemoryTag.NATIVE_DEFAULT);
+            bufferAddr = 0;
+        }
+    }
+
+    public int getInFlightCount() {
+        return inFlightCount;
+    }
+
+    public int getRequestedFrameHi() {
+        return requestedFrameHi;
+    }
+
+    public boolean isIOURingUsed() {
+        return ring != null;
+    }
+
+    /**
+     * Makes sure that the frame with the given index and a few frames that follow it
+     * are requested from the disk. Frames preceding the given one are skipped, if they
+     * haven't been requested yet.
+     *
+     * @param frameIndex index of the frame that is about to be dispatched
+     */
+    public void prefetch(int frameIndex) {
+        final int frames = frameRangeIndexes.size();
+        if (frameIndex >= frames) {
+            reap();
+            return;
+        }
+
+        final int firstRangeIndex = frameRangeIndexes.getQuick(frameIndex);
+        if (nextRangeIndex < firstRangeIndex) {
+            // the frames were consumed before we got to them
+            nextRangeIndex = firstRangeIndex;
+            nextRangeLo = 0;
+        }
+
+        final int frameHi = Math.min(frameIndex + frameCount, frames);
+        final int rangeHi = frameHi < frames ? frameRangeIndexes.getQuick(frameHi) : ranges.size();
+        if (nextRangeIndex < rangeHi) {
+            if (ioURingEnabled && ring == null) {
+                openRing();
+            }
+            if (ring != null) {
+                prefetchIOURing(rangeHi);
+            } else {
+                prefetchFadvise(rangeHi);
+            }
+        } else {
+            reap();
+        }
+        if (nextRangeIndex >= rangeHi) {
+            requestedFrameHi = Math.max(requestedFrameHi, frameHi);
+        }
+    }
+
+    public void toTop() {
+        nextRangeIndex = 0;
+        nextRangeLo = 0;
+        requestedFrameHi = 0;
+    }
+
+    private void awaitInFlight() {
+        while (inFlightCount > 0) {
+            if (ring.nextCqe()) {
+                inFlightCount--;
+            } else {
+                Os.pause();
+            }
+        }
+    }
+
+    private void openRing() {
+        if (rf.isAvailable()) {
+            try {
+                ring = rf.newInstance(bufferCount);
+                bufferAddr = Unsafe.malloc((long) bufferCount * bufferSize, MemoryTag.NATIVE_DEFAULT);
+            } catch (CairoException e) {
+                LOG.error().$("could not create io_uring, falling back to fadvise [errno=").$(e.getErrno())
+                        .$(", msg=").$(e.getFlyweightMessage())
+                        .I$();
+                ring = Misc.free(ring);
+            }
+        }
+    }
+
+    private void prefetchFadvise(int rangeHi) {
+        for (; nextRangeIndex < rangeHi; nextRangeIndex += 3) {
+            final long fd = ranges.getQuick(nextRangeIndex);
+            final long lo = Math.max(ranges.getQuick(nextRangeIndex + 1), nextRangeLo);
+            final long hi = ranges.getQuick(nextRangeIndex + 2);
+            ff.fadvise(fd, lo, hi - lo, Files.POSIX_FADV_WILLNEED);
+            nextRangeLo = 0;
+        }
+    }
+
+    private void prefetchIOURing(int rangeHi) {
+        reap();
+        int enqueued = 0;
+        OUT:
+        for (; nextRangeIndex < rangeHi; nextRangeIndex += 3) {
+            final long fd = ranges.getQuick(nextRangeIndex);
+            long lo = Math.max(ranges.getQuick(nextRangeIndex + 1), nextRangeLo);
+            final long hi = ranges.getQuick(nextRangeIndex + 2);
+            while (lo < hi) {
+                if (inFlightCount == bufferCount) {
+                    // buffer pool is exhausted; we'll carry on from here on the next call
+                    nextRangeLo = lo;
+                    break OUT;
+                }
+                final int len = (int) Math.min(hi - lo, bufferSize);
+                // the buffer content is discarded, so it is fine for reads to share
+                // a buffer in case they complete out of order
+                final long bufAddr = bufferAddr + (long) bufferIndex * bufferSize;
+                if (ring.enqueueRead(fd, lo, bufAddr, len) < 0) {
+                    nextRangeLo = lo;
+                    break OUT;
+                }
+                bufferIndex = (bufferIndex + 1) & (bufferCount - 1);
+                inFlightCount++;
+                enqueued++;
+                lo += len;
+            }
+            nextRangeLo = 0;
+        }
+        if (enqueued > 0) {
+            ring.submit();
+        }
+    }
+
+    private void reap() {
+        if (ring != null) {
+            // read errors are ignored, prefetch is the best effort
+            while (inFlightCount > 0 && ring.nextCqe()) {
+                inFlightCount--;
+            }
+        }
+    }
+}
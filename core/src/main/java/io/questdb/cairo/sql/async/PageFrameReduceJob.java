@@ -34,9 +34,12 @@ import io.questdb.log.LogFactory;
 import io.questdb.mp.Job;
 import io.questdb.mp.MCSequence;
 import io.questdb.mp.RingQueue;
+import io.questdb.std.MemoryAccountant;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
+import io.questdb.std.NanosecondClock;
 import io.questdb.std.Rnd;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
@@ -192,7 +195,18 @@ public class PageFrameReduceJob implements Job, Closeable {
             record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
             record.setFrameIndex(task.getFrameIndex());
             assert frameSequence.doneLatch.getCount() == 0;
-            frameSequence.getReducer().reduce(workerId, record, task, circuitBreaker, stealingFrameSequence);
+            // charge memory allocated by the reducer to the query that owns the frame sequence
+            final MemoryAccountant accountant = Unsafe.getMemoryAccountant();
+            Unsafe.setMemoryAccountant(frameSequence.getMemoryAccountant());
+            final NanosecondClock clock = frameSequence.getNanosecondClock();
+            final long start = clock.getTicks();
+            try {
+                frameSequence.getReducer().reduce(workerId, record, task, circuitBreaker, stealingFrameSequence);
+            } finally {
+                Unsafe.setMemoryAccountant(accountant);
+                // the time is published to the collecting thread along with the task
+                task.setReduceTime(workerId, clock.getTicks() - start);
+            }
         } else {
             frameSequence.cancel();
         }
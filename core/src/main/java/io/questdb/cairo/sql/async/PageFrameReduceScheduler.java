@@ -0,0 +1,125 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.std.Chars;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Shares page frame reduce queues among concurrently running queries.
+ * <p>
+ * Each active frame sequence is given a share of its shard's reduce queue proportional to the
+ * weight of its priority class, so that a large scan cannot fill the queue and make small queries
+ * wait behind it. Sequences with many frames are considered heavy; when the number of concurrently
+ * running heavy queries reaches the configured maximum, further heavy queries are not dispatched
+ * to the workers and reduce their frames on the query owner thread instead.
+ */
+public class PageFrameReduceScheduler {
+    public static final int PRIORITY_LOW = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_HIGH = 2;
+    private static final int[] PRIORITY_WEIGHTS = {1, 2, 4};
+    private final CairoConfiguration configuration;
+    private final int queueCapacity;
+    // sum of priority weights of active sequences, per shard
+    private final AtomicIntegerArray activeWeights;
+    private final AtomicInteger activeHeavyQueries = new AtomicInteger();
+
+    public PageFrameReduceScheduler(CairoConfiguration configuration) {
+        this.configuration = configuration;
+        this.queueCapacity = configuration.getPageFrameReduceQueueCapacity();
+        this.activeWeights = new AtomicIntegerArray(Math.max(1, configuration.getPageFrameReduceShardCount()));
+    }
+
+    /**
+     * Parses priority class name.
+     *
+     * @param name one of "low", "normal" and "high", case-insensitive
+     * @return priority class or -1 when name is not recognised
+     */
+    public static int priorityOf(CharSequence name) {
+        if (Chars.equalsLowerCaseAscii(name, "low")) {
+            return PRIORITY_LOW;
+        }
+        if (Chars.equalsLowerCaseAscii(name, "normal")) {
+            return PRIORITY_NORMAL;
+        }
+        if (Chars.equalsLowerCaseAscii(name, "high")) {
+            return PRIORITY_HIGH;
+        }
+        return -1;
+    }
+
+    /**
+     * Registers sequence that is about to dispatch frames.
+     *
+     * @return true when the sequence may dispatch frames to the workers, false when
+     * it must reduce them on its own thread
+     */
+    public boolean admit(int shard, int priority, boolean heavy) {
+        if (heavy) {
+            final int maxConcurrentHeavyQueries = configuration.getSqlMaxConcurrentHeavyQueries();
+            if (activeHeavyQueries.incrementAndGet() > maxConcurrentHeavyQueries && maxConcurrentHeavyQueries > 0) {
+                activeHeavyQueries.decrementAndGet();
+                return false;
+            }
+        }
+        activeWeights.addAndGet(shard, PRIORITY_WEIGHTS[priority]);
+        return true;
+    }
+
+    public int getActiveHeavyQueries() {
+        return activeHeavyQueries.get();
+    }
+
+    /**
+     * Maximum number of tasks the sequence may have in the reduce queue at any time.
+     */
+    public int getDispatchLimit(int shard, int priority) {
+        final int activeWeight = activeWeights.get(shard);
+        if (activeWeight <= PRIORITY_WEIGHTS[priority]) {
+            return queueCapacity;
+        }
+        return Math.max(1, (int) ((long) queueCapacity * PRIORITY_WEIGHTS[priority] / activeWeight));
+    }
+
+    public boolean isHeavy(int frameCount) {
+        return frameCount >= configuration.getSqlHeavyQueryFrameCount();
+    }
+
+    /**
+     * Unregisters sequence previously admitted via {@link #admit(int, int, boolean)}.
+     */
+    public void release(int shard, int priority, boolean heavy) {
+        activeWeights.addAndGet(shard, -PRIORITY_WEIGHTS[priority]);
+        if (heavy) {
+            activeHeavyQueries.decrementAndGet();
+        }
+    }
+}
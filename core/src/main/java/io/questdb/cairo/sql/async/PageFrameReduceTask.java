@@ -41,6 +41,8 @@ public class PageFrameReduceTask implements Closeable {
     private final long pageFrameQueueCapacity;
     private int frameIndex = Integer.MAX_VALUE;
     private PageFrameSequence<?> frameSequence;
+    private int reduceWorkerId;
+    private long reduceNanos;
 
     public PageFrameReduceTask(CairoConfiguration configuration) {
         this.rows = new DirectLongList(configuration.getPageFrameReduceRowIdListCapacity(), MemoryTag.NATIVE_OFFLOAD);
@@ -70,6 +72,8 @@ public class PageFrameReduceTask implements Closeable {
 
         // we assume that frame indexes are published in ascending order
         // and when we see the last index, we would free up the remaining resources
+        frameSequence.addReduceTime(reduceWorkerId, reduceNanos);
+
         if (frameIndex + 1 == frameCount) {
             frameSequence.reset();
         }
@@ -77,6 +81,11 @@ public class PageFrameReduceTask implements Closeable {
         frameSequence = null;
     }
 
+    void setReduceTime(int workerId, long nanos) {
+        this.reduceWorkerId = workerId;
+        this.reduceNanos = nanos;
+    }
+
     public void resetCapacities() {
         rows.resetCapacity();
         columns.resetCapacity();
@@ -114,6 +123,8 @@ public class PageFrameReduceTask implements Closeable {
     public void of(PageFrameSequence<?> frameSequence, int frameIndex) {
         this.frameSequence = frameSequence;
         this.frameIndex = frameIndex;
+        this.reduceWorkerId = -1;
+        this.reduceNanos = 0;
         rows.clear();
     }
 }
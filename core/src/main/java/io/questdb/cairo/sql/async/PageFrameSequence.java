@@ -53,8 +53,13 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     private final LongList frameRowCounts = new LongList();
     private final PageFrameReducer reducer;
     private final PageAddressCache pageAddressCache;
+    private final PageFramePrefetcher prefetcher;
     private final MessageBus messageBus;
     private final MillisecondClock clock;
+    private final NanosecondClock nanosecondClock;
+    // total reduce time per worker, the first slot is used by the query owner thread
+    private final LongList reduceNanosByWorker = new LongList();
+    private final PageFrameReduceScheduler scheduler;
     private long id;
     private int shard;
     private int dispatchStartFrameIndex;
@@ -71,7 +76,15 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     private final WeakClosableObjectPool<PageFrameReduceTask> localTaskPool;
     private long startTime;
     private long circuitBreakerFd;
+    // accountant of the query owning this sequence, reducers charge their allocations to it
+    private MemoryAccountant memoryAccountant;
     private SqlExecutionContext sqlExecutionContext;
+    private int queryPriority;
+    private boolean heavy;
+    // true when the sequence is registered with the scheduler and must be released on clear
+    private boolean scheduled;
+    // true when the sequence is not allowed to dispatch frames to the workers
+    private boolean throttled;
 
     public PageFrameSequence(
             CairoConfiguration configuration,
@@ -80,9 +93,12 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
             WeakClosableObjectPool<PageFrameReduceTask> localTaskPool
     ) {
         this.pageAddressCache = new PageAddressCache(configuration);
+        this.prefetcher = configuration.isSqlPageFramePrefetchEnabled() ? new PageFramePrefetcher(configuration) : null;
         this.messageBus = messageBus;
+        this.scheduler = messageBus.getPageFrameReduceScheduler();
         this.reducer = reducer;
         this.clock = configuration.getMillisecondClock();
+        this.nanosecondClock = configuration.getNanosecondClock();
         this.localTaskPool = localTaskPool;
     }
 
@@ -147,7 +163,17 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         dispatchStartFrameIndex = 0;
         collectedFrameIndex = -1;
         pageAddressCache.clear();
+        // wait for in-flight reads before the files are closed along with the page frame cursor
+        if (prefetcher != null) {
+            prefetcher.clear();
+        }
         symbolTableSource = Misc.free(symbolTableSource);
+        memoryAccountant = null;
+        if (scheduled) {
+            scheduler.release(shard, queryPriority, heavy);
+            scheduled = false;
+        }
+        throttled = false;
         // collect sequence may not be set here when
         // factory is closed without using cursor
         if (collectSubSeq != null) {
@@ -165,6 +191,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     @Override
     public void close() {
         this.clear();
+        Misc.free(prefetcher);
         Misc.free(circuitBreaker);
         Misc.free(record);
     }
@@ -179,6 +206,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
 
         this.sqlExecutionContext = executionContext;
         this.startTime = clock.getTicks();
+        this.reduceNanosByWorker.clear();
         this.circuitBreakerFd = executionContext.getCircuitBreaker().getFd();
 
         initRecord(executionContext.getCircuitBreaker());
@@ -197,6 +225,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
 
             // dispatch tasks only if there is anything to dispatch
             if (frameCount > 0) {
+                schedule(executionContext.getQueryPriority());
                 // We need to subscribe publisher sequence before we return
                 // control to the caller of this method. However, this sequence
                 // will be unsubscribed asynchronously.
@@ -215,6 +244,21 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         return this;
     }
 
+    /**
+     * Accumulates time spent reducing a frame. This method is not thread safe, it is
+     * invoked on the query owner thread when the task is collected.
+     *
+     * @param workerId id of the worker that reduced the frame, -1 for the query owner thread
+     * @param nanos    reduce time in nanoseconds
+     */
+    public void addReduceTime(int workerId, long nanos) {
+        final int index = workerId + 1;
+        while (reduceNanosByWorker.size() <= index) {
+            reduceNanosByWorker.add(0);
+        }
+        reduceNanosByWorker.setQuick(index, reduceNanosByWorker.getQuick(index) + nanos);
+    }
+
     public T getAtom() {
         return atom;
     }
@@ -223,6 +267,10 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         return circuitBreakerFd;
     }
 
+    public int getDispatchStartFrameIndex() {
+        return dispatchStartFrameIndex;
+    }
+
     public int getFrameCount() {
         return frameCount;
     }
@@ -235,6 +283,10 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         return id;
     }
 
+    public NanosecondClock getNanosecondClock() {
+        return nanosecondClock;
+    }
+
     public PageAddressCache getPageAddressCache() {
         return pageAddressCache;
     }
@@ -243,6 +295,22 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         return reduceCounter;
     }
 
+    public PageFramePrefetcher getPrefetcher() {
+        return prefetcher;
+    }
+
+    public MemoryAccountant getMemoryAccountant() {
+        return memoryAccountant;
+    }
+
+    /**
+     * @return total reduce time of the last execution indexed by worker id plus one,
+     * the first element is the time spent by the query owner thread
+     */
+    public LongList getReduceNanosByWorker() {
+        return reduceNanosByWorker;
+    }
+
     public PageFrameReducer getReducer() {
         return reducer;
     }
@@ -338,8 +406,22 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         long cursor;
         int i = dispatchStartFrameIndex;
         dispatchStartFrameIndex = frameCount;
+        final int dispatchLimit = throttled ? 0 : scheduler.getDispatchLimit(shard, queryPriority);
         OUT:
         for (; i < frameCount; i++) {
+            // Request column data ahead of the frames that are about to be published,
+            // so that it is on its way by the time workers pick the frames up.
+            if (prefetcher != null) {
+                prefetcher.prefetch(i);
+            }
+            // Queue slots stay taken until the frame is collected, not just reduced, so a slow
+            // consumer must not keep dispatching while its reduced frames pile up in the queue.
+            if (i - (collectedFrameIndex + 1) >= dispatchLimit) {
+                // The sequence has used up its share of the reduce queue. Leave the rest
+                // of the queue to other queries and reduce or collect what we have.
+                dispatchStartFrameIndex = i;
+                break;
+            }
             // We cannot process work on this thread. If we do the consumer will
             // never get the executions results. Consumer only picks ready to go
             // tasks from the queue.
@@ -393,6 +475,20 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         return dispatched;
     }
 
+    private void schedule(int priority) {
+        this.queryPriority = priority;
+        this.heavy = scheduler.isHeavy(frameCount);
+        this.scheduled = scheduler.admit(shard, priority, heavy);
+        this.throttled = !scheduled;
+        if (throttled) {
+            LOG.info()
+                    .$("heavy query throttled, reducing on owner thread [shard=").$(shard)
+                    .$(", id=").$(id)
+                    .$(", frameCount=").$(frameCount)
+                    .I$();
+        }
+    }
+
     private boolean stealWork(
             RingQueue<PageFrameReduceTask> queue,
             MCSequence reduceSubSeq,
@@ -412,6 +508,9 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         if (localTask == null) {
             localTask = localTaskPool.pop();
         }
+        if (prefetcher != null) {
+            prefetcher.prefetch(dispatchStartFrameIndex);
+        }
         localTask.of(this, dispatchStartFrameIndex++);
 
         try {
@@ -467,6 +566,9 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
             collectedFrameIndex = -1;
             reduceCounter.set(0);
             valid.set(true);
+            if (prefetcher != null) {
+                prefetcher.toTop();
+            }
         }
     }
 
@@ -482,6 +584,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         }
 
         this.circuitBreaker.setFd(executionContextCircuitBreaker.getFd());
+        this.memoryAccountant = executionContextCircuitBreaker.getMemoryAccountant();
     }
 
     private void prepareForDispatch(
@@ -514,6 +617,9 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         int frameIndex = 0;
         while ((frame = pageFrameCursor.next()) != null) {
             this.pageAddressCache.add(frameIndex++, frame);
+            if (prefetcher != null) {
+                prefetcher.add(frame);
+            }
             frameRowCounts.add(frame.getPartitionHi() - frame.getPartitionLo());
         }
         return frameIndex;
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableUtils;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A version of {@link MemoryCARWImpl} that moves its contiguous memory region to a memory-mapped
+ * temp file once the region grows beyond the configured spill threshold. Mapped pages are backed by
+ * the file rather than swap, so the OS can evict them under memory pressure. The temp file is removed
+ * as soon as it is opened, where the OS allows that, and otherwise when the memory is cleared.
+ */
+public class MemoryCARWSpillImpl extends MemoryCARWImpl {
+    private static final Log LOG = LogFactory.getLog(MemoryCARWSpillImpl.class);
+    private static final AtomicLong SPILL_FILE_ID = new AtomicLong();
+    private final int memoryTag;
+    private final int mkDirMode;
+    private final CharSequence spillRoot;
+    private final long spillThreshold;
+    private Path spillPath;
+
+    public MemoryCARWSpillImpl(CairoConfiguration configuration, long pageSize, int maxPages, int memoryTag) {
+        super(pageSize, maxPages, memoryTag);
+        this.memoryTag = memoryTag;
+        this.ff = configuration.getFilesFacade();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.spillRoot = configuration.getSqlSpillRoot();
+        this.spillThreshold = configuration.getSqlSpillThreshold();
+    }
+
+    @Override
+    public void clear() {
+        if (fd == -1) {
+            super.clear();
+            return;
+        }
+        if (pageAddress != 0) {
+            ff.munmap(pageAddress, size, MemoryTag.MMAP_SPILL);
+            handleMemoryReleased();
+        }
+        closeSpillFile();
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        spillPath = Misc.free(spillPath);
+    }
+
+    public boolean isSpilled() {
+        return fd != -1;
+    }
+
+    private void closeSpillFile() {
+        ff.close(fd);
+        fd = -1;
+        if (spillPath != null && spillPath.length() > 0) {
+            if (!ff.remove(spillPath)) {
+                LOG.error().$("could not remove spill file [path=").$(spillPath).$(", errno=").$(ff.errno()).I$();
+            }
+            spillPath.trimTo(0);
+        }
+    }
+
+    private void openSpillFile() {
+        if (spillPath == null) {
+            spillPath = new Path();
+        }
+        spillPath.of(spillRoot).slash$();
+        if (!ff.exists(spillPath) && ff.mkdirs(spillPath, mkDirMode) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create spill dir [path=").put(spillPath).put(']');
+        }
+        spillPath.of(spillRoot)
+                .concat("spill-").put(Os.currentTimeNanos()).put('-').put(SPILL_FILE_ID.incrementAndGet())
+                .put(".tmp").$();
+        fd = TableUtils.openFileRWOrFail(ff, spillPath, CairoConfiguration.O_NONE);
+        // Posix keeps the file around until it is closed, so nothing is left behind should the process die.
+        if (Os.isPosix() && ff.remove(spillPath)) {
+            spillPath.trimTo(0);
+        }
+        LOG.info().$("spilling to disk [fd=").$(fd).$(", threshold=").$(spillThreshold).I$();
+    }
+
+    @Override
+    protected long reallocateMemory(long currentBaseAddress, long currentSize, long newSize) {
+        if (fd == -1) {
+            if (newSize <= spillThreshold) {
+                return super.reallocateMemory(currentBaseAddress, currentSize, newSize);
+            }
+            openSpillFile();
+            try {
+                final long address = TableUtils.mapRW(ff, fd, newSize, MemoryTag.MMAP_SPILL);
+                if (currentBaseAddress != 0) {
+                    Vect.memcpy(address, currentBaseAddress, Math.min(currentSize, newSize));
+                    Unsafe.free(currentBaseAddress, currentSize, memoryTag);
+                }
+                return address;
+            } catch (Throwable e) {
+                closeSpillFile();
+                throw e;
+            }
+        }
+        TableUtils.allocateDiskSpace(ff, fd, newSize);
+        return TableUtils.mremap(ff, fd, currentBaseAddress, currentSize, newSize, Files.MAP_RW, MemoryTag.MMAP_SPILL);
+    }
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnMappingCache;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Chars;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.str.LPSZ;
+
+//contiguous mapped readable, mapping is shared with other readers of the same file
+public class MemoryCMRSharedImpl extends AbstractMemoryCR implements MemoryCMR {
+    private static final Log LOG = LogFactory.getLog(MemoryCMRSharedImpl.class);
+    private final ColumnMappingCache cache;
+    private final int tableId;
+    private ColumnMappingCache.Mapping mapping;
+    private String fileName;
+
+    public MemoryCMRSharedImpl(ColumnMappingCache cache, int tableId) {
+        this.cache = cache;
+        this.tableId = tableId;
+    }
+
+    @Override
+    public void close() {
+        if (mapping != null) {
+            cache.release(mapping);
+            mapping = null;
+        } else if (fd != -1) {
+            ff.close(fd);
+        }
+        fd = -1;
+        pageAddress = 0;
+        size = 0;
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            if (mapping != null && mapping.getSize() >= newSize) {
+                // shared mapping is already large enough
+                size = newSize;
+                return;
+            }
+            final ColumnMappingCache.Mapping grown = cache.acquire(ff, tableId, fileName, newSize);
+            close();
+            setMapping(grown, newSize);
+        }
+    }
+
+    @Override
+    public boolean isMapped(long offset, long len) {
+        return offset + len <= size();
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts) {
+        if (size < 0) {
+            size = ff.length(name);
+            if (size < 0) {
+                close();
+                throw CairoException.critical(ff.errno()).put("Could not get length: ").put(name);
+            }
+        }
+        // reuse file name when reader reloads the same column file
+        if (fileName == null || !Chars.equals(fileName, name)) {
+            fileName = Chars.toString(name);
+        }
+        if (size > 0) {
+            // acquire new mapping before releasing the old one, reload of the same
+            // file then does not unmap and map it again
+            final ColumnMappingCache.Mapping next;
+            try {
+                next = cache.acquire(ff, tableId, fileName, size);
+            } catch (Throwable e) {
+                close();
+                throw e;
+            }
+            close();
+            this.ff = ff;
+            setMapping(next, size);
+        } else {
+            close();
+            this.ff = ff;
+            // nothing to share, hold on to the file the same way non-shared memory does
+            fd = TableUtils.openRO(ff, name, LOG);
+        }
+    }
+
+    private void setMapping(ColumnMappingCache.Mapping mapping, long size) {
+        this.mapping = mapping;
+        this.fd = mapping.getFd();
+        this.pageAddress = mapping.getAddress();
+        // mapping can be larger than this reader is allowed to see
+        this.size = size;
+    }
+}
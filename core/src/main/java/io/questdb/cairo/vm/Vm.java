@@ -24,6 +24,7 @@
 
 package io.questdb.cairo.vm;
 
+import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.vm.api.*;
 import io.questdb.log.Log;
 import io.questdb.std.Files;
@@ -83,6 +84,13 @@ public class Vm {
         return new MemoryCARWImpl(pageSize, maxPages, memoryTag);
     }
 
+    public static MemoryARW getSpillableARWInstance(CairoConfiguration configuration, long pageSize, int maxPages, int memoryTag) {
+        if (configuration.getSqlSpillThreshold() > 0) {
+            return new MemoryCARWSpillImpl(configuration, pageSize, maxPages, memoryTag);
+        }
+        return new MemoryCARWImpl(pageSize, maxPages, memoryTag);
+    }
+
     public static MemoryCMARW getCMARWInstance(FilesFacade ff, LPSZ name, long pageSize, long size, int memoryTag, long opts) {
         return new MemoryCMARWImpl(ff, name, pageSize, size, memoryTag, opts);
     }
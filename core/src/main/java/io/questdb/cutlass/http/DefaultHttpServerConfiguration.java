@@ -24,6 +24,7 @@
 
 package io.questdb.cutlass.http;
 
+import io.questdb.cairo.sql.async.PageFrameReduceScheduler;
 import io.questdb.cutlass.http.processors.JsonQueryProcessorConfiguration;
 import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
 import io.questdb.network.DefaultIODispatcherConfiguration;
@@ -102,6 +103,11 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         public long getMaxQueryResponseRowLimit() {
             return Long.MAX_VALUE;
         }
+
+        @Override
+        public int getQueryPriority() {
+            return PageFrameReduceScheduler.PRIORITY_NORMAL;
+        }
     };
 
     public DefaultHttpServerConfiguration() {
@@ -141,6 +147,11 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         return jsonQueryProcessorConfiguration;
     }
 
+    @Override
+    public long getMetricsRenderInterval() {
+        return 1000;
+    }
+
     @Override
     public boolean isQueryCacheEnabled() {
         return true;
@@ -33,5 +33,11 @@ public interface HttpMinServerConfiguration extends WorkerPoolAwareConfiguration
 
     HttpContextConfiguration getHttpContextConfiguration();
 
+    /**
+     * Prometheus metrics text is rendered at most once per this interval, in milliseconds,
+     * and shared by all scrapes that arrive within it.
+     */
+    long getMetricsRenderInterval();
+
     WaitProcessorConfiguration getWaitProcessorConfiguration();
 }
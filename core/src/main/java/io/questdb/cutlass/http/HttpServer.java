@@ -33,6 +33,7 @@ import io.questdb.griffin.DatabaseSnapshotAgent;
 import io.questdb.griffin.FunctionFactoryCache;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.metrics.PrometheusScrapeCache;
 import io.questdb.mp.FanOut;
 import io.questdb.mp.Job;
 import io.questdb.mp.SCSequence;
@@ -60,6 +61,7 @@ public class HttpServer implements Closeable {
     private final HttpContextFactory httpContextFactory;
     private final WorkerPool workerPool;
     private final WaitProcessor rescheduleContext;
+    private PrometheusScrapeCache prometheusScrapeCache;
 
     public HttpServer(HttpMinServerConfiguration configuration, MessageBus messageBus, Metrics metrics, WorkerPool pool, boolean localPool) {
         this.workerCount = pool.getWorkerCount();
@@ -294,6 +296,7 @@ public class HttpServer implements Closeable {
         Misc.free(httpContextFactory);
         Misc.free(dispatcher);
         Misc.free(rescheduleContext);
+        Misc.free(prometheusScrapeCache);
     }
 
     private static HttpServer create0(
@@ -307,7 +310,7 @@ public class HttpServer implements Closeable {
             Metrics metrics
     ) {
         final HttpServer s = new HttpServer(configuration, cairoEngine.getMessageBus(), metrics, workerPool, localPool);
-        QueryCache.configure(configuration, metrics);
+        QueryCache.configure(configuration, metrics, cairoEngine.getQueryPlanCache());
         HttpRequestProcessorBuilder jsonQueryProcessorBuilder = () -> new JsonQueryProcessor(
                 configuration.getJsonQueryProcessorConfiguration(),
                 cairoEngine,
@@ -342,10 +345,13 @@ public class HttpServer implements Closeable {
             }
         }, true);
         if (metrics.isEnabled()) {
+            // rendered text is shared by processors of all workers
+            final PrometheusScrapeCache scrapeCache = new PrometheusScrapeCache(metrics, configuration.getMetricsRenderInterval());
+            s.prometheusScrapeCache = scrapeCache;
             s.bind(new HttpRequestProcessorFactory() {
                 @Override
                 public HttpRequestProcessor newInstance() {
-                    return new PrometheusMetricsProcessor(metrics);
+                    return new PrometheusMetricsProcessor(scrapeCache);
                 }
 
                 @Override
@@ -26,6 +26,7 @@ package io.questdb.cutlass.http.processors;
 
 import io.questdb.metrics.Counter;
 import io.questdb.metrics.Gauge;
+import io.questdb.metrics.Histogram;
 import io.questdb.metrics.MetricsRegistry;
 import org.jetbrains.annotations.TestOnly;
 
@@ -34,19 +35,38 @@ public class JsonQueryMetrics {
     private final Counter startedQueriesCounter;
     private final Counter completedQueriesCounter;
     private final Gauge cachedQueriesGauge;
+    private final Histogram compileTimeHistogram;
+    private final Histogram executeTimeHistogram;
 
     public JsonQueryMetrics(MetricsRegistry metricsRegistry) {
         this.startedQueriesCounter = metricsRegistry.newCounter("json_queries");
         this.completedQueriesCounter = metricsRegistry.newCounter("json_queries_completed");
         this.cachedQueriesGauge = metricsRegistry.newGauge("json_queries_cached");
+        this.compileTimeHistogram = metricsRegistry.newHistogram("json_queries_compile_time_micros", Histogram.LATENCY_MICROS_BOUNDS);
+        this.executeTimeHistogram = metricsRegistry.newHistogram("json_queries_execute_time_micros", Histogram.LATENCY_MICROS_BOUNDS);
     }
 
     public void markStart() {
         startedQueriesCounter.inc();
     }
 
-    public void markComplete() {
+    public void markComplete(long executionTimeNanos) {
         completedQueriesCounter.inc();
+        executeTimeHistogram.record(executionTimeNanos / 1000);
+    }
+
+    public void recordCompileTime(long compileTimeNanos) {
+        compileTimeHistogram.record(compileTimeNanos / 1000);
+    }
+
+    @TestOnly
+    public Histogram compileTimeHistogram() {
+        return compileTimeHistogram;
+    }
+
+    @TestOnly
+    public Histogram executeTimeHistogram() {
+        return executeTimeHistogram;
     }
 
     public Gauge cachedQueriesGauge() {
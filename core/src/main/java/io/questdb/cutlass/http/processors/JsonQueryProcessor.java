@@ -68,6 +68,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     private final Metrics metrics;
     private final long asyncWriterStartTimeout;
     private final long asyncCommandTimeout;
+    private final QueryLog queryLog;
 
     @TestOnly
     public JsonQueryProcessor(
@@ -128,11 +129,13 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         // Query types start with 1 instead of 0, so we have to add 1 to the expected size.
         assert this.queryExecutors.size() == (CompiledQuery.TYPES_COUNT + 1);
         this.sqlExecutionContext = sqlExecutionContext;
+        this.sqlExecutionContext.setQueryPriority(configuration.getQueryPriority());
         this.nanosecondClock = engine.getConfiguration().getNanosecondClock();
         this.circuitBreaker = new NetworkSqlExecutionCircuitBreaker(engine.getConfiguration().getCircuitBreakerConfiguration(), MemoryTag.NATIVE_CB3);
         this.metrics = engine.getMetrics();
         this.asyncWriterStartTimeout = engine.getConfiguration().getWriterAsyncCommandBusyWaitTimeout();
         this.asyncCommandTimeout = engine.getConfiguration().getWriterAsyncCommandMaxTimeout();
+        this.queryLog = engine.getQueryLog();
     }
 
     @Override
@@ -150,15 +153,18 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         if (fut == null) {
             metrics.jsonQuery().markStart();
             state.startExecutionTimer();
+            state.getMemoryAccountant().reset();
             // do not set random for new request to avoid copying random from previous request into next one
             // the only time we need to copy random from state is when we resume request execution
-            sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), circuitBreaker.of(context.getFd()));
+            sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), circuitBreaker.of(context.getFd(), state.getMemoryAccountant()));
             if (state.getStatementTimeout() > 0L) {
                 circuitBreaker.setTimeout(state.getStatementTimeout());
             } else {
                 circuitBreaker.resetMaxTimeToDefault();
             }
             state.info().$("exec [q='").utf8(state.getQuery()).$("']").$();
+        } else {
+            circuitBreaker.of(context.getFd(), state.getMemoryAccountant());
         }
 
         try {
@@ -178,6 +184,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                 } catch (ReaderOutOfDateException e) {
                     LOG.info().$(e.getFlyweightMessage()).$();
                     Misc.free(factory);
+                    QueryCache.getInstance().invalidate(state.getQuery());
                     compileQuery(state);
                 }
             } else {
@@ -199,15 +206,18 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         } catch (Throwable e) {
             state.critical().$("Uh-oh. Error!").$(e).$();
             throw ServerDisconnectException.INSTANCE;
+        } finally {
+            circuitBreaker.unbind();
         }
     }
 
-    private static void sendUpdateConfirmation(JsonQueryProcessorState state, CharSequence keepAliveHeader, long updateRecords) throws PeerDisconnectedException, PeerIsSlowToReadException {
+    private void sendUpdateConfirmation(JsonQueryProcessorState state, CharSequence keepAliveHeader, long updateRecords) throws PeerDisconnectedException, PeerIsSlowToReadException {
         final HttpConnectionContext context = state.getHttpConnectionContext();
         final HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
         header(socket, keepAliveHeader, 200);
         socket.put('{').putQuoted("ddl").put(':').putQuoted("OK").put(',').putQuoted("updated").put(':').put(updateRecords).put('}').put('\n');
         socket.sendChunk(true);
+        logQuery(state, updateRecords);
         readyForNextRequest(context);
     }
 
@@ -242,8 +252,16 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         final JsonQueryProcessorState state = LV.get(context);
         if (state != null) {
             // we are resuming request execution, we need to copy random to execution context
-            sqlExecutionContext.with(context.getCairoSecurityContext(), null, state.getRnd(), context.getFd(), circuitBreaker.of(context.getFd()));
-            doResumeSend(state, context);
+            sqlExecutionContext.with(context.getCairoSecurityContext(), null, state.getRnd(), context.getFd(), circuitBreaker.of(context.getFd(), state.getMemoryAccountant()));
+            try {
+                doResumeSend(state, context);
+            } catch (CairoException e) {
+                // part of the response is sent already, the only way to report the error is to cut the response short
+                state.error().$("could not resume [msg=").$(e.getFlyweightMessage()).I$();
+                throw PeerDisconnectedException.INSTANCE;
+            } finally {
+                circuitBreaker.unbind();
+            }
         }
     }
 
@@ -256,7 +274,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         }
     }
 
-    private static void doResumeSend(
+    private void doResumeSend(
             JsonQueryProcessorState state,
             HttpConnectionContext context
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
@@ -285,6 +303,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             }
         }
         // reached the end naturally?
+        logQuery(state, state.getRowCount());
         readyForNextRequest(context);
     }
 
@@ -316,27 +335,49 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             CompiledQuery cq,
             CharSequence keepAliveHeader
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        metrics.jsonQuery().markComplete();
+        metrics.jsonQuery().markComplete(state.getExecutionTimeNanos());
         sendConfirmation(state, keepAliveHeader);
     }
 
-    private static void sendConfirmation(JsonQueryProcessorState state, CharSequence keepAliveHeader) throws PeerDisconnectedException, PeerIsSlowToReadException {
+    private void sendConfirmation(JsonQueryProcessorState state, CharSequence keepAliveHeader) throws PeerDisconnectedException, PeerIsSlowToReadException {
         final HttpConnectionContext context = state.getHttpConnectionContext();
         final HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
         header(socket, keepAliveHeader, 200);
         socket.put('{').putQuoted("ddl").put(':').putQuoted("OK").put('}').put('\n');
         socket.sendChunk(true);
+        logQuery(state, 0);
         readyForNextRequest(context);
     }
 
+    private void logQuery(JsonQueryProcessorState state, long rowCount) {
+        if (queryLog != null) {
+            final HttpConnectionContext context = state.getHttpConnectionContext();
+            queryLog.log(
+                    state.getQuery(),
+                    QueryLog.PROTOCOL_HTTP,
+                    null,
+                    state.getCompilerNanos(),
+                    state.getExecutionTimeNanos(),
+                    rowCount,
+                    context.getLastRequestBytesSent(),
+                    state.getMemoryAccountant().getPeak(),
+                    state.isQueryCacheHit(),
+                    state.isQueryJitCompiled()
+            );
+        }
+    }
+
     private void compileQuery(JsonQueryProcessorState state) throws SqlException, PeerDisconnectedException, PeerIsSlowToReadException {
         boolean recompileStale = true;
         for (int retries = 0; recompileStale; retries++) {
             try {
                 final long nanos = nanosecondClock.getTicks();
+                state.setQueryCacheHit(false);
                 final CompiledQuery cc = compiler.compile(state.getQuery(), sqlExecutionContext);
                 sqlExecutionContext.storeTelemetry(cc.getType(), Telemetry.ORIGIN_HTTP_JSON);
-                state.setCompilerNanos(nanosecondClock.getTicks() - nanos);
+                final long compilerNanos = nanosecondClock.getTicks() - nanos;
+                state.setCompilerNanos(compilerNanos);
+                metrics.jsonQuery().recordCompileTime(compilerNanos);
                 state.setQueryType(cc.getType());
                 queryExecutors.getQuick(cc.getType()).execute(
                         state,
@@ -400,7 +441,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                 fut.close();
             }
         }
-        metrics.jsonQuery().markComplete();
+        metrics.jsonQuery().markComplete(state.getExecutionTimeNanos());
         sendConfirmation(state, keepAliveHeader);
     }
 
@@ -410,6 +451,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             CharSequence keepAliveHeader
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
         state.setCompilerNanos(0);
+        state.setQueryCacheHit(true);
         state.logExecuteCached();
         executeSelect(state, factory, keepAliveHeader);
     }
@@ -452,7 +494,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             }
             // All good, finished update
             final long updatedCount = fut.getAffectedRowsCount();
-            metrics.jsonQuery().markComplete();
+            metrics.jsonQuery().markComplete(state.getExecutionTimeNanos());
             sendUpdateConfirmation(state, keepAliveHeader, updatedCount);
         } finally {
             if (!isAsyncWait && fut != null) {
@@ -504,7 +546,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             CharSequence keepAliveHeader
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
         cq.getInsertOperation().execute(sqlExecutionContext).await();
-        metrics.jsonQuery().markComplete();
+        metrics.jsonQuery().markComplete(state.getExecutionTimeNanos());
         sendConfirmation(state, keepAliveHeader);
     }
 
@@ -531,7 +573,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             if (state.of(factory, sqlExecutionContext)) {
                 header(context.getChunkedResponseSocket(), keepAliveHeader, 200);
                 doResumeSend(state, context);
-                metrics.jsonQuery().markComplete();
+                metrics.jsonQuery().markComplete(state.getExecutionTimeNanos());
             } else {
                 readyForNextRequest(context);
             }
@@ -558,7 +600,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         if (state.of(factory, false, sqlExecutionContext)) {
             header(context.getChunkedResponseSocket(), keepAliveHeader, 200);
             doResumeSend(state, context);
-            metrics.jsonQuery().markComplete();
+            metrics.jsonQuery().markComplete(state.getExecutionTimeNanos());
         } else {
             readyForNextRequest(context);
         }
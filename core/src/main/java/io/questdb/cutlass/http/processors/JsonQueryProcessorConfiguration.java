@@ -42,4 +42,5 @@ public interface JsonQueryProcessorConfiguration {
     CharSequence getKeepAliveHeader();
 
     long getMaxQueryResponseRowLimit();
+    int getQueryPriority();
 }
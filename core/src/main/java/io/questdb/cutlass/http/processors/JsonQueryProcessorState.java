@@ -33,6 +33,7 @@ import io.questdb.cutlass.http.HttpConnectionContext;
 import io.questdb.cutlass.http.HttpRequestHeader;
 import io.questdb.cutlass.text.TextUtil;
 import io.questdb.cutlass.text.Utf8Exception;
+import io.questdb.griffin.QueryResultCache;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContextImpl;
 import io.questdb.log.Log;
@@ -71,6 +72,8 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private final int doubleScale;
     private final SCSequence eventSubSequence = new SCSequence();
     private final long statementTimeout;
+    // charged with memory of the query across resumes, which may run on different workers
+    private final MemoryAccountant memoryAccountant = new MemoryAccountant();
     private OperationFuture operationFuture;
     private Rnd rnd;
     private RecordCursorFactory recordCursorFactory;
@@ -92,6 +95,8 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private boolean timings;
     private boolean queryCacheable = false;
     private boolean queryJitCompiled = false;
+    private boolean queryCacheHit = false;
+    private long rowCount;
     private short queryType;
     private QuietClosable asyncOperation;
 
@@ -140,6 +145,8 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         countRows = false;
         explain = false;
         queryJitCompiled = false;
+        queryCacheHit = false;
+        rowCount = 0;
         operationFuture = Misc.free(operationFuture);
     }
 
@@ -160,6 +167,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         TextUtil.utf8Decode(query.getLo(), query.getHi(), this.query);
         this.skip = skip;
         this.count = 0L;
+        this.rowCount = 0L;
         this.stop = stop;
         this.noMeta = Chars.equalsNc("true", request.getUrlParam("nm"));
         this.countRows = Chars.equalsNc("true", request.getUrlParam("count"));
@@ -202,6 +210,14 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return httpConnectionContext;
     }
 
+    public MemoryAccountant getMemoryAccountant() {
+        return memoryAccountant;
+    }
+
+    public long getCompilerNanos() {
+        return compilerNanos;
+    }
+
     public CharSequence getQuery() {
         return query;
     }
@@ -210,6 +226,13 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return queryType;
     }
 
+    /**
+     * @return number of rows sent by the last completed SELECT
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
     public Rnd getRnd() {
         return rnd;
     }
@@ -239,6 +262,14 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         info().$("Response buffer is too small, state=").$(queryState).$();
     }
 
+    public boolean isQueryCacheHit() {
+        return queryCacheHit;
+    }
+
+    public boolean isQueryJitCompiled() {
+        return queryJitCompiled;
+    }
+
     public void logExecuteCached() {
         info().$("execute-cached ").$("[skip: ").$(skip).$(", stop: ").$(stop).$(']').$();
     }
@@ -267,6 +298,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.compilerNanos = compilerNanos;
     }
 
+    public void setQueryCacheHit(boolean queryCacheHit) {
+        this.queryCacheHit = queryCacheHit;
+    }
+
     public void startExecutionTimer() {
         this.executeStartNanos = nanosecondClock.getTicks();
     }
@@ -628,6 +663,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
                 socket.put('}');
             }
             socket.put('}');
+            rowCount = count;
             count = -1;
             socket.sendChunk(true);
             return;
@@ -665,7 +701,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.recordCursorFactory = factory;
         this.queryCacheable = queryCacheable;
         this.queryJitCompiled = factory.usesCompiledFilter();
-        this.cursor = factory.getCursor(sqlExecutionContext);
+        final QueryResultCache resultCache = sqlExecutionContext.getCairoEngine().getQueryResultCache();
+        this.cursor = resultCache != null
+                ? resultCache.getCursor(query, factory, sqlExecutionContext)
+                : factory.getCursor(sqlExecutionContext);
         final RecordMetadata metadata = factory.getMetadata();
         HttpRequestHeader header = httpConnectionContext.getRequestHeader();
         DirectByteCharSequence columnNames = header.getUrlParam("cols");
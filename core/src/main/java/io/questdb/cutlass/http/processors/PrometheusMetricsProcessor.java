@@ -27,26 +27,97 @@ package io.questdb.cutlass.http.processors;
 import io.questdb.cutlass.http.HttpChunkedResponseSocket;
 import io.questdb.cutlass.http.HttpConnectionContext;
 import io.questdb.cutlass.http.HttpRequestProcessor;
-import io.questdb.metrics.Scrapable;
+import io.questdb.cutlass.http.LocalValue;
+import io.questdb.metrics.PrometheusScrapeCache;
+import io.questdb.network.NoSpaceLeftInResponseBufferException;
 import io.questdb.network.PeerDisconnectedException;
 import io.questdb.network.PeerIsSlowToReadException;
+import io.questdb.std.Mutable;
+import io.questdb.std.str.DirectByteCharSequence;
+
+import java.io.Closeable;
 
 public class PrometheusMetricsProcessor implements HttpRequestProcessor {
     private static final CharSequence CONTENT_TYPE_TEXT = "text/plain; version=0.0.4; charset=utf-8";
-    private final Scrapable metrics;
+    // pre-rendered text is copied into response buffer in slices,
+    // the buffer is flushed when next slice does not fit
+    private static final int SLICE_SIZE = 1024;
+    private static final LocalValue<ScrapeState> LV = new LocalValue<>();
+    private final PrometheusScrapeCache cache;
+    private final DirectByteCharSequence slice = new DirectByteCharSequence();
 
-    public PrometheusMetricsProcessor(Scrapable metrics) {
-        this.metrics = metrics;
+    public PrometheusMetricsProcessor(PrometheusScrapeCache cache) {
+        this.cache = cache;
     }
 
     @Override
     public void onRequestComplete(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        ScrapeState state = LV.get(context);
+        if (state == null) {
+            LV.set(context, state = new ScrapeState());
+        }
+        state.of(cache);
+
         HttpChunkedResponseSocket r = context.getChunkedResponseSocket();
         r.status(200, CONTENT_TYPE_TEXT);
         r.sendHeader();
 
-        metrics.scrapeIntoPrometheus(r);
+        doResumeSend(state, r);
+    }
+
+    @Override
+    public void resumeSend(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final ScrapeState state = LV.get(context);
+        if (state != null && state.buffer != null) {
+            doResumeSend(state, context.getChunkedResponseSocket());
+        }
+    }
 
+    private void doResumeSend(ScrapeState state, HttpChunkedResponseSocket r) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final long hi = state.buffer.getHi();
+        while (state.pos < hi) {
+            final long sliceHi = Math.min(state.pos + SLICE_SIZE, hi);
+            r.bookmark();
+            try {
+                r.put(slice.of(state.pos, sliceHi));
+                state.pos = sliceHi;
+            } catch (NoSpaceLeftInResponseBufferException e) {
+                if (r.resetToBookmark()) {
+                    r.sendChunk(false);
+                } else {
+                    // response buffer is smaller than a slice
+                    throw PeerDisconnectedException.INSTANCE;
+                }
+            }
+        }
         r.done();
+        state.clear();
+    }
+
+    private static class ScrapeState implements Mutable, Closeable {
+        private PrometheusScrapeCache cache;
+        private PrometheusScrapeCache.Buffer buffer;
+        private long pos;
+
+        @Override
+        public void clear() {
+            if (buffer != null) {
+                cache.release(buffer);
+                buffer = null;
+                cache = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            clear();
+        }
+
+        void of(PrometheusScrapeCache cache) {
+            clear();
+            this.cache = cache;
+            this.buffer = cache.acquire();
+            this.pos = buffer.getLo();
+        }
     }
 }
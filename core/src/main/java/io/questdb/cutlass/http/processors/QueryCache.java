@@ -27,11 +27,13 @@ package io.questdb.cutlass.http.processors;
 import io.questdb.Metrics;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cutlass.http.HttpServerConfiguration;
+import io.questdb.griffin.QueryPlanCache;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.metrics.Gauge;
 import io.questdb.std.AssociativeCache;
 import io.questdb.std.ThreadLocal;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -40,17 +42,29 @@ public final class QueryCache implements Closeable {
     private static final Log LOG = LogFactory.getLog(QueryCache.class);
     private static ThreadLocal<QueryCache> TL_QUERY_CACHE;
     private final AssociativeCache<RecordCursorFactory> cache;
+    // when engine-wide plan cache is enabled factories are shared with other threads through it
+    private final QueryPlanCache planCache;
 
     public QueryCache(int blocks, int rows, Gauge cachedQueriesGauge) {
+        this(blocks, rows, cachedQueriesGauge, null);
+    }
+
+    public QueryCache(int blocks, int rows, Gauge cachedQueriesGauge, @Nullable QueryPlanCache planCache) {
         this.cache = new AssociativeCache<>(blocks, rows, cachedQueriesGauge);
+        this.planCache = planCache;
     }
 
     public static void configure(HttpServerConfiguration configuration, Metrics metrics) {
+        configure(configuration, metrics, null);
+    }
+
+    public static void configure(HttpServerConfiguration configuration, Metrics metrics, @Nullable QueryPlanCache planCache) {
         final boolean enableQueryCache = configuration.isQueryCacheEnabled();
         final int blockCount = enableQueryCache ? configuration.getQueryCacheBlockCount() : 1;
         final int rowCount = enableQueryCache ? configuration.getQueryCacheRowCount() : 1;
+        final QueryPlanCache sharedCache = enableQueryCache ? planCache : null;
         TL_QUERY_CACHE = new ThreadLocal<>(
-                () -> new QueryCache(blockCount, rowCount, metrics.jsonQuery().cachedQueriesGauge())
+                () -> new QueryCache(blockCount, rowCount, metrics.jsonQuery().cachedQueriesGauge(), sharedCache)
         );
     }
 
@@ -64,15 +78,30 @@ public final class QueryCache implements Closeable {
         LOG.info().$("closed").$();
     }
 
+    /**
+     * Discards factories of the SQL shared with other threads, e.g. after they have been
+     * found out of date with table structure.
+     */
+    public void invalidate(CharSequence sql) {
+        if (planCache != null) {
+            planCache.invalidate(sql);
+            log("invalidate", sql);
+        }
+    }
+
     public RecordCursorFactory poll(CharSequence sql) {
-        final RecordCursorFactory factory = cache.poll(sql);
+        final RecordCursorFactory factory = planCache != null ? planCache.poll(sql) : cache.poll(sql);
         log(factory == null ? "miss" : "hit", sql);
         return factory;
     }
 
     public void push(CharSequence sql, RecordCursorFactory factory) {
         if (factory != null) {
-            cache.put(sql, factory);
+            if (planCache != null) {
+                planCache.push(sql, null, factory);
+            } else {
+                cache.put(sql, factory);
+            }
             log("push", sql);
         }
     }
@@ -89,6 +89,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         this.floatScale = configuration.getFloatScale();
         this.clock = configuration.getClock();
         this.sqlExecutionContext = new SqlExecutionContextImpl(engine, workerCount, sharedWorkerCount);
+        this.sqlExecutionContext.setQueryPriority(configuration.getQueryPriority());
         this.doubleScale = configuration.getDoubleScale();
         this.circuitBreaker = new NetworkSqlExecutionCircuitBreaker(engine.getConfiguration().getCircuitBreakerConfiguration(), MemoryTag.NATIVE_CB4);
         this.metrics = engine.getMetrics();
@@ -121,12 +122,13 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
 
             state.recordCursorFactory = QueryCache.getInstance().poll(state.query);
             state.setQueryCacheable(true);
+            state.memoryAccountant.reset();
             sqlExecutionContext.with(
                     context.getCairoSecurityContext(),
                     null,
                     null,
                     context.getFd(),
-                    circuitBreaker.of(context.getFd())
+                    circuitBreaker.of(context.getFd(), state.memoryAccountant)
             );
             if (state.recordCursorFactory == null) {
                 final CompiledQuery cc = compiler.compile(state.query, sqlExecutionContext);
@@ -161,6 +163,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                             }
                             info(state).$(e.getFlyweightMessage()).$();
                             state.recordCursorFactory = Misc.free(state.recordCursorFactory);
+                            QueryCache.getInstance().invalidate(state.query);
                             final CompiledQuery cc = compiler.compile(state.query, sqlExecutionContext);
                             if (cc.getType() != CompiledQuery.SELECT && isExpRequest) {
                                 throw SqlException.$(0, "/exp endpoint only accepts SELECT");
@@ -205,7 +208,11 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
 
         HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
         if (parseUrl(socket, context.getRequestHeader(), state)) {
-            execute(context, state);
+            try {
+                execute(context, state);
+            } finally {
+                circuitBreaker.unbind();
+            }
         } else {
             readyForNextRequest(context);
         }
@@ -221,9 +228,73 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         }
 
         // copy random during query resume
-        sqlExecutionContext.with(context.getCairoSecurityContext(), null, state.rnd, context.getFd(), circuitBreaker.of(context.getFd()));
+        sqlExecutionContext.with(context.getCairoSecurityContext(), null, state.rnd, context.getFd(), circuitBreaker.of(context.getFd(), state.memoryAccountant));
         LOG.debug().$("resume [fd=").$(context.getFd()).$(']').$();
 
+        try {
+            doResumeSend(context, state);
+        } catch (CairoException e) {
+            // part of the response is sent already, the only way to report the error is to cut the response short
+            error(state).$("could not resume [msg=").$(e.getFlyweightMessage()).I$();
+            throw PeerDisconnectedException.INSTANCE;
+        } finally {
+            circuitBreaker.unbind();
+        }
+    }
+
+    @Override
+    public void parkRequest(HttpConnectionContext context) {
+        TextQueryProcessorState state = LV.get(context);
+        if (state != null) {
+            state.rnd = sqlExecutionContext.getRandom();
+        }
+    }
+
+    private static void putStringOrNull(CharSink r, CharSequence str) {
+        if (str != null) {
+            r.encodeUtf8AndQuote(str);
+        }
+    }
+
+    private static void readyForNextRequest(HttpConnectionContext context) {
+        LOG.info().$("all sent [fd=").$(context.getFd()).$(", lastRequestBytesSent=").$(context.getLastRequestBytesSent()).$(", nCompletedRequests=").$(context.getNCompletedRequests() + 1)
+                .$(", totalBytesSent=").$(context.getTotalBytesSent()).$(']').$();
+    }
+
+    private LogRecord error(TextQueryProcessorState state) {
+        return LOG.error().$('[').$(state.getFd()).$("] ");
+    }
+
+    private LogRecord critical(TextQueryProcessorState state) {
+        return LOG.critical().$('[').$(state.getFd()).$("] ");
+    }
+
+    protected void header(HttpChunkedResponseSocket socket, TextQueryProcessorState state, int status_code) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        socket.status(status_code, "text/csv; charset=utf-8");
+        if (state.fileName != null && state.fileName.length() > 0) {
+            socket.headers().put("Content-Disposition: attachment; filename=\"").put(state.fileName).put(".csv\"").put(Misc.EOL);
+        } else {
+            socket.headers().put("Content-Disposition: attachment; filename=\"questdb-query-").put(clock.getTicks()).put(".csv\"").put(Misc.EOL);
+        }
+
+        socket.headers().setKeepAlive(configuration.getKeepAliveHeader());
+        socket.sendHeader();
+    }
+
+    protected void headerNoContentDisposition(HttpChunkedResponseSocket socket) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        socket.status(200, "text/csv; charset=utf-8");
+        socket.headers().setKeepAlive(configuration.getKeepAliveHeader());
+        socket.sendHeader();
+    }
+
+    private LogRecord info(TextQueryProcessorState state) {
+        return LOG.info().$('[').$(state.getFd()).$("] ");
+    }
+
+    private void doResumeSend(
+            HttpConnectionContext context,
+            TextQueryProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         final HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
         final int columnCount = state.metadata.getColumnCount();
 
@@ -320,51 +391,6 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         readyForNextRequest(context);
     }
 
-    @Override
-    public void parkRequest(HttpConnectionContext context) {
-        TextQueryProcessorState state = LV.get(context);
-        if (state != null) {
-            state.rnd = sqlExecutionContext.getRandom();
-        }
-    }
-
-    private static void putStringOrNull(CharSink r, CharSequence str) {
-        if (str != null) {
-            r.encodeUtf8AndQuote(str);
-        }
-    }
-
-    private static void readyForNextRequest(HttpConnectionContext context) {
-        LOG.info().$("all sent [fd=").$(context.getFd()).$(", lastRequestBytesSent=").$(context.getLastRequestBytesSent()).$(", nCompletedRequests=").$(context.getNCompletedRequests() + 1)
-                .$(", totalBytesSent=").$(context.getTotalBytesSent()).$(']').$();
-    }
-
-    private LogRecord critical(TextQueryProcessorState state) {
-        return LOG.critical().$('[').$(state.getFd()).$("] ");
-    }
-
-    protected void header(HttpChunkedResponseSocket socket, TextQueryProcessorState state, int status_code) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        socket.status(status_code, "text/csv; charset=utf-8");
-        if (state.fileName != null && state.fileName.length() > 0) {
-            socket.headers().put("Content-Disposition: attachment; filename=\"").put(state.fileName).put(".csv\"").put(Misc.EOL);
-        } else {
-            socket.headers().put("Content-Disposition: attachment; filename=\"questdb-query-").put(clock.getTicks()).put(".csv\"").put(Misc.EOL);
-        }
-
-        socket.headers().setKeepAlive(configuration.getKeepAliveHeader());
-        socket.sendHeader();
-    }
-
-    protected void headerNoContentDisposition(HttpChunkedResponseSocket socket) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        socket.status(200, "text/csv; charset=utf-8");
-        socket.headers().setKeepAlive(configuration.getKeepAliveHeader());
-        socket.sendHeader();
-    }
-
-    private LogRecord info(TextQueryProcessorState state) {
-        return LOG.info().$('[').$(state.getFd()).$("] ");
-    }
-
     private void internalError(
             HttpChunkedResponseSocket socket,
             Throwable e,
@@ -29,6 +29,7 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cutlass.http.HttpConnectionContext;
+import io.questdb.std.MemoryAccountant;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
 import io.questdb.std.Rnd;
@@ -39,6 +40,8 @@ import java.io.Closeable;
 public class TextQueryProcessorState implements Mutable, Closeable {
     final StringSink query = new StringSink();
     private final HttpConnectionContext httpConnectionContext;
+    // charged with memory of the query across resumes, which may run on different workers
+    final MemoryAccountant memoryAccountant = new MemoryAccountant();
     boolean countRows = false;
     boolean noMeta = false;
     RecordCursorFactory recordCursorFactory;
@@ -30,6 +30,7 @@ import io.questdb.cutlass.line.tcp.LineTcpParser.ParseResult;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.network.AbstractMutableIOContext;
+import io.questdb.network.IORecvContext;
 import io.questdb.network.NetworkFacade;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Unsafe;
@@ -37,7 +38,7 @@ import io.questdb.std.Vect;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.DirectByteCharSequence;
 
-class LineTcpConnectionContext extends AbstractMutableIOContext<LineTcpConnectionContext> {
+class LineTcpConnectionContext extends AbstractMutableIOContext<LineTcpConnectionContext> implements IORecvContext {
     private static final Log LOG = LogFactory.getLog(LineTcpConnectionContext.class);
     private static final long QUEUE_FULL_LOG_HYSTERESIS_IN_MS = 10_000;
     protected final NetworkFacade nf;
@@ -54,6 +55,9 @@ class LineTcpConnectionContext extends AbstractMutableIOContext<LineTcpConnectio
     protected long recvBufStartOfMeasurement;
     private long lastQueueFullLogMillis = 0;
     private boolean goodMeasurement;
+    // set once dispatcher receives on behalf of this context, workers leave recv() to the dispatcher from then on
+    private boolean recvByDispatcher;
+    private boolean recvCompleted;
 
     LineTcpConnectionContext(LineTcpReceiverConfiguration configuration, LineTcpMeasurementScheduler scheduler, Metrics metrics) {
         nf = configuration.getNetworkFacade();
@@ -71,6 +75,8 @@ class LineTcpConnectionContext extends AbstractMutableIOContext<LineTcpConnectio
     public void clear() {
         recvBufPos = recvBufStart;
         peerDisconnected = false;
+        recvByDispatcher = false;
+        recvCompleted = false;
         resetParser();
     }
 
@@ -134,6 +140,16 @@ class LineTcpConnectionContext extends AbstractMutableIOContext<LineTcpConnectio
         }
     }
 
+    @Override
+    public long getRecvAddress() {
+        return recvBufPos;
+    }
+
+    @Override
+    public int getRecvSize() {
+        return peerDisconnected ? 0 : (int) (recvBufEnd - recvBufPos);
+    }
+
     IOContextResult handleIO(NetworkIOJob netIoJob) {
         read();
         return parseMeasurements(netIoJob);
@@ -148,6 +164,7 @@ class LineTcpConnectionContext extends AbstractMutableIOContext<LineTcpConnectio
                         if (goodMeasurement) {
                             if (scheduler.scheduleEvent(netIoJob, parser)) {
                                 // Waiting for writer threads to drain queue, request callback as soon as possible
+                                metrics.lineTcp().incrementQueueFull();
                                 if (checkQueueFullLogHysteresis()) {
                                     LOG.debug().$('[').$(fd).$("] queue full").$();
                                 }
@@ -233,10 +250,29 @@ class LineTcpConnectionContext extends AbstractMutableIOContext<LineTcpConnectio
         }
     }
 
+    @Override
+    public void onRecv(int n) {
+        recvByDispatcher = true;
+        if (n > 0) {
+            recvBufPos += n;
+            recvCompleted = true;
+        } else {
+            peerDisconnected = true;
+        }
+    }
+
     protected boolean read() {
+        if (recvCompleted) {
+            recvCompleted = false;
+            return true;
+        }
         int bufferRemaining = (int) (recvBufEnd - recvBufPos);
         final int orig = bufferRemaining;
         if (bufferRemaining > 0 && !peerDisconnected) {
+            if (recvByDispatcher) {
+                // saves the syscall, dispatcher will publish READ event once more data is received
+                return false;
+            }
             int bytesRead = nf.recv(fd, recvBufPos, bufferRemaining);
             if (bytesRead > 0) {
                 recvBufPos += bytesRead;
@@ -51,6 +51,7 @@ class LineTcpMeasurementEvent implements Closeable {
     private int writerWorkerId;
     private TableUpdateDetails tableUpdateDetails;
     private boolean commitOnWriterClose;
+    private long size;
 
     LineTcpMeasurementEvent(
             long bufLo,
@@ -83,6 +84,13 @@ class LineTcpMeasurementEvent implements Closeable {
         return tableUpdateDetails;
     }
 
+    /**
+     * @return number of bytes the measurement occupies in the event buffer
+     */
+    public long getSize() {
+        return size;
+    }
+
     public int getWriterWorkerId() {
         return writerWorkerId;
     }
@@ -501,6 +509,7 @@ class LineTcpMeasurementEvent implements Closeable {
         }
         buffer.addDesignatedTimestamp(buffer.getAddress(), timestamp);
         buffer.addNumOfColumns(buffer.getAddress() + Long.BYTES, entitiesWritten);
+        size = offset - buffer.getAddress();
         writerWorkerId = tableUpdateDetails.getWriterThreadId();
     }
 
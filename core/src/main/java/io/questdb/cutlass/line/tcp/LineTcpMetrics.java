@@ -0,0 +1,48 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.metrics.Counter;
+import io.questdb.metrics.MetricsRegistry;
+
+public class LineTcpMetrics {
+
+    // Number of times an IO thread found writer queue full and had to back off,
+    // a sustained growth means writers cannot keep up with the network
+    private final Counter queueFullCounter;
+
+    public LineTcpMetrics(MetricsRegistry metricsRegistry) {
+        this.queueFullCounter = metricsRegistry.newCounter("line_tcp_writer_queue_full");
+    }
+
+    public long getQueueFullCount() {
+        return queueFullCounter.getValue();
+    }
+
+    public void incrementQueueFull() {
+        queueFullCounter.inc();
+    }
+}
@@ -25,6 +25,8 @@
 package io.questdb.cutlass.line.tcp;
 
 import io.questdb.Metrics;
+import io.questdb.cairo.TableIngestionStats;
+import io.questdb.cairo.TableWriter;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.Job;
@@ -160,6 +162,7 @@ class LineTcpWriterJob implements Job, Closeable {
                                         .I$();
                             }
                             event.append();
+                            updateIngestionStats(tab, event);
                         }
                     } catch (Throwable ex) {
                         tab.setWriterInError();
@@ -192,6 +195,18 @@ class LineTcpWriterJob implements Job, Closeable {
         }
     }
 
+    private void updateIngestionStats(TableUpdateDetails tab, LineTcpMeasurementEvent event) {
+        final TableWriter writer = tab.getWriter();
+        if (writer != null) {
+            final TableIngestionStats stats = writer.getIngestionStats();
+            if (stats.getWriterThreadId() != workerId) {
+                stats.setWriterThreadId(workerId);
+            }
+            stats.addBytes(event.getSize());
+            stats.setUncommittedRows(writer.getUncommittedRowCount());
+        }
+    }
+
     private void tickWriters() {
         for (int n = 0, sz = assignedTables.size(); n < sz; n++) {
             assignedTables.getQuick(n).tick();
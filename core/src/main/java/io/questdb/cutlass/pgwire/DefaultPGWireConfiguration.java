@@ -25,6 +25,7 @@
 package io.questdb.cutlass.pgwire;
 
 import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
+import io.questdb.cairo.sql.async.PageFrameReduceScheduler;
 import io.questdb.griffin.DefaultSqlExecutionCircuitBreakerConfiguration;
 import io.questdb.network.DefaultIODispatcherConfiguration;
 import io.questdb.network.IODispatcherConfiguration;
@@ -79,6 +80,11 @@ public class DefaultPGWireConfiguration implements PGWireConfiguration {
         return "admin";
     }
 
+    @Override
+    public int getQueryPriority() {
+        return PageFrameReduceScheduler.PRIORITY_NORMAL;
+    }
+
     @Override
     public boolean readOnlySecurityContext() {
         return false;
@@ -137,6 +137,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private final CharSequenceObjHashMap<Portal> namedPortalMap;
     private final IntList syncActions = new IntList(4);
     private final CairoEngine engine;
+    private final NanosecondClock nanosecondClock;
     private final ObjectPool<DirectBinarySequence> binarySequenceParamsPool;
     private final NetworkSqlExecutionCircuitBreaker circuitBreaker;
     private final SCSequence tempSequence = new SCSequence();
@@ -183,6 +184,16 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private boolean authenticationRequired = true;
     private Rnd rnd;
     private long rowCount;
+    // query log bookkeeping, see QueryLog
+    private final QueryLog queryLog;
+    private long queryStartNanos;
+    private long queryCompileNanos;
+    // start of Execute message, or of the statement's execution within simple query
+    private long queryExecuteStartNanos;
+    private boolean queryCacheHit;
+    private boolean queryJitCompiled;
+    private long queryBytesSentBase;
+    private long bytesFlushed;
     private boolean completed = true;
     private boolean isEmptyQuery;
     private final PGResumeProcessor resumeCommandCompleteRef = this::resumeCommandComplete;
@@ -201,6 +212,8 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
 
     public PGConnectionContext(CairoEngine engine, PGWireConfiguration configuration, SqlExecutionContextImpl sqlExecutionContext) {
         this.engine = engine;
+        this.nanosecondClock = engine.getConfiguration().getNanosecondClock();
+        this.queryLog = engine.getQueryLog();
         this.utf8Sink = new DirectCharSink(engine.getConfiguration().getTextConfiguration().getUtf8SinkSize());
         this.typeManager = new TypeManager(engine.getConfiguration().getTextConfiguration(), utf8Sink);
         this.nf = configuration.getNetworkFacade();
@@ -217,6 +230,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         this.authenticator = new PGBasicAuthenticator(configuration.getDefaultUsername(), configuration.getDefaultPassword(), configuration.readOnlySecurityContext());
         this.locale = configuration.getDefaultDateLocale();
         this.sqlExecutionContext = sqlExecutionContext;
+        this.sqlExecutionContext.setQueryPriority(configuration.getQueryPriority());
         this.sqlExecutionContext.setRandom(this.rnd = configuration.getRandom());
         this.namedStatementWrapperPool = new WeakMutableObjectPool<>(NamedStatementWrapper::new, configuration.getNamesStatementPoolCapacity()); // 32
         this.namedPortalPool = new WeakMutableObjectPool<>(Portal::new, configuration.getNamesStatementPoolCapacity()); // 32
@@ -396,6 +410,9 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         this.typesAndUpdateCache = typesAndUpdateCache;
         this.typesAndUpdatePool = typesAndUpdatePool;
 
+        // connection may be served by a different worker each time, so query memory is charged to its
+        // circuit breaker only while the operation is being handled on the current thread
+        circuitBreaker.bind();
         try {
             if (bufferRemainingSize > 0) {
                 doSend(bufferRemainingOffset, bufferRemainingSize);
@@ -453,6 +470,8 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             prepareNonCriticalError(-1, e.getMessage());
             sendAndReset();
             clearRecvBuffer();
+        } finally {
+            circuitBreaker.unbind();
         }
     }
 
@@ -1065,10 +1084,17 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         // leak memory
         if (typesAndSelect != null) {
             if (typesAndSelectIsCached) {
-                typesAndSelectCache.put(queryText, typesAndSelect);
-                // clear selectAndTypes so that context doesn't accidentally
-                // free the factory when context finishes abnormally
-                this.typesAndSelect = null;
+                final QueryPlanCache planCache = engine.getQueryPlanCache();
+                if (planCache != null) {
+                    // shared cache takes factory over, type container goes back to the pool
+                    planCache.push(queryText, typesAndSelect.getBindVariableTypes(), typesAndSelect.detachFactory());
+                    this.typesAndSelect = Misc.free(this.typesAndSelect);
+                } else {
+                    typesAndSelectCache.put(queryText, typesAndSelect);
+                    // clear selectAndTypes so that context doesn't accidentally
+                    // free the factory when context finishes abnormally
+                    this.typesAndSelect = null;
+                }
             } else {
                 this.typesAndSelect = Misc.free(this.typesAndSelect);
             }
@@ -1091,6 +1117,8 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     }
 
     private boolean compileQuery(@Transient SqlCompiler compiler) throws SqlException {
+        queryCompileNanos = 0;
+        queryCacheHit = true;
         if (queryText != null && queryText.length() > 0) {
 
             // try insert, peek because this is our private cache
@@ -1126,8 +1154,25 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 return false;
             }
 
+            final QueryPlanCache planCache = engine.getQueryPlanCache();
+            if (planCache != null) {
+                // shared cache defines bind variables the factory has been compiled with
+                final RecordCursorFactory factory = planCache.poll(queryText, bindVariableService);
+                if (factory != null) {
+                    LOG.info().$("shared plan cache used [fd=").$(fd).I$();
+                    typesAndSelect = typesAndSelectPool.pop();
+                    typesAndSelect.of(factory, bindVariableService);
+                    queryTag = TAG_SELECT;
+                    return false;
+                }
+            }
+
             // not cached - compile to see what it is
+            queryCacheHit = false;
+            final long compileStart = nanosecondClock.getTicks();
             final CompiledQuery cc = compiler.compile(queryText, sqlExecutionContext); //here
+            queryCompileNanos = nanosecondClock.getTicks() - compileStart;
+            engine.getMetrics().pgWire().recordCompileTime(queryCompileNanos);
             processCompiledQuery(cc);
         } else {
             isEmptyQuery = true;
@@ -1450,6 +1495,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 sqlExecutionContext.getRequestFd(),
                 circuitBreaker
         );
+        newSqlExecutionContext.setQueryPriority(sqlExecutionContext.getQueryPriority());
         sqlExecutionContext = newSqlExecutionContext;
 
         // Do not cache, let last closing party free the resources
@@ -1638,9 +1684,35 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 responseAsciiSink.encodeUtf8(queryTag).put((char) 0);
             }
             responseAsciiSink.putLen(addr);
+            engine.getMetrics().pgWire().recordExecuteTime(nanosecondClock.getTicks() - queryExecuteStartNanos);
+            logQuery();
+        }
+    }
+
+    private void logQuery() {
+        if (queryLog != null && queryText != null) {
+            queryLog.log(
+                    queryText,
+                    QueryLog.PROTOCOL_PGWIRE,
+                    username,
+                    queryCompileNanos,
+                    nanosecondClock.getTicks() - queryStartNanos,
+                    rowCount,
+                    bytesFlushed + (sendBufferPtr - sendBuffer) - queryBytesSentBase,
+                    circuitBreaker.getMemoryAccountant().getPeak(),
+                    queryCacheHit,
+                    queryJitCompiled
+            );
         }
     }
 
+    private void startQueryLogTimer() {
+        queryStartNanos = nanosecondClock.getTicks();
+        queryBytesSentBase = bytesFlushed + (sendBufferPtr - sendBuffer);
+        circuitBreaker.getMemoryAccountant().reset();
+        queryJitCompiled = false;
+    }
+
     private void prepareDescribePortalResponse() {
         if (typesAndSelect != null) {
             try {
@@ -2120,6 +2192,8 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     }
 
     private void processExecute(int maxRows, SqlCompiler compiler) throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
+        startQueryLogTimer();
+        queryExecuteStartNanos = queryStartNanos;
         if (typesAndSelect != null) {
             LOG.debug().$("executing query").$();
             setupFactoryAndCursor(compiler);
@@ -2468,6 +2542,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     }
 
     private void sendAndReset() throws PeerDisconnectedException, PeerIsSlowToReadException {
+        bytesFlushed += sendBufferPtr - sendBuffer;
         doSend(0, (int) (sendBufferPtr - sendBuffer));
         responseAsciiSink.reset();
     }
@@ -2569,8 +2644,12 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             boolean recompileStale = true;
             for (int retries = 0; recompileStale; retries++) {
                 currentFactory = typesAndSelect.getFactory();
+                queryJitCompiled = currentFactory.usesCompiledFilter();
                 try {
-                    currentCursor = currentFactory.getCursor(sqlExecutionContext);
+                    final QueryResultCache resultCache = engine.getQueryResultCache();
+                    currentCursor = resultCache != null
+                            ? resultCache.getCursor(queryText, currentFactory, sqlExecutionContext)
+                            : currentFactory.getCursor(sqlExecutionContext);
                     recompileStale = false;
                     // cache random if it was replaced
                     this.rnd = sqlExecutionContext.getRandom();
@@ -2580,6 +2659,9 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                     }
                     LOG.info().$(e.getFlyweightMessage()).$();
                     freeFactory();
+                    if (engine.getQueryPlanCache() != null) {
+                        engine.getQueryPlanCache().invalidate(queryText);
+                    }
                     compileQuery(compiler);
                     buildSelectColumnTypes();
                     applyLatestBindColumnFormats();
@@ -2670,6 +2752,10 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         public void postCompile(SqlCompiler compiler, CompiledQuery cq, CharSequence text)
                 throws SqlException, PeerIsSlowToReadException, PeerDisconnectedException {
             PGConnectionContext.this.queryText = text;
+            queryExecuteStartNanos = nanosecondClock.getTicks();
+            queryCompileNanos = queryExecuteStartNanos - queryStartNanos;
+            engine.getMetrics().pgWire().recordCompileTime(queryCompileNanos);
+            queryCacheHit = false;
             LOG.info().$("parse [fd=").$(fd).$(", q=").utf8(text).I$();
             processCompiledQuery(cq);
 
@@ -2700,6 +2786,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             PGConnectionContext.this.typesAndInsert = null;
             PGConnectionContext.this.typesAndUpdate = null;
             PGConnectionContext.this.typesAndSelect = null;
+            startQueryLogTimer();
         }
     }
 
@@ -44,6 +44,8 @@ public interface PGWireConfiguration extends WorkerPoolAwareConfiguration {
 
     String getDefaultUsername();
 
+    int getQueryPriority();
+
     boolean readOnlySecurityContext();
 
     IODispatcherConfiguration getDispatcherConfiguration();
@@ -25,16 +25,21 @@
 package io.questdb.cutlass.pgwire;
 
 import io.questdb.metrics.Gauge;
+import io.questdb.metrics.Histogram;
 import io.questdb.metrics.MetricsRegistry;
 
 public class PGWireMetrics {
 
     private final Gauge cachedSelectsGauge;
     private final Gauge cachedUpdatesGauge;
+    private final Histogram compileTimeHistogram;
+    private final Histogram executeTimeHistogram;
 
     public PGWireMetrics(MetricsRegistry metricsRegistry) {
         this.cachedSelectsGauge = metricsRegistry.newGauge("pg_wire_select_queries_cached");
         this.cachedUpdatesGauge = metricsRegistry.newGauge("pg_wire_update_queries_cached");
+        this.compileTimeHistogram = metricsRegistry.newHistogram("pg_wire_queries_compile_time_micros", Histogram.LATENCY_MICROS_BOUNDS);
+        this.executeTimeHistogram = metricsRegistry.newHistogram("pg_wire_queries_execute_time_micros", Histogram.LATENCY_MICROS_BOUNDS);
     }
 
     public Gauge cachedSelectsGauge() {
@@ -44,4 +49,20 @@ public class PGWireMetrics {
     public Gauge cachedUpdatesGauge() {
         return cachedUpdatesGauge;
     }
+
+    public Histogram compileTimeHistogram() {
+        return compileTimeHistogram;
+    }
+
+    public Histogram executeTimeHistogram() {
+        return executeTimeHistogram;
+    }
+
+    public void recordCompileTime(long compileTimeNanos) {
+        compileTimeHistogram.record(compileTimeNanos / 1000);
+    }
+
+    public void recordExecuteTime(long executeTimeNanos) {
+        executeTimeHistogram.record(executeTimeNanos / 1000);
+    }
 }
@@ -42,6 +42,12 @@ public class TypesAndSelect extends AbstractTypeContainer<TypesAndSelect> {
         factory = Misc.free(factory);
     }
 
+    public RecordCursorFactory detachFactory() {
+        final RecordCursorFactory factory = this.factory;
+        this.factory = null;
+        return factory;
+    }
+
     public RecordCursorFactory getFactory() {
         return factory;
     }
@@ -29,11 +29,13 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.griffin.engine.table.TableListRecordCursorFactory;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
 import org.jetbrains.annotations.TestOnly;
 
 import java.io.Closeable;
@@ -49,8 +51,11 @@ public class DatabaseSnapshotAgent implements Closeable {
     private final FilesFacade ff;
     private final ReentrantLock lock = new ReentrantLock(); // protects below fields
     private final Path path = new Path();
+    private final Path srcPath = new Path();
+    private final StringSink manifestNameSink = new StringSink();
     // List of readers kept around to lock partitions while a database snapshot is being made.
     private final ObjList<TableReader> snapshotReaders = new ObjList<>();
+    private int manifestEntryCount;
 
     public DatabaseSnapshotAgent(CairoEngine engine) {
         this.engine = engine;
@@ -63,6 +68,7 @@ public class DatabaseSnapshotAgent implements Closeable {
         lock.lock();
         try {
             Misc.free(path);
+            Misc.free(srcPath);
             unsafeReleaseReaders();
         } finally {
             lock.unlock();
@@ -79,6 +85,120 @@ public class DatabaseSnapshotAgent implements Closeable {
         }
     }
 
+    private void appendManifestEntries(MemoryCMARW mem, int nameLo, int dirLen) {
+        ff.iterateDir(path.trimTo(dirLen).$(), (pUtf8NameZ, type) -> {
+            if (Files.isDir(pUtf8NameZ, type)) {
+                path.trimTo(dirLen).concat(pUtf8NameZ);
+                appendManifestEntries(mem, nameLo, path.length());
+            } else if (type == Files.DT_FILE) {
+                path.trimTo(dirLen).concat(pUtf8NameZ).$();
+                manifestNameSink.clear();
+                manifestNameSink.put(path, nameLo, path.length());
+                if (!Chars.equals(manifestNameSink, TableUtils.SNAPSHOT_MANIFEST_FILE_NAME)) {
+                    mem.putStr(manifestNameSink);
+                    mem.putLong(ff.length(path));
+                    manifestEntryCount++;
+                }
+            }
+        });
+    }
+
+    private void copyTableData(TableReader reader, CharSequence tableName, int snapshotTableLen) {
+        srcPath.of(configuration.getRoot()).concat(tableName);
+        final int srcTableLen = srcPath.length();
+
+        // Symbol maps are append-only, entries beyond the symbol counts in the dumped _txn are ignored.
+        final TableReaderMetadata metadata = reader.getMetadata();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (ColumnType.isSymbol(metadata.getColumnType(i))) {
+                final CharSequence columnName = metadata.getColumnName(i);
+                final long columnNameTxn = reader.getColumnVersionReader().getDefaultColumnNameTxn(metadata.getWriterIndex(i));
+                copyTableFile(
+                        TableUtils.offsetFileName(srcPath.trimTo(srcTableLen), columnName, columnNameTxn),
+                        TableUtils.offsetFileName(path.trimTo(snapshotTableLen), columnName, columnNameTxn)
+                );
+                copyTableFile(
+                        TableUtils.charFileName(srcPath.trimTo(srcTableLen), columnName, columnNameTxn),
+                        TableUtils.charFileName(path.trimTo(snapshotTableLen), columnName, columnNameTxn)
+                );
+                copyTableFile(
+                        BitmapIndexUtils.keyFileName(srcPath.trimTo(srcTableLen), columnName, columnNameTxn),
+                        BitmapIndexUtils.keyFileName(path.trimTo(snapshotTableLen), columnName, columnNameTxn)
+                );
+                copyTableFile(
+                        BitmapIndexUtils.valueFileName(srcPath.trimTo(srcTableLen), columnName, columnNameTxn),
+                        BitmapIndexUtils.valueFileName(path.trimTo(snapshotTableLen), columnName, columnNameTxn)
+                );
+            }
+        }
+
+        // Partitions other than the last one are immutable while the snapshot reader holds them:
+        // O3 merges write a new partition version and column updates write new column versions,
+        // so hard links are enough. In-place appends may only add rows beyond the partition sizes
+        // in the dumped _txn. The active partition is copied.
+        final int partitionBy = reader.getPartitionedBy();
+        final TxReader txFile = reader.getTxFile();
+        final int partitionCount = partitionBy == PartitionBy.NONE ? 1 : txFile.getPartitionCount();
+        for (int i = 0; i < partitionCount; i++) {
+            final long timestamp = partitionBy == PartitionBy.NONE ? 0 : txFile.getPartitionTimestamp(i);
+            final long nameTxn = partitionBy == PartitionBy.NONE ? -1 : txFile.getPartitionNameTxn(i);
+            TableUtils.setPathForPartition(srcPath, srcTableLen, partitionBy, timestamp, nameTxn);
+            TableUtils.setPathForPartition(path, snapshotTableLen, partitionBy, timestamp, nameTxn);
+            srcPath.$();
+            path.$();
+            if (!ff.exists(srcPath)) {
+                continue;
+            }
+
+            if (i < partitionCount - 1 && ff.hardLinkDirRecursive(srcPath, path, configuration.getMkDirMode()) == 0) {
+                continue;
+            }
+            if (i < partitionCount - 1 && !ff.isCrossDeviceCopyError(ff.errno())) {
+                throw CairoException.critical(ff.errno())
+                        .put("could not link partition [src=").put(srcPath)
+                        .put(", dst=").put(path)
+                        .put(']');
+            }
+            TableUtils.setPathForPartition(srcPath, srcTableLen, partitionBy, timestamp, nameTxn);
+            TableUtils.setPathForPartition(path, snapshotTableLen, partitionBy, timestamp, nameTxn);
+            if (ff.copyRecursive(srcPath.$(), path.$(), configuration.getMkDirMode()) != 0) {
+                throw CairoException.critical(ff.errno())
+                        .put("could not copy partition [src=").put(srcPath)
+                        .put(", dst=").put(path)
+                        .put(']');
+            }
+        }
+        path.trimTo(snapshotTableLen);
+    }
+
+    private void copyTableFile(Path src, Path dst) {
+        if (ff.exists(src) && ff.copy(src, dst) < 0) {
+            throw CairoException.critical(ff.errno())
+                    .put("could not copy [src=").put(src)
+                    .put(", dst=").put(dst)
+                    .put(']');
+        }
+    }
+
+    private void writeManifest(MemoryCMARW mem, TableReader reader, int snapshotTableLen) {
+        // The manifest lists every file in the table snapshot with its size, so that recovery
+        // can verify the snapshot and restore only the files the table is missing. Table id and
+        // truncate version tell recovery whether the live files are still the ones the snapshot
+        // was taken from, truncate rewrites symbol maps and non-partitioned columns in place.
+        path.trimTo(snapshotTableLen).concat(TableUtils.SNAPSHOT_MANIFEST_FILE_NAME).$();
+        mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
+        mem.putInt(0);
+        mem.putInt(reader.getMetadata().getId());
+        mem.putLong(reader.getTxFile().getTruncateVersion());
+        manifestEntryCount = 0;
+        // Entry names are relative to the table dir.
+        final int nameLo = path.charAt(snapshotTableLen - 1) == Files.SEPARATOR ? snapshotTableLen : snapshotTableLen + 1;
+        appendManifestEntries(mem, nameLo, snapshotTableLen);
+        mem.putInt(0, manifestEntryCount);
+        mem.close();
+        path.trimTo(snapshotTableLen);
+    }
+
     private void unsafeReleaseReaders() {
         Misc.freeObjList(snapshotReaders);
         snapshotReaders.clear();
@@ -131,6 +251,7 @@ public class DatabaseSnapshotAgent implements Closeable {
             AtomicInteger recoveredMetaFiles = new AtomicInteger();
             AtomicInteger recoveredTxnFiles = new AtomicInteger();
             AtomicInteger recoveredCVFiles = new AtomicInteger();
+            AtomicInteger recoveredDataFiles = new AtomicInteger();
             path.trimTo(snapshotRootLen).$();
             final int snapshotDbLen = path.length();
             ff.iterateDir(path, (pUtf8NameZ, type) -> {
@@ -140,9 +261,22 @@ public class DatabaseSnapshotAgent implements Closeable {
                     final int plen = path.length();
                     final int cplen = copyPath.length();
 
-                    path.concat(TableUtils.META_FILE_NAME).$();
+                    // Incremental snapshots carry table data and a manifest describing it, tables
+                    // dropped since the snapshot are restored from it in full.
+                    boolean restoredTable = false;
+                    path.concat(TableUtils.SNAPSHOT_MANIFEST_FILE_NAME).$();
+                    if (ff.exists(path)) {
+                        restoredTable = !ff.exists(copyPath.$());
+                        if (restoredTable && ff.mkdirs(copyPath.slash$(), configuration.getMkDirMode()) != 0) {
+                            throw CairoException.critical(ff.errno()).put("could not create [dir=").put(copyPath).put(']');
+                        }
+                        recoveredDataFiles.addAndGet(recoverTableData(ff, configuration, path, plen, copyPath, cplen));
+                    }
+
+                    path.trimTo(plen).concat(TableUtils.META_FILE_NAME).$();
+                    copyPath.trimTo(cplen);
                     copyPath.concat(TableUtils.META_FILE_NAME).$();
-                    if (ff.exists(path) && ff.exists(copyPath)) {
+                    if (ff.exists(path) && (restoredTable || ff.exists(copyPath))) {
                         if (ff.copy(path, copyPath) < 0) {
                             LOG.error()
                                     .$("could not copy _meta file [src=").$(path)
@@ -160,7 +294,7 @@ public class DatabaseSnapshotAgent implements Closeable {
 
                     path.trimTo(plen).concat(TableUtils.TXN_FILE_NAME).$();
                     copyPath.trimTo(cplen).concat(TableUtils.TXN_FILE_NAME).$();
-                    if (ff.exists(path) && ff.exists(copyPath)) {
+                    if (ff.exists(path) && (restoredTable || ff.exists(copyPath))) {
                         if (ff.copy(path, copyPath) < 0) {
                             LOG.error()
                                     .$("could not copy _txn file [src=").$(path)
@@ -178,7 +312,7 @@ public class DatabaseSnapshotAgent implements Closeable {
 
                     path.trimTo(plen).concat(TableUtils.COLUMN_VERSION_FILE_NAME).$();
                     copyPath.trimTo(cplen).concat(TableUtils.COLUMN_VERSION_FILE_NAME).$();
-                    if (ff.exists(path) && ff.exists(copyPath)) {
+                    if (ff.exists(path) && (restoredTable || ff.exists(copyPath))) {
                         if (ff.copy(path, copyPath) < 0) {
                             LOG.error()
                                     .$("could not copy _cv file [src=").$(path)
@@ -199,6 +333,7 @@ public class DatabaseSnapshotAgent implements Closeable {
                     .$("snapshot recovery finished [metaFilesCount=").$(recoveredMetaFiles.get())
                     .$(", txnFilesCount=").$(recoveredTxnFiles.get())
                     .$(", cvFilesCount=").$(recoveredCVFiles.get())
+                    .$(", dataFilesCount=").$(recoveredDataFiles.get())
                     .$(']').$();
 
             // Delete snapshot directory to avoid recovery on next restart.
@@ -212,6 +347,104 @@ public class DatabaseSnapshotAgent implements Closeable {
         }
     }
 
+    private static int recoverTableData(FilesFacade ff, CairoConfiguration configuration, Path path, int plen, Path copyPath, int cplen) {
+        int recoveredFiles = 0;
+        try (MemoryCMARW mem = Vm.getCMARWInstance()) {
+            mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
+            final int entryCount = mem.getInt(0);
+            // Live files of another table, or of the same table truncated since the snapshot,
+            // may have been rewritten in place and cannot be trusted by their size.
+            final boolean restoreAll = !isSnapshotTable(
+                    ff,
+                    copyPath,
+                    cplen,
+                    mem.getInt(TableUtils.SNAPSHOT_MANIFEST_OFFSET_TABLE_ID),
+                    mem.getLong(TableUtils.SNAPSHOT_MANIFEST_OFFSET_TRUNCATE_VERSION)
+            );
+
+            // Verify the whole snapshot first, a damaged snapshot must not replace any table files.
+            long offset = TableUtils.SNAPSHOT_MANIFEST_OFFSET_ENTRIES;
+            for (int i = 0; i < entryCount; i++) {
+                final CharSequence name = mem.getStr(offset);
+                offset += Vm.getStorageLength(name);
+                final long size = mem.getLong(offset);
+                offset += Long.BYTES;
+                path.trimTo(plen).concat(name).$();
+                if (ff.length(path) < size) {
+                    throw CairoException.critical(0)
+                            .put("snapshot file is missing or truncated [path=").put(path)
+                            .put(", expectedSize=").put(size)
+                            .put(']');
+                }
+            }
+
+            // Restore files that are missing or shorter than in the snapshot. Metadata files
+            // are restored by the caller.
+            offset = TableUtils.SNAPSHOT_MANIFEST_OFFSET_ENTRIES;
+            for (int i = 0; i < entryCount; i++) {
+                final CharSequence name = mem.getStr(offset);
+                offset += Vm.getStorageLength(name);
+                final long size = mem.getLong(offset);
+                offset += Long.BYTES;
+                if (
+                        Chars.equals(name, TableUtils.META_FILE_NAME)
+                                || Chars.equals(name, TableUtils.TXN_FILE_NAME)
+                                || Chars.equals(name, TableUtils.COLUMN_VERSION_FILE_NAME)
+                ) {
+                    continue;
+                }
+
+                copyPath.trimTo(cplen).concat(name).$();
+                if (!restoreAll && ff.length(copyPath) >= size) {
+                    continue;
+                }
+
+                path.trimTo(plen).concat(name).$();
+                if (ff.exists(copyPath) && !ff.remove(copyPath)) {
+                    throw CairoException.critical(ff.errno()).put("could not remove [file=").put(copyPath).put(']');
+                }
+                if (ff.mkdirs(copyPath, configuration.getMkDirMode()) != 0) {
+                    throw CairoException.critical(ff.errno()).put("could not create [dir=").put(copyPath).put(']');
+                }
+                if (ff.hardLink(path, copyPath) != 0 && ff.copy(path, copyPath) < 0) {
+                    throw CairoException.critical(ff.errno())
+                            .put("could not recover file [src=").put(path)
+                            .put(", dst=").put(copyPath)
+                            .put(']');
+                }
+                recoveredFiles++;
+                LOG.info()
+                        .$("recovered data file [src=").$(path)
+                        .$(", dst=").$(copyPath)
+                        .$(']').$();
+            }
+        }
+        path.trimTo(plen);
+        copyPath.trimTo(cplen);
+        return recoveredFiles;
+    }
+
+    private static boolean isSnapshotTable(FilesFacade ff, Path copyPath, int cplen, int tableId, long truncateVersion) {
+        copyPath.trimTo(cplen).concat(TableUtils.META_FILE_NAME).$();
+        if (!ff.exists(copyPath)) {
+            return false;
+        }
+        try (MemoryMR metaMem = Vm.getMRInstance(ff, copyPath, TableUtils.META_OFFSET_TABLE_ID + Integer.BYTES, MemoryTag.MMAP_DEFAULT)) {
+            if (metaMem.getInt(TableUtils.META_OFFSET_TABLE_ID) != tableId) {
+                return false;
+            }
+        }
+        copyPath.trimTo(cplen).concat(TableUtils.TXN_FILE_NAME).$();
+        if (!ff.exists(copyPath)) {
+            return false;
+        }
+        try (TxReader txReader = new TxReader(ff).ofRO(copyPath, PartitionBy.NONE)) {
+            return txReader.unsafeLoadAll() && txReader.getTruncateVersion() == truncateVersion;
+        } finally {
+            copyPath.trimTo(cplen);
+        }
+    }
+
     public void completeSnapshot() throws SqlException {
         if (!lock.tryLock()) {
             throw SqlException.position(0).put("Another snapshot command in progress");
@@ -304,6 +537,11 @@ public class DatabaseSnapshotAgent implements Closeable {
                                 mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
                                 reader.getColumnVersionReader().dumpTo(mem);
                                 mem.close(false);
+
+                                if (configuration.isSnapshotIncrementalEnabled()) {
+                                    copyTableData(reader, tableName, rootLen);
+                                    writeManifest(mem, reader, rootLen);
+                                }
                             } else {
                                 LOG.error().$("skipping, invalid table name or missing metadata [table=").$(tableName).I$();
                             }
@@ -46,6 +46,16 @@ public class DefaultSqlExecutionCircuitBreakerConfiguration implements SqlExecut
         return NetworkFacadeImpl.INSTANCE;
     }
 
+    @Override
+    public long getQueryMemoryLimit() {
+        return 0;
+    }
+
+    @Override
+    public long getGlobalQueryMemoryLimit() {
+        return 0;
+    }
+
     @Override
     public boolean isEnabled() {
         return true;
@@ -36,6 +36,7 @@ public class PlanSink {
     private int depth;
     private String childIndent;
     private String attrIndent;
+    private Sinkable annotation;
 
     public PlanSink() {
         this.sink = new StringSink();
@@ -47,10 +48,20 @@ public class PlanSink {
     public void reset() {
         this.sink.clear();
         this.depth = 0;
+        this.annotation = null;
         this.attrIndent = "  ";
         this.childIndent = "    ";
     }
 
+    /**
+     * Sets annotation to be printed at the end of the next node's header line,
+     * e.g. execution statistics gathered by EXPLAIN ANALYZE.
+     */
+    public PlanSink annotate(Sinkable annotation) {
+        this.annotation = annotation;
+        return this;
+    }
+
     public PlanSink type(CharSequence type) {
         sink.put(type);
         return this;
@@ -120,7 +131,16 @@ public class PlanSink {
         return this;
     }
 
+    private void flushAnnotation() {
+        if (annotation != null) {
+            sink.put(' ');
+            annotation.toSink(sink);
+            annotation = null;
+        }
+    }
+
     private void newLine() {
+        flushAnnotation();
         sink.put("\n");
         for (int i = 0; i < depth; i++) {
             sink.put(childIndent);
@@ -128,6 +148,7 @@ public class PlanSink {
     }
 
     public CharSequence getText() {
+        flushAnnotation();
         return sink;
     }
 }
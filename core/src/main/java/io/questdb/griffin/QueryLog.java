@@ -0,0 +1,171 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Engine-wide log of recently completed queries. Entries are fixed-size records in a ring buffer
+ * in native memory; once the buffer is full, the oldest entry is overwritten by the newest one.
+ * SQL text and principal are truncated to fit the entry.
+ * <p>
+ * Writers claim entries via an atomic sequence and copy query details without allocating.
+ * An entry carries the sequence it was written for, which is set to -1 while the entry is being
+ * written. Readers copy the entry out and use the sequence to discard entries that were
+ * overwritten in the meantime, see {@link #copyEntry(long, long)}.
+ */
+public class QueryLog implements Closeable {
+    public static final int PROTOCOL_HTTP = 1;
+    public static final int PROTOCOL_PGWIRE = 2;
+    public static final int FLAG_PLAN_CACHE_HIT = 1;
+    public static final int FLAG_JIT = 2;
+    public static final int SEQ_OFFSET = 0;
+    public static final int TIMESTAMP_OFFSET = SEQ_OFFSET + 8;
+    public static final int SQL_HASH_OFFSET = TIMESTAMP_OFFSET + 8;
+    public static final int COMPILE_NANOS_OFFSET = SQL_HASH_OFFSET + 8;
+    public static final int EXECUTION_NANOS_OFFSET = COMPILE_NANOS_OFFSET + 8;
+    public static final int ROW_COUNT_OFFSET = EXECUTION_NANOS_OFFSET + 8;
+    public static final int BYTES_SENT_OFFSET = ROW_COUNT_OFFSET + 8;
+    public static final int PEAK_MEMORY_OFFSET = BYTES_SENT_OFFSET + 8;
+    public static final int FLAGS_OFFSET = PEAK_MEMORY_OFFSET + 8;
+    public static final int PROTOCOL_OFFSET = FLAGS_OFFSET + 4;
+    public static final int PRINCIPAL_LEN_OFFSET = PROTOCOL_OFFSET + 4;
+    public static final int SQL_LEN_OFFSET = PRINCIPAL_LEN_OFFSET + 4;
+    public static final int PRINCIPAL_OFFSET = SQL_LEN_OFFSET + 4;
+    public static final int PRINCIPAL_MAX_LEN = 64;
+    public static final int SQL_OFFSET = PRINCIPAL_OFFSET + PRINCIPAL_MAX_LEN * 2;
+    private final AtomicLong sequence = new AtomicLong();
+    private final MicrosecondClock clock;
+    private final int capacity;
+    private final long mask;
+    private final int sqlMaxLen;
+    private final long entrySize;
+    private final long mem;
+
+    public QueryLog(CairoConfiguration configuration) {
+        this.clock = configuration.getMicrosecondClock();
+        this.capacity = Numbers.ceilPow2(configuration.getQueryLogCapacity());
+        this.mask = capacity - 1;
+        this.sqlMaxLen = configuration.getQueryLogSqlTextMaxLength();
+        this.entrySize = Numbers.ceilPow2(SQL_OFFSET + sqlMaxLen * 2L);
+        this.mem = Unsafe.malloc(entrySize * capacity, MemoryTag.NATIVE_QUERY_LOG);
+        // no entry has been written yet
+        for (long i = 0; i < capacity; i++) {
+            Unsafe.getUnsafe().putLong(mem + i * entrySize + SEQ_OFFSET, -1);
+        }
+    }
+
+    @Override
+    public void close() {
+        Unsafe.free(mem, entrySize * capacity, MemoryTag.NATIVE_QUERY_LOG);
+    }
+
+    /**
+     * Copies entry written for the given sequence to the buffer of {@link #getEntrySize()} bytes.
+     *
+     * @return false when the entry has not been written yet or has already been overwritten
+     */
+    public boolean copyEntry(long seq, long dst) {
+        final long p = mem + (seq & mask) * entrySize;
+        if (Unsafe.getUnsafe().getLongVolatile(null, p + SEQ_OFFSET) != seq) {
+            return false;
+        }
+        Vect.memcpy(dst, p, entrySize);
+        Unsafe.getUnsafe().loadFence();
+        return Unsafe.getUnsafe().getLongVolatile(null, p + SEQ_OFFSET) == seq;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getEntrySize() {
+        return entrySize;
+    }
+
+    /**
+     * @return sequence of the next entry to be written, entries from this value minus capacity are readable
+     */
+    public long getSequence() {
+        return sequence.get();
+    }
+
+    public void log(
+            CharSequence sql,
+            int protocol,
+            @Nullable CharSequence principal,
+            long compileNanos,
+            long executionNanos,
+            long rowCount,
+            long bytesSent,
+            long peakMemory,
+            boolean planCacheHit,
+            boolean jit
+    ) {
+        final long seq = sequence.getAndIncrement();
+        final long p = mem + (seq & mask) * entrySize;
+        Unsafe.getUnsafe().putLongVolatile(null, p + SEQ_OFFSET, -1);
+
+        Unsafe.getUnsafe().putLong(p + TIMESTAMP_OFFSET, clock.getTicks());
+        Unsafe.getUnsafe().putLong(p + COMPILE_NANOS_OFFSET, compileNanos);
+        Unsafe.getUnsafe().putLong(p + EXECUTION_NANOS_OFFSET, executionNanos);
+        Unsafe.getUnsafe().putLong(p + ROW_COUNT_OFFSET, rowCount);
+        Unsafe.getUnsafe().putLong(p + BYTES_SENT_OFFSET, bytesSent);
+        Unsafe.getUnsafe().putLong(p + PEAK_MEMORY_OFFSET, peakMemory);
+        Unsafe.getUnsafe().putInt(p + FLAGS_OFFSET, (planCacheHit ? FLAG_PLAN_CACHE_HIT : 0) | (jit ? FLAG_JIT : 0));
+        Unsafe.getUnsafe().putInt(p + PROTOCOL_OFFSET, protocol);
+        Unsafe.getUnsafe().putInt(p + PRINCIPAL_LEN_OFFSET, copyChars(principal, p + PRINCIPAL_OFFSET, PRINCIPAL_MAX_LEN));
+        Unsafe.getUnsafe().putInt(p + SQL_LEN_OFFSET, copyChars(sql, p + SQL_OFFSET, sqlMaxLen));
+
+        // hash is calculated over the whole text to tell apart queries that share truncated prefix
+        long hash = 0;
+        for (int i = 0, n = sql.length(); i < n; i++) {
+            hash = 31 * hash + sql.charAt(i);
+        }
+        Unsafe.getUnsafe().putLong(p + SQL_HASH_OFFSET, hash);
+
+        Unsafe.getUnsafe().putLongVolatile(null, p + SEQ_OFFSET, seq);
+    }
+
+    private static int copyChars(@Nullable CharSequence value, long dst, int maxLen) {
+        if (value == null) {
+            return -1;
+        }
+        final int len = Math.min(value.length(), maxLen);
+        for (int i = 0; i < len; i++) {
+            Unsafe.getUnsafe().putChar(dst + i * 2L, value.charAt(i));
+        }
+        return len;
+    }
+}
@@ -0,0 +1,373 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.BindVariableService;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.ReaderOutOfDateException;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.VersionedRecordCursorFactory;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Engine-wide pool of compiled SELECT factories shared by all connections and worker threads.
+ * Factories are keyed by SQL tokens with whitespace and comments removed. Every key pools several
+ * factory instances, each of which is handed out to one execution at a time together with types
+ * of bind variables it was compiled for. Factories compiled by {@link SqlCompiler} with the cache
+ * enabled carry ids and structure versions of the tables they read, these are checked before
+ * the factory is handed out, whenever any table has changed structure since the previous check,
+ * and stale factories are closed instead. When the cache is full, adding a statement evicts another
+ * one with the clock algorithm: statements polled since the clock hand passed them last survive
+ * one more round. Factories that still turn out
+ * to be stale, i.e. their cursor fails with {@link ReaderOutOfDateException} after table structure
+ * change, must be discarded by the caller via {@link #invalidate(CharSequence)}, which drops all
+ * pooled instances of the same SQL.
+ */
+public class QueryPlanCache implements Closeable {
+    private static final Log LOG = LogFactory.getLog(QueryPlanCache.class);
+    private static final java.lang.ThreadLocal<StringSink> tlSink = java.lang.ThreadLocal.withInitial(StringSink::new);
+    private static final java.lang.ThreadLocal<GenericLexer> tlLexer = java.lang.ThreadLocal.withInitial(QueryPlanCache::newLexer);
+    private final ConcurrentHashMap<Entry> entries = new ConcurrentHashMap<>();
+    // entries in the order of clock hand visits, guarded by itself
+    private final ObjList<Entry> clock = new ObjList<>();
+    private final int capacity;
+    private final int poolCapacity;
+    private final CairoEngine engine;
+    private int clockHand;
+
+    public QueryPlanCache(CairoConfiguration configuration, CairoEngine engine) {
+        this.engine = engine;
+        this.capacity = configuration.getSqlPlanCacheCapacity();
+        this.poolCapacity = configuration.getSqlPlanCachePoolCapacity();
+    }
+
+    /**
+     * Copies SQL tokens to the sink separated by single space. Whitespace and comments are dropped,
+     * quoted strings and identifiers are copied as is, so that the same statement formatted
+     * differently hits the same cache entry while different statements never do.
+     */
+    public static void normalize(CharSequence sql, StringSink sink) {
+        sink.clear();
+        final GenericLexer lexer = tlLexer.get();
+        lexer.of(sql);
+        CharSequence tok;
+        while ((tok = SqlUtil.fetchNext(lexer)) != null) {
+            if (sink.length() > 0) {
+                sink.put(' ');
+            }
+            sink.put(tok);
+        }
+    }
+
+    public void clear() {
+        for (CharSequence key : entries.keySet()) {
+            invalidate0(key);
+        }
+        synchronized (clock) {
+            clock.clear();
+            clockHand = 0;
+        }
+        LOG.info().$("cleared").$();
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public void invalidate(CharSequence sql) {
+        final StringSink sink = tlSink.get();
+        normalize(sql, sink);
+        invalidate0(sink);
+    }
+
+    /**
+     * Takes factory compiled for the SQL without bind variables out of the cache.
+     *
+     * @return factory for exclusive use of the caller, which has to either push it back or close it,
+     * or null when there is no such factory in the cache
+     */
+    public RecordCursorFactory poll(CharSequence sql) {
+        final StringSink sink = tlSink.get();
+        normalize(sql, sink);
+        final Entry entry = entries.get(sink);
+        if (entry != null) {
+            final Plan plan = poll(entry, null);
+            if (plan != null) {
+                return plan.factory;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes factory compiled for the SQL out of the cache. Bind variables already defined by the caller
+     * must have the same types as the cached factory was compiled with, variables that are not defined
+     * yet are defined by this method.
+     *
+     * @return factory for exclusive use of the caller, which has to either push it back or close it,
+     * or null when there is no suitable factory in the cache
+     */
+    public RecordCursorFactory poll(CharSequence sql, @Nullable BindVariableService bindVariableService) throws SqlException {
+        final StringSink sink = tlSink.get();
+        normalize(sql, sink);
+        final Entry entry = entries.get(sink);
+        if (entry != null) {
+            final Plan plan = poll(entry, bindVariableService);
+            if (plan != null) {
+                if (bindVariableService != null) {
+                    for (int i = 0, n = plan.bindVariableTypes.size(); i < n; i++) {
+                        if (bindVariableService.getFunction(i) == null) {
+                            bindVariableService.define(i, plan.bindVariableTypes.getQuick(i), 0);
+                        }
+                    }
+                }
+                return plan.factory;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns factory to the cache. Factory is closed when the cache, or the pool of the SQL, is full.
+     *
+     * @param bindVariableTypes types of indexed bind variables the factory was compiled for, may be null
+     *                          when SQL has no bind variables
+     */
+    public void push(CharSequence sql, @Nullable IntList bindVariableTypes, RecordCursorFactory factory) {
+        final StringSink sink = tlSink.get();
+        normalize(sql, sink);
+        Entry entry = entries.get(sink);
+        if (entry == null) {
+            if (capacity < 1) {
+                Misc.free(factory);
+                return;
+            }
+            entry = addEntry(sink);
+        }
+        if (!entry.push(factory, bindVariableTypes, poolCapacity)) {
+            Misc.free(factory);
+        }
+    }
+
+    private static GenericLexer newLexer() {
+        final GenericLexer lexer = new GenericLexer(64);
+        SqlCompiler.configureLexer(lexer);
+        return lexer;
+    }
+
+    private Entry addEntry(CharSequence key) {
+        synchronized (clock) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                return entry;
+            }
+            entry = new Entry(Chars.toString(key));
+            if (clock.size() < capacity) {
+                clock.add(entry);
+            } else {
+                while (true) {
+                    final Entry victim = clock.getQuick(clockHand);
+                    if (victim.referenced && !victim.closed) {
+                        victim.referenced = false;
+                        clockHand = (clockHand + 1) % capacity;
+                        continue;
+                    }
+                    entries.remove(victim.key, victim);
+                    victim.close();
+                    clock.setQuick(clockHand, entry);
+                    clockHand = (clockHand + 1) % capacity;
+                    break;
+                }
+            }
+            entries.put(entry.key, entry);
+            return entry;
+        }
+    }
+
+    private void invalidate0(CharSequence key) {
+        final Entry entry = entries.remove(key);
+        if (entry != null) {
+            // clock slot is reused when the hand reaches the closed entry
+            entry.close();
+        }
+    }
+
+    private Plan poll(Entry entry, @Nullable BindVariableService bindVariableService) {
+        entry.referenced = true;
+        Plan plan;
+        while ((plan = entry.poll(bindVariableService)) != null) {
+            if (plan.factory instanceof VersionedRecordCursorFactory) {
+                final VersionedRecordCursorFactory factory = (VersionedRecordCursorFactory) plan.factory;
+                // readers are checked out only after some table has changed structure since the last check
+                final long tableStructureEpoch = engine.getTableStructureEpoch();
+                if (factory.getTableStructureEpoch() != tableStructureEpoch) {
+                    if (!factory.getTableVersions().isCurrent(engine)) {
+                        LOG.info().$("discarded stale plan").$();
+                        Misc.free(plan.factory);
+                        continue;
+                    }
+                    factory.setTableStructureEpoch(tableStructureEpoch);
+                }
+            }
+            return plan;
+        }
+        return null;
+    }
+
+    /**
+     * Ids and structure versions of the tables a query was compiled against.
+     */
+    public static class TableVersions implements Mutable {
+        private final ObjList<String> tableNames = new ObjList<>();
+        private final IntList tableIds = new IntList();
+        private final LongList versions = new LongList();
+
+        public void add(String tableName, int tableId, long version) {
+            for (int i = 0, n = tableNames.size(); i < n; i++) {
+                if (tableIds.getQuick(i) == tableId && versions.getQuick(i) == version && Chars.equals(tableNames.getQuick(i), tableName)) {
+                    return;
+                }
+            }
+            tableNames.add(tableName);
+            tableIds.add(tableId);
+            versions.add(version);
+        }
+
+        public void addAll(TableVersions other) {
+            for (int i = 0, n = other.tableNames.size(); i < n; i++) {
+                add(other.tableNames.getQuick(i), other.tableIds.getQuick(i), other.versions.getQuick(i));
+            }
+        }
+
+        @Override
+        public void clear() {
+            tableNames.clear();
+            tableIds.clear();
+            versions.clear();
+        }
+
+        public boolean isCurrent(CairoEngine engine) {
+            for (int i = 0, n = tableNames.size(); i < n; i++) {
+                try (
+                        TableReader ignored = engine.getReader(
+                                AllowAllCairoSecurityContext.INSTANCE,
+                                tableNames.getQuick(i),
+                                tableIds.getQuick(i),
+                                versions.getQuick(i)
+                        )
+                ) {
+                    // table still has the structure the plan was compiled for
+                } catch (ReaderOutOfDateException | CairoException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public int size() {
+            return tableNames.size();
+        }
+    }
+
+    private static class Entry implements Closeable {
+        private final ObjList<Plan> plans = new ObjList<>();
+        private final String key;
+        private volatile boolean closed;
+        private volatile boolean referenced;
+
+        private Entry(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            for (int i = 0, n = plans.size(); i < n; i++) {
+                Misc.free(plans.getQuick(i).factory);
+            }
+            plans.clear();
+        }
+
+        synchronized Plan poll(@Nullable BindVariableService bindVariableService) {
+            for (int i = plans.size() - 1; i > -1; i--) {
+                final Plan plan = plans.getQuick(i);
+                if (plan.matches(bindVariableService)) {
+                    plans.remove(i);
+                    return plan;
+                }
+            }
+            return null;
+        }
+
+        synchronized boolean push(RecordCursorFactory factory, @Nullable IntList bindVariableTypes, int poolCapacity) {
+            // entry may have been invalidated while factory was in use
+            if (closed || plans.size() >= poolCapacity) {
+                return false;
+            }
+            final Plan plan = new Plan();
+            plan.factory = factory;
+            if (bindVariableTypes != null) {
+                plan.bindVariableTypes.addAll(bindVariableTypes);
+            }
+            plans.add(plan);
+            return true;
+        }
+    }
+
+    private static class Plan {
+        private final IntList bindVariableTypes = new IntList();
+        private RecordCursorFactory factory;
+
+        boolean matches(@Nullable BindVariableService bindVariableService) {
+            if (bindVariableService == null) {
+                return bindVariableTypes.size() == 0;
+            }
+            final int definedCount = bindVariableService.getIndexedVariableCount();
+            if (definedCount > bindVariableTypes.size()) {
+                return false;
+            }
+            for (int i = 0; i < definedCount; i++) {
+                final Function function = bindVariableService.getFunction(i);
+                if (function != null && function.getType() != bindVariableTypes.getQuick(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,508 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Engine-wide cache of SELECT results. Result is keyed by SQL tokens, values of indexed bind variables
+ * and transactions of the tables the query read when it was executed. Cached result is served for as long
+ * as none of these tables has committed since, so repeated executions of the same query against quiet
+ * tables skip the execution. Results are copied into native memory, total size of which is bounded;
+ * least recently used results are evicted to make room for new ones.
+ * <p>
+ * Queries that depend on something other than table data, such as current time or random values, are
+ * never cached. Cursor factories and functions report this via {@link SqlExecutionContext#onVolatileRead()},
+ * this includes factories over live engine state, such as query log, metrics and table lists. Queries with
+ * named bind variables are not cached either.
+ * Cached result is handed to one cursor at a time, concurrent executions of the same query run as usual.
+ */
+public class QueryResultCache implements Closeable {
+    private static final Log LOG = LogFactory.getLog(QueryResultCache.class);
+    private static final java.lang.ThreadLocal<BytecodeAssembler> tlAsm = java.lang.ThreadLocal.withInitial(BytecodeAssembler::new);
+    private static final java.lang.ThreadLocal<Recording> tlRecording = java.lang.ThreadLocal.withInitial(Recording::new);
+    private static final java.lang.ThreadLocal<StringSink> tlSink = java.lang.ThreadLocal.withInitial(StringSink::new);
+    private final CairoEngine engine;
+    private final ConcurrentHashMap<Entry> entries = new ConcurrentHashMap<>();
+    // most recently used entry is the head of the list
+    private final Entry lruHead = new Entry();
+    private final long memoryLimit;
+    private final long entryMaxSize;
+    private final int pageSize;
+    private long memUsed;
+    private long hitCount;
+    private long missCount;
+
+    public QueryResultCache(CairoConfiguration configuration, CairoEngine engine) {
+        this.engine = engine;
+        this.memoryLimit = configuration.getSqlResultCacheMemorySize();
+        this.entryMaxSize = configuration.getSqlResultCacheEntryMaxSize();
+        this.pageSize = configuration.getSqlResultCachePageSize();
+        lruHead.prev = lruHead.next = lruHead;
+    }
+
+    public synchronized void clear() {
+        while (lruHead.prev != lruHead) {
+            evict(lruHead.prev);
+        }
+        LOG.info().$("cleared").$();
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    /**
+     * Returns cursor over the result of the factory. Cached result is returned when there is one and
+     * none of the tables it was read from has committed since. Otherwise, factory cursor is opened and,
+     * if the result is cacheable, it is copied to the cache and cursor over the copy is returned.
+     *
+     * @param sql              query text the factory has been compiled from
+     * @param factory          compiled query
+     * @param executionContext execution context with bind variables set
+     * @return cursor, which has to be closed by the caller as usual
+     */
+    public RecordCursor getCursor(CharSequence sql, RecordCursorFactory factory, SqlExecutionContextImpl executionContext) throws SqlException {
+        final StringSink key = tlSink.get();
+        if (!buildKey(sql, executionContext.getBindVariableService(), key)) {
+            return factory.getCursor(executionContext);
+        }
+
+        final Entry entry = acquire(key, executionContext.getCairoSecurityContext());
+        if (entry != null) {
+            return entry.cursor.of();
+        }
+
+        final Recording recording = tlRecording.get();
+        recording.clear();
+        executionContext.setResultCacheRecording(recording);
+        final RecordCursor cursor;
+        try {
+            cursor = factory.getCursor(executionContext);
+        } finally {
+            executionContext.setResultCacheRecording(null);
+        }
+
+        if (recording.isVolatile || recording.tableNames.size() == 0) {
+            return cursor;
+        }
+
+        final Entry newEntry;
+        try {
+            newEntry = materialize(factory.getMetadata(), cursor, executionContext.getCircuitBreaker());
+        } catch (Throwable e) {
+            cursor.close();
+            throw e;
+        }
+        if (newEntry == null) {
+            cursor.toTop();
+            return cursor;
+        }
+        cursor.close();
+        newEntry.key = Chars.toString(key);
+        newEntry.tableNames.addAll(recording.tableNames);
+        newEntry.tableIds.addAll(recording.tableIds);
+        newEntry.txns.add(recording.txns);
+        put(newEntry);
+        return newEntry.cursor.of();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMemUsed() {
+        return memUsed;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    private static boolean buildKey(CharSequence sql, @Nullable BindVariableService bindVariableService, StringSink sink) {
+        QueryPlanCache.normalize(sql, sink);
+        if (bindVariableService != null) {
+            if (bindVariableService.getNamedVariableCount() > 0) {
+                // named variables are rare outside of embedded use, results of such queries are not cached
+                return false;
+            }
+            for (int i = 0, n = bindVariableService.getIndexedVariableCount(); i < n; i++) {
+                final Function function = bindVariableService.getFunction(i);
+                sink.put('\0');
+                if (function != null && !putValue(function, sink)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean putValue(Function function, StringSink sink) {
+        final int type = function.getType();
+        sink.put(type).put(':');
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BOOLEAN:
+                sink.put(function.getBool(null));
+                return true;
+            case ColumnType.BYTE:
+                sink.put((int) function.getByte(null));
+                return true;
+            case ColumnType.SHORT:
+                sink.put((int) function.getShort(null));
+                return true;
+            case ColumnType.CHAR:
+                sink.put(function.getChar(null));
+                return true;
+            case ColumnType.INT:
+                sink.put(function.getInt(null));
+                return true;
+            case ColumnType.LONG:
+                sink.put(function.getLong(null));
+                return true;
+            case ColumnType.DATE:
+                sink.put(function.getDate(null));
+                return true;
+            case ColumnType.TIMESTAMP:
+                sink.put(function.getTimestamp(null));
+                return true;
+            case ColumnType.FLOAT:
+                sink.put(Float.floatToRawIntBits(function.getFloat(null)));
+                return true;
+            case ColumnType.DOUBLE:
+                sink.put(Double.doubleToRawLongBits(function.getDouble(null)));
+                return true;
+            case ColumnType.STRING:
+                final CharSequence value = function.getStr(null);
+                if (value == null) {
+                    sink.put(-1);
+                } else {
+                    sink.put(value.length()).put(':').put(value);
+                }
+                return true;
+            case ColumnType.LONG256:
+                function.getLong256(null, sink);
+                return true;
+            case ColumnType.GEOBYTE:
+                sink.put((int) function.getGeoByte(null));
+                return true;
+            case ColumnType.GEOSHORT:
+                sink.put((int) function.getGeoShort(null));
+                return true;
+            case ColumnType.GEOINT:
+                sink.put(function.getGeoInt(null));
+                return true;
+            case ColumnType.GEOLONG:
+                sink.put(function.getGeoLong(null));
+                return true;
+            default:
+                // binary and other types are not worth keying on
+                return false;
+        }
+    }
+
+    private Entry acquire(CharSequence key, CairoSecurityContext securityContext) {
+        final Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null || entry.leased) {
+                missCount++;
+                return null;
+            }
+            entry.leased = true;
+            unlink(entry);
+            linkFirst(entry);
+        }
+
+        if (isCurrent(entry, securityContext)) {
+            synchronized (this) {
+                hitCount++;
+            }
+            return entry;
+        }
+
+        synchronized (this) {
+            missCount++;
+            if (!entry.evicted) {
+                evict(entry);
+            }
+            release(entry);
+        }
+        return null;
+    }
+
+    private void evict(Entry entry) {
+        entries.remove(entry.key);
+        unlink(entry);
+        memUsed -= entry.memSize;
+        entry.evicted = true;
+        if (!entry.leased) {
+            entry.close();
+        }
+    }
+
+    private boolean isCurrent(Entry entry, CairoSecurityContext securityContext) {
+        for (int i = 0, n = entry.tableNames.size(); i < n; i++) {
+            try (TableReader reader = engine.getReader(securityContext, entry.tableNames.getQuick(i))) {
+                // table may have been dropped and re-created up to the same transaction
+                if (reader.getMetadata().getId() != entry.tableIds.getQuick(i) || reader.getTxn() != entry.txns.getQuick(i)) {
+                    return false;
+                }
+            } catch (CairoException e) {
+                // table is locked, dropped or otherwise unavailable
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void linkFirst(Entry entry) {
+        entry.prev = lruHead;
+        entry.next = lruHead.next;
+        lruHead.next.prev = entry;
+        lruHead.next = entry;
+    }
+
+    private Entry materialize(RecordMetadata metadata, RecordCursor cursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        final int columnCount = metadata.getColumnCount();
+        final ArrayColumnTypes columnTypes = new ArrayColumnTypes();
+        for (int i = 0; i < columnCount; i++) {
+            final int type = metadata.getColumnType(i);
+            // symbol tables belong to the readers, symbols are kept as strings
+            columnTypes.add(ColumnType.isSymbol(type) ? ColumnType.STRING : type);
+        }
+        final EntityColumnFilter columnFilter = new EntityColumnFilter();
+        columnFilter.of(columnCount);
+        final RecordSink recordSink = RecordSinkFactory.getInstance(tlAsm.get(), metadata, columnFilter, true);
+        final RecordChain chain = new RecordChain(
+                columnTypes,
+                recordSink,
+                pageSize,
+                (int) Math.max(1, entryMaxSize / pageSize),
+                MemoryTag.NATIVE_RESULT_CACHE
+        );
+        try {
+            final Record record = cursor.getRecord();
+            long offset = -1;
+            long size = 0;
+            while (cursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                offset = chain.put(record, offset);
+                size++;
+            }
+            return new Entry(chain, size);
+        } catch (LimitOverflowException e) {
+            LOG.info().$("result is too big to cache [maxSize=").$(entryMaxSize).I$();
+            chain.close();
+            return null;
+        } catch (Throwable e) {
+            chain.close();
+            throw e;
+        }
+    }
+
+    private synchronized void put(Entry entry) {
+        entry.leased = true;
+        entry.memSize = entry.chain.getMemUsed();
+        if (entry.memSize > memoryLimit) {
+            // serve once and discard
+            entry.evicted = true;
+            return;
+        }
+        final Entry existing = entries.get(entry.key);
+        if (existing != null) {
+            evict(existing);
+        }
+        while (memUsed + entry.memSize > memoryLimit && lruHead.prev != lruHead) {
+            evict(lruHead.prev);
+        }
+        entries.put(entry.key, entry);
+        linkFirst(entry);
+        memUsed += entry.memSize;
+    }
+
+    private synchronized void release(Entry entry) {
+        entry.leased = false;
+        if (entry.evicted) {
+            entry.close();
+        }
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            entry.prev = entry.next = null;
+        }
+    }
+
+    /**
+     * Tables, their ids and transactions a query reads while its cursor is being opened.
+     */
+    public static class Recording implements Mutable {
+        private final ObjList<CharSequence> tableNames = new ObjList<>();
+        private final IntList tableIds = new IntList();
+        private final LongList txns = new LongList();
+        private boolean isVolatile;
+
+        public void addTable(CharSequence tableName, int tableId, long txn) {
+            for (int i = 0, n = tableNames.size(); i < n; i++) {
+                if (Chars.equals(tableNames.getQuick(i), tableName)) {
+                    if (tableIds.getQuick(i) != tableId || txns.getQuick(i) != txn) {
+                        // self-join read the table at two different transactions
+                        isVolatile = true;
+                    }
+                    return;
+                }
+            }
+            tableNames.add(Chars.toString(tableName));
+            tableIds.add(tableId);
+            txns.add(txn);
+        }
+
+        @Override
+        public void clear() {
+            tableNames.clear();
+            tableIds.clear();
+            txns.clear();
+            isVolatile = false;
+        }
+
+        public void setVolatile() {
+            isVolatile = true;
+        }
+    }
+
+    private static class CachedRecord extends DelegatingRecord {
+        private Record getBase() {
+            return base;
+        }
+
+        @Override
+        public CharSequence getSym(int col) {
+            return base.getStr(col);
+        }
+
+        @Override
+        public CharSequence getSymB(int col) {
+            return base.getStrB(col);
+        }
+    }
+
+    private class CachedResultCursor implements RecordCursor {
+        private final Entry entry;
+        private final CachedRecord recordA = new CachedRecord();
+        private final CachedRecord recordB = new CachedRecord();
+
+        private CachedResultCursor(Entry entry) {
+            this.entry = entry;
+            recordA.of(entry.chain.getRecord());
+            recordB.of(entry.chain.getRecordB());
+        }
+
+        @Override
+        public void close() {
+            release(entry);
+        }
+
+        @Override
+        public Record getRecord() {
+            return recordA;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordB;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return entry.chain.hasNext();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            entry.chain.recordAt(((CachedRecord) record).getBase(), atRowId);
+        }
+
+        @Override
+        public long size() {
+            return entry.size;
+        }
+
+        @Override
+        public void toTop() {
+            entry.chain.toTop();
+        }
+
+        private CachedResultCursor of() {
+            toTop();
+            return this;
+        }
+    }
+
+    private class Entry implements Closeable {
+        private final ObjList<CharSequence> tableNames = new ObjList<>();
+        private final IntList tableIds = new IntList();
+        private final LongList txns = new LongList();
+        private final RecordChain chain;
+        private final CachedResultCursor cursor;
+        private final long size;
+        private String key;
+        private long memSize;
+        private boolean leased;
+        private boolean evicted;
+        private Entry prev;
+        private Entry next;
+
+        private Entry() {
+            this.chain = null;
+            this.cursor = null;
+            this.size = 0;
+        }
+
+        private Entry(RecordChain chain, long size) {
+            this.chain = chain;
+            this.size = size;
+            this.cursor = new CachedResultCursor(this);
+        }
+
+        @Override
+        public void close() {
+            Misc.free(chain);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.Misc;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Re-aggregates rollups whose base tables have committed new transactions.
+ */
+public class RollupRefreshJob extends SynchronizedJob implements Closeable {
+    private final RollupRegistry registry;
+    private SqlCompiler compiler;
+    private SqlExecutionContextImpl executionContext;
+
+    public RollupRefreshJob(CairoEngine engine, @Nullable FunctionFactoryCache functionFactoryCache) {
+        this.registry = engine.getRollupRegistry();
+        this.compiler = new SqlCompiler(engine, functionFactoryCache, null);
+        this.executionContext = new SqlExecutionContextImpl(engine, 1);
+        this.executionContext.with(AllowAllCairoSecurityContext.INSTANCE, null, null);
+    }
+
+    @Override
+    public void close() {
+        compiler = Misc.free(compiler);
+        executionContext = Misc.free(executionContext);
+    }
+
+    @Override
+    protected boolean runSerially() {
+        return registry.size() > 0 && registry.refreshAll(compiler, executionContext);
+    }
+}
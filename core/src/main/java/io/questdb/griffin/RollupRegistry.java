@@ -0,0 +1,476 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.cairo.vm.api.MemoryMR;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.ThreadLocal;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registry of materialized SAMPLE BY rollups. Each rollup is a regular table deduplicated on
+ * its designated timestamp and group keys, so that re-inserting the aggregate of a bucket
+ * replaces the rows previously written for it. Refresh compares partition sizes and name
+ * versions in the base table's _txn file with the ones seen on the previous refresh and
+ * re-aggregates base rows from the earliest touched bucket onwards. Writers notify the registry
+ * of base table commits, only rollups marked dirty by these notifications are refreshed.
+ * <p>
+ * Definitions survive restarts in the _rollup file kept in the rollup table directory.
+ */
+public class RollupRegistry implements TableWriter.CommitListener {
+    public static final String ROLLUP_FILE_NAME = "_rollup";
+    private static final Log LOG = LogFactory.getLog(RollupRegistry.class);
+    private static final long FULL_REFRESH = Long.MIN_VALUE;
+    private static final long NOTHING_TO_REFRESH = Long.MAX_VALUE;
+    // rollups keyed by normalized definition text
+    private final ConcurrentHashMap<Rollup> rollups = new ConcurrentHashMap<>();
+    // copy-on-write snapshot of the rollups for iteration on writer and refresh threads
+    private volatile ObjList<Rollup> rollupList = new ObjList<>();
+    private final CairoEngine engine;
+    private final ThreadLocal<StringSink> tlSink = new ThreadLocal<>(StringSink::new);
+
+    public RollupRegistry(CairoEngine engine) {
+        this.engine = engine;
+    }
+
+    public synchronized void clear() {
+        rollups.clear();
+        rollupList = new ObjList<>();
+    }
+
+    /**
+     * Persists and registers a rollup definition. The rollup table must already exist.
+     */
+    public Rollup create(
+            CharSequence rollupTableName,
+            CharSequence baseTableName,
+            CharSequence timestampColumnName,
+            CharSequence interval,
+            CharSequence sqlHead,
+            CharSequence baseTableToken,
+            CharSequence sqlTail
+    ) throws SqlException {
+        final Rollup rollup = new Rollup(
+                Chars.toString(rollupTableName),
+                Chars.toString(baseTableName),
+                Chars.toString(timestampColumnName),
+                Chars.toString(interval),
+                Chars.toString(sqlHead),
+                Chars.toString(baseTableToken),
+                Chars.toString(sqlTail)
+        );
+        final CairoConfiguration configuration = engine.getConfiguration();
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (
+                Path path = new Path().of(configuration.getRoot()).concat(rollupTableName).concat(ROLLUP_FILE_NAME);
+                MemoryCMARW mem = Vm.getSmallCMARWInstance(ff, path.$(), MemoryTag.MMAP_DEFAULT, configuration.getWriterFileOpenOpts())
+        ) {
+            mem.putStr(rollup.baseTableName);
+            mem.putStr(rollup.timestampColumnName);
+            mem.putStr(rollup.interval);
+            mem.putStr(rollup.sqlHead);
+            mem.putStr(rollup.baseTableToken);
+            mem.putStr(rollup.sqlTail);
+            mem.close(true);
+        }
+        register(rollup);
+        return rollup;
+    }
+
+    /**
+     * Returns the rollup to read instead of running the query, when the query is the
+     * definition of a rollup that has caught up with the latest base table transaction.
+     */
+    @Nullable
+    public Rollup findFresh(CharSequence query, SqlExecutionContext executionContext) {
+        if (rollups.isEmpty()) {
+            return null;
+        }
+        final StringSink sink = tlSink.get();
+        QueryPlanCache.normalize(query, sink);
+        final Rollup rollup = rollups.get(sink);
+        return rollup != null && isFresh(rollup, executionContext) ? rollup : null;
+    }
+
+    @Nullable
+    public Rollup getByDefinition(CharSequence sql) {
+        final StringSink sink = tlSink.get();
+        QueryPlanCache.normalize(sql, sink);
+        return rollups.get(sink);
+    }
+
+    /**
+     * Tells whether the rollup has caught up with the latest base table transaction. Fresh rollup
+     * reports the base table transaction to the execution context, result read from the rollup
+     * is as current as the base table is.
+     */
+    public boolean isFresh(Rollup rollup, SqlExecutionContext executionContext) {
+        if (rollup.baseTxn == -1 || rollup.dirty) {
+            return false;
+        }
+        try (TableReader reader = engine.getReader(executionContext.getCairoSecurityContext(), rollup.baseTableName)) {
+            if (reader.getTxn() == rollup.baseTxn) {
+                executionContext.onTableRead(rollup.baseTableName, reader.getMetadata().getId(), reader.getTxn());
+                return true;
+            }
+        } catch (CairoException e) {
+            LOG.info().$("rollup base unavailable [rollup=").$(rollup.name).$(", msg=").$(e.getFlyweightMessage()).I$();
+        }
+        return false;
+    }
+
+    @Override
+    public void onCommit(CharSequence tableName, long txn) {
+        final ObjList<Rollup> rollupList = this.rollupList;
+        for (int i = 0, n = rollupList.size(); i < n; i++) {
+            final Rollup rollup = rollupList.getQuick(i);
+            if (Chars.equalsIgnoreCase(rollup.baseTableName, tableName)) {
+                rollup.dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Loads rollup definitions from the _rollup files found under the database root.
+     */
+    public void reload() {
+        final CairoConfiguration configuration = engine.getConfiguration();
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot());
+            final int rootLen = path.length();
+            ff.iterateDir(path.$(), (pUtf8NameZ, type) -> {
+                if (Files.isDir(pUtf8NameZ, type)) {
+                    path.trimTo(rootLen).concat(pUtf8NameZ).concat(ROLLUP_FILE_NAME).$();
+                    if (ff.exists(path)) {
+                        final StringSink name = tlSink.get();
+                        name.clear();
+                        Chars.utf8DecodeZ(pUtf8NameZ, name);
+                        load(ff, path, name.toString());
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Refreshes the given rollup, blocking while another thread refreshes it.
+     *
+     * @return true when rows have been re-aggregated
+     */
+    public boolean refresh(Rollup rollup, SqlCompiler compiler, SqlExecutionContext executionContext) throws SqlException {
+        rollup.lock.lock();
+        try {
+            return refresh0(rollup, compiler, executionContext);
+        } finally {
+            rollup.lock.unlock();
+        }
+    }
+
+    /**
+     * Refreshes rollups whose base tables have committed since the last refresh and that
+     * are not being refreshed by another thread.
+     *
+     * @return true when any of the rollups has been re-aggregated
+     */
+    public boolean refreshAll(SqlCompiler compiler, SqlExecutionContext executionContext) {
+        boolean useful = false;
+        final ObjList<Rollup> rollupList = this.rollupList;
+        for (int i = 0, n = rollupList.size(); i < n; i++) {
+            final Rollup rollup = rollupList.getQuick(i);
+            if (rollup.dirty && rollup.lock.tryLock()) {
+                try {
+                    useful |= refresh0(rollup, compiler, executionContext);
+                } catch (Throwable e) {
+                    LOG.error().$("rollup refresh failed [rollup=").$(rollup.name).$(", error=").$(e).I$();
+                    try (Path path = new Path()) {
+                        if (engine.getStatus(executionContext.getCairoSecurityContext(), path, rollup.name) != TableUtils.TABLE_EXISTS) {
+                            LOG.info().$("rollup table is gone, unregistering [rollup=").$(rollup.name).I$();
+                            unregister(rollup.name);
+                        }
+                    }
+                } finally {
+                    rollup.lock.unlock();
+                }
+            }
+        }
+        return useful;
+    }
+
+    public int size() {
+        return rollups.size();
+    }
+
+    public synchronized void unregister(CharSequence rollupTableName) {
+        final ObjList<Rollup> list = new ObjList<>();
+        for (int i = 0, n = rollupList.size(); i < n; i++) {
+            final Rollup rollup = rollupList.getQuick(i);
+            if (Chars.equalsIgnoreCase(rollup.name, rollupTableName)) {
+                rollups.remove(rollup.definition);
+            } else {
+                list.add(rollup);
+            }
+        }
+        rollupList = list;
+    }
+
+    private void load(FilesFacade ff, Path path, String rollupTableName) {
+        try (MemoryMR mem = Vm.getMRInstance(ff, path, ff.length(path), MemoryTag.MMAP_DEFAULT)) {
+            long offset = 0;
+            final String[] values = new String[6];
+            for (int i = 0; i < values.length; i++) {
+                final CharSequence value = mem.getStr(offset);
+                values[i] = Chars.toString(value);
+                offset += Vm.getStorageLength(value);
+            }
+            register(new Rollup(rollupTableName, values[0], values[1], values[2], values[3], values[4], values[5]));
+        } catch (CairoException e) {
+            LOG.error().$("could not load rollup [path=").$(path).$(", error=").$(e.getFlyweightMessage()).I$();
+        } catch (SqlException e) {
+            LOG.error().$("could not load rollup [path=").$(path).$(", error=").$(e.getFlyweightMessage()).I$();
+        }
+    }
+
+    private boolean refresh0(Rollup rollup, SqlCompiler compiler, SqlExecutionContext executionContext) throws SqlException {
+        // commits that land while refreshing mark the rollup dirty again
+        rollup.dirty = false;
+        final CairoSecurityContext securityContext = executionContext.getCairoSecurityContext();
+        final long txn;
+        final long lo;
+        try (TableReader reader = engine.getReader(securityContext, rollup.baseTableName)) {
+            txn = reader.getTxn();
+            if (txn == rollup.baseTxn || txn == rollup.failedTxn) {
+                return false;
+            }
+            lo = rollup.snapshot(reader.getTxFile(), reader.getPartitionedBy());
+        }
+
+        try {
+            final StringSink sink = rollup.insertSql;
+            if (lo == FULL_REFRESH) {
+                try (TableWriter writer = engine.getWriter(securityContext, rollup.name, "rollup refresh")) {
+                    writer.truncate();
+                }
+                rollup.toInsertSql(sink, FULL_REFRESH);
+                compiler.compile(sink, executionContext);
+            } else if (lo != NOTHING_TO_REFRESH) {
+                rollup.toInsertSql(sink, rollup.sampler.round(lo));
+                compiler.compile(sink, executionContext);
+            }
+        } catch (Throwable e) {
+            // rollup may be left half-refreshed, next attempt rebuilds it from scratch
+            rollup.snapshotValid = false;
+            rollup.failedTxn = txn;
+            throw e;
+        }
+        rollup.commitSnapshot();
+        rollup.baseTxn = txn;
+        LOG.info().$("rollup refreshed [rollup=").$(rollup.name)
+                .$(", baseTxn=").$(txn)
+                .$(", full=").$(lo == FULL_REFRESH)
+                .I$();
+        return lo != NOTHING_TO_REFRESH;
+    }
+
+    private synchronized void register(Rollup rollup) throws SqlException {
+        if (rollups.putIfAbsent(rollup.definition, rollup) != null) {
+            throw SqlException.$(0, "rollup with the same definition already exists");
+        }
+        final ObjList<Rollup> list = new ObjList<>(rollupList);
+        list.add(rollup);
+        rollupList = list;
+        LOG.info().$("registered rollup [rollup=").$(rollup.name).$(", base=").$(rollup.baseTableName).I$();
+    }
+
+    public static class Rollup {
+        // partition timestamp, row count and name txn for each partition of the base table
+        private static final int SNAPSHOT_ENTRY_SIZE = 3;
+        private final String name;
+        private final String baseTableName;
+        private final String timestampColumnName;
+        private final String interval;
+        private final String sqlHead;
+        private final String baseTableToken;
+        private final String sqlTail;
+        private final String definition;
+        private final TimestampSampler sampler;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final StringSink insertSql = new StringSink();
+        private LongList snapshot = new LongList();
+        private LongList pendingSnapshot = new LongList();
+        private boolean snapshotValid;
+        private long columnVersion;
+        private long truncateVersion;
+        private long maxTimestamp;
+        private long pendingColumnVersion;
+        private long pendingTruncateVersion;
+        private long pendingMaxTimestamp;
+        private long failedTxn = -1;
+        private volatile long baseTxn = -1;
+        // set on base table commits, new rollups need their first refresh
+        private volatile boolean dirty = true;
+
+        private Rollup(
+                String name,
+                String baseTableName,
+                String timestampColumnName,
+                String interval,
+                String sqlHead,
+                String baseTableToken,
+                String sqlTail
+        ) throws SqlException {
+            this.name = name;
+            this.baseTableName = baseTableName;
+            this.timestampColumnName = timestampColumnName;
+            this.interval = interval;
+            this.sqlHead = sqlHead;
+            this.baseTableToken = baseTableToken;
+            this.sqlTail = sqlTail;
+            this.sampler = TimestampSamplerFactory.getInstance(interval, 0);
+            this.sampler.setStart(0);
+            final StringSink sink = new StringSink();
+            QueryPlanCache.normalize(sqlHead + baseTableToken + sqlTail, sink);
+            this.definition = sink.toString();
+        }
+
+        public String getBaseTableName() {
+            return baseTableName;
+        }
+
+        public long getBaseTxn() {
+            return baseTxn;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        private void commitSnapshot() {
+            final LongList tmp = snapshot;
+            snapshot = pendingSnapshot;
+            pendingSnapshot = tmp;
+            columnVersion = pendingColumnVersion;
+            truncateVersion = pendingTruncateVersion;
+            maxTimestamp = pendingMaxTimestamp;
+            snapshotValid = true;
+        }
+
+        private long getPartitionSize(TxReader txFile, int partitionIndex) {
+            return partitionIndex == txFile.getPartitionCount() - 1
+                    ? txFile.getTransientRowCount()
+                    : txFile.getPartitionSize(partitionIndex);
+        }
+
+        /**
+         * Captures base table partitions into the pending snapshot and compares them with the
+         * committed one.
+         *
+         * @return lowest timestamp touched since the last refresh, FULL_REFRESH when the
+         * rollup has to be rebuilt or NOTHING_TO_REFRESH when no rows have changed
+         */
+        private long snapshot(TxReader txFile, int partitionBy) {
+            final int partitionCount = txFile.getPartitionCount();
+            pendingSnapshot.clear();
+            for (int i = 0; i < partitionCount; i++) {
+                pendingSnapshot.add(txFile.getPartitionTimestamp(i));
+                pendingSnapshot.add(getPartitionSize(txFile, i));
+                pendingSnapshot.add(txFile.getPartitionNameTxn(i));
+            }
+            pendingColumnVersion = txFile.getColumnVersion();
+            pendingTruncateVersion = txFile.getTruncateVersion();
+            pendingMaxTimestamp = txFile.getMaxTimestamp();
+
+            if (
+                    !snapshotValid
+                            || !PartitionBy.isPartitioned(partitionBy)
+                            || pendingColumnVersion != columnVersion
+                            || pendingTruncateVersion != truncateVersion
+            ) {
+                return FULL_REFRESH;
+            }
+
+            long lo = NOTHING_TO_REFRESH;
+            final int oldCount = snapshot.size() / SNAPSHOT_ENTRY_SIZE;
+            int i = 0;
+            int k = 0;
+            while (i < oldCount || k < partitionCount) {
+                final long oldTs = i < oldCount ? snapshot.getQuick(i * SNAPSHOT_ENTRY_SIZE) : Long.MAX_VALUE;
+                final long newTs = k < partitionCount ? pendingSnapshot.getQuick(k * SNAPSHOT_ENTRY_SIZE) : Long.MAX_VALUE;
+                if (oldTs < newTs) {
+                    // dropped partition, buckets may have lost their keys
+                    return FULL_REFRESH;
+                }
+                if (newTs < oldTs) {
+                    lo = Math.min(lo, newTs);
+                    k++;
+                    continue;
+                }
+                final long oldSize = snapshot.getQuick(i * SNAPSHOT_ENTRY_SIZE + 1);
+                final long newSize = pendingSnapshot.getQuick(k * SNAPSHOT_ENTRY_SIZE + 1);
+                final long oldNameTxn = snapshot.getQuick(i * SNAPSHOT_ENTRY_SIZE + 2);
+                final long newNameTxn = pendingSnapshot.getQuick(k * SNAPSHOT_ENTRY_SIZE + 2);
+                if (newSize < oldSize) {
+                    return FULL_REFRESH;
+                }
+                if (oldNameTxn != newNameTxn) {
+                    // O3 merge rewrites the partition
+                    lo = Math.min(lo, oldTs);
+                } else if (newSize > oldSize) {
+                    // rows appended in order to the last partition start from its max timestamp
+                    lo = Math.min(lo, i == oldCount - 1 ? maxTimestamp : oldTs);
+                }
+                i++;
+                k++;
+            }
+            return lo;
+        }
+
+        private void toInsertSql(StringSink sink, long lo) {
+            sink.clear();
+            sink.put("insert into \"").put(name).put("\" ").put(sqlHead);
+            if (lo == FULL_REFRESH) {
+                sink.put(baseTableToken);
+            } else {
+                sink.put('(').put(baseTableToken).put(" where \"").put(timestampColumnName).put("\" >= '");
+                TimestampFormatUtils.appendDateTimeUSec(sink, lo);
+                sink.put("')");
+            }
+            sink.put(sqlTail);
+        }
+    }
+}
@@ -35,6 +35,7 @@ import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.engine.EmptyTableRecordCursorFactory;
 import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.griffin.engine.LimitRecordCursorFactory;
+import io.questdb.griffin.engine.ProfilingRecordCursorFactory;
 import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.griffin.engine.analytic.AnalyticFunction;
 import io.questdb.griffin.engine.analytic.CachedAnalyticRecordCursorFactory;
@@ -53,6 +54,7 @@ import io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFacto
 import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.TopKPerGroupRecordCursorFactory;
 import io.questdb.griffin.engine.table.*;
 import io.questdb.griffin.engine.union.*;
 import io.questdb.griffin.model.*;
@@ -125,6 +127,10 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final WeakClosableObjectPool<PageFrameReduceTask> reduceTaskPool;
     private final ObjList<TableColumnMetadata> deferredAnalyticMetadata = new ObjList<>();
     private final ObjectPool<IntList> intListPool = new ObjectPool<>(IntList::new, 4);
+    private final ObjList<ExpressionNode> bloomFilterValueNodes = new ObjList<>();
+    // profiled factories yet to be adopted by the parent factory, used by EXPLAIN ANALYZE
+    private final ObjList<ProfilingRecordCursorFactory> profiledFactories = new ObjList<>();
+    private boolean profiling = false;
     private boolean enableJitNullChecks = true;
     private boolean fullFatJoins = false;
 
@@ -181,6 +187,22 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return generateQuery(model, executionContext, true);
     }
 
+    /**
+     * Generates factory, which gathers execution statistics of every operator.
+     * Statistics are printed by the factory's plan once the cursor is exhausted.
+     *
+     * @return instance of {@link ProfilingRecordCursorFactory} wrapping the query factory
+     */
+    public ProfilingRecordCursorFactory generateProfiled(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
+        profiling = true;
+        try {
+            return (ProfilingRecordCursorFactory) generateQuery(model, executionContext, true);
+        } finally {
+            profiling = false;
+            profiledFactories.clear();
+        }
+    }
+
     private static RecordCursorFactory createFullFatAsOfJoin(CairoConfiguration configuration,
                                                              RecordMetadata metadata,
                                                              RecordCursorFactory masterFactory,
@@ -211,6 +233,39 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return new LtJoinRecordCursorFactory(configuration, metadata, masterFactory, slaveFactory, mapKeyTypes, mapValueTypes, slaveColumnTypes, masterKeySink, slaveKeySink, columnSplit, slaveValueSink, columnIndex);
     }
 
+    /**
+     * @return number of rows per group a constant upper bound on the zero based row number column keeps,
+     * or -1 when the filter is not such a bound
+     */
+    private static long getRowNumberLimit(ExpressionNode filter, CharSequence alias) {
+        if (filter.paramCount != 2 || filter.lhs == null || filter.rhs == null) {
+            return -1;
+        }
+        final ExpressionNode column;
+        final ExpressionNode constant;
+        final boolean inclusive;
+        if (Chars.equals(filter.token, '<') || Chars.equals(filter.token, "<=")) {
+            column = filter.lhs;
+            constant = filter.rhs;
+            inclusive = filter.token.length() == 2;
+        } else if (Chars.equals(filter.token, '>') || Chars.equals(filter.token, ">=")) {
+            column = filter.rhs;
+            constant = filter.lhs;
+            inclusive = filter.token.length() == 2;
+        } else {
+            return -1;
+        }
+        if (column.type != ExpressionNode.LITERAL || constant.type != ExpressionNode.CONSTANT || !Chars.equalsIgnoreCase(column.token, alias)) {
+            return -1;
+        }
+        try {
+            final long bound = Numbers.parseLong(constant.token);
+            return bound < Long.MAX_VALUE && inclusive ? bound + 1 : bound;
+        } catch (NumericException e) {
+            return -1;
+        }
+    }
+
     private static int getOrderByDirectionOrDefault(QueryModel model, int index) {
         IntList direction = model.getOrderByDirectionAdvice();
         if (index >= direction.size()) {
@@ -1286,7 +1341,17 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 validateBothTimestamps(slaveModel, masterMetadata, slaveMetadata);
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
                                 if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
-                                    if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
+                                    if (isIndexedAsOfJoinSupported(slave, masterMetadata, slaveMetadata)) {
+                                        master = new AsOfJoinIndexedRecordCursorFactory(
+                                                createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                master,
+                                                slave,
+                                                listColumnFilterB.getColumnIndexFactored(0),
+                                                listColumnFilterA.getColumnIndexFactored(0),
+                                                masterMetadata.getColumnCount(),
+                                                false
+                                        );
+                                    } else if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
                                         master = createAsOfJoin(
                                                 createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
                                                 master,
@@ -1334,7 +1399,17 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 validateBothTimestamps(slaveModel, masterMetadata, slaveMetadata);
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
                                 if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
-                                    if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
+                                    if (isIndexedAsOfJoinSupported(slave, masterMetadata, slaveMetadata)) {
+                                        master = new AsOfJoinIndexedRecordCursorFactory(
+                                                createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                master,
+                                                slave,
+                                                listColumnFilterB.getColumnIndexFactored(0),
+                                                listColumnFilterA.getColumnIndexFactored(0),
+                                                masterMetadata.getColumnCount(),
+                                                true
+                                        );
+                                    } else if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
                                         master = createLtJoin(
                                                 createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
                                                 master,
@@ -1933,34 +2008,48 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     }
 
     private RecordCursorFactory generateQuery(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
-        RecordCursorFactory factory = generateQuery0(model, executionContext, processJoins);
+        final int profiledMark = profiledFactories.size();
+        RecordCursorFactory factory = generateQuery0(model, executionContext, processJoins, profiledMark);
         if (model.getUnionModel() != null) {
-            return generateSetFactory(model, factory, executionContext);
+            return profile(generateSetFactory(model, factory, executionContext), profiledMark);
         }
         return factory;
     }
 
-    private RecordCursorFactory generateQuery0(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
-        return generateLimit(
-                generateOrderBy(
-                        generateLatestBy(
-                                generateFilter(
-                                        generateSelect(
-                                                model,
-                                                executionContext,
-                                                processJoins
-                                        ),
-                                        model,
-                                        executionContext
-                                ),
-                                model
-                        ),
-                        model,
-                        executionContext
-                ),
-                model,
-                executionContext
-        );
+    private RecordCursorFactory generateQuery0(
+            QueryModel model,
+            SqlExecutionContext executionContext,
+            boolean processJoins,
+            int profiledMark
+    ) throws SqlException {
+        if (!profiling) {
+            return generateLimit(
+                    generateOrderBy(
+                            generateLatestBy(
+                                    generateFilter(
+                                            generateSelect(
+                                                    model,
+                                                    executionContext,
+                                                    processJoins
+                                            ),
+                                            model,
+                                            executionContext
+                                    ),
+                                    model
+                            ),
+                            model,
+                            executionContext
+                    ),
+                    model,
+                    executionContext
+            );
+        }
+        // wrap every operator, so that EXPLAIN ANALYZE is able to attribute time to it
+        RecordCursorFactory factory = profile(generateSelect(model, executionContext, processJoins), profiledMark);
+        factory = profile(generateFilter(factory, model, executionContext), profiledMark);
+        factory = profile(generateLatestBy(factory, model), profiledMark);
+        factory = profile(generateOrderBy(factory, model, executionContext), profiledMark);
+        return profile(generateLimit(factory, model, executionContext), profiledMark);
     }
 
     @NotNull
@@ -2338,6 +2427,10 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
     private RecordCursorFactory generateSelectAnalytic(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final RecordCursorFactory base = generateSubQuery(model, executionContext);
+        final RecordCursorFactory topK = generateTopKPerGroup(model, base, executionContext);
+        if (topK != null) {
+            return topK;
+        }
         final RecordMetadata baseMetadata = base.getMetadata();
         final ObjList<QueryColumn> columns = model.getColumns();
         final int columnCount = columns.size();
@@ -3165,7 +3258,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             RecordCursorFactory factoryA,
             SqlExecutionContext executionContext
     ) throws SqlException {
-        final RecordCursorFactory factoryB = generateQuery0(model.getUnionModel(), executionContext, true);
+        final RecordCursorFactory factoryB = generateQuery0(model.getUnionModel(), executionContext, true, profiledFactories.size());
         ObjList<Function> castFunctionsA = null;
         ObjList<Function> castFunctionsB = null;
         try {
@@ -3268,6 +3361,114 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return generateQuery(model.getNestedModel(), executionContext, true);
     }
 
+    /**
+     * Finds first equality or IN-list predicate on a column with Bloom filter among
+     * AND-ed filter conjuncts. Value nodes are collected into bloomFilterValueNodes.
+     *
+     * @return column node of the predicate or null when there is no suitable predicate
+     */
+    private ExpressionNode findBloomFilterPredicate(ExpressionNode node, RecordMetadata metadata) {
+        if (node == null || (node.type != ExpressionNode.OPERATION && node.type != ExpressionNode.SET_OPERATION)) {
+            return null;
+        }
+
+        if (SqlKeywords.isAndKeyword(node.token)) {
+            final ExpressionNode column = findBloomFilterPredicate(node.lhs, metadata);
+            return column != null ? column : findBloomFilterPredicate(node.rhs, metadata);
+        }
+
+        bloomFilterValueNodes.clear();
+        if (node.paramCount == 2 && Chars.equals(node.token, '=')) {
+            if (isBloomFilterColumn(node.lhs, metadata) && isBloomFilterValue(node.rhs)) {
+                bloomFilterValueNodes.add(node.rhs);
+                return node.lhs;
+            }
+            if (isBloomFilterColumn(node.rhs, metadata) && isBloomFilterValue(node.lhs)) {
+                bloomFilterValueNodes.add(node.lhs);
+                return node.rhs;
+            }
+            return null;
+        }
+
+        if (node.paramCount > 1 && SqlKeywords.isInKeyword(node.token)) {
+            if (node.paramCount == 2) {
+                if (isBloomFilterColumn(node.lhs, metadata) && isBloomFilterValue(node.rhs)) {
+                    bloomFilterValueNodes.add(node.rhs);
+                    return node.lhs;
+                }
+                return null;
+            }
+
+            final ExpressionNode column = node.args.getQuick(node.paramCount - 1);
+            if (!isBloomFilterColumn(column, metadata)) {
+                return null;
+            }
+            for (int i = 0, n = node.paramCount - 1; i < n; i++) {
+                final ExpressionNode value = node.args.getQuick(i);
+                if (!isBloomFilterValue(value)) {
+                    bloomFilterValueNodes.clear();
+                    return null;
+                }
+                bloomFilterValueNodes.add(value);
+            }
+            return column;
+        }
+        return null;
+    }
+
+    private static boolean isBloomFilterColumn(ExpressionNode node, RecordMetadata metadata) {
+        if (node == null || node.type != LITERAL) {
+            return false;
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(node.token);
+        return columnIndex > -1
+                && BloomFilterUtils.isSupportedColumnType(metadata.getColumnType(columnIndex), metadata.isColumnIndexed(columnIndex));
+    }
+
+    private static boolean isBloomFilterValue(ExpressionNode node) {
+        return node != null && (node.type == ExpressionNode.CONSTANT || node.type == ExpressionNode.BIND_VARIABLE);
+    }
+
+    private DataFrameCursorFactory wrapWithBloomFilter(
+            DataFrameCursorFactory dfcFactory,
+            ExpressionNode filter,
+            RecordMetadata readerMeta,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ExpressionNode column = findBloomFilterPredicate(filter, readerMeta);
+        if (column == null) {
+            return dfcFactory;
+        }
+
+        final ObjList<Function> values = new ObjList<>(bloomFilterValueNodes.size());
+        try {
+            for (int i = 0, n = bloomFilterValueNodes.size(); i < n; i++) {
+                final Function value = functionParser.parseFunction(bloomFilterValueNodes.getQuick(i), EmptyRecordMetadata.INSTANCE, executionContext);
+                values.add(value);
+                final int valueType = value.getType();
+                if (!ColumnType.isSymbolOrString(valueType) || !(value.isConstant() || value.isRuntimeConstant())) {
+                    // leave comparison of other types to the filter
+                    Misc.freeObjList(values);
+                    return dfcFactory;
+                }
+            }
+        } catch (Throwable e) {
+            Misc.freeObjList(values);
+            throw e;
+        } finally {
+            bloomFilterValueNodes.clear();
+        }
+
+        final int columnIndex = readerMeta.getColumnIndex(column.token);
+        return new BloomFilterDataFrameCursorFactory(
+                dfcFactory,
+                columnIndex,
+                readerMeta.getColumnName(columnIndex),
+                ColumnType.isSymbol(readerMeta.getColumnType(columnIndex)),
+                values
+        );
+    }
+
     private RecordCursorFactory generateTableQuery(
             QueryModel model,
             SqlExecutionContext executionContext
@@ -3680,6 +3881,10 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     rowFactory = new DataFrameRowCursorFactory();
                 }
 
+                if (intrinsicModel.filter != null && configuration.isBloomFilterEnabled()) {
+                    dfcFactory = wrapWithBloomFilter(dfcFactory, intrinsicModel.filter, readerMeta, executionContext);
+                }
+
                 model.setWhereClause(intrinsicModel.filter);
                 return new DataFrameRecordCursorFactory(
                         configuration,
@@ -3768,6 +3973,96 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    /**
+     * Replaces analytic factory with {@link TopKPerGroupRecordCursorFactory} when the only analytic column
+     * is <code>row_number() over (partition by ... order by ...)</code> and the filter is an upper bound
+     * on that column, for example <code>rn &lt; 5</code>.
+     *
+     * @return null when the model does not match, base factory is then left intact
+     */
+    @Nullable
+    private RecordCursorFactory generateTopKPerGroup(QueryModel model, RecordCursorFactory base, SqlExecutionContext executionContext) throws SqlException {
+        final ExpressionNode filter = model.getWhereClause();
+        if (filter == null || filter.type != ExpressionNode.OPERATION || !base.recordCursorSupportsRandomAccess()) {
+            return null;
+        }
+
+        final ObjList<QueryColumn> columns = model.getColumns();
+        AnalyticColumn rowNumberColumn = null;
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final QueryColumn qc = columns.getQuick(i);
+            if (qc instanceof AnalyticColumn) {
+                if (rowNumberColumn != null) {
+                    return null;
+                }
+                rowNumberColumn = (AnalyticColumn) qc;
+            }
+        }
+
+        if (rowNumberColumn == null
+                || rowNumberColumn.getPartitionBy().size() == 0
+                || rowNumberColumn.getOrderBy().size() == 0
+                || rowNumberColumn.getAst().type != ExpressionNode.FUNCTION
+                || rowNumberColumn.getAst().paramCount > 0
+                || !Chars.equalsIgnoreCase(rowNumberColumn.getAst().token, "row_number")) {
+            return null;
+        }
+
+        final long limit = getRowNumberLimit(filter, rowNumberColumn.getAlias());
+        if (limit < 1) {
+            return null;
+        }
+
+        final RecordMetadata baseMetadata = base.getMetadata();
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        final IntList columnCrossIndex = new IntList(columns.size());
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final QueryColumn qc = columns.getQuick(i);
+            if (qc == rowNumberColumn) {
+                metadata.add(new TableColumnMetadata(Chars.toString(qc.getAlias()), 0, ColumnType.LONG, false, 0, false, null));
+                columnCrossIndex.add(-1);
+            } else {
+                final int columnIndex = baseMetadata.getColumnIndexQuiet(qc.getAst().token);
+                metadata.add(BaseRecordMetadata.copyOf(baseMetadata, columnIndex));
+                columnCrossIndex.add(columnIndex);
+            }
+        }
+
+        final ObjList<ExpressionNode> partitionByNodes = rowNumberColumn.getPartitionBy();
+        final ObjList<Function> partitionBy = new ObjList<>(partitionByNodes.size());
+        try {
+            keyTypes.clear();
+            for (int i = 0, n = partitionByNodes.size(); i < n; i++) {
+                final Function function = functionParser.parseFunction(partitionByNodes.getQuick(i), baseMetadata, executionContext);
+                partitionBy.add(function);
+                keyTypes.add(function.getType());
+            }
+            entityColumnFilter.of(partitionBy.size());
+            final RecordSink partitionBySink = RecordSinkFactory.getInstance(asm, keyTypes, entityColumnFilter, false);
+            final RecordComparator comparator = recordComparatorCompiler.compile(
+                    baseMetadata,
+                    toOrderIndices(baseMetadata, rowNumberColumn.getOrderBy(), rowNumberColumn.getOrderByDirection())
+            );
+
+            model.setWhereClause(null);
+            return new TopKPerGroupRecordCursorFactory(
+                    configuration,
+                    metadata,
+                    base,
+                    partitionBy,
+                    partitionBySink,
+                    keyTypes,
+                    comparator,
+                    columnCrossIndex,
+                    limit
+            );
+        } catch (Throwable e) {
+            Misc.freeObjList(partitionBy);
+            Misc.free(base);
+            throw e;
+        }
+    }
+
     private RecordCursorFactory generateUnionAllFactory(
             QueryModel model,
             SqlExecutionContext executionContext,
@@ -3972,6 +4267,40 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return null;
     }
 
+    private boolean isIndexedAsOfJoinSupported(
+            RecordCursorFactory slave,
+            RecordMetadata masterMetadata,
+            RecordMetadata slaveMetadata
+    ) {
+        // the lookup walks symbol index of the slave table, which has to be scanned
+        // whole and ordered by its timestamp
+        if (!configuration.isSqlAsOfJoinIndexLookupEnabled()
+                || listColumnFilterA.size() != 1
+                || !(ProfilingRecordCursorFactory.unwrap(slave) instanceof DataFrameRecordCursorFactory)
+                || !((DataFrameRecordCursorFactory) ProfilingRecordCursorFactory.unwrap(slave)).isFullTableScan()) {
+            return false;
+        }
+        final int slaveKeyIndex = listColumnFilterA.getColumnIndexFactored(0);
+        final int masterKeyIndex = listColumnFilterB.getColumnIndexFactored(0);
+        return ColumnType.isSymbol(slaveMetadata.getColumnType(slaveKeyIndex))
+                && slaveMetadata.isColumnIndexed(slaveKeyIndex)
+                && ColumnType.isSymbolOrString(masterMetadata.getColumnType(masterKeyIndex));
+    }
+
+    private RecordCursorFactory profile(RecordCursorFactory factory, int profiledMark) {
+        if (!profiling || factory instanceof ProfilingRecordCursorFactory) {
+            // operator did not wrap the factory of the previous step
+            return factory;
+        }
+        final ProfilingRecordCursorFactory profilingFactory = new ProfilingRecordCursorFactory(factory, configuration.getNanosecondClock());
+        for (int i = profiledMark, n = profiledFactories.size(); i < n; i++) {
+            profilingFactory.addChild(profiledFactories.getQuick(i));
+        }
+        profiledFactories.setPos(profiledMark);
+        profiledFactories.add(profilingFactory);
+        return profilingFactory;
+    }
+
     private void processJoinContext(
             boolean vanillaMaster,
             JoinContext jc,
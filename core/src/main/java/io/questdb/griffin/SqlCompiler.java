@@ -33,6 +33,9 @@ import io.questdb.cairo.sql.*;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cutlass.text.*;
+import io.questdb.griffin.engine.ExplainPlanRecordCursorFactory;
+import io.questdb.griffin.engine.RollupRecordCursorFactory;
+import io.questdb.griffin.engine.VersionedRecordCursorFactory;
 import io.questdb.griffin.engine.functions.cast.CastCharToStrFunctionFactory;
 import io.questdb.griffin.engine.functions.cast.CastStrToGeoHashFunctionFactory;
 import io.questdb.griffin.engine.functions.catalogue.*;
@@ -108,6 +111,8 @@ public class SqlCompiler implements Closeable {
     private final TimestampValueRecord partitionFunctionRec = new TimestampValueRecord();
     private final IndexBuilder rebuildIndex = new IndexBuilder();
     private final VacuumColumnVersions vacuumColumnVersions;
+    private final StringSink rollupQuerySink = new StringSink();
+    private final QueryPlanCache.TableVersions rollupTableVersions = new QueryPlanCache.TableVersions();
     //determines how compiler parses query text
     //true - compiler treats whole input as single query and doesn't stop on ';'. Default mode.
     //false - compiler treats input as list of statements and stops processing statement on ';'. Used in batch processing.
@@ -166,6 +171,8 @@ public class SqlCompiler implements Closeable {
         final KeywordBasedExecutor vacuumTable = this::vacuum;
         final KeywordBasedExecutor snapshotDatabase = this::snapshotDatabase;
         final KeywordBasedExecutor compileDeallocate = this::compileDeallocate;
+        final KeywordBasedExecutor compileCreate = this::compileCreate;
+        final KeywordBasedExecutor compileExplain = this::compileExplain;
 
         keywordBasedExecutors.put("truncate", truncateTables);
         keywordBasedExecutors.put("TRUNCATE", truncateTables);
@@ -203,6 +210,10 @@ public class SqlCompiler implements Closeable {
         keywordBasedExecutors.put("SNAPSHOT", snapshotDatabase);
         keywordBasedExecutors.put("deallocate", compileDeallocate);
         keywordBasedExecutors.put("DEALLOCATE", compileDeallocate);
+        keywordBasedExecutors.put("create", compileCreate);
+        keywordBasedExecutors.put("CREATE", compileCreate);
+        keywordBasedExecutors.put("explain", compileExplain);
+        keywordBasedExecutors.put("EXPLAIN", compileExplain);
 
         configureLexer(lexer);
 
@@ -883,6 +894,11 @@ public class SqlCompiler implements Closeable {
     @NotNull
     public CompiledQuery compile(@NotNull CharSequence query, @NotNull SqlExecutionContext executionContext) throws SqlException {
         clear();
+        // definition of a rollup that is up-to-date with its base table is answered from the rollup
+        final RollupRegistry.Rollup rollup = engine.getRollupRegistry().findFresh(query, executionContext);
+        if (rollup != null) {
+            return compileRollup(rollup, query, executionContext);
+        }
         // these are quick executions that do not require building of a model
         lexer.of(query);
         isSingleQueryMode = true;
@@ -1745,6 +1761,17 @@ public class SqlCompiler implements Closeable {
         return compiledQuery.ofSet();
     }
 
+    private CompiledQuery compileCreate(SqlExecutionContext executionContext) throws SqlException {
+        final int createPosition = lexer.lastTokenPosition();
+        final CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok != null && isRollupKeyword(tok)) {
+            return createRollup(executionContext);
+        }
+        // everything else is handled by the parser, starting from 'create'
+        lexer.backTo(createPosition, null);
+        return compileUsingModel(executionContext);
+    }
+
     private CompiledQuery compileDeallocate(SqlExecutionContext executionContext) throws SqlException {
         CharSequence statementName = GenericLexer.unquote(expectToken(lexer, "statement name"));
         CharSequence tok = SqlUtil.fetchNext(lexer);
@@ -1754,6 +1781,29 @@ public class SqlCompiler implements Closeable {
         return compiledQuery.ofDeallocate(statementName);
     }
 
+    private CompiledQuery compileExplain(SqlExecutionContext executionContext) throws SqlException {
+        final int explainPosition = lexer.lastTokenPosition();
+        final CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok == null) {
+            throw SqlException.$(lexer.getPosition(), "query expected");
+        }
+        final boolean analyze = isAnalyzeKeyword(tok);
+        if (!analyze) {
+            lexer.unparseLast();
+        }
+
+        codeGenerator.clear();
+        final ExecutionModel executionModel = compileExecutionModel(executionContext);
+        if (executionModel.getModelType() != ExecutionModel.QUERY) {
+            throw SqlException.$(explainPosition, "EXPLAIN is supported for SELECT queries only");
+        }
+        final QueryModel queryModel = (QueryModel) executionModel;
+        final RecordCursorFactory factory = analyze
+                ? codeGenerator.generateProfiled(queryModel, executionContext)
+                : generate(queryModel, executionContext);
+        return compiledQuery.of(new ExplainPlanRecordCursorFactory(factory, analyze));
+    }
+
     @NotNull
     private CompiledQuery compileUsingModel(SqlExecutionContext executionContext) throws SqlException {
         // This method will not populate sql cache directly;
@@ -1767,11 +1817,18 @@ public class SqlCompiler implements Closeable {
         lexer.unparseLast();
         codeGenerator.clear();
 
+        // read before the optimiser opens readers, changes that land while compiling make the plan re-checked
+        final long tableStructureEpoch = engine.getTableStructureEpoch();
         ExecutionModel executionModel = compileExecutionModel(executionContext);
         switch (executionModel.getModelType()) {
             case ExecutionModel.QUERY:
                 LOG.info().$("plan [q=`").$((QueryModel) executionModel).$("`, fd=").$(executionContext.getRequestFd()).$(']').$();
-                return compiledQuery.of(generate((QueryModel) executionModel, executionContext));
+                final RecordCursorFactory factory = generate((QueryModel) executionModel, executionContext);
+                if (configuration.isSqlPlanCacheEnabled()) {
+                    // plan cache checks table versions before handing out shared factories
+                    return compiledQuery.of(new VersionedRecordCursorFactory(factory, optimiser.getTableVersions(), tableStructureEpoch));
+                }
+                return compiledQuery.of(factory);
             case ExecutionModel.CREATE_TABLE:
                 return createTableWithRetries(executionModel, executionContext);
             case ExecutionModel.COPY:
@@ -2052,6 +2109,190 @@ public class SqlCompiler implements Closeable {
         return rowCount;
     }
 
+    private CompiledQuery compileRollup(RollupRegistry.Rollup rollup, CharSequence query, SqlExecutionContext executionContext) throws SqlException {
+        // callers cache the factory under the definition text, both the rollup and the definition
+        // are compiled and the factory picks one of them on every execution
+        final long tableStructureEpoch = engine.getTableStructureEpoch();
+        rollupQuerySink.clear();
+        rollupQuerySink.put("select * from \"").put(rollup.getName()).put('"');
+        final RecordCursorFactory rollupFactory = compileRollupQuery(rollupQuerySink, executionContext);
+        RecordCursorFactory factory = null;
+        try {
+            rollupTableVersions.clear();
+            rollupTableVersions.addAll(optimiser.getTableVersions());
+            clear();
+            final RecordCursorFactory baseFactory = compileRollupQuery(query, executionContext);
+            factory = new RollupRecordCursorFactory(engine.getRollupRegistry(), rollup, rollupFactory, baseFactory);
+            if (configuration.isSqlPlanCacheEnabled()) {
+                rollupTableVersions.addAll(optimiser.getTableVersions());
+                factory = new VersionedRecordCursorFactory(factory, rollupTableVersions, tableStructureEpoch);
+            }
+        } finally {
+            if (factory == null) {
+                Misc.free(rollupFactory);
+            }
+        }
+        compiledQuery.of(factory);
+        compiledQuery.withContext(executionContext);
+        return compiledQuery;
+    }
+
+    private RecordCursorFactory compileRollupQuery(CharSequence query, SqlExecutionContext executionContext) throws SqlException {
+        lexer.of(query);
+        isSingleQueryMode = true;
+        return VersionedRecordCursorFactory.unwrap(compileInner(executionContext).getRecordCursorFactory());
+    }
+
+    private CompiledQuery createRollup(SqlExecutionContext executionContext) throws SqlException {
+        // expected syntax: CREATE ROLLUP name AS (<sample by query>) [;]
+        executionContext.getCairoSecurityContext().checkWritePermission();
+        final int namePosition = lexer.getPosition();
+        final String rollupTableName = Chars.toString(GenericLexer.unquote(expectToken(lexer, "rollup name")));
+        expectKeyword(lexer, "as");
+        CharSequence tok = expectToken(lexer, "'('");
+        if (!Chars.equals(tok, '(')) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'(' expected");
+        }
+        final int queryLo = lexer.getPosition();
+        int depth = 1;
+        do {
+            tok = expectToken(lexer, "')'");
+            if (Chars.equals(tok, '(')) {
+                depth++;
+            } else if (Chars.equals(tok, ')')) {
+                depth--;
+            }
+        } while (depth > 0);
+        final int queryHi = lexer.lastTokenPosition();
+        tok = SqlUtil.fetchNext(lexer);
+        if (tok != null && !Chars.equals(tok, ';')) {
+            throw SqlException.$(lexer.lastTokenPosition(), "unexpected token [").put(tok).put("]");
+        }
+        final int statementHi = lexer.getPosition();
+        if (engine.getStatus(executionContext.getCairoSecurityContext(), path, rollupTableName) != TableUtils.TABLE_DOES_NOT_EXIST) {
+            throw SqlException.$(namePosition, "table already exists");
+        }
+
+        // parse the query in place to keep error positions relative to the whole statement
+        final CharSequence content = lexer.getContent();
+        lexer.of(content, queryLo, queryHi);
+        codeGenerator.clear();
+        final ExecutionModel executionModel = parser.parse(lexer, executionContext);
+        if (executionModel.getModelType() != ExecutionModel.QUERY) {
+            throw SqlException.$(queryLo, "SELECT query expected");
+        }
+        // select clause is parsed into the outer model, the rest of the query into the nested one
+        final QueryModel model = (QueryModel) executionModel;
+        final QueryModel fromModel = model.getNestedModel();
+        final ExpressionNode tableName = fromModel != null ? fromModel.getTableName() : null;
+        if (
+                tableName == null
+                        || tableName.type != ExpressionNode.LITERAL
+                        || fromModel.getNestedModel() != null
+                        || fromModel.getJoinModels().size() > 1
+                        || model.getUnionModel() != null
+        ) {
+            throw SqlException.$(queryLo, "rollup query must select from a single table");
+        }
+        final ExpressionNode sampleBy = fromModel.getSampleBy();
+        if (sampleBy == null || fromModel.getSampleByUnit() != null) {
+            throw SqlException.$(queryLo, "rollup query must use SAMPLE BY with a constant interval");
+        }
+        if (fromModel.getSampleByFill().size() > 0) {
+            throw SqlException.$(fromModel.getSampleByFill().getQuick(0).position, "FILL is not supported in rollups");
+        }
+        final ExpressionNode offset = fromModel.getSampleByOffset();
+        if (offset == null || !Chars.equals(offset.token, "'00:00'") || fromModel.getSampleByTimezoneName() != null) {
+            throw SqlException.$(sampleBy.position, "rollup query must be aligned to calendar without time zone and offset");
+        }
+        if (model.getOrderBy().size() > 0 || fromModel.getOrderBy().size() > 0 || model.getLimitLo() != null) {
+            throw SqlException.$(queryLo, "ORDER BY and LIMIT are not supported in rollups");
+        }
+
+        final String baseTableName = Chars.toString(GenericLexer.unquote(tableName.token));
+        final int tableLo = tableName.position;
+        int tableHi = tableLo + tableName.token.length();
+        final char quote = content.charAt(tableLo);
+        if (quote == '"' || quote == '\'') {
+            tableHi = Chars.indexOf(content, tableLo + 1, queryHi, quote) + 1;
+        }
+        final String interval = Chars.toString(sampleBy.token);
+        final ObjList<CharSequence> keyColumnNames = new ObjList<>();
+        final ObjList<QueryColumn> columns = model.getBottomUpColumns();
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final QueryColumn column = columns.getQuick(i);
+            if (column.getAst().type == ExpressionNode.LITERAL) {
+                keyColumnNames.add(Chars.toString(column.getAlias() != null ? column.getAlias() : column.getAst().token));
+            }
+        }
+
+        final String baseTimestampColumnName;
+        final int partitionBy;
+        try (TableReader reader = engine.getReader(executionContext.getCairoSecurityContext(), baseTableName)) {
+            final int timestampIndex = reader.getMetadata().getTimestampIndex();
+            if (timestampIndex == -1) {
+                throw SqlException.$(tableLo, "rollup base table must have a designated timestamp");
+            }
+            baseTimestampColumnName = Chars.toString(reader.getMetadata().getColumnName(timestampIndex));
+            partitionBy = reader.getPartitionedBy();
+        } catch (CairoException e) {
+            throw SqlException.$(tableLo, e.getFlyweightMessage());
+        }
+
+        final StringSink ddl = rollupQuerySink;
+        ddl.clear();
+        try (RecordCursorFactory factory = generate(optimiser.optimise(model, executionContext), executionContext)) {
+            final RecordMetadata metadata = factory.getMetadata();
+            final int timestampIndex = metadata.getTimestampIndex();
+            if (timestampIndex == -1) {
+                throw SqlException.$(sampleBy.position, "rollup query must select the designated timestamp");
+            }
+            ddl.put("create table \"").put(rollupTableName).put("\" (");
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                if (i > 0) {
+                    ddl.put(", ");
+                }
+                ddl.put('"').put(metadata.getColumnName(i)).put("\" ").put(ColumnType.nameOf(metadata.getColumnType(i)));
+            }
+            ddl.put(") timestamp(").put(metadata.getColumnName(timestampIndex))
+                    .put(") partition by ").put(PartitionBy.toString(partitionBy))
+                    .put(" bypass wal dedup upsert keys(").put(metadata.getColumnName(timestampIndex));
+            for (int i = 0, n = keyColumnNames.size(); i < n; i++) {
+                final int columnIndex = metadata.getColumnIndexQuiet(keyColumnNames.getQuick(i));
+                if (columnIndex == -1 || columnIndex == timestampIndex) {
+                    continue;
+                }
+                if (ColumnType.isVariableLength(metadata.getColumnType(columnIndex))) {
+                    throw SqlException.$(queryLo, "rollup key must be a fixed size column [column=").put(keyColumnNames.getQuick(i)).put(']');
+                }
+                ddl.put(", ").put(metadata.getColumnName(columnIndex));
+            }
+            ddl.put(')');
+        }
+
+        final RollupRegistry registry = engine.getRollupRegistry();
+        if (registry.getByDefinition(content.subSequence(queryLo, queryHi)) != null) {
+            throw SqlException.$(queryLo, "rollup with the same definition already exists");
+        }
+        // a dedicated compiler keeps this one positioned within the batch
+        try (SqlCompiler compiler = new SqlCompiler(engine, getFunctionFactoryCache(), snapshotAgent)) {
+            compiler.compile(ddl, executionContext);
+            final RollupRegistry.Rollup rollup = registry.create(
+                    rollupTableName,
+                    baseTableName,
+                    baseTimestampColumnName,
+                    interval,
+                    content.subSequence(queryLo, tableLo),
+                    content.subSequence(tableLo, tableHi),
+                    content.subSequence(tableHi, queryHi)
+            );
+            registry.refresh(rollup, compiler, executionContext);
+        }
+        lexer.of(content);
+        lexer.backTo(statementHi, null);
+        return compiledQuery.ofCreateTable();
+    }
+
     private CompiledQuery createTable(final ExecutionModel model, SqlExecutionContext executionContext) throws
             SqlException {
         final CreateTableModel createTableModel = (CreateTableModel) model;
@@ -2190,6 +2431,7 @@ public class SqlCompiler implements Closeable {
             throw SqlException.$(tableNamePosition, "table does not exist [table=").put(tableName).put(']');
         }
         engine.remove(executionContext.getCairoSecurityContext(), path, tableName);
+        engine.getRollupRegistry().unregister(tableName);
         return compiledQuery.ofDrop();
     }
 
@@ -32,6 +32,7 @@ import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.sql.BindVariableService;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
 import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.async.PageFrameReduceScheduler;
 import io.questdb.griffin.engine.analytic.AnalyticContext;
 import io.questdb.griffin.engine.functions.rnd.SharedRandom;
 import io.questdb.std.Rnd;
@@ -106,4 +107,26 @@ public interface SqlExecutionContext extends Closeable {
     void setCloneSymbolTables(boolean cloneSymbolTables);
 
     boolean getCloneSymbolTables();
+
+    /**
+     * Priority class used to share page frame reduce workers with other queries,
+     * see {@link PageFrameReduceScheduler}.
+     */
+    default int getQueryPriority() {
+        return PageFrameReduceScheduler.PRIORITY_NORMAL;
+    }
+
+    /**
+     * Called by cursor factories when they open table reader to read data. Query result
+     * cache uses table ids and transactions to tell whether cached result is still valid.
+     */
+    default void onTableRead(CharSequence tableName, int tableId, long txn) {
+    }
+
+    /**
+     * Called by functions and cursor factories whose output depends on something other than
+     * table data, such as current time or random generator. Results of such queries are not cached.
+     */
+    default void onVolatileRead() {
+    }
 }
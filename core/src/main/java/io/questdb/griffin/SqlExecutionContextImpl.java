@@ -29,6 +29,7 @@ import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.BindVariableService;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
 import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.async.PageFrameReduceScheduler;
 import io.questdb.griffin.engine.analytic.AnalyticContext;
 import io.questdb.griffin.engine.analytic.AnalyticContextImpl;
 import io.questdb.griffin.engine.functions.rnd.SharedRandom;
@@ -61,6 +62,8 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
     private long now;
     private int jitMode;
     private boolean cloneSymbolTables = false;
+    private int queryPriority = PageFrameReduceScheduler.PRIORITY_NORMAL;
+    private QueryResultCache.Recording resultCacheRecording;
 
     public SqlExecutionContextImpl(CairoEngine cairoEngine, int workerCount, int sharedWorkerCount) {
         this.cairoConfiguration = cairoEngine.getConfiguration();
@@ -126,6 +129,7 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
 
     @Override
     public Rnd getRandom() {
+        onVolatileRead();
         return random != null ? random : SharedRandom.getRandom(cairoConfiguration);
     }
 
@@ -179,6 +183,7 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
 
     @Override
     public void initNow() {
+        onVolatileRead();
         now = cairoConfiguration.getMicrosecondClock().getTicks();
     }
 
@@ -246,4 +251,31 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
     public boolean getCloneSymbolTables() {
         return cloneSymbolTables;
     }
+
+    @Override
+    public int getQueryPriority() {
+        return queryPriority;
+    }
+
+    public void setQueryPriority(int queryPriority) {
+        this.queryPriority = queryPriority;
+    }
+
+    @Override
+    public void onTableRead(CharSequence tableName, int tableId, long txn) {
+        if (resultCacheRecording != null) {
+            resultCacheRecording.addTable(tableName, tableId, txn);
+        }
+    }
+
+    @Override
+    public void onVolatileRead() {
+        if (resultCacheRecording != null) {
+            resultCacheRecording.setVolatile();
+        }
+    }
+
+    public void setResultCacheRecording(@Nullable QueryResultCache.Recording recording) {
+        this.resultCacheRecording = recording;
+    }
 }
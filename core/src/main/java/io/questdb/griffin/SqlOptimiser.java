@@ -71,6 +71,7 @@ class SqlOptimiser {
     private final IntList tempList = new IntList();
     private final LiteralCollector literalCollector = new LiteralCollector();
     private final IntHashSet tablesSoFar = new IntHashSet();
+    private final QueryPlanCache.TableVersions tableVersions = new QueryPlanCache.TableVersions();
     private final IntHashSet postFilterRemoved = new IntHashSet();
     private final ObjList<IntHashSet> postFilterTableRefs = new ObjList<>();
     private final LiteralCheckingVisitor literalCheckingVisitor = new LiteralCheckingVisitor();
@@ -708,8 +709,13 @@ class SqlOptimiser {
         return false;
     }
 
+    QueryPlanCache.TableVersions getTableVersions() {
+        return tableVersions;
+    }
+
     void clear() {
         contextPool.clear();
+        tableVersions.clear();
         intHashSetPool.clear();
         joinClausesSwap1.clear();
         joinClausesSwap2.clear();
@@ -2117,6 +2123,7 @@ class SqlOptimiser {
         ) {
             model.setTableVersion(r.getVersion());
             model.setTableId(r.getMetadata().getId());
+            tableVersions.add(r.getTableName(), r.getMetadata().getId(), r.getVersion());
             copyColumnsFromMetadata(model, r.getMetadata(), false);
             if (model.isUpdate()) {
                 copyColumnTypesFromMetadata(model, r.getMetadata());
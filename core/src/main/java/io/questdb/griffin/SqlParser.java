@@ -577,6 +577,7 @@ public final class SqlParser {
         final int walDisabled = 0;
         final int walEnabled = 1;
         int walSetting = walNotSet;
+        int dedupPosition = -1;
 
         ExpressionNode partitionBy = parseCreateTablePartition(lexer, tok);
         if (partitionBy != null) {
@@ -610,6 +611,11 @@ public final class SqlParser {
                 }
             }
 
+            if (tok != null && isDedupKeyword(tok)) {
+                dedupPosition = lexer.lastTokenPosition();
+                tok = parseCreateTableDedupKeys(lexer, model);
+            }
+
             if (tok != null && isWithKeyword(tok)) {
                 ExpressionNode expr;
                 while ((expr = expr(lexer, (QueryModel) null)) != null) {
@@ -644,6 +650,9 @@ public final class SqlParser {
                 );
 
         model.setWalEnabled(isWalEnabled);
+        if (dedupPosition > -1 && isWalEnabled) {
+            throw SqlException.$(dedupPosition, "deduplication is not supported on WAL tables");
+        }
 
         if (tok == null || Chars.equals(tok, ';')) {
             return model;
@@ -797,6 +806,37 @@ public final class SqlParser {
         }
     }
 
+    private CharSequence parseCreateTableDedupKeys(GenericLexer lexer, CreateTableModel model) throws SqlException {
+        if (model.getQueryModel() != null) {
+            throw SqlException.$(lexer.lastTokenPosition(), "deduplication is not supported in 'create table as ...' context");
+        }
+        expectTok(lexer, "upsert");
+        expectTok(lexer, "keys");
+        expectTok(lexer, '(');
+        final int timestampIndex = model.getTimestampIndex();
+        boolean timestampIncluded = false;
+        CharSequence tok;
+        do {
+            final ExpressionNode column = expectLiteral(lexer);
+            final int columnIndex = getCreateTableColumnIndex(model, column.token, column.position);
+            if (ColumnType.isVariableLength(model.getColumnType(columnIndex))) {
+                throw SqlException.$(column.position, "deduplication key must be a fixed size column");
+            }
+            timestampIncluded |= columnIndex == timestampIndex;
+            model.setDedupKeyFlag(columnIndex);
+            tok = tok(lexer, "',' or ')'");
+        } while (Chars.equals(tok, ','));
+
+        if (!Chars.equals(tok, ')')) {
+            throw errUnexpected(lexer, tok);
+        }
+
+        if (!timestampIncluded) {
+            throw SqlException.$(lexer.lastTokenPosition(), "deduplication keys must include the designated timestamp");
+        }
+        return optTok(lexer);
+    }
+
     private void parseCreateTableIndexDef(GenericLexer lexer, CreateTableModel model) throws SqlException {
         expectTok(lexer, '(');
         final int columnIndex = getCreateTableColumnIndex(model, expectLiteral(lexer).token, lexer.lastTokenPosition());
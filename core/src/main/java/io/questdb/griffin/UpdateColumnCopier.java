@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.QuietClosable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Rewrites one column of the partition updated by UPDATE. The writer thread buffers new values
+ * of the updated rows, then the whole column file is rewritten by {@link UpdateColumnJob}: source
+ * rows between updated rows are copied, buffered values are written in place of updated rows,
+ * and files are closed. Rewrite is claimed by CAS on the sequence, the same way as column indexers
+ * do it, which lets the writer thread steal rewrites that have not been picked up by the worker pool.
+ */
+public class UpdateColumnCopier implements QuietClosable {
+    private static final Log LOG = LogFactory.getLog(UpdateColumnCopier.class);
+    private static final long SEQUENCE_OFFSET;
+    final MemoryCMR srcFixMem;
+    final MemoryCMR srcVarMem;
+    final MemoryCMARW dstFixMem;
+    final MemoryCMARW dstVarMem;
+    // values of updated rows, in the same format as column files
+    final MemoryCARW valueFixMem;
+    final MemoryCARW valueVarMem;
+    private MemoryCARW rows;
+    private long rowCount;
+    private long maxRow;
+    private long newColumnTop;
+    private long oldColumnTop;
+    private int columnType;
+    @SuppressWarnings({"unused", "FieldCanBeLocal", "FieldMayBeFinal"})
+    private volatile long sequence = 0L;
+    private volatile boolean distressed = false;
+
+    public UpdateColumnCopier(boolean varSize, long pageSize) {
+        this.srcFixMem = Vm.getCMRInstance();
+        this.dstFixMem = Vm.getCMARWInstance();
+        this.valueFixMem = Vm.getCARWInstance(pageSize, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        if (varSize) {
+            this.srcVarMem = Vm.getCMRInstance();
+            this.dstVarMem = Vm.getCMARWInstance();
+            this.valueVarMem = Vm.getCARWInstance(pageSize, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        } else {
+            this.srcVarMem = null;
+            this.dstVarMem = null;
+            this.valueVarMem = null;
+        }
+    }
+
+    public void clearValues() {
+        valueFixMem.jumpTo(0);
+        if (valueVarMem != null) {
+            valueVarMem.jumpTo(0);
+            valueFixMem.putLong(0);
+        }
+    }
+
+    @Override
+    public void close() {
+        closeFiles();
+        Misc.free(valueFixMem);
+        Misc.free(valueVarMem);
+    }
+
+    public void closeAndCountDown(SOCountDownLatch latch) {
+        run(latch, false);
+    }
+
+    public void copyAndCountDown(SOCountDownLatch latch) {
+        run(latch, true);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public boolean isDistressed() {
+        return distressed;
+    }
+
+    public void of(MemoryCARW rows, long maxRow, long newColumnTop, long oldColumnTop, int columnType) {
+        this.rows = rows;
+        this.rowCount = rows.getAppendOffset() >>> 3;
+        this.maxRow = maxRow;
+        this.newColumnTop = newColumnTop;
+        this.oldColumnTop = oldColumnTop;
+        this.columnType = columnType;
+    }
+
+    public boolean tryLock(long expectedSequence) {
+        return Unsafe.cas(this, SEQUENCE_OFFSET, expectedSequence, expectedSequence + 1);
+    }
+
+    private void closeFiles() {
+        Misc.free(srcFixMem);
+        Misc.free(srcVarMem);
+        Misc.free(dstFixMem);
+        Misc.free(dstVarMem);
+    }
+
+    private void copy() {
+        long prevRow = 0;
+        for (long i = 0; i < rowCount; ) {
+            final long row = rows.getLong(i << 3);
+            // consecutive updated rows are written as one block
+            long n = 1;
+            while (i + n < rowCount && rows.getLong((i + n) << 3) == row + n) {
+                n++;
+            }
+            if (row > prevRow) {
+                UpdateOperator.copyColumn(
+                        prevRow,
+                        row,
+                        srcFixMem,
+                        srcVarMem,
+                        dstFixMem,
+                        dstVarMem,
+                        newColumnTop,
+                        oldColumnTop,
+                        columnType
+                );
+            }
+            putValues(i, i + n);
+            prevRow = row + n;
+            i += n;
+        }
+
+        if (maxRow > prevRow) {
+            UpdateOperator.copyColumn(
+                    prevRow,
+                    maxRow,
+                    srcFixMem,
+                    srcVarMem,
+                    dstFixMem,
+                    dstVarMem,
+                    newColumnTop,
+                    oldColumnTop,
+                    columnType
+            );
+        }
+    }
+
+    private void putValues(long lo, long hi) {
+        if (ColumnType.isVariableLength(columnType)) {
+            final long varLo = valueFixMem.getLong(lo << 3);
+            final long varHi = valueFixMem.getLong(hi << 3);
+            final long dstVarOffset = dstVarMem.getAppendOffset();
+            dstVarMem.putBlockOfBytes(valueVarMem.addressOf(varLo), varHi - varLo);
+            final long dstFixOffset = dstFixMem.getAppendOffset();
+            final long dstFixHi = dstFixOffset + ((hi - lo) << 3);
+            dstFixMem.extend(dstFixHi);
+            Vect.shiftCopyFixedSizeColumnData(
+                    varLo - dstVarOffset,
+                    valueFixMem.addressOf((lo + 1) << 3),
+                    0,
+                    hi - lo - 1,
+                    dstFixMem.getAppendAddress()
+            );
+            dstFixMem.jumpTo(dstFixHi);
+        } else {
+            final int shl = ColumnType.pow2SizeOf(columnType);
+            dstFixMem.putBlockOfBytes(valueFixMem.addressOf(lo << shl), (hi - lo) << shl);
+        }
+    }
+
+    private void run(SOCountDownLatch latch, boolean copy) {
+        try {
+            try {
+                if (copy) {
+                    copy();
+                }
+            } finally {
+                closeFiles();
+            }
+        } catch (Throwable th) {
+            distressed = true;
+            LOG.critical().$("could not rewrite updated column [rowCount=").$(rowCount)
+                    .$(", maxRow=").$(maxRow)
+                    .$(", e=").$(th)
+                    .I$();
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    static {
+        SEQUENCE_OFFSET = Unsafe.getFieldOffset(UpdateColumnCopier.class, "sequence");
+    }
+}
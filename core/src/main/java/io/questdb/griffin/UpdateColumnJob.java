@@ -0,0 +1,56 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.MessageBus;
+import io.questdb.mp.AbstractQueueConsumerJob;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.tasks.UpdateColumnTask;
+
+public class UpdateColumnJob extends AbstractQueueConsumerJob<UpdateColumnTask> {
+
+    public UpdateColumnJob(MessageBus messageBus) {
+        super(messageBus.getUpdateColumnQueue(), messageBus.getUpdateColumnSubSeq());
+    }
+
+    @Override
+    protected boolean doRun(int workerId, long cursor) {
+        final UpdateColumnTask task = queue.get(cursor);
+        // copy values and release queue item
+        final UpdateColumnCopier copier = task.copier;
+        final long sequence = task.sequence;
+        final SOCountDownLatch latch = task.countDownLatch;
+        subSeq.done(cursor);
+
+        // writer thread steals copies it waits for, the column
+        // is copied by whoever locks its sequence first
+        if (copier.tryLock(sequence)) {
+            copier.copyAndCountDown(latch);
+            return true;
+        }
+        return false;
+    }
+}
@@ -29,14 +29,19 @@ import io.questdb.cairo.*;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.cairo.vm.api.MemoryCM;
 import io.questdb.cairo.vm.api.MemoryCMARW;
 import io.questdb.cairo.vm.api.MemoryCMR;
 import io.questdb.griffin.engine.ops.UpdateOperation;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.mp.MPSequence;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOCountDownLatch;
 import io.questdb.std.*;
 import io.questdb.std.str.Path;
+import io.questdb.tasks.UpdateColumnTask;
 
 import static io.questdb.cairo.ColumnType.isVariableLength;
 import static io.questdb.cairo.TableUtils.dFile;
@@ -44,9 +49,13 @@ import static io.questdb.cairo.TableUtils.iFile;
 
 public class UpdateOperator extends PurgingOperator implements QuietClosable {
     private static final Log LOG = LogFactory.getLog(UpdateOperator.class);
+    // updated values are buffered in native memory growing in steps of this size
+    private static final long VALUE_PAGE_SIZE = Numbers.SIZE_1MB;
 
-    private final ObjList<MemoryCMR> srcColumns = new ObjList<>();
-    private final ObjList<MemoryCMARW> dstColumns = new ObjList<>();
+    // partitions are double-buffered: updated values of one partition are collected on this thread
+    // while columns of the previous partition are rewritten on the worker pool
+    private final PartitionUpdate[] partitionUpdates;
+    private final LongList updatedPartitionTimestamps = new LongList();
     private final long dataAppendPageSize;
     private final long fileOpenOpts;
     private IndexBuilder indexBuilder;
@@ -62,11 +71,18 @@ public class UpdateOperator extends PurgingOperator implements QuietClosable {
         this.indexBuilder = new IndexBuilder();
         this.dataAppendPageSize = configuration.getDataAppendPageSize();
         this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+        this.partitionUpdates = new PartitionUpdate[]{
+                new PartitionUpdate(),
+                new PartitionUpdate()
+        };
     }
 
     @Override
     public void close() {
         indexBuilder = Misc.free(indexBuilder);
+        for (PartitionUpdate partitionUpdate : partitionUpdates) {
+            Misc.free(partitionUpdate.rows);
+        }
     }
 
     public long executeUpdate(SqlExecutionContext sqlExecutionContext, UpdateOperation op) throws SqlException, ReaderOutOfDateException {
@@ -109,20 +125,22 @@ public class UpdateOperator extends PurgingOperator implements QuietClosable {
 
             // Create update memory list of all columns to be updated
             configureColumns(writerMetadata, affectedColumnCount);
+            updatedPartitionTimestamps.clear();
 
             // Start execution frame by frame
             // Partition to update
             int partitionIndex = -1;
             long rowsUpdated = 0;
+            PartitionUpdate partitionUpdate = null;
+            final boolean parallel = messageBus != null && configuration.isSqlParallelUpdateEnabled();
 
             // Update may be queued and requester already disconnected, force check someone still waits for it
             op.forceTestTimeout();
-            // Row by row updates for now
-            // This should happen parallel per file (partition and column)
+            // Updated values are collected on this thread, column files of the partition
+            // are then rewritten in parallel per column
             try (RecordCursor recordCursor = factory.getCursor(sqlExecutionContext)) {
                 Record masterRecord = recordCursor.getRecord();
 
-                long prevRow = 0;
                 long minRow = -1L;
                 long lastRowId = Long.MIN_VALUE;
                 while (recordCursor.hasNext()) {
@@ -149,72 +167,55 @@ public class UpdateOperator extends PurgingOperator implements QuietClosable {
                                     .$(", rowPartitionIndex=").$(rowPartitionIndex)
                                     .$(", rowPartitionTs=").$ts(tableWriter.getPartitionTimestamp(rowPartitionIndex))
                                     .$(", affectedColumnCount=").$(affectedColumnCount)
-                                    .$(", prevRow=").$(prevRow)
+                                    .$(", rowCount=").$(partitionUpdate.rows.getAppendOffset() >>> 3)
                                     .$(", minRow=").$(minRow)
                                     .I$();
 
-                            copyColumns(
+                            finishPartition(
+                                    partitionUpdate,
                                     partitionIndex,
                                     affectedColumnCount,
-                                    prevRow,
-                                    minRow
+                                    minRow,
+                                    parallel
                             );
-
-                            updateEffectiveColumnTops(
-                                    tableWriter,
-                                    partitionIndex,
-                                    updateColumnIndexes,
-                                    affectedColumnCount,
-                                    minRow
-                            );
-
-                            rebuildIndexes(tableWriter.getPartitionTimestamp(partitionIndex), tableName, writerMetadata, tableWriter);
                         }
 
-                        openColumns(srcColumns, rowPartitionIndex, false);
-                        openColumns(dstColumns, rowPartitionIndex, true);
+                        partitionUpdate = partitionUpdate == partitionUpdates[0] ? partitionUpdates[1] : partitionUpdates[0];
+                        awaitPartitionUpdate(partitionUpdate, false);
+                        openColumns(partitionUpdate.columns, rowPartitionIndex, false);
+                        openColumns(partitionUpdate.columns, rowPartitionIndex, true);
+                        partitionUpdate.clear(affectedColumnCount);
 
                         partitionIndex = rowPartitionIndex;
-                        prevRow = 0;
                         minRow = currentRow;
                     }
 
-                    appendRowUpdate(
-                            rowPartitionIndex,
-                            affectedColumnCount,
-                            prevRow,
-                            currentRow,
-                            masterRecord,
-                            minRow
-                    );
-
-                    prevRow = currentRow + 1;
+                    partitionUpdate.rows.putLong(currentRow);
+                    appendRowUpdate(partitionUpdate.columns, affectedColumnCount, masterRecord);
                     rowsUpdated++;
 
                     op.testTimeout();
                 }
 
                 if (partitionIndex > -1) {
-                    copyColumns(partitionIndex, affectedColumnCount, prevRow, minRow);
-
-                    updateEffectiveColumnTops(
-                            tableWriter,
-                            partitionIndex,
-                            updateColumnIndexes,
-                            affectedColumnCount,
-                            minRow
-                    );
+                    finishPartition(partitionUpdate, partitionIndex, affectedColumnCount, minRow, parallel);
+                }
+
+                awaitPartitionUpdate(partitionUpdates[0], false);
+                awaitPartitionUpdate(partitionUpdates[1], false);
 
-                    rebuildIndexes(tableWriter.getPartitionTimestamp(partitionIndex), tableName, writerMetadata, tableWriter);
+                // indexes are rebuilt from the copied column files
+                for (int i = 0, n = updatedPartitionTimestamps.size(); i < n; i++) {
+                    rebuildIndexes(updatedPartitionTimestamps.getQuick(i), tableName, writerMetadata, tableWriter);
                 }
             } finally {
-                Misc.freeObjList(srcColumns);
-                Misc.freeObjList(dstColumns);
-                // todo: we are opening columns incrementally, e.g. if we don't have enough objects
-                //   but here we're always clearing columns, making incremental "open" pointless
-                //   perhaps we should keep N column object max to kick around ?
-                srcColumns.clear();
-                dstColumns.clear();
+                for (PartitionUpdate pu : partitionUpdates) {
+                    // rewrites in-flight when update fails still reference column memory
+                    awaitPartitionUpdate(pu, true);
+                    Misc.freeObjList(pu.columns);
+                    pu.columns.clear();
+                    pu.rows.close();
+                }
             }
 
             if (partitionIndex > -1) {
@@ -308,39 +309,16 @@ public class UpdateOperator extends PurgingOperator implements QuietClosable {
     }
 
     private void appendRowUpdate(
-            int rowPartitionIndex,
+            ObjList<UpdateColumnCopier> columns,
             int affectedColumnCount,
-            long prevRow,
-            long currentRow,
-            Record masterRecord,
-            long firstUpdatedRowId
+            Record masterRecord
     ) throws SqlException {
         final TableWriterMetadata metadata = tableWriter.getMetadata();
-        final long partitionTimestamp = tableWriter.getPartitionTimestamp(rowPartitionIndex);
         for (int i = 0; i < affectedColumnCount; i++) {
-            MemoryCMR srcFixMem = srcColumns.get(2 * i);
-            MemoryCMARW dstFixMem = dstColumns.get(2 * i);
-            MemoryCMR srcVarMem = srcColumns.get(2 * i + 1);
-            MemoryCMARW dstVarMem = dstColumns.get(2 * i + 1);
-
-            final int columnIndex = updateColumnIndexes.get(i);
-            final long oldColumnTop = tableWriter.getColumnTop(partitionTimestamp, columnIndex, -1);
-            final long newColumnTop = calculatedEffectiveColumnTop(firstUpdatedRowId, oldColumnTop);
-            final int columnType = metadata.getColumnType(columnIndex);
-
-            if (currentRow > prevRow) {
-                copyColumn(
-                        prevRow,
-                        currentRow,
-                        srcFixMem,
-                        srcVarMem,
-                        dstFixMem,
-                        dstVarMem,
-                        newColumnTop,
-                        oldColumnTop,
-                        columnType
-                );
-            }
+            final UpdateColumnCopier column = columns.getQuick(i);
+            final MemoryCARW dstFixMem = column.valueFixMem;
+            final MemoryCARW dstVarMem = column.valueVarMem;
+            final int columnType = metadata.getColumnType(updateColumnIndexes.get(i));
             switch (ColumnType.tagOf(columnType)) {
                 case ColumnType.INT:
                     dstFixMem.putInt(masterRecord.getInt(i));
@@ -411,29 +389,47 @@ public class UpdateOperator extends PurgingOperator implements QuietClosable {
         }
     }
 
+    private void awaitPartitionUpdate(PartitionUpdate partitionUpdate, boolean cancel) {
+        if (!partitionUpdate.pending) {
+            return;
+        }
+        // steal rewrites which are still on the queue, then wait for the ones workers are busy with
+        final ObjList<UpdateColumnCopier> columns = partitionUpdate.columns;
+        final SOCountDownLatch latch = partitionUpdate.latch;
+        for (int i = 0, n = partitionUpdate.sequences.size(); i < n; i++) {
+            final UpdateColumnCopier column = columns.getQuick(i);
+            if (column.tryLock(partitionUpdate.sequences.getQuick(i))) {
+                if (cancel) {
+                    column.closeAndCountDown(latch);
+                } else {
+                    column.copyAndCountDown(latch);
+                }
+            }
+        }
+        latch.await();
+        partitionUpdate.pending = false;
+
+        if (!cancel) {
+            for (int i = 0, n = partitionUpdate.sequences.size(); i < n; i++) {
+                if (columns.getQuick(i).isDistressed()) {
+                    throw CairoException.critical(0).put("could not rewrite updated column [table=").put(tableWriter.getTableName())
+                            .put(", column=").put(tableWriter.getMetadata().getColumnName(updateColumnIndexes.getQuick(i)))
+                            .put(']');
+                }
+            }
+        }
+    }
+
     private void configureColumns(RecordMetadata metadata, int columnCount) {
-        for (int i = dstColumns.size(); i < columnCount; i++) {
-            int columnType = metadata.getColumnType(updateColumnIndexes.get(i));
-            switch (columnType) {
-                default:
-                    srcColumns.add(Vm.getCMRInstance());
-                    srcColumns.add(null);
-                    dstColumns.add(Vm.getCMARWInstance());
-                    dstColumns.add(null);
-                    break;
-                case ColumnType.STRING:
-                case ColumnType.BINARY:
-                    // Primary and secondary
-                    srcColumns.add(Vm.getCMRInstance());
-                    srcColumns.add(Vm.getCMRInstance());
-                    dstColumns.add(Vm.getCMARWInstance());
-                    dstColumns.add(Vm.getCMARWInstance());
-                    break;
+        for (PartitionUpdate partitionUpdate : partitionUpdates) {
+            final ObjList<UpdateColumnCopier> columns = partitionUpdate.columns;
+            for (int i = columns.size(); i < columnCount; i++) {
+                columns.add(new UpdateColumnCopier(isVariableLength(metadata.getColumnType(updateColumnIndexes.get(i))), VALUE_PAGE_SIZE));
             }
         }
     }
 
-    private void copyColumn(
+    static void copyColumn(
             long prevRow,
             long maxRow,
             MemoryCMR srcFixMem,
@@ -518,38 +514,68 @@ public class UpdateOperator extends PurgingOperator implements QuietClosable {
         }
     }
 
-    private void copyColumns(int partitionIndex, int affectedColumnCount, long prevRow, long minRow) {
+    private void finishPartition(
+            PartitionUpdate partitionUpdate,
+            int partitionIndex,
+            int affectedColumnCount,
+            long minRow,
+            boolean parallel
+    ) {
         final TableWriterMetadata metadata = tableWriter.getMetadata();
         final long partitionTimestamp = tableWriter.getPartitionTimestamp(partitionIndex);
         final long maxRow = tableWriter.getPartitionSize(partitionIndex);
+        final ObjList<UpdateColumnCopier> columns = partitionUpdate.columns;
         for (int i = 0; i < affectedColumnCount; i++) {
-            MemoryCMR srcFixMem = srcColumns.get(2 * i);
-            MemoryCMR srcVarMem = srcColumns.get(2 * i + 1);
-            MemoryCMARW dstFixMem = dstColumns.get(2 * i);
-            MemoryCMARW dstVarMem = dstColumns.get(2 * i + 1);
-
             final int columnIndex = updateColumnIndexes.getQuick(i);
             final long oldColumnTop = tableWriter.getColumnTop(partitionTimestamp, columnIndex, -1);
             final long newColumnTop = calculatedEffectiveColumnTop(minRow, oldColumnTop);
-            final int columnType = metadata.getColumnType(columnIndex);
+            columns.getQuick(i).of(partitionUpdate.rows, maxRow, newColumnTop, oldColumnTop, metadata.getColumnType(columnIndex));
+        }
 
-            if (maxRow > prevRow) {
-                copyColumn(
-                        prevRow,
-                        maxRow,
-                        srcFixMem,
-                        srcVarMem,
-                        dstFixMem,
-                        dstVarMem,
-                        newColumnTop,
-                        oldColumnTop,
-                        columnType
-                );
+        // column tops are captured by copiers, they can be moved now
+        updateEffectiveColumnTops(
+                tableWriter,
+                partitionIndex,
+                updateColumnIndexes,
+                affectedColumnCount,
+                minRow
+        );
+        updatedPartitionTimestamps.add(partitionTimestamp);
+
+        final SOCountDownLatch latch = partitionUpdate.latch;
+        final LongList sequences = partitionUpdate.sequences;
+        latch.setCount(affectedColumnCount);
+        sequences.clear();
+        partitionUpdate.pending = true;
+
+        final MPSequence pubSeq = parallel ? messageBus.getUpdateColumnPubSeq() : null;
+        final RingQueue<UpdateColumnTask> queue = parallel ? messageBus.getUpdateColumnQueue() : null;
+        for (int i = 0; i < affectedColumnCount; i++) {
+            final UpdateColumnCopier column = columns.getQuick(i);
+            final long sequence = column.getSequence();
+            sequences.add(sequence);
+
+            long cursor = -1;
+            if (parallel) {
+                do {
+                    cursor = pubSeq.next();
+                } while (cursor == -2);
+            }
+
+            if (cursor > -1) {
+                final UpdateColumnTask task = queue.get(cursor);
+                task.copier = column;
+                task.countDownLatch = latch;
+                task.sequence = sequence;
+                pubSeq.done(cursor);
+            } else if (column.tryLock(sequence)) {
+                // queue is full or parallel update is disabled, rewrite in this thread
+                column.copyAndCountDown(latch);
             }
         }
     }
 
-    private void copyValues(
+    private static void copyValues(
             long fromRowId,
             long toRowId,
             MemoryCMR srcFixMem,
@@ -584,7 +610,7 @@ public class UpdateOperator extends PurgingOperator implements QuietClosable {
         }
     }
 
-    private void openColumns(ObjList<? extends MemoryCM> columns, int partitionIndex, boolean forWrite) {
+    private void openColumns(ObjList<UpdateColumnCopier> columns, int partitionIndex, boolean forWrite) {
         long partitionTimestamp = tableWriter.getPartitionTimestamp(partitionIndex);
         long partitionNameTxn = tableWriter.getPartitionNameTxn(partitionIndex);
         RecordMetadata metadata = tableWriter.getMetadata();
@@ -610,11 +636,12 @@ public class UpdateOperator extends PurgingOperator implements QuietClosable {
                 }
 
                 long columnNameTxn = tableWriter.getColumnNameTxn(partitionTimestamp, columnIndex);
+                final UpdateColumnCopier column = columns.getQuick(i);
                 if (isVariableLength(columnType)) {
-                    MemoryCMR colMemIndex = (MemoryCMR) columns.get(2 * i);
+                    MemoryCM colMemIndex = forWrite ? column.dstFixMem : column.srcFixMem;
                     colMemIndex.close();
                     assert !colMemIndex.isOpen();
-                    MemoryCMR colMemVar = (MemoryCMR) columns.get(2 * i + 1);
+                    MemoryCM colMemVar = forWrite ? column.dstVarMem : column.srcVarMem;
                     colMemVar.close();
                     assert !colMemVar.isOpen();
 
@@ -637,7 +664,7 @@ public class UpdateOperator extends PurgingOperator implements QuietClosable {
                         );
                     }
                 } else {
-                    MemoryCMR colMem = (MemoryCMR) columns.get(2 * i);
+                    MemoryCM colMem = forWrite ? column.dstFixMem : column.srcFixMem;
                     colMem.close();
                     assert !colMem.isOpen();
 
@@ -654,7 +681,7 @@ public class UpdateOperator extends PurgingOperator implements QuietClosable {
                 }
                 if (forWrite) {
                     if (isVariableLength(columnType)) {
-                        ((MemoryCMARW) columns.get(2 * i)).putLong(0);
+                        column.dstFixMem.putLong(0);
                     }
                 }
             }
@@ -681,4 +708,24 @@ public class UpdateOperator extends PurgingOperator implements QuietClosable {
         indexBuilder.clear();
         path.trimTo(pathTrimToLen);
     }
+
+    private static class PartitionUpdate {
+        private final ObjList<UpdateColumnCopier> columns = new ObjList<>();
+        private final SOCountDownLatch latch = new SOCountDownLatch();
+        // local ids of updated rows, shared by column rewrites of the partition
+        private final MemoryCARW rows;
+        private final LongList sequences = new LongList();
+        private boolean pending;
+
+        private PartitionUpdate() {
+            this.rows = Vm.getCARWInstance(VALUE_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        }
+
+        private void clear(int columnCount) {
+            rows.jumpTo(0);
+            for (int i = 0; i < columnCount; i++) {
+                columns.getQuick(i).clearValues();
+            }
+        }
+    }
 }
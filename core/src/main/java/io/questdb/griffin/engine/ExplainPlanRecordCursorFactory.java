@@ -0,0 +1,196 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Returns query plan as a single column result set, one row per plan line.
+ * In analyze mode the query is executed to completion first and the plan is annotated
+ * with execution statistics gathered by {@link ProfilingRecordCursorFactory}, followed by
+ * native memory allocated by the query, broken down by memory tag.
+ */
+public class ExplainPlanRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final GenericRecordMetadata METADATA = new GenericRecordMetadata();
+    private final RecordCursorFactory base;
+    private final boolean analyze;
+    private final PlanSink planSink = new PlanSink();
+    private final StringSink memorySink = new StringSink();
+    private final ObjList<String> lines = new ObjList<>();
+    private final long[] memoryUsedByTag = new long[MemoryTag.SIZE];
+    private final ExplainPlanRecordCursor cursor = new ExplainPlanRecordCursor();
+
+    public ExplainPlanRecordCursorFactory(RecordCursorFactory base, boolean analyze) {
+        super(METADATA);
+        assert !analyze || base instanceof ProfilingRecordCursorFactory;
+        this.base = base;
+        this.analyze = analyze;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        planSink.reset();
+        lines.clear();
+        if (analyze) {
+            execute(executionContext);
+        }
+        base.toPlan(planSink);
+        addLines(planSink.getText());
+        if (analyze) {
+            addMemoryLine();
+        }
+        cursor.toTop();
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+    }
+
+    private void addLines(CharSequence text) {
+        int lo = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            if (text.charAt(i) == '\n') {
+                lines.add(text.subSequence(lo, i).toString());
+                lo = i + 1;
+            }
+        }
+        lines.add(text.subSequence(lo, text.length()).toString());
+    }
+
+    private void addMemoryLine() {
+        memorySink.clear();
+        memorySink.put("memory:");
+        boolean first = true;
+        for (int i = 0; i < MemoryTag.SIZE; i++) {
+            if (memoryUsedByTag[i] > 0) {
+                memorySink.put(first ? " " : ", ").put(MemoryTag.nameOf(i)).put('=').put(memoryUsedByTag[i]);
+                first = false;
+            }
+        }
+        if (first) {
+            memorySink.put(" none");
+        }
+        lines.add(memorySink.toString());
+    }
+
+    private void execute(SqlExecutionContext executionContext) throws SqlException {
+        ((ProfilingRecordCursorFactory) base).clearStatistics();
+        for (int i = 0; i < MemoryTag.SIZE; i++) {
+            memoryUsedByTag[i] = Unsafe.getMemUsedByTag(i);
+        }
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+        try (RecordCursor baseCursor = base.getCursor(executionContext)) {
+            while (baseCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+            }
+            // memory is still held by the cursor, record what the query has allocated
+            for (int i = 0; i < MemoryTag.SIZE; i++) {
+                memoryUsedByTag[i] = Unsafe.getMemUsedByTag(i) - memoryUsedByTag[i];
+            }
+        }
+    }
+
+    private class ExplainPlanRecordCursor implements RecordCursor {
+        private final ExplainPlanRecord record = new ExplainPlanRecord();
+        private int index;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public Record getRecordB() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return ++index < lines.size();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long size() {
+            return lines.size();
+        }
+
+        @Override
+        public void toTop() {
+            index = -1;
+        }
+
+        private class ExplainPlanRecord implements Record {
+            @Override
+            public CharSequence getStr(int col) {
+                return lines.getQuick(index);
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return getStr(col);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return lines.getQuick(index).length();
+            }
+        }
+    }
+
+    static {
+        METADATA.add(new TableColumnMetadata("QUERY PLAN", 1, ColumnType.STRING));
+    }
+}
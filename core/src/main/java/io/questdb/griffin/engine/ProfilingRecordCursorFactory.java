@@ -0,0 +1,347 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.Sequence;
+import io.questdb.std.LongList;
+import io.questdb.std.NanosecondClock;
+import io.questdb.std.ObjList;
+import io.questdb.std.Sinkable;
+import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Wraps factory of a query model and gathers execution statistics of its cursors
+ * for EXPLAIN ANALYZE: rows produced, time spent opening and iterating cursors (inclusive
+ * of the nested factories) and page frames handed out to the parent. Statistics are
+ * printed as an annotation of the base factory's plan node.
+ */
+public class ProfilingRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final NanosecondClock clock;
+    // profiled factories of the nested models, used to print nodes the base factory doesn't expose in its plan
+    private final ObjList<ProfilingRecordCursorFactory> children = new ObjList<>();
+    private final ProfilingRecordCursor cursor = new ProfilingRecordCursor();
+    private final ProfilingPageFrameCursor pageFrameCursor = new ProfilingPageFrameCursor();
+    private final Sinkable statistics = this::statisticsToSink;
+    private long rowCount;
+    private long elapsedNanos;
+    private long frameCount;
+    private boolean planned;
+
+    public ProfilingRecordCursorFactory(RecordCursorFactory base, NanosecondClock clock) {
+        super(base.getMetadata());
+        this.base = base;
+        this.clock = clock;
+    }
+
+    public static RecordCursorFactory unwrap(RecordCursorFactory factory) {
+        return factory instanceof ProfilingRecordCursorFactory ? ((ProfilingRecordCursorFactory) factory).base : factory;
+    }
+
+    public void addChild(ProfilingRecordCursorFactory child) {
+        children.add(child);
+    }
+
+    public void clearStatistics() {
+        rowCount = 0;
+        elapsedNanos = 0;
+        frameCount = 0;
+        for (int i = 0, n = children.size(); i < n; i++) {
+            children.getQuick(i).clearStatistics();
+        }
+    }
+
+    @Override
+    public SingleSymbolFilter convertToSampleByIndexDataFrameCursorFactory() {
+        return base.convertToSampleByIndexDataFrameCursorFactory();
+    }
+
+    @Override
+    public PageFrameSequence<?> execute(SqlExecutionContext executionContext, Sequence collectSubSeq, int order) throws SqlException {
+        return base.execute(executionContext, collectSubSeq, order);
+    }
+
+    @Override
+    public boolean followedLimitAdvice() {
+        return base.followedLimitAdvice();
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return base.followedOrderByAdvice();
+    }
+
+    @Override
+    public boolean fragmentedSymbolTables() {
+        return base.fragmentedSymbolTables();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final long start = clock.getTicks();
+        try {
+            return cursor.of(base.getCursor(executionContext));
+        } finally {
+            elapsedNanos += clock.getTicks() - start;
+        }
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public PageFrameCursor getPageFrameCursor(SqlExecutionContext executionContext, int order) throws SqlException {
+        final long start = clock.getTicks();
+        try {
+            final PageFrameCursor baseCursor = base.getPageFrameCursor(executionContext, order);
+            return baseCursor != null ? pageFrameCursor.of(baseCursor) : null;
+        } finally {
+            elapsedNanos += clock.getTicks() - start;
+        }
+    }
+
+    @Override
+    public PageFrameSequence<?> getPageFrameSequence() {
+        return base.getPageFrameSequence();
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public boolean hasDescendingOrder() {
+        return base.hasDescendingOrder();
+    }
+
+    @Override
+    public boolean implementsLimit() {
+        return base.implementsLimit();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return base.recordCursorSupportsRandomAccess();
+    }
+
+    @Override
+    public boolean supportPageFrameCursor() {
+        return base.supportPageFrameCursor();
+    }
+
+    @Override
+    public boolean supportsUpdateRowId(CharSequence tableName) {
+        return base.supportsUpdateRowId(tableName);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        planned = true;
+        for (int i = 0, n = children.size(); i < n; i++) {
+            children.getQuick(i).planned = false;
+        }
+        sink.annotate(statistics);
+        base.toPlan(sink);
+
+        final PageFrameSequence<?> frameSequence = base.getPageFrameSequence();
+        if (frameSequence != null && frameSequence.getReduceNanosByWorker().size() > 0) {
+            final LongList reduceNanos = frameSequence.getReduceNanosByWorker();
+            sink.attr("reduce").val("owner=").val(reduceNanos.getQuick(0) / 1000).val("us");
+            for (int i = 1, n = reduceNanos.size(); i < n; i++) {
+                sink.val(", worker").val(i - 1).val('=').val(reduceNanos.getQuick(i) / 1000).val("us");
+            }
+        }
+
+        // nested factories that are not part of the base plan are still worth seeing
+        for (int i = 0, n = children.size(); i < n; i++) {
+            final ProfilingRecordCursorFactory child = children.getQuick(i);
+            if (!child.planned) {
+                sink.child(child);
+            }
+        }
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        base.toSink(sink);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    protected void _close() {
+        base.close();
+    }
+
+    private void statisticsToSink(CharSink sink) {
+        sink.put("(actual rows=").put(rowCount).put(" time=").put(elapsedNanos / 1000).put("us");
+        if (frameCount > 0) {
+            sink.put(" frames=").put(frameCount);
+        }
+        sink.put(')');
+    }
+
+    private class ProfilingPageFrameCursor implements PageFrameCursor {
+        private PageFrameCursor base;
+
+        @Override
+        public void close() {
+            if (base != null) {
+                base.close();
+                base = null;
+            }
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return base.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public long getUpdateRowId(long rowIndex) {
+            return base.getUpdateRowId(rowIndex);
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return base.newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public @Nullable PageFrame next() {
+            final long start = clock.getTicks();
+            final PageFrame frame = base.next();
+            elapsedNanos += clock.getTicks() - start;
+            if (frame != null) {
+                frameCount++;
+            }
+            return frame;
+        }
+
+        @Override
+        public long size() {
+            return base.size();
+        }
+
+        @Override
+        public void toTop() {
+            base.toTop();
+        }
+
+        ProfilingPageFrameCursor of(PageFrameCursor base) {
+            this.base = base;
+            return this;
+        }
+    }
+
+    private class ProfilingRecordCursor implements RecordCursor {
+        private RecordCursor base;
+
+        @Override
+        public void close() {
+            if (base != null) {
+                base.close();
+                base = null;
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return base.getRecord();
+        }
+
+        @Override
+        public Record getRecordB() {
+            return base.getRecordB();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return base.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            final long start = clock.getTicks();
+            final boolean hasNext = base.hasNext();
+            elapsedNanos += clock.getTicks() - start;
+            if (hasNext) {
+                rowCount++;
+            }
+            return hasNext;
+        }
+
+        @Override
+        public boolean isUsingIndex() {
+            return base.isUsingIndex();
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return base.newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            base.recordAt(record, atRowId);
+        }
+
+        @Override
+        public long size() {
+            return base.size();
+        }
+
+        @Override
+        public void skipTo(long rowCount) {
+            base.skipTo(rowCount);
+        }
+
+        @Override
+        public void toTop() {
+            base.toTop();
+        }
+
+        ProfilingRecordCursor of(RecordCursor base) {
+            this.base = base;
+            return this;
+        }
+    }
+}
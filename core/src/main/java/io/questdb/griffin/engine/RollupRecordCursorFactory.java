@@ -0,0 +1,91 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.RollupRegistry;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+
+/**
+ * Factory of a rollup definition query. Callers cache factories under the query text, so
+ * freshness of the rollup is checked on every execution: the rollup is read while it has
+ * caught up with its base table, the definition query runs against the base table otherwise.
+ */
+public class RollupRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RollupRegistry registry;
+    private final RollupRegistry.Rollup rollup;
+    private final RecordCursorFactory rollupFactory;
+    private final RecordCursorFactory baseFactory;
+
+    public RollupRecordCursorFactory(
+            RollupRegistry registry,
+            RollupRegistry.Rollup rollup,
+            RecordCursorFactory rollupFactory,
+            RecordCursorFactory baseFactory
+    ) {
+        super(baseFactory.getMetadata());
+        this.registry = registry;
+        this.rollup = rollup;
+        this.rollupFactory = rollupFactory;
+        this.baseFactory = baseFactory;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        if (registry.isFresh(rollup, executionContext)) {
+            return rollupFactory.getCursor(executionContext);
+        }
+        return baseFactory.getCursor(executionContext);
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return rollupFactory.recordCursorSupportsRandomAccess() && baseFactory.recordCursorSupportsRandomAccess();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Rollup");
+        sink.meta("table").val(rollup.getName());
+        sink.child(rollupFactory);
+        sink.child(baseFactory);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return baseFactory.usesCompiledFilter();
+    }
+
+    @Override
+    protected void _close() {
+        rollupFactory.close();
+        baseFactory.close();
+    }
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.QueryPlanCache;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.Sequence;
+import io.questdb.std.str.CharSink;
+
+/**
+ * Wraps factory of a SELECT query together with ids and structure versions of the tables
+ * it was compiled against, so that {@link QueryPlanCache} can tell stale factories apart
+ * without executing them. Versions are re-checked only after the engine's table structure
+ * epoch has moved past the one the factory was last checked at.
+ */
+public class VersionedRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final QueryPlanCache.TableVersions tableVersions = new QueryPlanCache.TableVersions();
+    private long tableStructureEpoch;
+
+    public VersionedRecordCursorFactory(RecordCursorFactory base, QueryPlanCache.TableVersions tableVersions, long tableStructureEpoch) {
+        super(base.getMetadata());
+        this.base = base;
+        this.tableVersions.addAll(tableVersions);
+        this.tableStructureEpoch = tableStructureEpoch;
+    }
+
+    public static RecordCursorFactory unwrap(RecordCursorFactory factory) {
+        return factory instanceof VersionedRecordCursorFactory ? ((VersionedRecordCursorFactory) factory).base : factory;
+    }
+
+    @Override
+    public SingleSymbolFilter convertToSampleByIndexDataFrameCursorFactory() {
+        return base.convertToSampleByIndexDataFrameCursorFactory();
+    }
+
+    @Override
+    public PageFrameSequence<?> execute(SqlExecutionContext executionContext, Sequence collectSubSeq, int order) throws SqlException {
+        return base.execute(executionContext, collectSubSeq, order);
+    }
+
+    @Override
+    public boolean followedLimitAdvice() {
+        return base.followedLimitAdvice();
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return base.followedOrderByAdvice();
+    }
+
+    @Override
+    public boolean fragmentedSymbolTables() {
+        return base.fragmentedSymbolTables();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        return base.getCursor(executionContext);
+    }
+
+    @Override
+    public PageFrameCursor getPageFrameCursor(SqlExecutionContext executionContext, int order) throws SqlException {
+        return base.getPageFrameCursor(executionContext, order);
+    }
+
+    @Override
+    public PageFrameSequence<?> getPageFrameSequence() {
+        return base.getPageFrameSequence();
+    }
+
+    public long getTableStructureEpoch() {
+        return tableStructureEpoch;
+    }
+
+    public QueryPlanCache.TableVersions getTableVersions() {
+        return tableVersions;
+    }
+
+    @Override
+    public boolean hasDescendingOrder() {
+        return base.hasDescendingOrder();
+    }
+
+    @Override
+    public boolean implementsLimit() {
+        return base.implementsLimit();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return base.recordCursorSupportsRandomAccess();
+    }
+
+    public void setTableStructureEpoch(long tableStructureEpoch) {
+        this.tableStructureEpoch = tableStructureEpoch;
+    }
+
+    @Override
+    public boolean supportPageFrameCursor() {
+        return base.supportPageFrameCursor();
+    }
+
+    @Override
+    public boolean supportsUpdateRowId(CharSequence tableName) {
+        return base.supportsUpdateRowId(tableName);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        base.toPlan(sink);
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        base.toSink(sink);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    protected void _close() {
+        base.close();
+    }
+}
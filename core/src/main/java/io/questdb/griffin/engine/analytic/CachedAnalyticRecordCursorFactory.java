@@ -73,6 +73,7 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
         this.comparators = comparators;
         this.cursor = new CachedAnalyticRecordCursor(columnIndexes);
         this.recordChain = new RecordChain(
+                configuration,
                 chainMetadata,
                 recordSink,
                 configuration.getSqlAnalyticStorePageSize(),
@@ -218,7 +219,7 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
 
         @Override
         public void close() {
-            base.close();
+            base = Misc.free(base);
         }
 
         @Override
@@ -184,6 +184,11 @@ public class BindVariableServiceImpl implements BindVariableService {
         return indexedVariables.size();
     }
 
+    @Override
+    public int getNamedVariableCount() {
+        return namedVariables.size();
+    }
+
     @Override
     public void setBin(CharSequence name, BinarySequence value) throws SqlException {
         int index = namedVariables.keyIndex(name);
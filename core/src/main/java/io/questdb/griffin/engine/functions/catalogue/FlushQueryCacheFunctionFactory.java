@@ -26,9 +26,12 @@ package io.questdb.griffin.engine.functions.catalogue;
 
 import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.QueryPlanCache;
+import io.questdb.griffin.QueryResultCache;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.BooleanFunction;
 import io.questdb.log.Log;
@@ -52,21 +55,37 @@ public class FlushQueryCacheFunctionFactory implements FunctionFactory {
                                 CairoConfiguration configuration,
                                 SqlExecutionContext sqlExecutionContext
     ) {
-        return new FlushQueryCacheFunction(sqlExecutionContext.getMessageBus());
+        final CairoEngine engine = sqlExecutionContext.getCairoEngine();
+        return new FlushQueryCacheFunction(
+                sqlExecutionContext.getMessageBus(),
+                engine != null ? engine.getQueryPlanCache() : null,
+                engine != null ? engine.getQueryResultCache() : null
+        );
     }
 
     private static class FlushQueryCacheFunction extends BooleanFunction {
 
         private final MessageBus messageBus;
+        private final QueryPlanCache planCache;
+        private final QueryResultCache resultCache;
 
-        public FlushQueryCacheFunction(MessageBus messageBus) {
+        public FlushQueryCacheFunction(MessageBus messageBus, QueryPlanCache planCache, QueryResultCache resultCache) {
             this.messageBus = messageBus;
+            this.planCache = planCache;
+            this.resultCache = resultCache;
         }
 
         @Override
         public boolean getBool(Record rec) {
             LOG.info().$("flushing query caches").$();
 
+            if (planCache != null) {
+                planCache.clear();
+            }
+            if (resultCache != null) {
+                resultCache.clear();
+            }
+
             while (true) {
                 final long pubCursor = messageBus.getQueryCacheEventPubSeq().next();
                 if (pubCursor > -1) {
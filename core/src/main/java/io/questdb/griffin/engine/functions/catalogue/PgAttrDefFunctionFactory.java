@@ -82,6 +82,7 @@ public class PgAttrDefFunctionFactory implements FunctionFactory {
 
         @Override
         public RecordCursor getCursor(SqlExecutionContext executionContext) {
+            executionContext.onVolatileRead();
             cursor.toTop();
             return cursor;
         }
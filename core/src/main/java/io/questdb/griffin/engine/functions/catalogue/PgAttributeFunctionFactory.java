@@ -93,6 +93,7 @@ public class PgAttributeFunctionFactory implements FunctionFactory {
 
         @Override
         public RecordCursor getCursor(SqlExecutionContext executionContext) {
+            executionContext.onVolatileRead();
             cursor.toTop();
             return cursor;
         }
@@ -104,6 +104,7 @@ public class TableListFunctionFactory implements FunctionFactory {
 
         @Override
         public RecordCursor getCursor(SqlExecutionContext executionContext) {
+            executionContext.onVolatileRead();
             cursor.toTop();
             return cursor;
         }
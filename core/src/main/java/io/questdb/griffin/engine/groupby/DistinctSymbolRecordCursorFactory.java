@@ -63,6 +63,7 @@ public class DistinctSymbolRecordCursorFactory extends AbstractRecordCursorFacto
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
         TableReader reader = executionContext.getCairoEngine()
                 .getReader(executionContext.getCairoSecurityContext(), tableName, tableId, tableVersion);
+        executionContext.onTableRead(tableName, reader.getMetadata().getId(), reader.getTxn());
         cursor.of(reader);
         return cursor;
     }
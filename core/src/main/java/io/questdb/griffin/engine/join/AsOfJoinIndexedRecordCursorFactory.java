@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.AbstractDataFrameRecordCursor;
+import io.questdb.std.Misc;
+import io.questdb.std.Rows;
+
+/**
+ * ASOF and LT join on a single symbol key, which is indexed in the slave table. Instead of
+ * scanning the slave table in lockstep with the master, the cursor looks up every master row
+ * individually: it binary searches the timestamp of the slave for the last row
+ * at or before the master timestamp and then walks the symbol index backwards from that row
+ * to the latest row of the key. Cost of the join is proportional to the number of master
+ * rows, which suits sparse masters joined to large tables.
+ * <p>
+ * Slave factory must scan the whole table forward, see {@link io.questdb.griffin.engine.table.DataFrameRecordCursorFactory#isFullTableScan()}.
+ */
+public class AsOfJoinIndexedRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory masterFactory;
+    private final RecordCursorFactory slaveFactory;
+    private final CharSequence slaveKeyColumnName;
+    private final CharSequence slaveTimestampColumnName;
+    private final IndexedAsOfJoinRecordCursor cursor;
+
+    /**
+     * @param strict when true slave rows must be strictly older than the master row, which is LT JOIN semantics
+     */
+    public AsOfJoinIndexedRecordCursorFactory(
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            int masterKeyIndex,
+            int slaveKeyIndex,
+            int columnSplit,
+            boolean strict
+    ) {
+        super(metadata);
+        this.masterFactory = masterFactory;
+        this.slaveFactory = slaveFactory;
+        this.slaveKeyColumnName = slaveFactory.getMetadata().getColumnName(slaveKeyIndex);
+        this.slaveTimestampColumnName = slaveFactory.getMetadata().getColumnName(slaveFactory.getMetadata().getTimestampIndex());
+        this.cursor = new IndexedAsOfJoinRecordCursor(
+                columnSplit,
+                NullRecordFactory.getInstance(slaveFactory.getMetadata()),
+                masterFactory.getMetadata().getTimestampIndex(),
+                masterKeyIndex,
+                ColumnType.isSymbol(masterFactory.getMetadata().getColumnType(masterKeyIndex)),
+                strict ? 1 : 0
+        );
+    }
+
+    @Override
+    protected void _close() {
+        ((JoinRecordMetadata) getMetadata()).close();
+        masterFactory.close();
+        slaveFactory.close();
+        cursor.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        RecordCursor master = masterFactory.getCursor(executionContext);
+        RecordCursor slave = null;
+        try {
+            slave = slaveFactory.getCursor(executionContext);
+            this.cursor.of(master, (AbstractDataFrameRecordCursor) slave);
+        } catch (Throwable ex) {
+            Misc.free(master);
+            Misc.free(slave);
+            throw ex;
+        }
+        return this.cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public boolean hasDescendingOrder() {
+        return masterFactory.hasDescendingOrder();
+    }
+
+    private class IndexedAsOfJoinRecordCursor extends AbstractJoinCursor {
+        private final OuterJoinRecord record;
+        private final int masterTimestampIndex;
+        private final int masterKeyIndex;
+        private final boolean masterKeyIsSymbol;
+        private final long timestampOffset;
+        private Record masterRecord;
+        private Record slaveRecord;
+        private TableReader reader;
+        private SymbolMapReader symbolMapReader;
+        private int slaveKeyColumnIndex;
+        private int slaveTimestampColumnIndex;
+        private boolean slaveTimestampDesignated;
+
+        public IndexedAsOfJoinRecordCursor(
+                int columnSplit,
+                Record nullRecord,
+                int masterTimestampIndex,
+                int masterKeyIndex,
+                boolean masterKeyIsSymbol,
+                long timestampOffset
+        ) {
+            super(columnSplit);
+            this.record = new OuterJoinRecord(columnSplit, nullRecord);
+            this.masterTimestampIndex = masterTimestampIndex;
+            this.masterKeyIndex = masterKeyIndex;
+            this.masterKeyIsSymbol = masterKeyIsSymbol;
+            this.timestampOffset = timestampOffset;
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (masterCursor.hasNext()) {
+                final CharSequence key = masterKeyIsSymbol ? masterRecord.getSym(masterKeyIndex) : masterRecord.getStr(masterKeyIndex);
+                final int symbolKey = symbolMapReader.keyOf(key);
+                final long rowId = symbolKey != SymbolTable.VALUE_NOT_FOUND
+                        ? findSlaveRow(TableUtils.toIndexKey(symbolKey), masterRecord.getTimestamp(masterTimestampIndex) - timestampOffset)
+                        : -1;
+                if (rowId != -1) {
+                    slaveCursor.recordAt(slaveRecord, rowId);
+                    record.hasSlave(true);
+                } else {
+                    record.hasSlave(false);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return masterCursor.size();
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+        }
+
+        private long findSlaveRow(int indexKey, long timestamp) {
+            // partitions can be skipped by timestamp only when query did not override designated timestamp of the table
+            final int partitionIndex = slaveTimestampDesignated
+                    ? Math.min(reader.getPartitionIndexByTimestamp(timestamp), reader.getPartitionCount() - 1)
+                    : reader.getPartitionCount() - 1;
+            for (int i = partitionIndex; i > -1; i--) {
+                final long partitionRowCount = reader.openPartition(i);
+                if (partitionRowCount < 1) {
+                    continue;
+                }
+
+                long rowHi = partitionRowCount - 1;
+                if (i == partitionIndex || !slaveTimestampDesignated) {
+                    // only the partition of the timestamp may have rows newer than the timestamp
+                    final MemoryR column = reader.getColumn(TableReader.getPrimaryColumnIndex(reader.getColumnBase(i), slaveTimestampColumnIndex));
+                    rowHi = BinarySearch.find(column, timestamp, 0, rowHi, BinarySearch.SCAN_DOWN);
+                    if (rowHi < 0) {
+                        continue;
+                    }
+                }
+
+                final BitmapIndexReader indexReader = reader.getBitmapIndexReader(i, slaveKeyColumnIndex, BitmapIndexReader.DIR_BACKWARD);
+                final RowCursor rowCursor = indexReader.getCursor(true, indexKey, 0, rowHi);
+                if (rowCursor.hasNext()) {
+                    return Rows.toRowID(i, rowCursor.next());
+                }
+            }
+            return -1;
+        }
+
+        void of(RecordCursor masterCursor, AbstractDataFrameRecordCursor slaveCursor) {
+            this.masterCursor = masterCursor;
+            this.slaveCursor = slaveCursor;
+            this.masterRecord = masterCursor.getRecord();
+            this.slaveRecord = slaveCursor.getRecordB();
+            this.reader = slaveCursor.getTableReader();
+            final TableReaderMetadata readerMetadata = reader.getMetadata();
+            this.slaveKeyColumnIndex = readerMetadata.getColumnIndex(slaveKeyColumnName);
+            this.slaveTimestampColumnIndex = readerMetadata.getColumnIndex(slaveTimestampColumnName);
+            this.slaveTimestampDesignated = slaveTimestampColumnIndex == readerMetadata.getTimestampIndex();
+            this.symbolMapReader = reader.getSymbolMapReader(slaveKeyColumnIndex);
+            record.of(masterRecord, slaveRecord);
+        }
+    }
+}
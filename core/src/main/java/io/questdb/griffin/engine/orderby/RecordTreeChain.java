@@ -24,6 +24,7 @@
 
 package io.questdb.griffin.engine.orderby;
 
+import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordChain;
 import io.questdb.cairo.RecordSink;
@@ -65,9 +66,30 @@ public class RecordTreeChain implements Closeable, Mutable {
             long valuePageSize,
             int valueMaxPages
     ) {
+        this(comparator, keyPageSize, keyMaxPages, new RecordChain(columnTypes, recordSink, valuePageSize, valueMaxPages));
+    }
+
+    /**
+     * Creates a tree chain whose value chain spills to disk once it grows beyond
+     * {@link CairoConfiguration#getSqlSpillThreshold()}. Tree blocks stay in RAM.
+     */
+    public RecordTreeChain(
+            CairoConfiguration configuration,
+            ColumnTypes columnTypes,
+            RecordSink recordSink,
+            RecordComparator comparator,
+            long keyPageSize,
+            int keyMaxPages,
+            long valuePageSize,
+            int valueMaxPages
+    ) {
+        this(comparator, keyPageSize, keyMaxPages, new RecordChain(configuration, columnTypes, recordSink, valuePageSize, valueMaxPages));
+    }
+
+    private RecordTreeChain(RecordComparator comparator, long keyPageSize, int keyMaxPages, RecordChain recordChain) {
         this.comparator = comparator;
         this.mem = new MemoryPages(keyPageSize, keyMaxPages);
-        this.recordChain = new RecordChain(columnTypes, recordSink, valuePageSize, valueMaxPages);
+        this.recordChain = recordChain;
         this.recordChainRecord = this.recordChain.getRecordB();
     }
 
@@ -48,6 +48,7 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
     ) {
         super(metadata);
         this.chain = new RecordTreeChain(
+                configuration,
                 metadata,
                 recordSink,
                 comparator,
@@ -0,0 +1,504 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.SingleColumnType;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.*;
+import io.questdb.std.str.CharSink;
+
+/**
+ * Keeps the first K rows of every partition-by group in the order of the comparator, which is what
+ * filtering <code>row_number() over (partition by ... order by ...)</code> by a constant bound
+ * selects. Every group holds a sorted array of at most K row ids, so the factory needs
+ * O(groups × K) memory instead of caching and sorting the whole base cursor. Group arrays start
+ * small and double up to K, groups with few rows do not pay for the whole limit.
+ * <p>
+ * Rows are returned in the order of the base cursor. The row number column is zero based, the same
+ * as the analytic function the factory replaces.
+ */
+public class TopKPerGroupRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final SingleColumnType GROUP_OFFSET_TYPE = new SingleColumnType(ColumnType.LONG);
+    private static final int INITIAL_GROUP_CAPACITY = 4;
+    private static final int HEADER_SIZE = 2;
+    private final RecordCursorFactory base;
+    private final ObjList<Function> partitionByFunctions;
+    private final TopKPerGroupRecordCursor cursor;
+    private final long k;
+
+    public TopKPerGroupRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory base,
+            ObjList<Function> partitionByFunctions,
+            RecordSink partitionBySink,
+            @Transient ColumnTypes partitionByTypes,
+            RecordComparator comparator,
+            IntList columnCrossIndex,
+            long k
+    ) {
+        super(metadata);
+        assert k > 0;
+        this.base = base;
+        this.partitionByFunctions = partitionByFunctions;
+        this.k = k;
+        this.cursor = new TopKPerGroupRecordCursor(
+                MapFactory.createMap(configuration, partitionByTypes, GROUP_OFFSET_TYPE),
+                new VirtualRecord(partitionByFunctions),
+                partitionBySink,
+                comparator,
+                columnCrossIndex
+        );
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            Function.init(partitionByFunctions, baseCursor, executionContext);
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable e) {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("TopKPerGroup");
+        sink.attr("limit").val(k);
+        sink.attr("partitionBy").val(partitionByFunctions);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.freeObjList(partitionByFunctions);
+        cursor.free();
+    }
+
+    private class TopKPerGroupRecordCursor implements RecordCursor {
+        private final Map groups;
+        private final VirtualRecord partitionByRecord;
+        private final RecordSink partitionBySink;
+        private final RecordComparator comparator;
+        private final IntList columnCrossIndex;
+        private final TopKRecord recordA;
+        private final TopKRecord recordB;
+        // per group: row count and capacity followed by pairs of base row id and base cursor position,
+        // arrays outgrown by their group are left behind with count of -1
+        private final DirectLongList slots = new DirectLongList(64, MemoryTag.NATIVE_LONG_LIST);
+        // pairs of base cursor position and index of the row in rows
+        private final DirectLongList output = new DirectLongList(64, MemoryTag.NATIVE_LONG_LIST);
+        // pairs of base row id and row number
+        private final DirectLongList rows = new DirectLongList(64, MemoryTag.NATIVE_LONG_LIST);
+        private RecordCursor baseCursor;
+        private long index;
+        private boolean isOpen;
+
+        private TopKPerGroupRecordCursor(
+                Map groups,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                RecordComparator comparator,
+                IntList columnCrossIndex
+        ) {
+            this.groups = groups;
+            this.partitionByRecord = partitionByRecord;
+            this.partitionBySink = partitionBySink;
+            this.comparator = comparator;
+            this.columnCrossIndex = columnCrossIndex;
+            this.recordA = new TopKRecord(columnCrossIndex);
+            this.recordB = new TopKRecord(columnCrossIndex);
+            this.isOpen = true;
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                baseCursor = Misc.free(baseCursor);
+                groups.clear();
+                slots.clear();
+                output.clear();
+                rows.clear();
+                isOpen = false;
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return recordA;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordB;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return baseCursor.getSymbolTable(columnCrossIndex.getQuick(columnIndex));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (index < output.size()) {
+                final long row = output.get(index + 1);
+                baseCursor.recordAt(recordA.base, rows.get(2 * row));
+                recordA.rowNumber = rows.get(2 * row + 1);
+                index += 2;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return baseCursor.newSymbolTable(columnCrossIndex.getQuick(columnIndex));
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long size() {
+            return output.size() / 2;
+        }
+
+        @Override
+        public void toTop() {
+            index = 0;
+        }
+
+        private void free() {
+            close();
+            Misc.free(groups);
+            Misc.free(slots);
+            Misc.free(output);
+            Misc.free(rows);
+        }
+
+        private long allocateGroup(long capacity) {
+            final long offset = slots.size();
+            final long size = offset + HEADER_SIZE + 2 * capacity;
+            if (size > slots.getCapacity()) {
+                slots.setCapacity(Math.max(size, slots.getCapacity() * 2));
+            }
+            slots.setPos(size);
+            slots.set(offset, 0);
+            slots.set(offset + 1, capacity);
+            return offset;
+        }
+
+        private long grow(MapValue value, long groupOffset, long count) {
+            final long capacity = slots.get(groupOffset + 1);
+            if (count < capacity || capacity == k) {
+                return groupOffset;
+            }
+            final long offset = allocateGroup(Math.min(capacity * 2, k));
+            Vect.memcpy(
+                    slots.getAddress() + (offset + HEADER_SIZE) * Long.BYTES,
+                    slots.getAddress() + (groupOffset + HEADER_SIZE) * Long.BYTES,
+                    2 * count * Long.BYTES
+            );
+            slots.set(offset, count);
+            slots.set(groupOffset, -1);
+            value.putLong(0, offset);
+            return offset;
+        }
+
+        private void insert(long groupOffset, long position, long rowId, long basePosition) {
+            final long count = slots.get(groupOffset);
+            final long last = Math.min(count, k - 1);
+            final long lo = groupOffset + HEADER_SIZE + 2 * position;
+            if (position < last) {
+                final long address = slots.getAddress() + lo * Long.BYTES;
+                Vect.memmove(address + 2 * Long.BYTES, address, 2 * (last - position) * Long.BYTES);
+            }
+            slots.set(lo, rowId);
+            slots.set(lo + 1, basePosition);
+            slots.set(groupOffset, Math.min(count + 1, k));
+        }
+
+        private void of(RecordCursor baseCursor, SqlExecutionContext executionContext) {
+            this.baseCursor = baseCursor;
+            this.isOpen = true;
+            final Record record = baseCursor.getRecord();
+            final Record placeholder = baseCursor.getRecordB();
+            final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+            partitionByRecord.of(record);
+
+            slots.clear();
+            long basePosition = 0;
+            while (baseCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final MapKey key = groups.withKey();
+                key.put(partitionByRecord, partitionBySink);
+                final MapValue value = key.createValue();
+                long groupOffset;
+                if (value.isNew()) {
+                    groupOffset = allocateGroup(Math.min(INITIAL_GROUP_CAPACITY, k));
+                    value.putLong(0, groupOffset);
+                } else {
+                    groupOffset = value.getLong(0);
+                }
+
+                final long count = slots.get(groupOffset);
+                comparator.setLeft(record);
+                long hi = count;
+                if (count == k) {
+                    // among equal rows the later one ranks first, same as in the analytic cursor
+                    baseCursor.recordAt(placeholder, slots.get(groupOffset + HEADER_SIZE + 2 * (k - 1)));
+                    if (comparator.compare(placeholder) > 0) {
+                        basePosition++;
+                        continue;
+                    }
+                    hi = k - 1;
+                }
+                // lower bound of the new row among the rows kept so far
+                long lo = 0;
+                while (lo < hi) {
+                    final long mid = (lo + hi) >>> 1;
+                    baseCursor.recordAt(placeholder, slots.get(groupOffset + HEADER_SIZE + 2 * mid));
+                    if (comparator.compare(placeholder) <= 0) {
+                        hi = mid;
+                    } else {
+                        lo = mid + 1;
+                    }
+                }
+                groupOffset = grow(value, groupOffset, count);
+                insert(groupOffset, lo, record.getRowId(), basePosition++);
+            }
+
+            output.clear();
+            rows.clear();
+            for (long groupOffset = 0, n = slots.size(); groupOffset < n; groupOffset += HEADER_SIZE + 2 * slots.get(groupOffset + 1)) {
+                for (long i = 0, count = slots.get(groupOffset); i < count; i++) {
+                    final long offset = groupOffset + HEADER_SIZE + 2 * i;
+                    output.add(slots.get(offset + 1));
+                    output.add(rows.size() / 2);
+                    rows.add(slots.get(offset));
+                    rows.add(i);
+                }
+            }
+            Vect.sortLongIndexAscInPlace(output.getAddress(), output.size() / 2);
+            recordA.of(record);
+            recordB.of(placeholder);
+            toTop();
+        }
+    }
+
+    private static class TopKRecord implements Record {
+        private final IntList columnCrossIndex;
+        private Record base;
+        private long rowNumber;
+
+        private TopKRecord(IntList columnCrossIndex) {
+            this.columnCrossIndex = columnCrossIndex;
+        }
+
+        @Override
+        public BinarySequence getBin(int col) {
+            return base.getBin(getColumnIndex(col));
+        }
+
+        @Override
+        public long getBinLen(int col) {
+            return base.getBinLen(getColumnIndex(col));
+        }
+
+        @Override
+        public boolean getBool(int col) {
+            return base.getBool(getColumnIndex(col));
+        }
+
+        @Override
+        public byte getByte(int col) {
+            return base.getByte(getColumnIndex(col));
+        }
+
+        @Override
+        public char getChar(int col) {
+            return base.getChar(getColumnIndex(col));
+        }
+
+        @Override
+        public long getDate(int col) {
+            return base.getDate(getColumnIndex(col));
+        }
+
+        @Override
+        public double getDouble(int col) {
+            return base.getDouble(getColumnIndex(col));
+        }
+
+        @Override
+        public float getFloat(int col) {
+            return base.getFloat(getColumnIndex(col));
+        }
+
+        @Override
+        public byte getGeoByte(int col) {
+            return base.getGeoByte(getColumnIndex(col));
+        }
+
+        @Override
+        public int getGeoInt(int col) {
+            return base.getGeoInt(getColumnIndex(col));
+        }
+
+        @Override
+        public long getGeoLong(int col) {
+            return base.getGeoLong(getColumnIndex(col));
+        }
+
+        @Override
+        public short getGeoShort(int col) {
+            return base.getGeoShort(getColumnIndex(col));
+        }
+
+        @Override
+        public int getInt(int col) {
+            return base.getInt(getColumnIndex(col));
+        }
+
+        @Override
+        public long getLong(int col) {
+            final int index = getColumnIndex(col);
+            return index < 0 ? rowNumber : base.getLong(index);
+        }
+
+        @Override
+        public long getLong128Hi(int col) {
+            return base.getLong128Hi(getColumnIndex(col));
+        }
+
+        @Override
+        public long getLong128Lo(int col) {
+            return base.getLong128Lo(getColumnIndex(col));
+        }
+
+        @Override
+        public void getLong256(int col, CharSink sink) {
+            base.getLong256(getColumnIndex(col), sink);
+        }
+
+        @Override
+        public Long256 getLong256A(int col) {
+            return base.getLong256A(getColumnIndex(col));
+        }
+
+        @Override
+        public Long256 getLong256B(int col) {
+            return base.getLong256B(getColumnIndex(col));
+        }
+
+        @Override
+        public Record getRecord(int col) {
+            return base.getRecord(getColumnIndex(col));
+        }
+
+        @Override
+        public long getRowId() {
+            return base.getRowId();
+        }
+
+        @Override
+        public short getShort(int col) {
+            return base.getShort(getColumnIndex(col));
+        }
+
+        @Override
+        public CharSequence getStr(int col) {
+            return base.getStr(getColumnIndex(col));
+        }
+
+        @Override
+        public void getStr(int col, CharSink sink) {
+            base.getStr(getColumnIndex(col), sink);
+        }
+
+        @Override
+        public CharSequence getStrB(int col) {
+            return base.getStrB(getColumnIndex(col));
+        }
+
+        @Override
+        public int getStrLen(int col) {
+            return base.getStrLen(getColumnIndex(col));
+        }
+
+        @Override
+        public CharSequence getSym(int col) {
+            return base.getSym(getColumnIndex(col));
+        }
+
+        @Override
+        public CharSequence getSymB(int col) {
+            return base.getSymB(getColumnIndex(col));
+        }
+
+        @Override
+        public long getTimestamp(int col) {
+            return base.getTimestamp(getColumnIndex(col));
+        }
+
+        private int getColumnIndex(int columnIndex) {
+            return columnCrossIndex.getQuick(columnIndex);
+        }
+
+        private void of(Record base) {
+            this.base = base;
+        }
+    }
+}
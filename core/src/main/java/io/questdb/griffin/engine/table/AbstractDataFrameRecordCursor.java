@@ -24,6 +24,7 @@
 
 package io.questdb.griffin.engine.table;
 
+import io.questdb.cairo.TableReader;
 import io.questdb.cairo.TableReaderSelectedColumnRecord;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.sql.Record;
@@ -71,6 +72,10 @@ public abstract class AbstractDataFrameRecordCursor implements RecordCursor {
         return recordB;
     }
 
+    public TableReader getTableReader() {
+        return dataFrameCursor.getTableReader();
+    }
+
     @Override
     public void recordAt(Record record, long atRowId) {
         ((TableReaderSelectedColumnRecord) record).jumpTo(Rows.toPartitionIndex(atRowId), Rows.toLocalRowID(atRowId));
@@ -144,6 +144,11 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
         return frameSequence.of(base, executionContext, collectSubSeq, filterAtom, order);
     }
 
+    @Override
+    public PageFrameSequence<AsyncFilterAtom> getPageFrameSequence() {
+        return frameSequence;
+    }
+
     @Override
     public boolean recordCursorSupportsRandomAccess() {
         return base.recordCursorSupportsRandomAccess();
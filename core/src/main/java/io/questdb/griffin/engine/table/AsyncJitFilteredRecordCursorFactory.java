@@ -153,6 +153,11 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         return frameSequence.of(base, executionContext, collectSubSeq, filterAtom, order);
     }
 
+    @Override
+    public PageFrameSequence<AsyncJitFilterAtom> getPageFrameSequence() {
+        return frameSequence;
+    }
+
     @Override
     public boolean recordCursorSupportsRandomAccess() {
         return true;
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.BloomFilterReader;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Data frame cursor, which skips partitions that definitely do not contain any of the
+ * searched values according to partition Bloom filters. Partitions without up-to-date
+ * filter are always scanned.
+ */
+class BloomFilterDataFrameCursor implements DataFrameCursor {
+    private static final int PARTITION_UNKNOWN = 0;
+    private static final int PARTITION_SCAN = 1;
+    private static final int PARTITION_SKIP = 2;
+
+    private final BloomFilterReader filter = new BloomFilterReader();
+    private final IntList partitionStates = new IntList();
+    private final int columnIndex;
+    private DataFrameCursor base;
+    private LongList hashes;
+
+    BloomFilterDataFrameCursor(int columnIndex) {
+        this.columnIndex = columnIndex;
+    }
+
+    @Override
+    public void close() {
+        filter.close();
+        base = Misc.free(base);
+    }
+
+    @Override
+    public StaticSymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public TableReader getTableReader() {
+        return base.getTableReader();
+    }
+
+    @Override
+    public StaticSymbolTable newSymbolTable(int columnIndex) {
+        return base.newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public @Nullable DataFrame next() {
+        DataFrame frame;
+        while ((frame = base.next()) != null) {
+            if (!canSkip(frame.getPartitionIndex())) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean reload() {
+        partitionStates.clear();
+        return base.reload();
+    }
+
+    @Override
+    public long size() {
+        // number of rows is unknown until filters are checked
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        base.toTop();
+    }
+
+    BloomFilterDataFrameCursor of(DataFrameCursor base, @Nullable LongList hashes) {
+        this.base = base;
+        this.hashes = hashes;
+        partitionStates.clear();
+        return this;
+    }
+
+    private boolean canSkip(int partitionIndex) {
+        if (hashes == null) {
+            return false;
+        }
+
+        int state = partitionStates.getQuiet(partitionIndex);
+        if (state == PARTITION_UNKNOWN) {
+            state = PARTITION_SCAN;
+            final TableReader reader = base.getTableReader();
+            if (reader.openBloomFilter(partitionIndex, columnIndex, filter)) {
+                state = PARTITION_SKIP;
+                for (int i = 0, n = hashes.size(); i < n; i++) {
+                    if (filter.mightContain(hashes.getQuick(i))) {
+                        state = PARTITION_SCAN;
+                        break;
+                    }
+                }
+                filter.close();
+            }
+            partitionStates.extendAndSet(partitionIndex, state);
+        }
+        return state == PARTITION_SKIP;
+    }
+}
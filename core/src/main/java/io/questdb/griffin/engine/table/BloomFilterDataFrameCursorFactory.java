@@ -0,0 +1,136 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.BloomFilterUtils;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.CharSink;
+
+/**
+ * Wraps data frame cursor factory to skip partitions using Bloom filters on
+ * equality and IN-list predicates of STRING and non-indexed SYMBOL columns.
+ * Filtering of the remaining partitions is left to the enclosing factory.
+ */
+public class BloomFilterDataFrameCursorFactory implements DataFrameCursorFactory {
+    private final DataFrameCursorFactory base;
+    private final BloomFilterDataFrameCursor cursor;
+    private final int columnIndex;
+    private final CharSequence columnName;
+    private final boolean symbol;
+    private final ObjList<Function> values;
+    private final LongList hashes = new LongList();
+
+    public BloomFilterDataFrameCursorFactory(
+            DataFrameCursorFactory base,
+            int columnIndex,
+            CharSequence columnName,
+            boolean symbol,
+            ObjList<Function> values
+    ) {
+        this.base = base;
+        this.cursor = new BloomFilterDataFrameCursor(columnIndex);
+        this.columnIndex = columnIndex;
+        this.columnName = columnName;
+        this.symbol = symbol;
+        this.values = values;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(base);
+        Misc.freeObjList(values);
+    }
+
+    @Override
+    public DataFrameCursor getCursor(SqlExecutionContext executionContext, int order) throws SqlException {
+        final DataFrameCursor baseCursor = base.getCursor(executionContext, order);
+        try {
+            Function.init(values, baseCursor, executionContext);
+            return cursor.of(baseCursor, computeHashes(baseCursor));
+        } catch (Throwable e) {
+            Misc.free(baseCursor);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return base.getOrder();
+    }
+
+    @Override
+    public boolean supportTableRowId(CharSequence tableName) {
+        return base.supportTableRowId(tableName);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("BloomFilterDataFrame");
+        sink.attr("column").val(columnName);
+        sink.child(base);
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        base.toSink(sink);
+    }
+
+    /**
+     * @return hashes of the searched values or null when partitions cannot be skipped,
+     * e.g. one of the values is null, which is never added to the filter
+     */
+    private LongList computeHashes(DataFrameCursor baseCursor) {
+        hashes.clear();
+        for (int i = 0, n = values.size(); i < n; i++) {
+            final Function value = values.getQuick(i);
+            final CharSequence str = ColumnType.isSymbol(value.getType()) ? value.getSymbol(null) : value.getStr(null);
+            if (str == null) {
+                return null;
+            }
+            if (symbol) {
+                final int key = baseCursor.getTableReader().getSymbolMapReader(columnIndex).keyOf(str);
+                if (key == SymbolTable.VALUE_NOT_FOUND) {
+                    // value is not in symbol table, so it cannot be in any partition
+                    continue;
+                }
+                hashes.add(BloomFilterUtils.hash(key));
+            } else {
+                hashes.add(BloomFilterUtils.hash(str));
+            }
+        }
+        return hashes;
+    }
+}
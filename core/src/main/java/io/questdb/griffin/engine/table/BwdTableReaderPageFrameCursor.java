@@ -28,6 +28,7 @@ import io.questdb.cairo.BitmapIndexReader;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.vm.NullMemoryMR;
+import io.questdb.cairo.vm.api.MemoryM;
 import io.questdb.cairo.vm.api.MemoryR;
 import io.questdb.std.*;
 import org.jetbrains.annotations.Nullable;
@@ -35,6 +36,8 @@ import org.jetbrains.annotations.Nullable;
 public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
     private final LongList columnPageNextAddress = new LongList();
     private final LongList columnPageAddress = new LongList();
+    // (fd, lo, hi) triplets of file ranges backing current frame
+    private final LongList fileRanges = new LongList();
     private final TableReaderPageFrame frame = new TableReaderPageFrame();
     private final LongList topsRemaining = new LongList();
     private final IntList pages = new IntList();
@@ -134,6 +137,16 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
         return this;
     }
 
+    private void addFileRange(MemoryR column, long lo, long hi) {
+        if (column instanceof MemoryM && lo < hi) {
+            final long fd = ((MemoryM) column).getFd();
+            if (fd != -1) {
+                fileRanges.add(fd, lo);
+                fileRanges.add(hi);
+            }
+        }
+    }
+
     private TableReaderPageFrame computeFrame(final long partitionLo, final long partitionHi) {
         final int base = reader.getColumnBase(reenterPartitionIndex);
 
@@ -148,6 +161,7 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
             }
         }
 
+        fileRanges.clear();
         for (int i = 0; i < columnCount; i++) {
             final int columnIndex = columnIndexes.getQuick(i);
             final int readerColIndex = TableReader.getPrimaryColumnIndex(base, columnIndex);
@@ -167,6 +181,7 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
                     long offset = partitionLoAdjusted << sh;
                     columnPageAddress.setQuick(i * 2, address + offset);
                     pageSizes.setQuick(i * 2, addressSize - offset);
+                    addFileRange(col, offset, addressSize);
                 } else {
                     final MemoryR fixCol = reader.getColumn(readerColIndex + 1);
                     long fixAddress = fixCol.getPageAddress(0);
@@ -180,6 +195,8 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
                     columnPageAddress.setQuick(i * 2 + 1, fixAddress + fixOffset);
                     pageSizes.setQuick(i * 2, varAddressSize);
                     pageSizes.setQuick(i * 2 + 1, fixAddressSize - fixOffset);
+                    addFileRange(fixCol, fixOffset, fixAddressSize + 8);
+                    addFileRange(col, Unsafe.getUnsafe().getLong(fixAddress + fixOffset), varAddressSize);
                 }
             } else {
                 columnPageAddress.setQuick(i * 2, 0);
@@ -225,6 +242,11 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
             return columnSizes.getQuick(columnIndex);
         }
 
+        @Override
+        public void getFileRanges(LongList ranges) {
+            ranges.add(fileRanges);
+        }
+
         @Override
         public long getPageAddress(int columnIndex) {
             return columnPageAddress.getQuick(columnIndex * 2);
@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.FullFwdDataFrameCursorFactory;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
@@ -49,6 +50,7 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
     protected FwdTableReaderPageFrameCursor fwdPageFrameCursor;
     protected BwdTableReaderPageFrameCursor bwdPageFrameCursor;
     private final boolean supportsRandomAccess;
+    private final boolean fullTableScan;
 
     public DataFrameRecordCursorFactory(
             @NotNull CairoConfiguration configuration,
@@ -74,6 +76,9 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         this.pageFrameMinRows = configuration.getSqlPageFrameMinRows();
         this.pageFrameMaxRows = configuration.getSqlPageFrameMaxRows();
         this.supportsRandomAccess = supportsRandomAccess;
+        this.fullTableScan = dataFrameCursorFactory instanceof FullFwdDataFrameCursorFactory
+                && rowCursorFactory instanceof DataFrameRowCursorFactory
+                && filter == null;
     }
 
     @Override
@@ -130,6 +135,14 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         sink.child(dataFrameCursorFactory);
     }
 
+    /**
+     * Returns true when cursor of this factory iterates all rows of the table in timestamp order,
+     * so that row ids of the table reader can be used to access its records directly.
+     */
+    public boolean isFullTableScan() {
+        return fullTableScan;
+    }
+
     public boolean hasDescendingOrder() {
         return dataFrameCursorFactory.getOrder() == DataFrameCursorFactory.ORDER_DESC;
     }
@@ -27,6 +27,10 @@ package io.questdb.griffin.engine.table;
 import io.questdb.MessageBus;
 import io.questdb.cairo.BitmapIndexReader;
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.FullBwdDataFrameCursor;
+import io.questdb.cairo.LatestByCache;
+import io.questdb.cairo.LatestByCacheRegistry;
+import io.questdb.cairo.PartitionBy;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.vm.api.MemoryR;
@@ -37,15 +41,18 @@ import io.questdb.mp.SOUnboundedCountDownLatch;
 import io.questdb.mp.Sequence;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.IntList;
+import io.questdb.std.LongList;
 import io.questdb.std.Rows;
 import io.questdb.std.Vect;
 import io.questdb.tasks.LatestByTask;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 class LatestByAllIndexedRecordCursor extends AbstractRecordListCursor {
     protected final DirectLongList prefixes;
     private final int columnIndex;
     private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final LongList latestByCacheRows = new LongList();
     protected long indexShift = 0;
     protected long aIndex;
     protected long aLimit;
@@ -83,6 +90,18 @@ class LatestByAllIndexedRecordCursor extends AbstractRecordListCursor {
 
     @Override
     protected void buildTreeMap(SqlExecutionContext executionContext) {
+        final LatestByCache cache = getLatestByCache(executionContext);
+        if (cache != null) {
+            rows.clear();
+            // cursor keeps row ids incremented by 1
+            if (cache.read(dataFrameCursor.getTableReader(), rows, 1)) {
+                aLimit = rows.size();
+                aIndex = indexShift;
+                postProcessRows();
+                return;
+            }
+        }
+
         final MessageBus bus = executionContext.getMessageBus();
 
         final RingQueue<LatestByTask> queue = bus.getLatestByQueue();
@@ -237,6 +256,9 @@ class LatestByAllIndexedRecordCursor extends AbstractRecordListCursor {
         LatestByArguments.releaseMemoryArray(argumentsAddress, taskCount);
         aLimit = rowCount;
         aIndex = indexShift;
+        if (cache != null) {
+            publishLatestByCache(cache, reader);
+        }
         postProcessRows();
     }
 
@@ -244,6 +266,37 @@ class LatestByAllIndexedRecordCursor extends AbstractRecordListCursor {
         return 1 << ColumnType.pow2SizeOfBits(ColumnType.getGeoHashBits(type));
     }
 
+    @Nullable
+    private LatestByCache getLatestByCache(SqlExecutionContext executionContext) {
+        final LatestByCacheRegistry registry = executionContext.getCairoEngine().getLatestByCacheRegistry();
+        // prefix filtered results are not the latest row of every key
+        if (registry == null || prefixes.size() > 2 || !(dataFrameCursor instanceof FullBwdDataFrameCursor)) {
+            return null;
+        }
+        final TableReader reader = dataFrameCursor.getTableReader();
+        if (!PartitionBy.isPartitioned(reader.getPartitionedBy())) {
+            return null;
+        }
+        return registry.getOrCreate(
+                reader.getMetadata().getId(),
+                reader.getMetadata().getColumnName(columnIndexes.getQuick(columnIndex))
+        );
+    }
+
+    private void publishLatestByCache(LatestByCache cache, TableReader reader) {
+        latestByCacheRows.clear();
+        for (long i = 0; i < aLimit; i++) {
+            final long rowId = rows.get(i) - 1;
+            final int partitionIndex = Rows.toPartitionIndex(rowId);
+            final long row = Rows.toLocalRowID(rowId);
+            recordA.jumpTo(partitionIndex, row);
+            latestByCacheRows.add(LatestByCache.slotOf(recordA.getInt(columnIndex)));
+            latestByCacheRows.add(reader.getPartitionTimestampByIndex(partitionIndex));
+            latestByCacheRows.add(row);
+        }
+        cache.publish(reader.getTxn(), latestByCacheRows);
+    }
+
     protected void postProcessRows() {
         Vect.sortULongAscInPlace(rows.getAddress(), aLimit);
     }
@@ -24,6 +24,11 @@
 
 package io.questdb.griffin.engine.table;
 
+import io.questdb.cairo.FullBwdDataFrameCursor;
+import io.questdb.cairo.LatestByCache;
+import io.questdb.cairo.LatestByCacheRegistry;
+import io.questdb.cairo.PartitionBy;
+import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.sql.DataFrameCursor;
 import io.questdb.cairo.sql.Function;
@@ -42,6 +47,7 @@ class LatestByValueListRecordCursor extends AbstractDataFrameRecordCursor {
     private IntHashSet foundKeys;
     private IntHashSet symbolKeys;
     private final boolean restrictedByValues;
+    private final LongList latestByCacheRows = new LongList();
     private DirectLongList rowIds;
     private int currentRow;
 
@@ -111,7 +117,13 @@ class LatestByValueListRecordCursor extends AbstractDataFrameRecordCursor {
                     filter.toTop();
                     findAllWithFilter(filter, distinctSymbols);
                 } else {
-                    findAllNoFilter(distinctSymbols);
+                    final LatestByCache cache = getLatestByCache(executionContext);
+                    if (cache == null) {
+                        findAllNoFilter(distinctSymbols);
+                    } else if (!findAllCached(cache)) {
+                        findAllNoFilter(distinctSymbols);
+                        publishLatestByCache(cache);
+                    }
                 }
             }
         }
@@ -165,6 +177,20 @@ class LatestByValueListRecordCursor extends AbstractDataFrameRecordCursor {
         }
     }
 
+    private boolean findAllCached(LatestByCache cache) {
+        if (!cache.read(dataFrameCursor.getTableReader(), rowIds, 0)) {
+            return false;
+        }
+        // rows are kept in descending order
+        rowIds.sortAsUnsigned();
+        for (long lo = 0, hi = rowIds.size() - 1; lo < hi; lo++, hi--) {
+            final long tmp = rowIds.get(lo);
+            rowIds.set(lo, rowIds.get(hi));
+            rowIds.set(hi, tmp);
+        }
+        return true;
+    }
+
     private void findAllWithFilter(Function filter, int distinctCount) {
         DataFrame frame = dataFrameCursor.next();
         int foundSize = 0;
@@ -233,6 +259,37 @@ class LatestByValueListRecordCursor extends AbstractDataFrameRecordCursor {
         }
     }
 
+    @Nullable
+    private LatestByCache getLatestByCache(SqlExecutionContext executionContext) {
+        final LatestByCacheRegistry registry = executionContext.getCairoEngine().getLatestByCacheRegistry();
+        if (registry == null || !(dataFrameCursor instanceof FullBwdDataFrameCursor)) {
+            return null;
+        }
+        final TableReader reader = dataFrameCursor.getTableReader();
+        if (!PartitionBy.isPartitioned(reader.getPartitionedBy())) {
+            return null;
+        }
+        return registry.getOrCreate(
+                reader.getMetadata().getId(),
+                reader.getMetadata().getColumnName(columnIndexes.getQuick(columnIndex))
+        );
+    }
+
+    private void publishLatestByCache(LatestByCache cache) {
+        final TableReader reader = dataFrameCursor.getTableReader();
+        latestByCacheRows.clear();
+        for (long i = 0, n = rowIds.size(); i < n; i++) {
+            final long rowId = rowIds.get(i);
+            final int partitionIndex = Rows.toPartitionIndex(rowId);
+            final long row = Rows.toLocalRowID(rowId);
+            recordAt(recordA, rowId);
+            latestByCacheRows.add(LatestByCache.slotOf(recordA.getInt(columnIndex)));
+            latestByCacheRows.add(reader.getPartitionTimestampByIndex(partitionIndex));
+            latestByCacheRows.add(row);
+        }
+        cache.publish(reader.getTxn(), latestByCacheRows);
+    }
+
     @Override
     public void toTop() {
         currentRow = (int) rowIds.size();
@@ -53,6 +53,7 @@ public final class MemoryMetricsRecordCursorFactory extends AbstractRecordCursor
 
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        executionContext.onVolatileRead();
         collectMetrics(values);
         cursor.of(KEYS, values);
         return cursor;
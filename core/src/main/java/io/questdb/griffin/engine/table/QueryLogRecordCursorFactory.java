@@ -0,0 +1,254 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.QueryLog;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.DirectCharSequence;
+
+/**
+ * Lists entries of the {@link QueryLog}, oldest first. Entries are copied out of the log
+ * when the cursor is opened, so that the result is not affected by queries that complete
+ * while it is being read.
+ */
+public final class QueryLogRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final RecordMetadata METADATA;
+    private static final int TIMESTAMP_COLUMN_INDEX = 0;
+    private static final int PROTOCOL_COLUMN_INDEX = 1;
+    private static final int PRINCIPAL_COLUMN_INDEX = 2;
+    private static final int SQL_HASH_COLUMN_INDEX = 3;
+    private static final int SQL_COLUMN_INDEX = 4;
+    private static final int COMPILE_NANOS_COLUMN_INDEX = 5;
+    private static final int EXECUTION_NANOS_COLUMN_INDEX = 6;
+    private static final int ROWS_COLUMN_INDEX = 7;
+    private static final int BYTES_SENT_COLUMN_INDEX = 8;
+    private static final int PEAK_MEMORY_COLUMN_INDEX = 9;
+    private static final int PLAN_CACHE_HIT_COLUMN_INDEX = 10;
+    private static final int JIT_COLUMN_INDEX = 11;
+    private final QueryLog queryLog;
+    private final QueryLogRecordCursor cursor = new QueryLogRecordCursor();
+    private final long entrySize;
+    private final long snapshotSize;
+    private long snapshot;
+
+    public QueryLogRecordCursorFactory(QueryLog queryLog) {
+        super(METADATA);
+        this.queryLog = queryLog;
+        this.entrySize = queryLog.getEntrySize();
+        this.snapshotSize = entrySize * queryLog.getCapacity();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        executionContext.onVolatileRead();
+        if (snapshot == 0) {
+            snapshot = Unsafe.malloc(snapshotSize, MemoryTag.NATIVE_QUERY_LOG);
+        }
+        final long hi = queryLog.getSequence();
+        long ptr = snapshot;
+        for (long seq = Math.max(0, hi - queryLog.getCapacity()); seq < hi; seq++) {
+            if (queryLog.copyEntry(seq, ptr)) {
+                ptr += entrySize;
+            }
+        }
+        cursor.of(ptr);
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    protected void _close() {
+        if (snapshot != 0) {
+            Unsafe.free(snapshot, snapshotSize, MemoryTag.NATIVE_QUERY_LOG);
+            snapshot = 0;
+        }
+    }
+
+    private static CharSequence protocolName(int protocol) {
+        switch (protocol) {
+            case QueryLog.PROTOCOL_HTTP:
+                return "http";
+            case QueryLog.PROTOCOL_PGWIRE:
+                return "pgwire";
+            default:
+                return null;
+        }
+    }
+
+    private class QueryLogRecordCursor implements RecordCursor {
+        private final QueryLogRecord record = new QueryLogRecord();
+        private long hi;
+        private long entry;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public Record getRecordB() {
+            throw new UnsupportedOperationException("RecordB not supported");
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (entry + entrySize < hi) {
+                entry += entrySize;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            throw new UnsupportedOperationException("random access not supported");
+        }
+
+        @Override
+        public long size() {
+            return (hi - snapshot) / entrySize;
+        }
+
+        @Override
+        public void toTop() {
+            entry = snapshot - entrySize;
+        }
+
+        void of(long hi) {
+            this.hi = hi;
+            toTop();
+        }
+
+        private class QueryLogRecord implements Record {
+            private final DirectCharSequence principalA = new DirectCharSequence();
+            private final DirectCharSequence principalB = new DirectCharSequence();
+            private final DirectCharSequence sqlA = new DirectCharSequence();
+            private final DirectCharSequence sqlB = new DirectCharSequence();
+
+            @Override
+            public boolean getBool(int col) {
+                final int flags = Unsafe.getUnsafe().getInt(entry + QueryLog.FLAGS_OFFSET);
+                return (flags & (col == PLAN_CACHE_HIT_COLUMN_INDEX ? QueryLog.FLAG_PLAN_CACHE_HIT : QueryLog.FLAG_JIT)) != 0;
+            }
+
+            @Override
+            public long getLong(int col) {
+                switch (col) {
+                    case SQL_HASH_COLUMN_INDEX:
+                        return Unsafe.getUnsafe().getLong(entry + QueryLog.SQL_HASH_OFFSET);
+                    case COMPILE_NANOS_COLUMN_INDEX:
+                        return Unsafe.getUnsafe().getLong(entry + QueryLog.COMPILE_NANOS_OFFSET);
+                    case EXECUTION_NANOS_COLUMN_INDEX:
+                        return Unsafe.getUnsafe().getLong(entry + QueryLog.EXECUTION_NANOS_OFFSET);
+                    case ROWS_COLUMN_INDEX:
+                        return Unsafe.getUnsafe().getLong(entry + QueryLog.ROW_COUNT_OFFSET);
+                    case BYTES_SENT_COLUMN_INDEX:
+                        return Unsafe.getUnsafe().getLong(entry + QueryLog.BYTES_SENT_OFFSET);
+                    default:
+                        return Unsafe.getUnsafe().getLong(entry + QueryLog.PEAK_MEMORY_OFFSET);
+                }
+            }
+
+            @Override
+            public CharSequence getStr(int col) {
+                return getStr(col, principalA, sqlA);
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return getStr(col, principalB, sqlB);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                switch (col) {
+                    case PROTOCOL_COLUMN_INDEX:
+                        final CharSequence protocol = protocolName(Unsafe.getUnsafe().getInt(entry + QueryLog.PROTOCOL_OFFSET));
+                        return protocol != null ? protocol.length() : -1;
+                    case PRINCIPAL_COLUMN_INDEX:
+                        return Unsafe.getUnsafe().getInt(entry + QueryLog.PRINCIPAL_LEN_OFFSET);
+                    default:
+                        return Unsafe.getUnsafe().getInt(entry + QueryLog.SQL_LEN_OFFSET);
+                }
+            }
+
+            @Override
+            public long getTimestamp(int col) {
+                return Unsafe.getUnsafe().getLong(entry + QueryLog.TIMESTAMP_OFFSET);
+            }
+
+            private CharSequence getStr(int col, DirectCharSequence principal, DirectCharSequence sql) {
+                switch (col) {
+                    case PROTOCOL_COLUMN_INDEX:
+                        return protocolName(Unsafe.getUnsafe().getInt(entry + QueryLog.PROTOCOL_OFFSET));
+                    case PRINCIPAL_COLUMN_INDEX:
+                        final int principalLen = Unsafe.getUnsafe().getInt(entry + QueryLog.PRINCIPAL_LEN_OFFSET);
+                        if (principalLen < 0) {
+                            return null;
+                        }
+                        final long principalLo = entry + QueryLog.PRINCIPAL_OFFSET;
+                        return principal.of(principalLo, principalLo + principalLen * 2L);
+                    default:
+                        final long sqlLo = entry + QueryLog.SQL_OFFSET;
+                        return sql.of(sqlLo, sqlLo + Unsafe.getUnsafe().getInt(entry + QueryLog.SQL_LEN_OFFSET) * 2L);
+                }
+            }
+        }
+    }
+
+    static {
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        metadata.add(TIMESTAMP_COLUMN_INDEX, new TableColumnMetadata("ts", TIMESTAMP_COLUMN_INDEX, ColumnType.TIMESTAMP));
+        metadata.add(PROTOCOL_COLUMN_INDEX, new TableColumnMetadata("protocol", PROTOCOL_COLUMN_INDEX, ColumnType.STRING));
+        metadata.add(PRINCIPAL_COLUMN_INDEX, new TableColumnMetadata("principal", PRINCIPAL_COLUMN_INDEX, ColumnType.STRING));
+        metadata.add(SQL_HASH_COLUMN_INDEX, new TableColumnMetadata("sql_hash", SQL_HASH_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(SQL_COLUMN_INDEX, new TableColumnMetadata("sql", SQL_COLUMN_INDEX, ColumnType.STRING));
+        metadata.add(COMPILE_NANOS_COLUMN_INDEX, new TableColumnMetadata("compile_nanos", COMPILE_NANOS_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(EXECUTION_NANOS_COLUMN_INDEX, new TableColumnMetadata("execution_nanos", EXECUTION_NANOS_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(ROWS_COLUMN_INDEX, new TableColumnMetadata("rows", ROWS_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(BYTES_SENT_COLUMN_INDEX, new TableColumnMetadata("bytes_sent", BYTES_SENT_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(PEAK_MEMORY_COLUMN_INDEX, new TableColumnMetadata("peak_memory", PEAK_MEMORY_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(PLAN_CACHE_HIT_COLUMN_INDEX, new TableColumnMetadata("plan_cache_hit", PLAN_CACHE_HIT_COLUMN_INDEX, ColumnType.BOOLEAN));
+        metadata.add(JIT_COLUMN_INDEX, new TableColumnMetadata("jit", JIT_COLUMN_INDEX, ColumnType.BOOLEAN));
+        METADATA = metadata;
+    }
+}
@@ -106,6 +106,7 @@ public class ShowColumnsRecordCursorFactory extends AbstractRecordCursorFactory
 
         private ShowColumnsCursor of(SqlExecutionContext executionContext) {
             reader = executionContext.getCairoEngine().getReader(executionContext.getCairoSecurityContext(), tableName);
+            executionContext.onTableRead(tableName, reader.getMetadata().getId(), reader.getTxn());
             toTop();
             return this;
         }
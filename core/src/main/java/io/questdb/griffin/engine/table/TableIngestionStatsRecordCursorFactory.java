@@ -0,0 +1,186 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.TableIngestionStats;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.ObjList;
+
+/**
+ * Lists ingestion counters of the tables that have an open writer, one row per table.
+ */
+public final class TableIngestionStatsRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final RecordMetadata METADATA;
+    private static final int TABLE_COLUMN_INDEX = 0;
+    private static final int WRITER_THREAD_COLUMN_INDEX = 1;
+    private static final int ROWS_PER_SECOND_COLUMN_INDEX = 2;
+    private static final int BYTES_PER_SECOND_COLUMN_INDEX = 3;
+    private static final int COMMITTED_ROWS_COLUMN_INDEX = 4;
+    private static final int O3_ROWS_COLUMN_INDEX = 5;
+    private static final int UNCOMMITTED_ROWS_COLUMN_INDEX = 6;
+    private static final int PHYSICALLY_WRITTEN_ROWS_COLUMN_INDEX = 7;
+    private static final int INGESTED_BYTES_COLUMN_INDEX = 8;
+    private static final int COMMITS_COLUMN_INDEX = 9;
+    private static final int AVG_COMMIT_MICROS_COLUMN_INDEX = 10;
+    private static final int LAST_COMMIT_MICROS_COLUMN_INDEX = 11;
+    private final TableIngestionStatsRecordCursor cursor = new TableIngestionStatsRecordCursor();
+    private final ObjList<TableIngestionStats> stats = new ObjList<>();
+
+    public TableIngestionStatsRecordCursorFactory() {
+        super(METADATA);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        executionContext.onVolatileRead();
+        stats.clear();
+        executionContext.getCairoEngine().getMetrics().tableIngestion().getStats(stats);
+        cursor.of(executionContext.getCairoEngine().getConfiguration().getMicrosecondClock().getTicks());
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    private class TableIngestionStatsRecordCursor implements RecordCursor {
+        private final TableIngestionStatsRecord record = new TableIngestionStatsRecord();
+        private long now;
+        private int index;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public Record getRecordB() {
+            throw new UnsupportedOperationException("RecordB not supported");
+        }
+
+        @Override
+        public boolean hasNext() {
+            return ++index < stats.size();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            throw new UnsupportedOperationException("random access not supported");
+        }
+
+        @Override
+        public long size() {
+            return stats.size();
+        }
+
+        @Override
+        public void toTop() {
+            index = -1;
+        }
+
+        void of(long now) {
+            this.now = now;
+            toTop();
+        }
+
+        private class TableIngestionStatsRecord implements Record {
+            @Override
+            public int getInt(int col) {
+                return stats.getQuick(index).getWriterThreadId();
+            }
+
+            @Override
+            public long getLong(int col) {
+                final TableIngestionStats tableStats = stats.getQuick(index);
+                switch (col) {
+                    case ROWS_PER_SECOND_COLUMN_INDEX:
+                        return tableStats.getRowsPerSecond(now);
+                    case BYTES_PER_SECOND_COLUMN_INDEX:
+                        return tableStats.getBytesPerSecond(now);
+                    case COMMITTED_ROWS_COLUMN_INDEX:
+                        return tableStats.getCommittedRows();
+                    case O3_ROWS_COLUMN_INDEX:
+                        return tableStats.getO3Rows();
+                    case UNCOMMITTED_ROWS_COLUMN_INDEX:
+                        return tableStats.getUncommittedRows();
+                    case PHYSICALLY_WRITTEN_ROWS_COLUMN_INDEX:
+                        return tableStats.getPhysicallyWrittenRows();
+                    case INGESTED_BYTES_COLUMN_INDEX:
+                        return tableStats.getBytes();
+                    case COMMITS_COLUMN_INDEX:
+                        return tableStats.getCommits();
+                    case AVG_COMMIT_MICROS_COLUMN_INDEX:
+                        return tableStats.getCommitTimeAvgMicros();
+                    default:
+                        return tableStats.getLastCommitTimeMicros();
+                }
+            }
+
+            @Override
+            public CharSequence getStr(int col) {
+                return stats.getQuick(index).getTableName();
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return getStr(col);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return getStr(col).length();
+            }
+        }
+    }
+
+    static {
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        metadata.add(TABLE_COLUMN_INDEX, new TableColumnMetadata("table", TABLE_COLUMN_INDEX, ColumnType.STRING));
+        metadata.add(WRITER_THREAD_COLUMN_INDEX, new TableColumnMetadata("writer_thread", WRITER_THREAD_COLUMN_INDEX, ColumnType.INT));
+        metadata.add(ROWS_PER_SECOND_COLUMN_INDEX, new TableColumnMetadata("rows_per_second", ROWS_PER_SECOND_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(BYTES_PER_SECOND_COLUMN_INDEX, new TableColumnMetadata("bytes_per_second", BYTES_PER_SECOND_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(COMMITTED_ROWS_COLUMN_INDEX, new TableColumnMetadata("committed_rows", COMMITTED_ROWS_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(O3_ROWS_COLUMN_INDEX, new TableColumnMetadata("o3_rows", O3_ROWS_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(UNCOMMITTED_ROWS_COLUMN_INDEX, new TableColumnMetadata("uncommitted_rows", UNCOMMITTED_ROWS_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(PHYSICALLY_WRITTEN_ROWS_COLUMN_INDEX, new TableColumnMetadata("physically_written_rows", PHYSICALLY_WRITTEN_ROWS_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(INGESTED_BYTES_COLUMN_INDEX, new TableColumnMetadata("ingested_bytes", INGESTED_BYTES_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(COMMITS_COLUMN_INDEX, new TableColumnMetadata("commits", COMMITS_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(AVG_COMMIT_MICROS_COLUMN_INDEX, new TableColumnMetadata("avg_commit_micros", AVG_COMMIT_MICROS_COLUMN_INDEX, ColumnType.LONG));
+        metadata.add(LAST_COMMIT_MICROS_COLUMN_INDEX, new TableColumnMetadata("last_commit_micros", LAST_COMMIT_MICROS_COLUMN_INDEX, ColumnType.LONG));
+        METADATA = metadata;
+    }
+}
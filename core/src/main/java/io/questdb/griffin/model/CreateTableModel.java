@@ -35,6 +35,7 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
     public static final ObjectFactory<CreateTableModel> FACTORY = CreateTableModel::new;
     private static final int COLUMN_FLAG_CACHED = 1;
     private static final int COLUMN_FLAG_INDEXED = 2;
+    private static final int COLUMN_FLAG_DEDUP_KEY = 4;
     private final CharSequenceObjHashMap<ColumnCastModel> columnCastModels = new CharSequenceObjHashMap<>();
     private final LongList columnBits = new LongList();
     private final LongList columnHashes = new LongList();
@@ -132,6 +133,11 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return (getLowAt(index * 2 + 1) & COLUMN_FLAG_INDEXED) != 0;
     }
 
+    @Override
+    public boolean isDedupKey(int index) {
+        return (getLowAt(index * 2 + 1) & COLUMN_FLAG_DEDUP_KEY) != 0;
+    }
+
     @Override
     public boolean isSequential(int columnIndex) {
         // todo: expose this flag on CREATE TABLE statement
@@ -245,6 +251,11 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         setIndexFlags0(columnIndex * 2 + 1, indexFlag, indexValueBlockSize);
     }
 
+    public void setDedupKeyFlag(int columnIndex) {
+        final int index = columnIndex * 2 + 1;
+        columnBits.setQuick(index, Numbers.encodeLowHighInts(getLowAt(index) | COLUMN_FLAG_DEDUP_KEY, getHighAt(index)));
+    }
+
     public void symbolCapacity(int capacity) {
         final int pos = columnBits.size() - 2;
         assert pos > -1;
@@ -335,6 +346,18 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         if (partitionBy != null) {
             sink.put(" partition by ").put(partitionBy.token);
         }
+
+        boolean dedup = false;
+        for (int i = 0, n = getColumnCount(); i < n; i++) {
+            if (isDedupKey(i)) {
+                sink.put(dedup ? ", " : " dedup upsert keys(");
+                sink.put(getColumnName(i));
+                dedup = true;
+            }
+        }
+        if (dedup) {
+            sink.put(')');
+        }
     }
 
     private int getHighAt(int index) {
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.metrics;
+
+import io.questdb.std.Numbers;
+import io.questdb.std.str.CharSink;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket histogram. Recording is allocation-free and lock-free: values are counted
+ * in one of several stripes chosen by thread id, so that concurrent writers rarely share
+ * cache lines. Stripes are summed on scrape.
+ */
+class HistogramImpl implements Histogram {
+    // longs per cache line, used to pad stripes
+    private static final int LINE_LONGS = 8;
+    private final CharSequence name;
+    private final long[] bounds;
+    private final int bucketCount;
+    private final int stripeMask;
+    private final int stripeSize;
+    // per stripe: bucket counts, then sum and count
+    private final AtomicLongArray stripes;
+
+    HistogramImpl(CharSequence name, long[] bounds) {
+        assert bounds.length > 0;
+        for (int i = 1, n = bounds.length; i < n; i++) {
+            assert bounds[i - 1] < bounds[i];
+        }
+        this.name = name;
+        this.bounds = bounds;
+        this.bucketCount = bounds.length + 1;
+        final int stripeCount = Numbers.ceilPow2(Runtime.getRuntime().availableProcessors());
+        this.stripeMask = stripeCount - 1;
+        this.stripeSize = ((bucketCount + 2 + LINE_LONGS - 1) / LINE_LONGS) * LINE_LONGS;
+        this.stripes = new AtomicLongArray(stripeCount * stripeSize);
+    }
+
+    @Override
+    public long getBucketCount(int index) {
+        return sum(index);
+    }
+
+    @Override
+    public long getCount() {
+        return sum(bucketCount + 1);
+    }
+
+    @Override
+    public long getSum() {
+        return sum(bucketCount);
+    }
+
+    @Override
+    public void record(long value) {
+        final int base = ((int) Thread.currentThread().getId() & stripeMask) * stripeSize;
+        stripes.getAndIncrement(base + bucketOf(value));
+        stripes.getAndAdd(base + bucketCount, value);
+        stripes.getAndIncrement(base + bucketCount + 1);
+    }
+
+    @Override
+    public void scrapeIntoPrometheus(CharSink sink) {
+        PrometheusFormatUtils.appendHistogramType(name, sink);
+        long cumulative = 0;
+        for (int i = 0, n = bounds.length; i < n; i++) {
+            cumulative += sum(i);
+            PrometheusFormatUtils.appendHistogramBucket(name, sink, bounds[i], cumulative);
+        }
+        cumulative += sum(bounds.length);
+        PrometheusFormatUtils.appendHistogramInfBucket(name, sink, cumulative);
+        PrometheusFormatUtils.appendHistogramSum(name, sink, getSum());
+        // use cumulative bucket count rather than count slot to keep exposition consistent
+        // with concurrent writers
+        PrometheusFormatUtils.appendHistogramCount(name, sink, cumulative);
+        PrometheusFormatUtils.appendNewLine(sink);
+    }
+
+    private int bucketOf(long value) {
+        // lower bound binary search, values equal to the bound belong to its bucket
+        int lo = 0;
+        int hi = bounds.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (bounds[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private long sum(int slot) {
+        long total = 0;
+        for (int i = 0, n = stripeMask + 1; i < n; i++) {
+            total += stripes.get(i * stripeSize + slot);
+        }
+        return total;
+    }
+}
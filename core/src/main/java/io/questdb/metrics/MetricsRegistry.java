@@ -41,4 +41,9 @@ public interface MetricsRegistry extends Scrapable {
     Gauge newGauge(int memoryTag);
 
     Gauge newVirtualGauge(CharSequence name, VirtualGauge.StatProvider provider);
+
+    /**
+     * @param bounds ascending bucket upper bounds, values above the last bound land in +Inf bucket
+     */
+    Histogram newHistogram(CharSequence name, long[] bounds);
 }
@@ -79,6 +79,13 @@ public class MetricsRegistryImpl implements MetricsRegistry {
         return gauge;
     }
 
+    @Override
+    public Histogram newHistogram(CharSequence name, long[] bounds) {
+        Histogram histogram = new HistogramImpl(name, bounds);
+        metrics.add(histogram);
+        return histogram;
+    }
+
     @Override
     public void scrapeIntoPrometheus(CharSink sink) {
         for (int i = 0, n = metrics.size(); i < n; i++) {
@@ -64,6 +64,11 @@ public class NullMetricsRegistry implements MetricsRegistry {
         return NullGauge.INSTANCE;
     }
 
+    @Override
+    public Histogram newHistogram(CharSequence name, long[] bounds) {
+        return NullHistogram.INSTANCE;
+    }
+
     @Override
     public void scrapeIntoPrometheus(CharSink sink) {
     }
@@ -26,36 +26,78 @@ package io.questdb.metrics;
 
 import io.questdb.std.str.CharSink;
 
-class PrometheusFormatUtils {
-    static final CharSequence TYPE_PREFIX = "# TYPE questdb_";
-    static final CharSequence METRIC_NAME_PREFIX = "questdb_";
-    static final char LF = '\n';
+public class PrometheusFormatUtils {
+    public static final CharSequence TYPE_PREFIX = "# TYPE questdb_";
+    public static final CharSequence METRIC_NAME_PREFIX = "questdb_";
+    public static final char LF = '\n';
 
-    static void appendNewLine(CharSink sink) {
+    public static void appendNewLine(CharSink sink) {
         sink.put(LF);
     }
 
-    static void appendSampleLineSuffix(CharSink sink, long value) {
+    public static void appendSampleLineSuffix(CharSink sink, long value) {
         sink.put(' ');
         sink.put(value);
         sink.put(LF);
     }
 
-    static void appendLabel(CharSink sink, CharSequence labelName, CharSequence labelValue) {
+    public static void appendLabel(CharSink sink, CharSequence labelName, CharSequence labelValue) {
         sink.put(labelName);
         sink.put('=');
         sink.putQuoted(labelValue);
     }
 
-    static void appendCounterType(CharSequence name, CharSink sink) {
+    public static void appendCounterType(CharSequence name, CharSink sink) {
         sink.put(TYPE_PREFIX);
         sink.put(name);
         sink.put("_total counter\n");
     }
 
-    static void appendCounterNamePrefix(CharSequence name, CharSink sink) {
+    public static void appendCounterNamePrefix(CharSequence name, CharSink sink) {
         sink.put(METRIC_NAME_PREFIX);
         sink.put(name);
         sink.put("_total");
     }
+
+    public static void appendGaugeType(CharSequence name, CharSink sink) {
+        sink.put(TYPE_PREFIX);
+        sink.put(name);
+        sink.put(" gauge\n");
+    }
+
+    public static void appendHistogramType(CharSequence name, CharSink sink) {
+        sink.put(TYPE_PREFIX);
+        sink.put(name);
+        sink.put(" histogram\n");
+    }
+
+    public static void appendHistogramBucket(CharSequence name, CharSink sink, long upperBound, long cumulativeCount) {
+        sink.put(METRIC_NAME_PREFIX);
+        sink.put(name);
+        sink.put("_bucket{le=\"");
+        sink.put(upperBound);
+        sink.put("\"}");
+        appendSampleLineSuffix(sink, cumulativeCount);
+    }
+
+    public static void appendHistogramInfBucket(CharSequence name, CharSink sink, long cumulativeCount) {
+        sink.put(METRIC_NAME_PREFIX);
+        sink.put(name);
+        sink.put("_bucket{le=\"+Inf\"}");
+        appendSampleLineSuffix(sink, cumulativeCount);
+    }
+
+    public static void appendHistogramSum(CharSequence name, CharSink sink, long sum) {
+        sink.put(METRIC_NAME_PREFIX);
+        sink.put(name);
+        sink.put("_sum");
+        appendSampleLineSuffix(sink, sum);
+    }
+
+    public static void appendHistogramCount(CharSequence name, CharSink sink, long count) {
+        sink.put(METRIC_NAME_PREFIX);
+        sink.put(name);
+        sink.put("_count");
+        appendSampleLineSuffix(sink, count);
+    }
 }
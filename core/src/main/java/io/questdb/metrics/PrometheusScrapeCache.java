@@ -0,0 +1,185 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.metrics;
+
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
+import io.questdb.std.str.AbstractCharSink;
+import io.questdb.std.str.CharSink;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pre-rendered Prometheus text shared by concurrent scrapers. Metrics are rendered into one of
+ * two reusable off-heap buffers at most once per render interval: the renderer fills the spare
+ * buffer and then publishes it, while scrapers keep reading the one they have acquired.
+ * A buffer is only re-rendered once all its readers have released it, otherwise scrapers
+ * get the last published text.
+ */
+public class PrometheusScrapeCache implements Closeable {
+    private static final long INITIAL_CAPACITY = 64 * 1024;
+    private final Scrapable metrics;
+    private final long renderIntervalMicros;
+    private final MicrosecondClock clock;
+    private final ReentrantLock renderLock = new ReentrantLock();
+    private final Buffer bufferA = new Buffer();
+    private final Buffer bufferB = new Buffer();
+    private volatile Buffer current = bufferA;
+
+    public PrometheusScrapeCache(Scrapable metrics, long renderIntervalMillis) {
+        this(metrics, renderIntervalMillis, MicrosecondClockImpl.INSTANCE);
+    }
+
+    public PrometheusScrapeCache(Scrapable metrics, long renderIntervalMillis, MicrosecondClock clock) {
+        this.metrics = metrics;
+        this.renderIntervalMicros = renderIntervalMillis * 1000;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns buffer with up-to-date metrics text, rendering it if the published one is older
+     * than the render interval. Buffer content stays intact until it is released.
+     */
+    public Buffer acquire() {
+        final long now = clock.getTicks();
+        if (current.isStale(now, renderIntervalMicros) && renderLock.tryLock()) {
+            try {
+                final Buffer published = current;
+                if (published.isStale(now, renderIntervalMicros)) {
+                    final Buffer spare = published == bufferA ? bufferB : bufferA;
+                    if (spare.readers.get() == 0) {
+                        spare.render(metrics, now);
+                        current = spare;
+                    }
+                }
+            } finally {
+                renderLock.unlock();
+            }
+        }
+
+        while (true) {
+            final Buffer buffer = current;
+            buffer.readers.incrementAndGet();
+            // renderer could have picked this buffer as spare before we registered as reader
+            if (buffer == current) {
+                return buffer;
+            }
+            buffer.readers.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void close() {
+        bufferA.close();
+        bufferB.close();
+    }
+
+    public void release(Buffer buffer) {
+        buffer.readers.decrementAndGet();
+    }
+
+    /**
+     * Rendered text, one byte per char. Prometheus text is ASCII, same as what HTTP response
+     * sink would produce when metrics are scraped into it directly.
+     */
+    public static class Buffer extends AbstractCharSink implements Closeable {
+        private final AtomicInteger readers = new AtomicInteger();
+        private long capacity;
+        private long lo;
+        private long hi;
+        private long renderedAt = Long.MIN_VALUE;
+
+        public long getHi() {
+            return hi;
+        }
+
+        public long getLo() {
+            return lo;
+        }
+
+        @Override
+        public CharSink put(CharSequence cs) {
+            if (cs != null) {
+                final int len = cs.length();
+                ensureCapacity(len);
+                for (int i = 0; i < len; i++) {
+                    Unsafe.getUnsafe().putByte(hi + i, (byte) cs.charAt(i));
+                }
+                hi += len;
+            }
+            return this;
+        }
+
+        @Override
+        public CharSink put(char c) {
+            ensureCapacity(1);
+            Unsafe.getUnsafe().putByte(hi++, (byte) c);
+            return this;
+        }
+
+        @Override
+        public CharSink put(char[] chars, int start, int len) {
+            ensureCapacity(len);
+            for (int i = 0; i < len; i++) {
+                Unsafe.getUnsafe().putByte(hi + i, (byte) chars[start + i]);
+            }
+            hi += len;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (lo != 0) {
+                Unsafe.free(lo, capacity, MemoryTag.NATIVE_DEFAULT);
+                lo = hi = capacity = 0;
+            }
+        }
+
+        private void ensureCapacity(long len) {
+            final long size = hi - lo;
+            if (size + len > capacity) {
+                final long newCapacity = Math.max(Math.max(capacity * 2, size + len), INITIAL_CAPACITY);
+                lo = Unsafe.realloc(lo, capacity, newCapacity, MemoryTag.NATIVE_DEFAULT);
+                hi = lo + size;
+                capacity = newCapacity;
+            }
+        }
+
+        private boolean isStale(long now, long renderIntervalMicros) {
+            return renderedAt == Long.MIN_VALUE || now - renderedAt >= renderIntervalMicros;
+        }
+
+        private void render(Scrapable metrics, long now) {
+            hi = lo;
+            metrics.scrapeIntoPrometheus(this);
+            renderedAt = now;
+        }
+    }
+}
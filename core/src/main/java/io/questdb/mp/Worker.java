@@ -45,6 +45,7 @@ public class Worker extends Thread {
     private final long sleepMs;
     private final long yieldThreshold;
     private final long sleepThreshold;
+    private final boolean busySpin;
     private final Metrics metrics;
     private final String criticalErrorLine;
     private volatile int running = 0;
@@ -61,6 +62,7 @@ public class Worker extends Thread {
             long yieldThreshold,
             long sleepThreshold,
             long sleepMs,
+            boolean busySpin,
             Metrics metrics
     ) {
         this.log = log;
@@ -74,6 +76,7 @@ public class Worker extends Thread {
         this.yieldThreshold = yieldThreshold;
         this.sleepThreshold = sleepThreshold;
         this.sleepMs = sleepMs;
+        this.busySpin = busySpin;
         this.metrics = metrics;
         this.criticalErrorLine = "0000-00-00T00:00:00.000000Z C Unhandled exception in worker " + getName();
     }
@@ -104,6 +107,9 @@ public class Worker extends Thread {
                 } else {
                     if (log != null) {
                         log.info().$("os scheduled [name=").$(getName()).$(']').$();
+                        if (busySpin) {
+                            log.advisory().$("busy spinning worker has no affinity, consider pinning it to an isolated core [name=").$(getName()).$(']').$();
+                        }
                     }
                 }
                 setupJobs();
@@ -129,6 +135,12 @@ public class Worker extends Thread {
                         continue;
                     }
 
+                    if (busySpin) {
+                        // low-latency mode, never give up the core
+                        Os.pause();
+                        continue;
+                    }
+
                     uselessCounter++;
 
                     if (uselessCounter < 0) {
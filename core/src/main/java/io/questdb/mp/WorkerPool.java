@@ -48,6 +48,7 @@ public class WorkerPool {
     private final String poolName;
     private final long yieldThreshold;
     private final long sleepThreshold;
+    private final boolean busySpin;
     private final long sleepMs;
     private final ObjList<Closeable> freeOnHalt = new ObjList<>();
     private final Metrics metrics;
@@ -71,6 +72,7 @@ public class WorkerPool {
         this.yieldThreshold = configuration.getYieldThreshold();
         this.sleepThreshold = configuration.getSleepThreshold();
         this.sleepMs = configuration.getSleepTimeout();
+        this.busySpin = configuration.isBusySpin();
         this.metrics = metrics;
 
         assert this.workerAffinity.length == workerCount;
@@ -167,6 +169,7 @@ public class WorkerPool {
                         yieldThreshold,
                         sleepThreshold,
                         sleepMs,
+                        busySpin,
                         metrics
                 );
                 worker.setDaemon(daemons);
@@ -35,6 +35,15 @@ public interface WorkerPoolConfiguration {
         return false;
     }
 
+    /**
+     * Low-latency mode. Idle workers spin on CPU pause instruction instead of yielding
+     * and sleeping, which removes wake-up jitter at the expense of fully occupying the
+     * cores. Best combined with worker affinity to isolated cores.
+     */
+    default boolean isBusySpin() {
+        return false;
+    }
+
     default boolean isDaemonPool() {
         return false;
     }
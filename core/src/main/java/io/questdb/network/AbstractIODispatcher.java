@@ -66,11 +66,30 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
     private final long queuedConnectionTimeoutMs;
     private long closeListenFdEpochMs;
     private final boolean peerNoLinger;
+    private final boolean reusePort;
     private int port;
 
     public AbstractIODispatcher(
             IODispatcherConfiguration configuration,
             IOContextFactory<C> ioContextFactory
+    ) {
+        this(configuration, ioContextFactory, 0, configuration.getLimit(), false);
+    }
+
+    /**
+     * Creates dispatcher that is a member of {@link IODispatcherGroup}. Group members
+     * share listening port via SO_REUSEPORT and split connection limit between them.
+     *
+     * @param bindPort        port resolved by the first group member, 0 to use configured port
+     * @param connectionLimit maximum number of connections owned by this dispatcher
+     * @param reusePort       when true listening socket is bound with SO_REUSEPORT
+     */
+    protected AbstractIODispatcher(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory,
+            int bindPort,
+            int connectionLimit,
+            boolean reusePort
     ) {
         this.LOG = LogFactory.getLog(configuration.getDispatcherLogName());
         this.configuration = configuration;
@@ -92,7 +111,7 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
         this.disconnectPubSeq.then(this.disconnectSubSeq).then(this.disconnectPubSeq);
 
         this.clock = configuration.getClock();
-        this.activeConnectionLimit = configuration.getLimit();
+        this.activeConnectionLimit = connectionLimit;
         this.ioContextFactory = ioContextFactory;
         this.initialBias = configuration.getInitialBias();
         this.idleConnectionTimeout = configuration.getTimeout() > 0 ? configuration.getTimeout() : Long.MIN_VALUE;
@@ -100,7 +119,8 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
         this.sndBufSize = configuration.getSndBufSize();
         this.rcvBufSize = configuration.getRcvBufSize();
         this.peerNoLinger = configuration.getPeerNoLinger();
-        this.port = 0;
+        this.reusePort = reusePort;
+        this.port = bindPort;
 
         createListenFd();
         listening = true;
@@ -108,6 +128,9 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
 
     private void createListenFd() throws NetworkError {
         this.serverFd = nf.socketTcp(false);
+        if (reusePort && nf.setReusePort(serverFd) < 0) {
+            LOG.error().$("could not set SO_REUSEPORT [fd=").$(serverFd).$(", errno=").$(nf.errno()).I$();
+        }
         final int backlog = configuration.getListenBacklog();
         if (this.port == 0) {
             // Note that `configuration.getBindPort()` might also be 0.
@@ -128,7 +151,7 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
                     configuration.getBindIPv4Address(),
                     this.port);
         }
-        LOG.advisory().$("listening on ").$ip(configuration.getBindIPv4Address()).$(':').$(configuration.getBindPort())
+        LOG.advisory().$("listening on ").$ip(configuration.getBindIPv4Address()).$(':').$(this.port)
                 .$(" [fd=").$(serverFd)
                 .$(" backlog=").$(backlog)
                 .I$();
@@ -24,6 +24,8 @@
 
 package io.questdb.network;
 
+import io.questdb.std.IOURingFacade;
+import io.questdb.std.IOURingFacadeImpl;
 import io.questdb.std.Numbers;
 import io.questdb.std.Os;
 import io.questdb.std.datetime.millitime.MillisecondClock;
@@ -40,6 +42,14 @@ public interface IODispatcherConfiguration {
 
     MillisecondClock getClock();
 
+    /**
+     * Number of independent dispatchers (event loops) serving the same port. Values above 1
+     * create {@link IODispatcherGroup} with SO_REUSEPORT listeners on Linux.
+     */
+    default int getDispatcherCount() {
+        return 1;
+    }
+
     default String getDispatcherLogName() {
         return "IODispatcher";
     }
@@ -50,6 +60,10 @@ public interface IODispatcherConfiguration {
         return Numbers.ceilPow2(getLimit());
     }
 
+    default IOURingFacade getIOURingFacade() {
+        return IOURingFacadeImpl.INSTANCE;
+    }
+
     default int getIOQueueCapacity() {
         return Numbers.ceilPow2(getLimit());
     }
@@ -79,6 +93,14 @@ public interface IODispatcherConfiguration {
 
     NetworkFacade getNetworkFacade();
 
+    /**
+     * When true, Linux dispatchers use io_uring polls instead of epoll. Dispatchers
+     * fall back to epoll when io_uring is not available on the host.
+     */
+    default boolean isIOURingEnabled() {
+        return false;
+    }
+
     default boolean getPeerNoLinger() {
         return false;
     }
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.network;
+
+import io.questdb.mp.EagerThreadSetup;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+/**
+ * Multi-reactor dispatcher. Each member owns its own event loop (epoll or io_uring) and its own listening
+ * socket bound to the same port with SO_REUSEPORT, so that the kernel spreads incoming
+ * connections between members. Members are independent synchronized jobs, which allows
+ * different workers to run them concurrently. Connection limit is split evenly between
+ * members.
+ */
+public class IODispatcherGroup<C extends IOContext> implements IODispatcher<C>, EagerThreadSetup {
+    private final ObjList<AbstractIODispatcher<C>> dispatchers;
+    private final int port;
+
+    public IODispatcherGroup(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory,
+            int dispatcherCount
+    ) {
+        assert dispatcherCount > 1;
+        final int connectionLimit = Math.max(1, (configuration.getLimit() + dispatcherCount - 1) / dispatcherCount);
+        this.dispatchers = new ObjList<>(dispatcherCount);
+        try {
+            // first dispatcher resolves ephemeral port, the rest bind to the same port
+            final AbstractIODispatcher<C> first = IODispatchers.createLinuxGroupMember(configuration, ioContextFactory, 0, connectionLimit);
+            dispatchers.add(first);
+            this.port = first.getPort();
+            for (int i = 1; i < dispatcherCount; i++) {
+                dispatchers.add(IODispatchers.createLinuxGroupMember(configuration, ioContextFactory, port, connectionLimit));
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjListAndClear(dispatchers);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void disconnect(C context, int reason) {
+        // context is always owned by the member that accepted it
+        ((IODispatcher<C>) context.getDispatcher()).disconnect(context, reason);
+    }
+
+    @Override
+    public int getConnectionCount() {
+        int count = 0;
+        for (int i = 0, n = dispatchers.size(); i < n; i++) {
+            count += dispatchers.getQuick(i).getConnectionCount();
+        }
+        return count;
+    }
+
+    public int getDispatcherCount() {
+        return dispatchers.size();
+    }
+
+    @Override
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public boolean isListening() {
+        for (int i = 0, n = dispatchers.size(); i < n; i++) {
+            if (dispatchers.getQuick(i).isListening()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean processIOQueue(IORequestProcessor<C> processor) {
+        boolean useful = false;
+        for (int i = 0, n = dispatchers.size(); i < n; i++) {
+            useful |= dispatchers.getQuick(i).processIOQueue(processor);
+        }
+        return useful;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void registerChannel(C context, int operation) {
+        ((IODispatcher<C>) context.getDispatcher()).registerChannel(context, operation);
+    }
+
+    @Override
+    public boolean run(int workerId) {
+        // start with different member on each worker to avoid workers
+        // queueing up behind the same member lock
+        final int n = dispatchers.size();
+        final int start = workerId > 0 ? workerId % n : 0;
+        boolean useful = false;
+        for (int i = 0; i < n; i++) {
+            useful |= dispatchers.getQuick((start + i) % n).run(workerId);
+        }
+        return useful;
+    }
+
+    @Override
+    public void setup() {
+        // members share context factory, thread setup is needed once
+        dispatchers.getQuick(0).setup();
+    }
+}
@@ -38,6 +38,17 @@ public class IODispatcherLinux<C extends IOContext> extends AbstractIODispatcher
         registerListenerFd();
     }
 
+    IODispatcherLinux(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory,
+            int bindPort,
+            int connectionLimit
+    ) {
+        super(configuration, ioContextFactory, bindPort, connectionLimit, true);
+        this.epoll = new Epoll(configuration.getEpollFacade(), configuration.getEventCapacity());
+        registerListenerFd();
+    }
+
     private void enqueuePending(int watermark) {
         for (int i = watermark, sz = pending.size(), offset = 0; i < sz; i++, offset += EpollAccessor.SIZEOF_EVENT) {
             epoll.setOffset(offset);
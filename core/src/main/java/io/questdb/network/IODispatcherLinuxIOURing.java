@@ -0,0 +1,325 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.network;
+
+import io.questdb.std.IOURing;
+import io.questdb.std.LongObjHashMap;
+import io.questdb.std.Numbers;
+
+/**
+ * Linux dispatcher driven by io_uring rather than epoll. Interest in socket readiness is
+ * expressed as one-shot poll sqes, which are batched and submitted with a single
+ * io_uring_enter() call per loop iteration, whereas epoll requires epoll_ctl() call per
+ * re-registration and epoll_wait() call per iteration. Completions are reaped from the
+ * shared completion queue without entering the kernel.
+ * <p>
+ * Contexts implementing {@link IORecvContext} are not polled for reads. Instead, recv sqe
+ * into the context's buffer is enqueued and READ event is published once it completes, so
+ * that workers find data in place and make no recv() calls of their own. Writes and reads of
+ * other contexts are still performed by workers, which keeps the dispatcher a drop-in
+ * replacement for {@link IODispatcherLinux}.
+ */
+public class IODispatcherLinuxIOURing<C extends IOContext> extends AbstractIODispatcher<C> {
+    private static final int M_ID = 2;
+    private static final int M_OPERATION = 3;
+    private static final int POLLIN = 0x1;
+    private static final int POLLOUT = 0x4;
+    private static final int EAGAIN = 11;
+    private static final int ECANCELED = 125;
+    // marks pending rows with recv, rather than poll, in flight
+    private static final int RECV = 0x100;
+    // user data of poll remove sqes, their cqes are of no interest
+    private static final long ID_REMOVE = Long.MAX_VALUE;
+    private final IOURing ring;
+    // timed out contexts, keyed by id of their recv, which are disconnected once the recv is cancelled
+    private final LongObjHashMap<C> cancelled = new LongObjHashMap<>();
+    private long fdid = 1;
+    private long listenerId = -1;
+
+    public IODispatcherLinuxIOURing(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory
+    ) {
+        super(configuration, ioContextFactory);
+        this.ring = configuration.getIOURingFacade().newInstance(Numbers.ceilPow2(configuration.getEventCapacity()));
+        registerListenerFd();
+    }
+
+    IODispatcherLinuxIOURing(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory,
+            int bindPort,
+            int connectionLimit
+    ) {
+        super(configuration, ioContextFactory, bindPort, connectionLimit, true);
+        this.ring = configuration.getIOURingFacade().newInstance(Numbers.ceilPow2(configuration.getEventCapacity()));
+        registerListenerFd();
+    }
+
+    @Override
+    public void close() {
+        awaitRecvs();
+        super.close();
+        // exiting the ring cancels all outstanding polls
+        ring.close();
+        LOG.info().$("closed").$();
+    }
+
+    private void awaitRecvs() {
+        // recv sqes write into context buffers, which are freed once contexts are closed
+        int inFlight = cancelled.size();
+        for (int i = 0, n = pending.size(); i < n; i++) {
+            if ((pending.get(i, M_OPERATION) & RECV) != 0) {
+                enqueueCancel(pending.get(i, M_ID));
+                inFlight++;
+            }
+        }
+
+        while (inFlight > 0) {
+            ring.submitAndWait();
+            while (ring.nextCqe()) {
+                final long id = ring.getCqeId();
+                if (id == ID_REMOVE) {
+                    continue;
+                }
+                final int index = cancelled.keyIndex(id);
+                if (index < 0) {
+                    doDisconnect(cancelled.valueAtQuick(index), DISCONNECT_SRC_SHUTDOWN);
+                    cancelled.removeAt(index);
+                    inFlight--;
+                    continue;
+                }
+                final int row = pending.binarySearch(id, M_ID);
+                if (row > -1 && (pending.get(row, M_OPERATION) & RECV) != 0) {
+                    pending.set(row, M_OPERATION, IOOperation.READ);
+                    inFlight--;
+                }
+            }
+        }
+    }
+
+    private void enqueueCancel(long id) {
+        if (ring.enqueueCancel(id, ID_REMOVE) < 0) {
+            ring.submit();
+            if (ring.enqueueCancel(id, ID_REMOVE) < 0) {
+                LOG.error().$("could not enqueue cancellation [id=").$(id).I$();
+            }
+        }
+    }
+
+    private int enqueueInterest(C context, long fd, int operation, long id) {
+        if (operation == IOOperation.READ && context instanceof IORecvContext) {
+            final IORecvContext recvContext = (IORecvContext) context;
+            final int len = recvContext.getRecvSize();
+            if (len > 0 && enqueueRecv(fd, recvContext.getRecvAddress(), len, id)) {
+                return operation | RECV;
+            }
+        }
+        enqueuePoll(fd, operation, id);
+        return operation;
+    }
+
+    private void enqueuePending(int watermark) {
+        final int operation = initialBias == IODispatcherConfiguration.BIAS_READ ? IOOperation.READ : IOOperation.WRITE;
+        for (int i = watermark, sz = pending.size(); i < sz; i++) {
+            pending.set(i, M_OPERATION, enqueueInterest(pending.get(i), pending.get(i, M_FD), operation, pending.get(i, M_ID)));
+        }
+    }
+
+    private void enqueuePoll(long fd, int operation, long id) {
+        final int mask = operation == IOOperation.READ ? POLLIN : POLLOUT;
+        if (ring.enqueuePoll(fd, mask, id) < 0) {
+            // submission queue is full, flush it and try again
+            ring.submit();
+            if (ring.enqueuePoll(fd, mask, id) < 0) {
+                LOG.error().$("could not enqueue poll [fd=").$(fd).$(", id=").$(id).I$();
+            }
+        }
+    }
+
+    private boolean enqueueRecv(long fd, long address, int len, long id) {
+        if (ring.enqueueRecv(fd, address, len, id) < 0) {
+            ring.submit();
+            if (ring.enqueueRecv(fd, address, len, id) < 0) {
+                LOG.error().$("could not enqueue recv [fd=").$(fd).$(", id=").$(id).I$();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void enqueuePollRemove(long id) {
+        if (ring.enqueuePollRemove(id, ID_REMOVE) < 0) {
+            ring.submit();
+            if (ring.enqueuePollRemove(id, ID_REMOVE) < 0) {
+                LOG.error().$("could not enqueue poll removal [id=").$(id).I$();
+            }
+        }
+    }
+
+    private void processIdleConnections(long deadline) {
+        int count = 0;
+        for (int i = 0, n = pending.size(); i < n && pending.get(i, M_TIMESTAMP) < deadline; i++, count++) {
+            final long id = pending.get(i, M_ID);
+            if ((pending.get(i, M_OPERATION) & RECV) != 0) {
+                // kernel may still write into the context's buffer, context is released once recv completes
+                enqueueCancel(id);
+                cancelled.put(id, pending.get(i));
+            } else {
+                // poll holds reference to the socket, it has to be removed for close() to take effect
+                enqueuePollRemove(id);
+                doDisconnect(pending.get(i), DISCONNECT_SRC_IDLE);
+            }
+        }
+        pending.zapTop(count);
+    }
+
+    private boolean processRegistrations(long timestamp) {
+        long cursor;
+        boolean useful = false;
+        while ((cursor = interestSubSeq.next()) > -1) {
+            IOEvent<C> evt = interestQueue.get(cursor);
+            C context = evt.context;
+            int operation = evt.operation;
+            interestSubSeq.done(cursor);
+
+            final long fd = context.getFd();
+            final long id = fdid++;
+            LOG.debug().$("registered [fd=").$(fd).$(", op=").$(operation).$(", id=").$(id).$(']').$();
+
+            int r = pending.addRow();
+            pending.set(r, M_TIMESTAMP, timestamp);
+            pending.set(r, M_FD, fd);
+            pending.set(r, M_ID, id);
+            pending.set(r, M_OPERATION, enqueueInterest(context, fd, operation, id));
+            pending.set(r, context);
+            useful = true;
+        }
+        return useful;
+    }
+
+    @Override
+    protected void pendingAdded(int index) {
+        pending.set(index, M_ID, fdid++);
+    }
+
+    @Override
+    protected void registerListenerFd() {
+        if (listenerId == -1) {
+            listenerId = fdid++;
+            enqueuePoll(serverFd, IOOperation.READ, listenerId);
+        }
+    }
+
+    @Override
+    protected boolean runSerially() {
+        boolean useful = false;
+
+        final long timestamp = clock.getTicks();
+        processDisconnects(timestamp);
+        int watermark = pending.size();
+        while (ring.nextCqe()) {
+            final long id = ring.getCqeId();
+            final int res = ring.getCqeRes();
+            if (id == ID_REMOVE) {
+                continue;
+            }
+            if (cancelled.size() > 0) {
+                final int index = cancelled.keyIndex(id);
+                if (index < 0) {
+                    // buffer is no longer referenced by the kernel
+                    doDisconnect(cancelled.valueAtQuick(index), DISCONNECT_SRC_IDLE);
+                    cancelled.removeAt(index);
+                    useful = true;
+                    continue;
+                }
+            }
+            if (res == -ECANCELED) {
+                continue;
+            }
+            useful = true;
+            if (id == listenerId) {
+                // poll is one-shot, re-arm listener once we've accepted everything
+                listenerId = -1;
+                accept(timestamp);
+                if (isListening()) {
+                    registerListenerFd();
+                }
+                continue;
+            }
+
+            // find row in pending for two reasons:
+            // 1. find payload
+            // 2. remove row from pending, remaining rows will be timed out
+            int row = pending.binarySearch(id, M_ID);
+            if (row < 0) {
+                // connection has been timed out while poll was in flight
+                LOG.debug().$("poll completed for unknown id [id=").$(id).$(", res=").$(res).I$();
+                continue;
+            }
+
+            final C context = pending.get(row);
+            int operation = (int) pending.get(row, M_OPERATION);
+            if ((operation & RECV) != 0) {
+                if (res == -EAGAIN) {
+                    // kernel honoured O_NONBLOCK and completed recv without waiting, wait for readiness instead
+                    enqueuePoll(pending.get(row, M_FD), IOOperation.READ, id);
+                    pending.set(row, M_OPERATION, IOOperation.READ);
+                    continue;
+                }
+                ((IORecvContext) context).onRecv(res);
+                operation = IOOperation.READ;
+            }
+            publishOperation(operation, context);
+            pending.deleteRow(row);
+            watermark--;
+        }
+
+        // process rows over watermark
+        if (watermark < pending.size()) {
+            enqueuePending(watermark);
+        }
+
+        // process timed out connections
+        final long deadline = timestamp - idleConnectionTimeout;
+        if (pending.size() > 0 && pending.get(0, M_TIMESTAMP) < deadline) {
+            processIdleConnections(deadline);
+            useful = true;
+        }
+
+        useful |= processRegistrations(timestamp);
+        // single syscall for all polls, recvs and removals enqueued during this iteration
+        ring.submit();
+        return useful;
+    }
+
+    @Override
+    protected void unregisterListenerFd() {
+        if (listenerId != -1) {
+            enqueuePollRemove(listenerId);
+            listenerId = -1;
+        }
+    }
+}
@@ -24,9 +24,12 @@
 
 package io.questdb.network;
 
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
 import io.questdb.std.Os;
 
 public class IODispatchers {
+    private static final Log LOG = LogFactory.getLog(IODispatchers.class);
 
     private IODispatchers() {
     }
@@ -35,9 +38,18 @@ public class IODispatchers {
             IODispatcherConfiguration configuration,
             IOContextFactory<C> ioContextFactory
     ) {
+        // SO_REUSEPORT balances connections between listeners on Linux only,
+        // elsewhere we stay with the single dispatcher
+        final int dispatcherCount = configuration.getDispatcherCount();
+        if (dispatcherCount > 1 && Os.isLinux()) {
+            return new IODispatcherGroup<>(configuration, ioContextFactory, dispatcherCount);
+        }
         switch (Os.type) {
             case Os.LINUX_AMD64:
             case Os.LINUX_ARM64:
+                if (useIOURing(configuration)) {
+                    return new IODispatcherLinuxIOURing<>(configuration, ioContextFactory);
+                }
                 return new IODispatcherLinux<>(configuration, ioContextFactory);
             case Os.OSX_AMD64:
             case Os.OSX_ARM64:
@@ -49,4 +61,26 @@ public class IODispatchers {
                 throw new RuntimeException();
         }
     }
+
+    static <C extends IOContext> AbstractIODispatcher<C> createLinuxGroupMember(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory,
+            int bindPort,
+            int connectionLimit
+    ) {
+        if (useIOURing(configuration)) {
+            return new IODispatcherLinuxIOURing<>(configuration, ioContextFactory, bindPort, connectionLimit);
+        }
+        return new IODispatcherLinux<>(configuration, ioContextFactory, bindPort, connectionLimit);
+    }
+
+    private static boolean useIOURing(IODispatcherConfiguration configuration) {
+        if (configuration.isIOURingEnabled()) {
+            if (configuration.getIOURingFacade().isAvailable()) {
+                return true;
+            }
+            LOG.advisory().$("io_uring is not available, falling back to epoll [dispatcher=").$(configuration.getDispatcherLogName()).I$();
+        }
+        return false;
+    }
 }
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.network;
+
+/**
+ * Context that lets completion-based dispatchers receive on its behalf. Such dispatcher
+ * receives straight into the context's buffer instead of waiting for the socket to become
+ * readable, so that the worker handling READ event finds data already in place.
+ */
+public interface IORecvContext extends IOContext {
+
+    /**
+     * @return address the next received bytes are to be written to
+     */
+    long getRecvAddress();
+
+    /**
+     * @return number of bytes that can be received; 0 if the dispatcher should only wait for the socket to become readable
+     */
+    int getRecvSize();
+
+    /**
+     * Called by dispatcher thread before READ event is published.
+     *
+     * @param n number of received bytes; 0 or negative when peer has disconnected
+     */
+    void onRecv(int n);
+}
@@ -44,6 +44,7 @@ public final class Files {
     public static final char SEPARATOR;
     public static final int POSIX_FADV_SEQUENTIAL;
     public static final int POSIX_FADV_RANDOM;
+    public static final int POSIX_FADV_WILLNEED;
     public static final int FILES_RENAME_OK = 0;
     public static final int FILES_RENAME_ERR_EXDEV = 1;
     public static final int FILES_RENAME_ERR_OTHER = 2;
@@ -448,9 +449,12 @@ public final class Files {
         if (Os.type == Os.LINUX_AMD64 || Os.type == Os.LINUX_ARM64) {
             POSIX_FADV_RANDOM = getPosixFadvRandom();
             POSIX_FADV_SEQUENTIAL = getPosixFadvSequential();
+            // the value is the same across Linux architectures
+            POSIX_FADV_WILLNEED = 3;
         } else {
             POSIX_FADV_SEQUENTIAL = 0;
             POSIX_FADV_RANDOM = 0;
+            POSIX_FADV_WILLNEED = 0;
         }
     }
 }
@@ -33,8 +33,51 @@ public interface IOURing extends Closeable {
     @Override
     void close();
 
+    /**
+     * Enqueues one-shot poll on the given fd. Unlike reads, poll operations
+     * carry caller-provided user data, so that callers can correlate completions
+     * with their own registrations.
+     *
+     * @param fd       file descriptor to poll
+     * @param pollMask poll(2) event mask, e.g. POLLIN
+     * @param userData id to be returned in the cqe
+     * @return user data if the sqe was enqueued; -1 if submission queue is full.
+     */
+    long enqueuePoll(long fd, int pollMask, long userData);
+
+    /**
+     * Enqueues removal of previously enqueued poll. Removed poll completes with -ECANCELED.
+     *
+     * @param pollUserData user data of the poll to remove
+     * @param userData     id to be returned in the cqe of the removal itself
+     * @return user data if the sqe was enqueued; -1 if submission queue is full.
+     */
+    long enqueuePollRemove(long pollUserData, long userData);
+
+    /**
+     * Enqueues cancellation of previously enqueued operation. Cancelled operation
+     * completes with -ECANCELED, unless it has completed already.
+     *
+     * @param targetUserData user data of the operation to cancel
+     * @param userData       id to be returned in the cqe of the cancellation itself
+     * @return user data if the sqe was enqueued; -1 if submission queue is full.
+     */
+    long enqueueCancel(long targetUserData, long userData);
+
     long enqueueRead(long fd, long offset, long bufPtr, int len);
 
+    /**
+     * Enqueues recv(2) from the given socket. The cqe carries number of received bytes,
+     * 0 when peer has closed the connection, or negated errno.
+     *
+     * @param fd       socket to receive from
+     * @param bufPtr   address of the buffer, it must stay valid until the cqe is reaped
+     * @param len      buffer length
+     * @param userData id to be returned in the cqe
+     * @return user data if the sqe was enqueued; -1 if submission queue is full.
+     */
+    long enqueueRecv(long fd, long bufPtr, int len, long userData);
+
     long getCqeId();
 
     int getCqeRes();
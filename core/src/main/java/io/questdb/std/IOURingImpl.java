@@ -94,11 +94,70 @@ public class IOURingImpl implements IOURing {
         closed = true;
     }
 
+    @Override
+    public long enqueuePoll(long fd, int pollMask, long userData) {
+        final long sqeAddr = nextSqe();
+        if (sqeAddr == 0) {
+            return -1;
+        }
+        // poll sqes use fields that reads leave untouched, start from clean slate
+        Vect.memset(sqeAddr, SIZEOF_SQE, 0);
+        Unsafe.getUnsafe().putByte(sqeAddr + SQE_OPCODE_OFFSET, IORING_OP_POLL_ADD);
+        Unsafe.getUnsafe().putInt(sqeAddr + SQE_FD_OFFSET, (int) fd);
+        Unsafe.getUnsafe().putInt(sqeAddr + SQE_POLL_EVENTS_OFFSET, pollMask);
+        Unsafe.getUnsafe().putLong(sqeAddr + SQE_USER_DATA_OFFSET, userData);
+        return userData;
+    }
+
+    @Override
+    public long enqueuePollRemove(long pollUserData, long userData) {
+        final long sqeAddr = nextSqe();
+        if (sqeAddr == 0) {
+            return -1;
+        }
+        Vect.memset(sqeAddr, SIZEOF_SQE, 0);
+        Unsafe.getUnsafe().putByte(sqeAddr + SQE_OPCODE_OFFSET, IORING_OP_POLL_REMOVE);
+        Unsafe.getUnsafe().putInt(sqeAddr + SQE_FD_OFFSET, -1);
+        Unsafe.getUnsafe().putLong(sqeAddr + SQE_ADDR_OFFSET, pollUserData);
+        Unsafe.getUnsafe().putLong(sqeAddr + SQE_USER_DATA_OFFSET, userData);
+        return userData;
+    }
+
+    @Override
+    public long enqueueCancel(long targetUserData, long userData) {
+        final long sqeAddr = nextSqe();
+        if (sqeAddr == 0) {
+            return -1;
+        }
+        Vect.memset(sqeAddr, SIZEOF_SQE, 0);
+        Unsafe.getUnsafe().putByte(sqeAddr + SQE_OPCODE_OFFSET, IORING_OP_ASYNC_CANCEL);
+        Unsafe.getUnsafe().putInt(sqeAddr + SQE_FD_OFFSET, -1);
+        Unsafe.getUnsafe().putLong(sqeAddr + SQE_ADDR_OFFSET, targetUserData);
+        Unsafe.getUnsafe().putLong(sqeAddr + SQE_USER_DATA_OFFSET, userData);
+        return userData;
+    }
+
     @Override
     public long enqueueRead(long fd, long offset, long bufAddr, int len) {
         return enqueueSqe(IORING_OP_READ, fd, offset, bufAddr, len);
     }
 
+    @Override
+    public long enqueueRecv(long fd, long bufAddr, int len, long userData) {
+        final long sqeAddr = nextSqe();
+        if (sqeAddr == 0) {
+            return -1;
+        }
+        // msg_flags share rw_flags slot, zeroed here
+        Vect.memset(sqeAddr, SIZEOF_SQE, 0);
+        Unsafe.getUnsafe().putByte(sqeAddr + SQE_OPCODE_OFFSET, IORING_OP_RECV);
+        Unsafe.getUnsafe().putInt(sqeAddr + SQE_FD_OFFSET, (int) fd);
+        Unsafe.getUnsafe().putLong(sqeAddr + SQE_ADDR_OFFSET, bufAddr);
+        Unsafe.getUnsafe().putInt(sqeAddr + SQE_LEN_OFFSET, len);
+        Unsafe.getUnsafe().putLong(sqeAddr + SQE_USER_DATA_OFFSET, userData);
+        return userData;
+    }
+
     @Override
     public long getCqeId() {
         if (cachedIndex < cachedSize) {
@@ -160,6 +219,8 @@ public class IOURingImpl implements IOURing {
         if (sqeAddr == 0) {
             return -1;
         }
+        // poll sqes may have left rw_flags behind
+        Unsafe.getUnsafe().putInt(sqeAddr + SQE_POLL_EVENTS_OFFSET, 0);
         Unsafe.getUnsafe().putByte(sqeAddr + SQE_OPCODE_OFFSET, op);
         Unsafe.getUnsafe().putInt(sqeAddr + SQE_FD_OFFSET, (int) fd);
         Unsafe.getUnsafe().putLong(sqeAddr + SQE_OFF_OFFSET, offset);
@@ -27,7 +27,11 @@ package io.questdb.std;
 public class IOUringAccessor {
 
     static final byte IORING_OP_NOP = 0;
+    static final byte IORING_OP_POLL_ADD = 6;
+    static final byte IORING_OP_POLL_REMOVE = 7;
+    static final byte IORING_OP_ASYNC_CANCEL = 14;
     static final byte IORING_OP_READ = 22;
+    static final byte IORING_OP_RECV = 27;
 
     static final short RING_FD_OFFSET;
 
@@ -45,6 +49,7 @@ public class IOUringAccessor {
     static final short SQE_OFF_OFFSET;
     static final short SQE_ADDR_OFFSET;
     static final short SQE_LEN_OFFSET;
+    static final short SQE_POLL_EVENTS_OFFSET;
     static final short SQE_USER_DATA_OFFSET;
 
     static final short CQ_KHEAD_OFFSET;
@@ -75,6 +80,8 @@ public class IOUringAccessor {
         SQE_OFF_OFFSET = getSqeOffOffset();
         SQE_ADDR_OFFSET = getSqeAddrOffset();
         SQE_LEN_OFFSET = getSqeLenOffset();
+        // poll32_events shares the union with rw_flags, which immediately follows len in io_uring_sqe ABI
+        SQE_POLL_EVENTS_OFFSET = (short) (SQE_LEN_OFFSET + Integer.BYTES);
         SQE_USER_DATA_OFFSET = getSqeUserDataOffset();
 
         final short cqOffset = getCqOffset();
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.std;
+
+import io.questdb.cairo.CairoException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accounts native memory of query-scoped memory tags, see {@link MemoryTag#isQueryScoped(int)},
+ * allocated and released by the threads the accountant is bound to via {@link Unsafe#setMemoryAccountant(MemoryAccountant)}.
+ * Allocations that would take the accountant over its limit fail before any memory is allocated.
+ */
+public class MemoryAccountant {
+    private final AtomicLong used = new AtomicLong();
+    private final AtomicLong peak = new AtomicLong();
+    private long limit = Long.MAX_VALUE;
+
+    public void charge(long size) {
+        final long used = this.used.addAndGet(size);
+        if (size > 0) {
+            long peak;
+            while (used > (peak = this.peak.get()) && !this.peak.compareAndSet(peak, used)) {
+                // retry
+            }
+        }
+    }
+
+    public void checkLimit(long size) {
+        final long used = this.used.get();
+        if (size > 0 && used + size > limit) {
+            throw CairoException.nonCritical()
+                    .put("query memory limit exceeded [used=").put(used)
+                    .put(", requested=").put(size)
+                    .put(", limit=").put(limit)
+                    .put(']').setInterruption(true);
+        }
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the highest amount of memory used since the last reset
+     */
+    public long getPeak() {
+        return peak.get();
+    }
+
+    public long getUsed() {
+        return used.get();
+    }
+
+    public boolean isLimitExceeded() {
+        return used.get() > limit;
+    }
+
+    public void reset() {
+        used.set(0);
+        peak.set(0);
+    }
+
+    /**
+     * Sets the limit, non-positive values mean no limit.
+     *
+     * @param limit memory limit in bytes
+     */
+    public void setLimit(long limit) {
+        this.limit = limit > 0 ? limit : Long.MAX_VALUE;
+    }
+}
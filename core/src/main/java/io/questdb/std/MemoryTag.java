@@ -66,8 +66,23 @@ public final class MemoryTag {
     public static final int MMAP_SEQUENCER = 38;
     public static final int MMAP_PARALLEL_IMPORT = 39;
     public static final int NATIVE_PARALLEL_IMPORT = 40;
-    public static final int SIZE = NATIVE_PARALLEL_IMPORT + 1;
+    public static final int MMAP_SPILL = 41;
+    public static final int NATIVE_RESULT_CACHE = 42;
+    public static final int NATIVE_QUERY_LOG = 43;
+    public static final int SIZE = NATIVE_QUERY_LOG + 1;
     private static final ObjList<String> tagNameMap = new ObjList<>(SIZE);
+    private static final boolean[] queryScoped = new boolean[SIZE];
+
+    /**
+     * Query-scoped tags are used by structures that grow with the data a query processes. Their
+     * memory is charged to the {@link MemoryAccountant} bound to the allocating thread.
+     *
+     * @param tag memory tag
+     * @return true when the tag is query-scoped
+     */
+    public static boolean isQueryScoped(int tag) {
+        return queryScoped[tag];
+    }
 
     public static String nameOf(int tag) {
         return tagNameMap.getQuick(tag);
@@ -115,5 +130,17 @@ public final class MemoryTag {
         tagNameMap.extendAndSet(MMAP_SEQUENCER, "MMAP_SEQUENCER");
         tagNameMap.extendAndSet(MMAP_PARALLEL_IMPORT, "MMAP_PARALLEL_IMPORT");
         tagNameMap.extendAndSet(NATIVE_PARALLEL_IMPORT, "NATIVE_PARALLEL_IMPORT");
+        tagNameMap.extendAndSet(MMAP_SPILL, "MMAP_SPILL");
+        tagNameMap.extendAndSet(NATIVE_RESULT_CACHE, "NATIVE_RESULT_CACHE");
+        tagNameMap.extendAndSet(NATIVE_QUERY_LOG, "NATIVE_QUERY_LOG");
+
+        queryScoped[NATIVE_RECORD_CHAIN] = true;
+        queryScoped[NATIVE_TREE_CHAIN] = true;
+        queryScoped[NATIVE_COMPACT_MAP] = true;
+        queryScoped[NATIVE_FAST_MAP] = true;
+        queryScoped[NATIVE_FAST_MAP_LONG_LIST] = true;
+        queryScoped[NATIVE_SAMPLE_BY_LONG_LIST] = true;
+        queryScoped[NATIVE_LATEST_BY_LONG_LIST] = true;
+        queryScoped[NATIVE_ROSTI] = true;
     }
 }
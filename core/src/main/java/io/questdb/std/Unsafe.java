@@ -24,6 +24,7 @@
 
 package io.questdb.std;
 
+import io.questdb.cairo.CairoException;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.invoke.MethodHandles;
@@ -42,6 +43,10 @@ public final class Unsafe {
     public static final long LONG_OFFSET;
     public static final long LONG_SCALE;
     static final AtomicLong MEM_USED = new AtomicLong(0);
+    // updated by every query-scoped malloc, realloc and free, LongAdder keeps worker threads off a single contended cell
+    private static final LongAdder QUERY_MEM_USED = new LongAdder();
+    private static final java.lang.ThreadLocal<MemoryAccountant> MEMORY_ACCOUNTANT = new java.lang.ThreadLocal<>();
+    private static volatile long queryMemLimit = Long.MAX_VALUE;
     private static final sun.misc.Unsafe UNSAFE;
     private static final AtomicLong MALLOC_COUNT = new AtomicLong(0);
     private static final AtomicLong REALLOC_COUNT = new AtomicLong(0);
@@ -223,6 +228,40 @@ public final class Unsafe {
         return MEM_USED.get();
     }
 
+    public static MemoryAccountant getMemoryAccountant() {
+        return MEMORY_ACCOUNTANT.get();
+    }
+
+    /**
+     * Binds memory accountant to the current thread. Query-scoped allocations of the thread are
+     * charged to the accountant until another accountant, or null, is bound.
+     *
+     * @param accountant memory accountant, can be null
+     */
+    public static void setMemoryAccountant(MemoryAccountant accountant) {
+        MEMORY_ACCOUNTANT.set(accountant);
+    }
+
+    public static long getQueryMemLimit() {
+        return queryMemLimit;
+    }
+
+    /**
+     * Sets server-wide limit for memory of query-scoped memory tags, non-positive values mean no limit.
+     *
+     * @param limit memory limit in bytes
+     */
+    public static void setQueryMemLimit(long limit) {
+        queryMemLimit = limit > 0 ? limit : Long.MAX_VALUE;
+    }
+
+    /**
+     * @return approximate amount of query-scoped memory in use, the sum is not atomic with respect to concurrent updates
+     */
+    public static long getQueryMemUsed() {
+        return QUERY_MEM_USED.sum();
+    }
+
     public static long getMemUsedByTag(int memoryTag) {
         assert memoryTag >= 0 && memoryTag < MemoryTag.SIZE;
         return COUNTERS[memoryTag].sum();
@@ -233,9 +272,10 @@ public final class Unsafe {
     }
 
     public static long malloc(long size, int memoryTag) {
+        final MemoryAccountant accountant = checkQueryMemLimit(size, memoryTag);
         try {
             long ptr = getUnsafe().allocateMemory(size);
-            recordMemAlloc(size, memoryTag);
+            recordMemAlloc(size, memoryTag, accountant);
             MALLOC_COUNT.incrementAndGet();
             return ptr;
         } catch (OutOfMemoryError oom) {
@@ -246,9 +286,10 @@ public final class Unsafe {
     }
 
     public static long realloc(long address, long oldSize, long newSize, int memoryTag) {
+        final MemoryAccountant accountant = checkQueryMemLimit(newSize - oldSize, memoryTag);
         try {
             long ptr = getUnsafe().reallocateMemory(address, newSize);
-            recordMemAlloc(-oldSize + newSize, memoryTag);
+            recordMemAlloc(-oldSize + newSize, memoryTag, accountant);
             REALLOC_COUNT.incrementAndGet();
             return ptr;
         } catch (OutOfMemoryError oom) {
@@ -259,10 +300,48 @@ public final class Unsafe {
     }
 
     public static void recordMemAlloc(long size, int memoryTag) {
+        recordMemAlloc(size, memoryTag, MemoryTag.isQueryScoped(memoryTag) ? MEMORY_ACCOUNTANT.get() : null);
+    }
+
+    /**
+     * Checks query-scoped allocation against the global and the thread's accountant limits.
+     *
+     * @return accountant bound to the current thread, or null when there is none or the tag is not query-scoped
+     */
+    private static MemoryAccountant checkQueryMemLimit(long size, int memoryTag) {
+        if (!MemoryTag.isQueryScoped(memoryTag)) {
+            return null;
+        }
+        final long limit = queryMemLimit;
+        if (size > 0 && limit != Long.MAX_VALUE) {
+            // the sum is approximate under concurrent allocations, which is good enough for a soft limit
+            final long used = QUERY_MEM_USED.sum();
+            if (used + size > limit) {
+                throw CairoException.nonCritical()
+                        .put("global query memory limit exceeded [used=").put(used)
+                        .put(", requested=").put(size)
+                        .put(", limit=").put(limit)
+                        .put(']').setInterruption(true);
+            }
+        }
+        final MemoryAccountant accountant = MEMORY_ACCOUNTANT.get();
+        if (accountant != null && size > 0) {
+            accountant.checkLimit(size);
+        }
+        return accountant;
+    }
+
+    private static void recordMemAlloc(long size, int memoryTag, @Nullable MemoryAccountant accountant) {
         long mem = MEM_USED.addAndGet(size);
         assert mem >= 0;
         assert memoryTag >= 0 && memoryTag < MemoryTag.SIZE;
         COUNTERS[memoryTag].add(size);
+        if (MemoryTag.isQueryScoped(memoryTag)) {
+            QUERY_MEM_USED.add(size);
+            if (accountant != null) {
+                accountant.charge(size);
+            }
+        }
     }
 
     //most significant bit
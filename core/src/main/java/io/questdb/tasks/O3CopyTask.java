@@ -37,6 +37,7 @@ public class O3CopyTask extends AbstractLockable {
     private int blockType;
     private long timestampMergeIndexAddr;
     private long timestampMergeIndexSize;
+    private long dedupRowCount;
     private long srcDataFixFd;
     private long srcDataFixAddr;
     private long srcDataFixOffset;
@@ -94,6 +95,10 @@ public class O3CopyTask extends AbstractLockable {
         return columnType;
     }
 
+    public long getDedupRowCount() {
+        return dedupRowCount;
+    }
+
     public long getDstFixAddr() {
         return dstFixAddr;
     }
@@ -289,6 +294,7 @@ public class O3CopyTask extends AbstractLockable {
             int blockType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcDataFixFd,
             long srcDataFixAddr,
             long srcDataFixOffset,
@@ -340,6 +346,7 @@ public class O3CopyTask extends AbstractLockable {
         this.blockType = blockType;
         this.timestampMergeIndexAddr = timestampMergeIndexAddr;
         this.timestampMergeIndexSize = timestampMergeIndexSize;
+        this.dedupRowCount = dedupRowCount;
         this.srcDataFixFd = srcDataFixFd;
         this.srcDataFixAddr = srcDataFixAddr;
         this.srcDataFixOffset = srcDataFixOffset;
@@ -44,6 +44,7 @@ public class O3OpenColumnTask {
     private long srcTimestampSize;
     private long timestampMergeIndexAddr;
     private long timestampMergeIndexSize;
+    private long dedupRowCount;
     private long srcOooFixAddr;
     private long srcOooVarAddr;
     private long srcDataTop;
@@ -107,6 +108,10 @@ public class O3OpenColumnTask {
         return columnType;
     }
 
+    public long getDedupRowCount() {
+        return dedupRowCount;
+    }
+
     public BitmapIndexWriter getIndexWriter() {
         return indexWriter;
     }
@@ -256,6 +261,7 @@ public class O3OpenColumnTask {
             int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
+            long dedupRowCount,
             long srcOooFixAddr,
             long srcOooVarAddr,
             long srcOooLo,
@@ -300,6 +306,7 @@ public class O3OpenColumnTask {
         this.columnType = columnType;
         this.timestampMergeIndexAddr = timestampMergeIndexAddr;
         this.timestampMergeIndexSize = timestampMergeIndexSize;
+        this.dedupRowCount = dedupRowCount;
         this.srcOooFixAddr = srcOooFixAddr;
         this.srcOooVarAddr = srcOooVarAddr;
         this.srcOooLo = srcOooLo;
@@ -31,10 +31,15 @@ public class O3PartitionUpdateTask {
     private long srcOooPartitionLo;
     private long srcOooPartitionHi;
     private long srcDataMax;
+    private long dedupRowCount;
     private boolean partitionMutates;
 
     public static final ObjectFactory<O3PartitionUpdateTask> CONSTRUCTOR = O3PartitionUpdateTask::new;
 
+    public long getDedupRowCount() {
+        return dedupRowCount;
+    }
+
     public long getPartitionTimestamp() {
         return partitionTimestamp;
     }
@@ -60,12 +65,14 @@ public class O3PartitionUpdateTask {
             long srcOooPartitionLo,
             long srcOooPartitionHi,
             long srcDataMax,
+            long dedupRowCount,
             boolean partitionMutates
     ) {
         this.partitionTimestamp = oooTimestampHi;
         this.srcOooPartitionLo = srcOooPartitionLo;
         this.srcOooPartitionHi = srcOooPartitionHi;
         this.srcDataMax = srcDataMax;
+        this.dedupRowCount = dedupRowCount;
         this.partitionMutates = partitionMutates;
     }
 }
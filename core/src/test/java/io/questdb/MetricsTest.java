@@ -164,6 +164,12 @@ public class MetricsTest {
             return delegate.newVirtualGauge(name, provider);
         }
 
+        @Override
+        public Histogram newHistogram(CharSequence name, long[] bounds) {
+            addMetricName(name);
+            return delegate.newHistogram(name, bounds);
+        }
+
         @Override
         public void scrapeIntoPrometheus(CharSink sink) {
             delegate.scrapeIntoPrometheus(sink);
@@ -100,6 +100,18 @@ public class AbstractCairoTest {
     protected static RostiAllocFacade rostiAllocFacade = null;
     protected static int parallelImportStatusLogKeepNDays = -1;
     protected static Boolean ioURingEnabled = null;
+    protected static Boolean bloomFilterEnabled = null;
+    protected static Boolean latestByCacheEnabled = null;
+    protected static Boolean sqlResultCacheEnabled = null;
+    protected static Boolean sqlPlanCacheEnabled = null;
+    protected static Boolean enableParallelUpdate = null;
+    protected static Boolean asOfJoinIndexLookupEnabled = null;
+    protected static Integer sqlMaxConcurrentHeavyQueries = null;
+    protected static Integer sqlHeavyQueryFrameCount = null;
+    protected static Boolean snapshotIncrementalEnabled = null;
+    protected static Boolean sqlPageFramePrefetchEnabled = null;
+    protected static Boolean columnMappingCacheEnabled = null;
+    protected static Long sqlSpillThreshold = null;
 
     @Rule
     public TestName testName = new TestName();
@@ -181,6 +193,36 @@ public class AbstractCairoTest {
                 return snapshotInstanceId;
             }
 
+            @Override
+            public int getSqlHeavyQueryFrameCount() {
+                return sqlHeavyQueryFrameCount != null ? sqlHeavyQueryFrameCount : super.getSqlHeavyQueryFrameCount();
+            }
+
+            @Override
+            public int getSqlMaxConcurrentHeavyQueries() {
+                return sqlMaxConcurrentHeavyQueries != null ? sqlMaxConcurrentHeavyQueries : super.getSqlMaxConcurrentHeavyQueries();
+            }
+
+            @Override
+            public long getSqlSpillThreshold() {
+                return sqlSpillThreshold != null ? sqlSpillThreshold : super.getSqlSpillThreshold();
+            }
+
+            @Override
+            public boolean isColumnMappingCacheEnabled() {
+                return columnMappingCacheEnabled != null ? columnMappingCacheEnabled : super.isColumnMappingCacheEnabled();
+            }
+
+            @Override
+            public boolean isLatestByCacheEnabled() {
+                return latestByCacheEnabled != null ? latestByCacheEnabled : super.isLatestByCacheEnabled();
+            }
+
+            @Override
+            public boolean isSnapshotIncrementalEnabled() {
+                return snapshotIncrementalEnabled != null ? snapshotIncrementalEnabled : super.isSnapshotIncrementalEnabled();
+            }
+
             @Override
             public boolean isSnapshotRecoveryEnabled() {
                 return snapshotRecoveryEnabled == null ? super.isSnapshotRecoveryEnabled() : snapshotRecoveryEnabled;
@@ -323,6 +365,16 @@ public class AbstractCairoTest {
                 return columnVersionPurgeQueueCapacity < 0 ? super.getColumnPurgeQueueCapacity() : columnVersionPurgeQueueCapacity;
             }
 
+            @Override
+            public boolean isSqlAsOfJoinIndexLookupEnabled() {
+                return asOfJoinIndexLookupEnabled != null ? asOfJoinIndexLookupEnabled : super.isSqlAsOfJoinIndexLookupEnabled();
+            }
+
+            @Override
+            public boolean isSqlPageFramePrefetchEnabled() {
+                return sqlPageFramePrefetchEnabled != null ? sqlPageFramePrefetchEnabled : super.isSqlPageFramePrefetchEnabled();
+            }
+
             @Override
             public boolean isSqlParallelFilterEnabled() {
                 return enableParallelFilter != null ? enableParallelFilter : super.isSqlParallelFilterEnabled();
@@ -358,6 +410,11 @@ public class AbstractCairoTest {
                 return ioURingEnabled != null ? ioURingEnabled : super.isIOURingEnabled();
             }
 
+            @Override
+            public boolean isBloomFilterEnabled() {
+                return bloomFilterEnabled != null ? bloomFilterEnabled : super.isBloomFilterEnabled();
+            }
+
             @Override
             public int getSqlCopyBufferSize() {
                 return sqlCopyBufferSize;
@@ -372,6 +429,18 @@ public class AbstractCairoTest {
             public String getAttachPartitionSuffix() {
                 return attachableDirSuffix == null ? super.getAttachPartitionSuffix() : attachableDirSuffix;
             }
+            @Override
+            public boolean isSqlParallelUpdateEnabled() {
+                return enableParallelUpdate != null ? enableParallelUpdate : super.isSqlParallelUpdateEnabled();
+            }
+            @Override
+            public boolean isSqlPlanCacheEnabled() {
+                return sqlPlanCacheEnabled != null ? sqlPlanCacheEnabled : super.isSqlPlanCacheEnabled();
+            }
+            @Override
+            public boolean isSqlResultCacheEnabled() {
+                return sqlResultCacheEnabled != null ? sqlResultCacheEnabled : super.isSqlResultCacheEnabled();
+            }
         };
         metrics = Metrics.enabled();
         engine = new CairoEngine(configuration, metrics);
@@ -434,6 +503,18 @@ public class AbstractCairoTest {
         sqlCopyBufferSize = 1024 * 1024;
         ioURingFacade = IOURingFacadeImpl.INSTANCE;
         ioURingEnabled = null;
+        bloomFilterEnabled = null;
+        latestByCacheEnabled = null;
+        sqlResultCacheEnabled = null;
+        sqlPlanCacheEnabled = null;
+        enableParallelUpdate = null;
+        asOfJoinIndexLookupEnabled = null;
+        sqlMaxConcurrentHeavyQueries = null;
+        sqlHeavyQueryFrameCount = null;
+        sqlSpillThreshold = null;
+        snapshotIncrementalEnabled = null;
+        sqlPageFramePrefetchEnabled = null;
+        columnMappingCacheEnabled = null;
         parallelImportStatusLogKeepNDays = -1;
         defaultTableWriteMode = -1;
         copyPartitionOnAttach = null;
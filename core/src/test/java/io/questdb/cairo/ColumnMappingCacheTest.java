@@ -0,0 +1,230 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ColumnMappingCacheTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAcquireRelease() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x l from long_sequence(1000))");
+            final ColumnMappingCache cache = new ColumnMappingCache();
+            try (Path path = new Path()) {
+                path.of(configuration.getRoot()).concat("x").concat(TableUtils.DEFAULT_PARTITION_NAME);
+                TableUtils.dFile(path, "l", TableUtils.COLUMN_NAME_TXN_NONE);
+
+                final ColumnMappingCache.Mapping m1 = cache.acquire(FilesFacadeImpl.INSTANCE, 1, path, 4000);
+                final ColumnMappingCache.Mapping m2 = cache.acquire(FilesFacadeImpl.INSTANCE, 1, path, 2000);
+                Assert.assertSame(m1, m2);
+                Assert.assertEquals(1, cache.getMappingCount());
+
+                // same file of a different table id is not shared
+                final ColumnMappingCache.Mapping other = cache.acquire(FilesFacadeImpl.INSTANCE, 2, path, 4000);
+                Assert.assertNotSame(m1, other);
+                Assert.assertEquals(2, cache.getMappingCount());
+                cache.release(other);
+
+                // larger mapping does not invalidate the smaller one
+                final ColumnMappingCache.Mapping m3 = cache.acquire(FilesFacadeImpl.INSTANCE, 1, path, 8000);
+                Assert.assertNotSame(m1, m3);
+                Assert.assertEquals(2, cache.getMappingCount());
+                Assert.assertEquals(500, Unsafe.getUnsafe().getLong(m1.getAddress() + 499 * 8L));
+                Assert.assertEquals(1000, Unsafe.getUnsafe().getLong(m3.getAddress() + 999 * 8L));
+
+                cache.release(m1);
+                cache.release(m2);
+                Assert.assertEquals(1, cache.getMappingCount());
+
+                // subsequent requests share the largest mapping
+                final ColumnMappingCache.Mapping m4 = cache.acquire(FilesFacadeImpl.INSTANCE, 1, path, 4000);
+                Assert.assertSame(m3, m4);
+                cache.release(m3);
+                cache.release(m4);
+                Assert.assertEquals(0, cache.getMappingCount());
+            } finally {
+                cache.close();
+            }
+        });
+    }
+
+    @Test
+    public void testReadersShareMappings() throws Exception {
+        columnMappingCacheEnabled = true;
+        assertMemoryLeak(() -> {
+            createTable();
+            try (CairoEngine engine = new CairoEngine(configuration)) {
+                final ColumnMappingCache cache = engine.getColumnMappingCache();
+                Assert.assertNotNull(cache);
+
+                try (TableReader reader1 = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                    Assert.assertEquals(72, countRows(reader1));
+                    final long mappingCount = cache.getMappingCount();
+                    Assert.assertTrue(mappingCount > 0);
+
+                    try (TableReader reader2 = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                        Assert.assertNotSame(reader1, reader2);
+                        Assert.assertEquals(72, countRows(reader2));
+                        Assert.assertEquals(mappingCount, cache.getMappingCount());
+
+                        final int columnIndex = TableReader.getPrimaryColumnIndex(reader1.getColumnBase(0), 0);
+                        Assert.assertEquals(
+                                reader1.getColumn(columnIndex).getPageAddress(0),
+                                reader2.getColumn(columnIndex).getPageAddress(0)
+                        );
+                    }
+                }
+                engine.releaseAllReaders();
+                Assert.assertEquals(0, cache.getMappingCount());
+            }
+        });
+    }
+
+    @Test
+    public void testReloadAfterAppend() throws Exception {
+        columnMappingCacheEnabled = true;
+        assertMemoryLeak(() -> {
+            createTable();
+            try (
+                    CairoEngine engine = new CairoEngine(configuration);
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                final SqlExecutionContext executionContext = createExecutionContext(engine);
+                final ColumnMappingCache cache = engine.getColumnMappingCache();
+                Assert.assertNotNull(cache);
+
+                try (
+                        TableReader reader1 = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x");
+                        TableReader reader2 = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")
+                ) {
+                    Assert.assertEquals(72, countRows(reader1));
+                    Assert.assertEquals(72, countRows(reader2));
+                    final long mappingCount = cache.getMappingCount();
+
+                    compiler.compile("insert into x select concat('w', x) s, x l, timestamp_sequence('1970-01-03T23:30', 1000000L) ts from long_sequence(10)", executionContext);
+
+                    Assert.assertTrue(reader1.reload());
+                    Assert.assertEquals(82, countRows(reader1));
+                    // reader2 still holds mappings of the previous size
+                    Assert.assertTrue(cache.getMappingCount() > mappingCount);
+
+                    Assert.assertTrue(reader2.reload());
+                    Assert.assertEquals(82, countRows(reader2));
+                    Assert.assertEquals(mappingCount, cache.getMappingCount());
+                }
+
+                TestUtils.assertSql(
+                        compiler,
+                        executionContext,
+                        "select count(), min(s), max(s) from x where ts > '1970-01-03T23'",
+                        sink,
+                        "count\tmin\tmax\n" +
+                                "10\tw1\tw9\n"
+                );
+                engine.releaseAllReaders();
+                Assert.assertEquals(0, cache.getMappingCount());
+            }
+        });
+    }
+
+    @Test
+    public void testReloadAfterTruncate() throws Exception {
+        columnMappingCacheEnabled = true;
+        assertMemoryLeak(() -> {
+            createTable();
+            try (
+                    CairoEngine engine = new CairoEngine(configuration);
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                final SqlExecutionContext executionContext = createExecutionContext(engine);
+                try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                    Assert.assertEquals(72, countRows(reader));
+
+                    try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "test")) {
+                        writer.truncate();
+                    }
+                    compiler.compile("insert into x select concat('t', x) s, x l, timestamp_sequence(0, 3600000000L) ts from long_sequence(30)", executionContext);
+
+                    // partition files have been replaced, stale mappings must not be reused
+                    Assert.assertTrue(reader.reload());
+                    Assert.assertEquals(30, countRows(reader));
+                }
+
+                TestUtils.assertSql(
+                        compiler,
+                        executionContext,
+                        "select s, l from x limit 2",
+                        sink,
+                        "s\tl\n" +
+                                "t1\t1\n" +
+                                "t2\t2\n"
+                );
+                engine.releaseAllReaders();
+                Assert.assertEquals(0, engine.getColumnMappingCache().getMappingCount());
+            }
+        });
+    }
+
+    private static long countRows(TableReader reader) {
+        final RecordCursor cursor = reader.getCursor();
+        long count = 0;
+        while (cursor.hasNext()) {
+            count++;
+        }
+        return count;
+    }
+
+    private static SqlExecutionContext createExecutionContext(CairoEngine engine) {
+        return new SqlExecutionContextImpl(engine, 1).with(
+                AllowAllCairoSecurityContext.INSTANCE,
+                bindVariableService,
+                null,
+                -1,
+                null
+        );
+    }
+
+    private static void createTable() throws Exception {
+        compile(
+                "create table x as (" +
+                        "select concat('v', x) s, x l, timestamp_sequence(0, 3600000000L) ts from long_sequence(72)" +
+                        ") timestamp(ts) partition by DAY"
+        );
+        engine.clear();
+    }
+}
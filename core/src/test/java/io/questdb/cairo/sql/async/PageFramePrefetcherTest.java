@@ -0,0 +1,218 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ANY;
+
+public class PageFramePrefetcherTest extends AbstractGriffinTest {
+
+    @Test
+    public void testFadviseFallback() throws Exception {
+        final AtomicInteger adviseCount = new AtomicInteger();
+        ff = new FilesFacadeImpl() {
+            @Override
+            public void fadvise(long fd, long offset, long len, int advise) {
+                if (advise == Files.POSIX_FADV_WILLNEED) {
+                    Assert.assertTrue(len > 0);
+                    adviseCount.incrementAndGet();
+                }
+                super.fadvise(fd, offset, len, advise);
+            }
+        };
+        sqlPageFramePrefetchEnabled = true;
+        ioURingEnabled = false;
+        pageFrameMaxRows = 100;
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select x, rnd_str(4,4,0) s, timestamp_sequence(0, 1000000) ts from long_sequence(1000)" +
+                    ") timestamp(ts) partition by hour");
+            assertSql(
+                    "select count(), sum(x), count_distinct(s) from x where x % 2 = 0 and s is not null",
+                    "count\tsum\tcount_distinct\n" +
+                            "500\t250500\t500\n"
+            );
+            Assert.assertTrue(adviseCount.get() > 0);
+        });
+    }
+
+    @Test
+    public void testIOURing() throws Exception {
+        Assume.assumeTrue(configuration.getIOURingFacade().isAvailable());
+        ioURingEnabled = true;
+        assertMemoryLeak(() -> {
+            final long fileSize = 16 * Files.PAGE_SIZE;
+            try (Path path = new Path().of(root).concat("prefetch.d").$()) {
+                final FilesFacade ff = configuration.getFilesFacade();
+                final long fd = TableUtils.openRW(ff, path, LOG, configuration.getWriterFileOpenOpts());
+                try {
+                    Assert.assertTrue(ff.allocate(fd, fileSize));
+                    final TestPageFrame frame = new TestPageFrame();
+                    frame.ranges.add(fd, 0);
+                    frame.ranges.add(fileSize);
+
+                    try (PageFramePrefetcher prefetcher = new PageFramePrefetcher(configuration)) {
+                        for (int i = 0; i < 10; i++) {
+                            prefetcher.add(frame);
+                        }
+                        for (int i = 0; i < 10; i++) {
+                            prefetcher.prefetch(i);
+                        }
+                        Assert.assertTrue(prefetcher.isIOURingUsed());
+                        Assert.assertTrue(prefetcher.getInFlightCount() <= configuration.getSqlPageFramePrefetchBufferCount());
+
+                        prefetcher.clear();
+                        Assert.assertEquals(0, prefetcher.getInFlightCount());
+                    }
+                } finally {
+                    ff.close(fd);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testIOURingQuery() throws Exception {
+        sqlPageFramePrefetchEnabled = true;
+        ioURingEnabled = true;
+        pageFrameMaxRows = 100;
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select x, rnd_str(4,4,0) s, timestamp_sequence(0, 1000000) ts from long_sequence(1000)" +
+                    ") timestamp(ts) partition by hour");
+            final String expected = "count\tsum\tcount_distinct\n" +
+                    "500\t250500\t500\n";
+            final String sql = "select count(), sum(x), count_distinct(s) from x where x % 2 = 0 and s is not null";
+            assertSql(sql, expected);
+            // the second run reuses the prefetcher of the cached factory
+            assertSql(sql, expected);
+        });
+    }
+
+    @Test
+    public void testPrefetchLeadsDispatch() throws Exception {
+        sqlPageFramePrefetchEnabled = true;
+        ioURingEnabled = false;
+        pageFrameMaxRows = 100;
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select x, timestamp_sequence(0, 1000000) ts from long_sequence(10000)" +
+                    ") timestamp(ts) partition by hour");
+            final int prefetchFrameCount = configuration.getSqlPageFramePrefetchFrameCount();
+            try (RecordCursorFactory factory = compiler.compile("x where x % 2 = 0", sqlExecutionContext).getRecordCursorFactory()) {
+                final PageFrameSequence<?> frameSequence = factory.execute(sqlExecutionContext, new SCSequence(), ORDER_ANY);
+                try {
+                    final PageFramePrefetcher prefetcher = frameSequence.getPrefetcher();
+                    Assert.assertNotNull(prefetcher);
+                    final int frameCount = frameSequence.getFrameCount();
+                    Assert.assertTrue(frameCount > configuration.getPageFrameReduceQueueCapacity());
+
+                    int collectedCount = 0;
+                    while (collectedCount < frameCount) {
+                        final long cursor = frameSequence.next();
+                        if (cursor < 0) {
+                            continue;
+                        }
+                        // frames are requested from disk ahead of the last dispatched one
+                        final int dispatchHi = frameSequence.getDispatchStartFrameIndex();
+                        Assert.assertTrue(prefetcher.getRequestedFrameHi() >= Math.min(frameCount, dispatchHi + prefetchFrameCount - 1));
+                        collectedCount++;
+                        frameSequence.collect(cursor, false);
+                    }
+                } finally {
+                    frameSequence.await();
+                    Misc.free(frameSequence.getSymbolTableSource());
+                    frameSequence.clear();
+                }
+            }
+        });
+    }
+
+    private static class TestPageFrame implements PageFrame {
+        private final LongList ranges = new LongList();
+
+        @Override
+        public void copyColumnAddressesTo(LongList destColumnAddresses) {
+        }
+
+        @Override
+        public BitmapIndexReader getBitmapIndexReader(int columnIndex, int dirForward) {
+            return null;
+        }
+
+        @Override
+        public int getColumnShiftBits(int columnIndex) {
+            return 0;
+        }
+
+        @Override
+        public void getFileRanges(LongList ranges) {
+            ranges.add(this.ranges);
+        }
+
+        @Override
+        public long getIndexPageAddress(int columnIndex) {
+            return 0;
+        }
+
+        @Override
+        public long getPageAddress(int columnIndex) {
+            return 0;
+        }
+
+        @Override
+        public long getPageSize(int columnIndex) {
+            return 0;
+        }
+
+        @Override
+        public long getPartitionHi() {
+            return 0;
+        }
+
+        @Override
+        public int getPartitionIndex() {
+            return 0;
+        }
+
+        @Override
+        public long getPartitionLo() {
+            return 0;
+        }
+    }
+}
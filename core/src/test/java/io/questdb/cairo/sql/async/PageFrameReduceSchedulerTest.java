@@ -0,0 +1,127 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PageFrameReduceSchedulerTest extends AbstractGriffinTest {
+
+    @Test
+    public void testDispatchLimitSharedByPriority() {
+        final PageFrameReduceScheduler scheduler = new PageFrameReduceScheduler(configuration);
+        final int capacity = configuration.getPageFrameReduceQueueCapacity();
+
+        Assert.assertTrue(scheduler.admit(0, PageFrameReduceScheduler.PRIORITY_LOW, false));
+        // single query has the whole queue
+        Assert.assertEquals(capacity, scheduler.getDispatchLimit(0, PageFrameReduceScheduler.PRIORITY_LOW));
+
+        Assert.assertTrue(scheduler.admit(0, PageFrameReduceScheduler.PRIORITY_HIGH, false));
+        // weights are 1 and 4
+        Assert.assertEquals(capacity / 5, scheduler.getDispatchLimit(0, PageFrameReduceScheduler.PRIORITY_LOW));
+        Assert.assertEquals(capacity * 4 / 5, scheduler.getDispatchLimit(0, PageFrameReduceScheduler.PRIORITY_HIGH));
+
+        scheduler.release(0, PageFrameReduceScheduler.PRIORITY_HIGH, false);
+        Assert.assertEquals(capacity, scheduler.getDispatchLimit(0, PageFrameReduceScheduler.PRIORITY_LOW));
+        scheduler.release(0, PageFrameReduceScheduler.PRIORITY_LOW, false);
+    }
+
+    @Test
+    public void testHeavyQueryAdmission() {
+        sqlMaxConcurrentHeavyQueries = 1;
+        sqlHeavyQueryFrameCount = 10;
+        final PageFrameReduceScheduler scheduler = new PageFrameReduceScheduler(configuration);
+
+        Assert.assertFalse(scheduler.isHeavy(9));
+        Assert.assertTrue(scheduler.isHeavy(10));
+
+        Assert.assertTrue(scheduler.admit(0, PageFrameReduceScheduler.PRIORITY_NORMAL, true));
+        Assert.assertFalse(scheduler.admit(0, PageFrameReduceScheduler.PRIORITY_NORMAL, true));
+        // light queries are always admitted
+        Assert.assertTrue(scheduler.admit(0, PageFrameReduceScheduler.PRIORITY_NORMAL, false));
+        Assert.assertEquals(1, scheduler.getActiveHeavyQueries());
+
+        scheduler.release(0, PageFrameReduceScheduler.PRIORITY_NORMAL, true);
+        Assert.assertEquals(0, scheduler.getActiveHeavyQueries());
+        Assert.assertTrue(scheduler.admit(0, PageFrameReduceScheduler.PRIORITY_NORMAL, true));
+    }
+
+    @Test
+    public void testPriorityOf() {
+        Assert.assertEquals(PageFrameReduceScheduler.PRIORITY_LOW, PageFrameReduceScheduler.priorityOf("low"));
+        Assert.assertEquals(PageFrameReduceScheduler.PRIORITY_NORMAL, PageFrameReduceScheduler.priorityOf("Normal"));
+        Assert.assertEquals(PageFrameReduceScheduler.PRIORITY_HIGH, PageFrameReduceScheduler.priorityOf("HIGH"));
+        Assert.assertEquals(-1, PageFrameReduceScheduler.priorityOf("urgent"));
+    }
+
+    @Test
+    public void testThrottledHeavyQueryReducesLocally() throws Exception {
+        sqlMaxConcurrentHeavyQueries = 1;
+        sqlHeavyQueryFrameCount = 2;
+        pageFrameMaxRows = 100;
+        enableParallelFilter = true;
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select rnd_double() a, timestamp_sequence(0, 100000) t from long_sequence(2000)" +
+                    ") timestamp(t) partition by hour");
+
+            final String query = "x where a > 0.42";
+            final PageFrameReduceScheduler scheduler = engine.getMessageBus().getPageFrameReduceScheduler();
+            try (
+                    RecordCursorFactory f1 = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                    RecordCursorFactory f2 = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()
+            ) {
+                try (
+                        RecordCursor c1 = f1.getCursor(sqlExecutionContext);
+                        RecordCursor c2 = f2.getCursor(sqlExecutionContext)
+                ) {
+                    // the second query runs on the owner thread only
+                    Assert.assertEquals(1, scheduler.getActiveHeavyQueries());
+
+                    final StringSink sink1 = new StringSink();
+                    final StringSink sink2 = new StringSink();
+                    final Record r1 = c1.getRecord();
+                    final Record r2 = c2.getRecord();
+                    while (c1.hasNext()) {
+                        printer.print(r1, f1.getMetadata(), sink1);
+                        Assert.assertTrue(c2.hasNext());
+                        printer.print(r2, f2.getMetadata(), sink2);
+                    }
+                    Assert.assertFalse(c2.hasNext());
+                    Assert.assertTrue(sink1.length() > 0);
+                    TestUtils.assertEquals(sink1, sink2);
+                }
+            }
+            Assert.assertEquals(0, scheduler.getActiveHeavyQueries());
+        });
+    }
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.AbstractCairoTest;
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MemoryCARWSpillImplTest extends AbstractCairoTest {
+
+    @Test
+    public void testBelowThresholdStaysInMemory() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            sqlSpillThreshold = 1024 * 1024L;
+            try (MemoryCARWSpillImpl mem = new MemoryCARWSpillImpl(configuration, 4096, Integer.MAX_VALUE, MemoryTag.NATIVE_RECORD_CHAIN)) {
+                for (int i = 0; i < 1000; i++) {
+                    mem.putLong(i);
+                }
+                Assert.assertFalse(mem.isSpilled());
+                Assert.assertEquals(0, Unsafe.getMemUsedByTag(MemoryTag.MMAP_SPILL));
+            }
+        });
+    }
+
+    @Test
+    public void testSpillPreservesData() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            sqlSpillThreshold = 64 * 1024L;
+            final int n = 100_000;
+            try (MemoryCARWSpillImpl mem = new MemoryCARWSpillImpl(configuration, 4096, Integer.MAX_VALUE, MemoryTag.NATIVE_RECORD_CHAIN)) {
+                for (int pass = 0; pass < 2; pass++) {
+                    for (int i = 0; i < n; i++) {
+                        mem.putLong(i);
+                    }
+                    Assert.assertTrue(mem.isSpilled());
+                    Assert.assertTrue(Unsafe.getMemUsedByTag(MemoryTag.MMAP_SPILL) > 0);
+                    for (int i = 0; i < n; i++) {
+                        Assert.assertEquals(i, mem.getLong(i * 8L));
+                    }
+
+                    // memory is reusable after clear
+                    mem.clear();
+                    Assert.assertFalse(mem.isSpilled());
+                    Assert.assertEquals(0, Unsafe.getMemUsedByTag(MemoryTag.MMAP_SPILL));
+                    mem.jumpTo(0);
+                }
+            }
+            assertSpillDirEmpty();
+        });
+    }
+
+    private static void assertSpillDirEmpty() {
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (Path path = new Path()) {
+            path.of(configuration.getSqlSpillRoot()).$();
+            if (ff.exists(path)) {
+                ff.iterateDir(path, (pUtf8NameZ, type) -> Assert.assertFalse(type == Files.DT_FILE));
+            }
+        }
+    }
+}
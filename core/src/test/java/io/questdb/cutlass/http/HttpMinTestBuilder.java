@@ -31,6 +31,7 @@ import io.questdb.cutlass.http.processors.PrometheusMetricsProcessor;
 import io.questdb.cutlass.http.processors.QueryCache;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.metrics.PrometheusScrapeCache;
 import io.questdb.metrics.Scrapable;
 import io.questdb.mp.TestWorkerPool;
 import io.questdb.mp.WorkerPool;
@@ -43,6 +44,8 @@ public class HttpMinTestBuilder {
     private static final Log LOG = LogFactory.getLog(HttpMinTestBuilder.class);
     private TemporaryFolder temp;
     private Scrapable scrapable;
+    private long renderInterval;
+    private int sendBufferSize = 1024 * 1024;
 
     public HttpMinTestBuilder withTempFolder(TemporaryFolder temp) {
         this.temp = temp;
@@ -54,11 +57,22 @@ public class HttpMinTestBuilder {
         return this;
     }
 
+    public HttpMinTestBuilder withSendBufferSize(int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+        return this;
+    }
+
+    public HttpMinTestBuilder withRenderInterval(long renderInterval) {
+        this.renderInterval = renderInterval;
+        return this;
+    }
+
     public void run(HttpQueryTestBuilder.HttpClientCode code) throws Exception {
         assertMemoryLeak(() -> {
             final String baseDir = temp.getRoot().getAbsolutePath();
             final DefaultHttpServerConfiguration httpConfiguration = new HttpServerConfigurationBuilder()
                     .withBaseDir(temp.getRoot().getAbsolutePath())
+                    .withSendBufferSize(sendBufferSize)
                     .build();
 
             final WorkerPool workerPool = new TestWorkerPool(1);
@@ -67,12 +81,13 @@ public class HttpMinTestBuilder {
 
             try (
                     CairoEngine engine = new CairoEngine(cairoConfiguration, Metrics.disabled());
-                    HttpServer httpServer = new HttpServer(httpConfiguration, engine.getMessageBus(), Metrics.disabled(), workerPool, false)
+                    HttpServer httpServer = new HttpServer(httpConfiguration, engine.getMessageBus(), Metrics.disabled(), workerPool, false);
+                    PrometheusScrapeCache scrapeCache = new PrometheusScrapeCache(scrapable, renderInterval)
             ) {
                 httpServer.bind(new HttpRequestProcessorFactory() {
                     @Override
                     public HttpRequestProcessor newInstance() {
-                        return new PrometheusMetricsProcessor(scrapable);
+                        return new PrometheusMetricsProcessor(scrapeCache);
                     }
 
                     @Override
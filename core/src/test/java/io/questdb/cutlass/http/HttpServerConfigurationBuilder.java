@@ -23,6 +23,7 @@
  ******************************************************************************/
 package io.questdb.cutlass.http;
 
+import io.questdb.cairo.sql.async.PageFrameReduceScheduler;
 import io.questdb.cutlass.http.processors.JsonQueryProcessorConfiguration;
 import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
 import io.questdb.griffin.DefaultSqlExecutionCircuitBreakerConfiguration;
@@ -124,6 +125,11 @@ public class HttpServerConfigurationBuilder {
                 public long getMaxQueryResponseRowLimit() {
                     return configuredMaxQueryResponseRowLimit;
                 }
+
+                @Override
+                public int getQueryPriority() {
+                    return PageFrameReduceScheduler.PRIORITY_NORMAL;
+                }
             };
 
             @Override
@@ -29,8 +29,12 @@ import io.questdb.MessageBusImpl;
 import io.questdb.Metrics;
 import io.questdb.cairo.*;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
 import io.questdb.cutlass.NetUtils;
 import io.questdb.cutlass.http.processors.*;
+import io.questdb.griffin.DefaultSqlExecutionCircuitBreakerConfiguration;
 import io.questdb.griffin.SqlCompiler;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
@@ -2163,6 +2167,152 @@ public class IODispatcherTest {
         );
     }
 
+    @Test
+    public void testIOURingDispatcherReadEvents() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        assertMemoryLeak(() -> {
+            HttpServerConfiguration httpServerConfiguration = new DefaultHttpServerConfiguration();
+            SOCountDownLatch connectLatch = new SOCountDownLatch(1);
+            SOCountDownLatch firstReadLatch = new SOCountDownLatch(1);
+            SOCountDownLatch contextClosedLatch = new SOCountDownLatch(1);
+            AtomicInteger readCount = new AtomicInteger();
+
+            try (IODispatcher<HttpConnectionContext> dispatcher = IODispatchers.create(
+                    new DefaultIODispatcherConfiguration() {
+                        @Override
+                        public boolean isIOURingEnabled() {
+                            return true;
+                        }
+                    },
+                    (fd, dispatcher1) -> {
+                        connectLatch.countDown();
+                        return new HttpConnectionContext(httpServerConfiguration.getHttpContextConfiguration(), metrics) {
+                            @Override
+                            public void close() {
+                                if (getFd() != -1) {
+                                    contextClosedLatch.countDown();
+                                }
+                                super.close();
+                            }
+                        }.of(fd, dispatcher1);
+                    }
+            )) {
+                Assert.assertTrue(dispatcher instanceof IODispatcherLinuxIOURing);
+
+                AtomicBoolean serverRunning = new AtomicBoolean(true);
+                SOCountDownLatch serverHaltLatch = new SOCountDownLatch(1);
+                final long recvBuf = Unsafe.malloc(64, MemoryTag.NATIVE_DEFAULT);
+                new Thread(() -> {
+                    while (serverRunning.get()) {
+                        dispatcher.run(0);
+                        dispatcher.processIOQueue(
+                                (operation, context) -> {
+                                    Assert.assertEquals(IOOperation.READ, operation);
+                                    Net.recv(context.getFd(), recvBuf, 64);
+                                    if (readCount.incrementAndGet() == 1) {
+                                        // re-arm poll and wait for more data
+                                        firstReadLatch.countDown();
+                                        dispatcher.registerChannel(context, IOOperation.READ);
+                                    } else {
+                                        dispatcher.disconnect(context, IODispatcher.DISCONNECT_REASON_TEST);
+                                    }
+                                }
+                        );
+                    }
+                    serverHaltLatch.countDown();
+                }).start();
+
+                long fd = Net.socketTcp(true);
+                long sockAddr = Net.sockaddr("127.0.0.1", 9001);
+                final long sendBuf = Unsafe.malloc(1, MemoryTag.NATIVE_DEFAULT);
+                try {
+                    TestUtils.assertConnect(fd, sockAddr);
+                    connectLatch.await();
+                    Unsafe.getUnsafe().putByte(sendBuf, (byte) 'a');
+                    Assert.assertEquals(1, Net.send(fd, sendBuf, 1));
+                    firstReadLatch.await();
+                    Assert.assertEquals(1, Net.send(fd, sendBuf, 1));
+                    contextClosedLatch.await();
+                } finally {
+                    serverRunning.set(false);
+                    serverHaltLatch.await();
+                    Net.close(fd);
+                    Net.freeSockAddr(sockAddr);
+                    Unsafe.free(sendBuf, 1, MemoryTag.NATIVE_DEFAULT);
+                    Unsafe.free(recvBuf, 64, MemoryTag.NATIVE_DEFAULT);
+                }
+                Assert.assertEquals(2, readCount.get());
+                Assert.assertEquals(0, dispatcher.getConnectionCount());
+            }
+        });
+    }
+
+    @Test
+    public void testIOURingDispatcherRecvIdleTimeout() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        assertMemoryLeak(() -> {
+            SOCountDownLatch firstReadLatch = new SOCountDownLatch(1);
+            SOCountDownLatch contextClosedLatch = new SOCountDownLatch(1);
+            AtomicInteger readCount = new AtomicInteger();
+
+            try (IODispatcher<RecvContext> dispatcher = IODispatchers.create(
+                    new DefaultIODispatcherConfiguration() {
+                        @Override
+                        public long getTimeout() {
+                            return 200;
+                        }
+
+                        @Override
+                        public boolean isIOURingEnabled() {
+                            return true;
+                        }
+                    },
+                    (fd, dispatcher1) -> new RecvContext(fd, contextClosedLatch, dispatcher1)
+            )) {
+                AtomicBoolean serverRunning = new AtomicBoolean(true);
+                SOCountDownLatch serverHaltLatch = new SOCountDownLatch(1);
+                new Thread(() -> {
+                    while (serverRunning.get()) {
+                        dispatcher.run(0);
+                        dispatcher.processIOQueue(
+                                (operation, context) -> {
+                                    Assert.assertEquals(IOOperation.READ, operation);
+                                    // data is received by the dispatcher
+                                    Assert.assertEquals(1, context.received);
+                                    Assert.assertEquals('a', Unsafe.getUnsafe().getByte(context.buffer));
+                                    readCount.incrementAndGet();
+                                    firstReadLatch.countDown();
+                                    // leaves recv in flight until connection times out
+                                    dispatcher.registerChannel(context, IOOperation.READ);
+                                }
+                        );
+                    }
+                    serverHaltLatch.countDown();
+                }).start();
+
+                long fd = Net.socketTcp(true);
+                long sockAddr = Net.sockaddr("127.0.0.1", 9001);
+                final long sendBuf = Unsafe.malloc(1, MemoryTag.NATIVE_DEFAULT);
+                try {
+                    TestUtils.assertConnect(fd, sockAddr);
+                    Unsafe.getUnsafe().putByte(sendBuf, (byte) 'a');
+                    Assert.assertEquals(1, Net.send(fd, sendBuf, 1));
+                    firstReadLatch.await();
+                    // context is released once its recv is cancelled
+                    contextClosedLatch.await();
+                } finally {
+                    serverRunning.set(false);
+                    serverHaltLatch.await();
+                    Net.close(fd);
+                    Net.freeSockAddr(sockAddr);
+                    Unsafe.free(sendBuf, 1, MemoryTag.NATIVE_DEFAULT);
+                }
+                Assert.assertEquals(1, readCount.get());
+                Assert.assertEquals(0, dispatcher.getConnectionCount());
+            }
+        });
+    }
+
     @Test
     public void testJsonNullColumnType() throws Exception {
         testJsonQuery(0,
@@ -3206,6 +3356,102 @@ public class IODispatcherTest {
         );
     }
 
+    @Test
+    public void testJsonQueryMemoryLimitTripsAfterResume() throws Exception {
+        final String query = "select distinct x from t";
+        final AtomicLong queryMemoryLimit = new AtomicLong();
+        final SqlExecutionCircuitBreakerConfiguration circuitBreakerConfiguration = new DefaultSqlExecutionCircuitBreakerConfiguration() {
+            @Override
+            public long getQueryMemoryLimit() {
+                return queryMemoryLimit.get();
+            }
+        };
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(1)
+                // response is sent in many small chunks, distinct map keeps growing between them
+                .withHttpServerConfigBuilder(new HttpServerConfigurationBuilder()
+                        .withSendBufferSize(256)
+                        .withNetwork(new NetworkFacadeImpl() {
+                            private boolean park;
+
+                            @Override
+                            public int send(long fd, long buffer, int bufferLen) {
+                                // every other send finds socket buffer full, request is parked and resumed
+                                park = !park;
+                                return park ? 0 : super.send(fd, buffer, bufferLen);
+                            }
+                        })
+                )
+                .withTelemetry(false)
+                .run(new DefaultCairoConfiguration(temp.getRoot().getAbsolutePath()) {
+                    @Override
+                    public SqlExecutionCircuitBreakerConfiguration getCircuitBreakerConfiguration() {
+                        return circuitBreakerConfiguration;
+                    }
+                }, engine -> {
+                    final SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1);
+                    // find out how much memory the query takes in total and in the largest single allocation
+                    final long[] maxCharge = {0};
+                    final MemoryAccountant accountant = new MemoryAccountant() {
+                        @Override
+                        public void charge(long size) {
+                            maxCharge[0] = Math.max(maxCharge[0], size);
+                            super.charge(size);
+                        }
+                    };
+                    try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                        compiler.compile("create table t as (select x from long_sequence(200000))", executionContext);
+                        Unsafe.setMemoryAccountant(accountant);
+                        try (
+                                RecordCursorFactory factory = compiler.compile(query, executionContext).getRecordCursorFactory();
+                                RecordCursor cursor = factory.getCursor(executionContext)
+                        ) {
+                            while (cursor.hasNext()) {
+                                // drain the cursor
+                            }
+                        } finally {
+                            Unsafe.setMemoryAccountant(null);
+                        }
+                    }
+                    Assert.assertTrue(accountant.getPeak() > maxCharge[0]);
+                    // limit that only the memory accumulated across resumes can exceed
+                    queryMemoryLimit.set((accountant.getPeak() + maxCharge[0]) / 2);
+
+                    final NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
+                    final String request = "GET /query?query=" + query.replace(' ', '+') + " HTTP/1.1\r\n\r\n";
+                    final long fd = nf.socketTcp(true);
+                    final long ptr = Unsafe.malloc(1024, MemoryTag.NATIVE_DEFAULT);
+                    try {
+                        final long sockAddr = nf.sockaddr("127.0.0.1", 9001);
+                        try {
+                            TestUtils.assertConnect(nf, fd, sockAddr);
+                        } finally {
+                            nf.freeSockAddr(sockAddr);
+                        }
+                        Chars.asciiStrCpy(request, request.length(), ptr);
+                        Assert.assertEquals(request.length(), nf.send(fd, ptr, request.length()));
+
+                        final StringSink response = new StringSink();
+                        while (true) {
+                            final int n = nf.recv(fd, ptr, 1024);
+                            if (n < 0) {
+                                break;
+                            }
+                            for (int i = 0; i < n; i++) {
+                                response.put((char) Unsafe.getUnsafe().getByte(ptr + i));
+                            }
+                            // server must not finish the response
+                            Assert.assertFalse(Chars.endsWith(response, "\r\n00\r\n\r\n"));
+                        }
+                        TestUtils.assertContains(response, "HTTP/1.1 200 OK");
+                    } finally {
+                        Unsafe.free(ptr, 1024, MemoryTag.NATIVE_DEFAULT);
+                        nf.close(fd);
+                    }
+                });
+    }
+
     @Test
     public void testJsonQueryMiddleLimit() throws Exception {
         testJsonQuery(
@@ -3720,6 +3966,43 @@ public class IODispatcherTest {
                         "\r\n");
     }
 
+    @Test
+    public void testJsonQueryRollupIsNotServedStaleFromCache() throws Exception {
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(1)
+                .withHttpServerConfigBuilder(new HttpServerConfigurationBuilder())
+                .withTelemetry(false)
+                .run(engine -> {
+                    SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1);
+                    try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                        compiler.compile("create table ticks (ts timestamp, sym symbol, price double) timestamp(ts) partition by DAY", executionContext);
+                        TestUtils.insert(compiler, executionContext, "insert into ticks values ('1970-01-01T00:10:00.000000Z', 'a', 1)");
+                        compiler.compile("create rollup r as (select ts, sym, sum(price) total from ticks sample by 1h align to calendar)", executionContext);
+                        // a row only the rollup has tells whether the query has been answered from the rollup
+                        TestUtils.insert(compiler, executionContext, "insert into r values ('1970-01-01T02:00:00.000000Z', 'z', 42)");
+
+                        new SendAndReceiveRequestBuilder().executeWithStandardHeaders(
+                                "GET /query?query=select%20ts,%20sym,%20sum(price)%20total%20from%20ticks%20sample%20by%201h%20align%20to%20calendar HTTP/1.1\r\n",
+                                "012a\r\n" +
+                                        "{\"query\":\"select ts, sym, sum(price) total from ticks sample by 1h align to calendar\",\"columns\":[{\"name\":\"ts\",\"type\":\"TIMESTAMP\"},{\"name\":\"sym\",\"type\":\"SYMBOL\"},{\"name\":\"total\",\"type\":\"DOUBLE\"}],\"dataset\":[[\"1970-01-01T00:00:00.000000Z\",\"a\",1.0],[\"1970-01-01T02:00:00.000000Z\",\"z\",42.0]],\"count\":2}\r\n" +
+                                        "00\r\n" +
+                                        "\r\n"
+                        );
+
+                        // base table commit makes the rollup stale, cached query must not be answered from it again
+                        TestUtils.insert(compiler, executionContext, "insert into ticks values ('1970-01-01T01:10:00.000000Z', 'a', 2)");
+                        new SendAndReceiveRequestBuilder().executeWithStandardHeaders(
+                                "GET /query?query=select%20ts,%20sym,%20sum(price)%20total%20from%20ticks%20sample%20by%201h%20align%20to%20calendar HTTP/1.1\r\n",
+                                "0129\r\n" +
+                                        "{\"query\":\"select ts, sym, sum(price) total from ticks sample by 1h align to calendar\",\"columns\":[{\"name\":\"ts\",\"type\":\"TIMESTAMP\"},{\"name\":\"sym\",\"type\":\"SYMBOL\"},{\"name\":\"total\",\"type\":\"DOUBLE\"}],\"dataset\":[[\"1970-01-01T00:00:00.000000Z\",\"a\",1.0],[\"1970-01-01T01:00:00.000000Z\",\"a\",2.0]],\"count\":2}\r\n" +
+                                        "00\r\n" +
+                                        "\r\n"
+                        );
+                    }
+                });
+    }
+
     @Test
     public void testJsonQuerySelectAlterSelect() throws Exception {
         testJsonQuery0(1, engine -> {
@@ -4964,6 +5247,104 @@ public class IODispatcherTest {
         }, false);
     }
 
+    @Test
+    public void testMultipleDispatchersShareListenPort() throws Exception {
+        Assume.assumeTrue(Os.isLinux());
+        assertMemoryLeak(() -> {
+            final int clientCount = 8;
+            HttpServerConfiguration httpServerConfiguration = new DefaultHttpServerConfiguration();
+            SOCountDownLatch connectLatch = new SOCountDownLatch(clientCount);
+            SOCountDownLatch contextClosedLatch = new SOCountDownLatch(clientCount);
+
+            try (IODispatcher<HttpConnectionContext> dispatcher = IODispatchers.create(
+                    new DefaultIODispatcherConfiguration() {
+                        @Override
+                        public int getDispatcherCount() {
+                            return 2;
+                        }
+                    },
+                    (fd, dispatcher1) -> {
+                        connectLatch.countDown();
+                        return new HttpConnectionContext(httpServerConfiguration.getHttpContextConfiguration(), metrics) {
+                            @Override
+                            public void close() {
+                                if (getFd() != -1) {
+                                    contextClosedLatch.countDown();
+                                }
+                                super.close();
+                            }
+                        }.of(fd, dispatcher1);
+                    }
+            )) {
+                Assert.assertTrue(dispatcher instanceof IODispatcherGroup);
+                Assert.assertEquals(2, ((IODispatcherGroup<HttpConnectionContext>) dispatcher).getDispatcherCount());
+                Assert.assertEquals(9001, dispatcher.getPort());
+
+                HttpRequestProcessorSelector selector = new HttpRequestProcessorSelector() {
+                    @Override
+                    public HttpRequestProcessor select(CharSequence url) {
+                        return null;
+                    }
+
+                    @Override
+                    public HttpRequestProcessor getDefaultProcessor() {
+                        return new HttpRequestProcessor() {
+                        };
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+
+                AtomicBoolean serverRunning = new AtomicBoolean(true);
+                SOCountDownLatch serverHaltLatch = new SOCountDownLatch(2);
+
+                // one thread per dispatcher, each starts with a different member
+                for (int i = 0; i < 2; i++) {
+                    final int workerId = i;
+                    new Thread(() -> {
+                        while (serverRunning.get()) {
+                            dispatcher.run(workerId);
+                            dispatcher.processIOQueue(
+                                    (operation, context) -> context.handleClientOperation(operation, selector, EmptyRescheduleContext)
+                            );
+                        }
+                        serverHaltLatch.countDown();
+                    }).start();
+                }
+
+                final long[] fds = new long[clientCount];
+                long sockAddr = Net.sockaddr("127.0.0.1", 9001);
+                try {
+                    for (int i = 0; i < clientCount; i++) {
+                        fds[i] = Net.socketTcp(true);
+                        TestUtils.assertConnect(fds[i], sockAddr);
+                    }
+                    connectLatch.await();
+                    Assert.assertEquals(clientCount, dispatcher.getConnectionCount());
+                    Assert.assertTrue(dispatcher.isListening());
+
+                    for (int i = 0; i < clientCount; i++) {
+                        Assert.assertEquals(0, Net.close(fds[i]));
+                        fds[i] = -1;
+                    }
+                    contextClosedLatch.await();
+                } finally {
+                    serverRunning.set(false);
+                    serverHaltLatch.await();
+                    for (int i = 0; i < clientCount; i++) {
+                        if (fds[i] > 0) {
+                            Net.close(fds[i]);
+                        }
+                    }
+                    Net.freeSockAddr(sockAddr);
+                }
+                Assert.assertEquals(0, dispatcher.getConnectionCount());
+            }
+        });
+    }
+
     @Test
     public void testPostRequestToGetProcessor() throws Exception {
         testImport(
@@ -7490,6 +7871,58 @@ public class IODispatcherTest {
         }
     }
 
+    private static class RecvContext implements IORecvContext {
+        private final long fd;
+        private final long buffer = Unsafe.malloc(64, MemoryTag.NATIVE_DEFAULT);
+        private final SOCountDownLatch closeLatch;
+        private final IODispatcher<RecvContext> dispatcher;
+        private int received;
+
+        public RecvContext(long fd, SOCountDownLatch closeLatch, IODispatcher<RecvContext> dispatcher) {
+            this.fd = fd;
+            this.closeLatch = closeLatch;
+            this.dispatcher = dispatcher;
+        }
+
+        @Override
+        public void close() {
+            Unsafe.free(buffer, 64, MemoryTag.NATIVE_DEFAULT);
+            closeLatch.countDown();
+        }
+
+        @Override
+        public long getFd() {
+            return fd;
+        }
+
+        @Override
+        public boolean invalid() {
+            return false;
+        }
+
+        @Override
+        public IODispatcher<RecvContext> getDispatcher() {
+            return dispatcher;
+        }
+
+        @Override
+        public long getRecvAddress() {
+            return buffer + received;
+        }
+
+        @Override
+        public int getRecvSize() {
+            return 64 - received;
+        }
+
+        @Override
+        public void onRecv(int n) {
+            if (n > 0) {
+                received += n;
+            }
+        }
+    }
+
     static class Status {
         boolean valid;
     }
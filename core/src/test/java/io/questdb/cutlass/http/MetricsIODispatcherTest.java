@@ -26,7 +26,10 @@ package io.questdb.cutlass.http;
 
 import io.questdb.metrics.*;
 import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.std.Numbers;
 import io.questdb.std.str.CharSink;
+import io.questdb.std.str.StringSink;
+import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -102,6 +105,81 @@ public class MetricsIODispatcherTest {
                 });
     }
 
+    @Test
+    public void testPrometheusResponseLargerThanSendBuffer() throws Exception {
+        final int sendBufferSize = 4096;
+        final Scrapable metrics = sink -> {
+            for (int i = 0; i < 2000; i++) {
+                sink.put("questdb_test_series{id=\"").put(i).put("\"} ").put(i).put('\n');
+            }
+        };
+        final StringSink body = new StringSink();
+        metrics.scrapeIntoPrometheus(body);
+
+        // text goes out in 1KB slices, each chunk carries as many slices as fit send buffer
+        final StringSink expectedResponse = new StringSink();
+        expectedResponse.put("HTTP/1.1 200 OK\r\n" +
+                "Server: questDB/1.0\r\n" +
+                "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                "Transfer-Encoding: chunked\r\n" +
+                "Content-Type: text/plain; version=0.0.4; charset=utf-8\r\n" +
+                "\r\n");
+        for (int lo = 0, n = body.length(); lo < n; lo += sendBufferSize) {
+            final int hi = Math.min(lo + sendBufferSize, n);
+            Numbers.appendHex(expectedResponse, hi - lo);
+            expectedResponse.put("\r\n").put(body, lo, hi).put("\r\n");
+        }
+        expectedResponse.put("00\r\n\r\n");
+
+        new HttpMinTestBuilder()
+                .withTempFolder(temp)
+                .withScrapable(metrics)
+                .withSendBufferSize(sendBufferSize)
+                .run(engine -> new SendAndReceiveRequestBuilder()
+                        .withNetworkFacade(NetworkFacadeImpl.INSTANCE)
+                        .withExpectDisconnect(false)
+                        .withPrintOnly(false)
+                        .withRequestCount(3)
+                        .withPauseBetweenSendAndReceive(0)
+                        .execute(prometheusRequest, expectedResponse.toString()));
+    }
+
+    @Test
+    public void testPrometheusTextIsRenderedOncePerInterval() throws Exception {
+        final MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+        final Counter counter = metricsRegistry.newCounter("test_scrapes");
+
+        final String expectedResponse = "HTTP/1.1 200 OK\r\n" +
+                "Server: questDB/1.0\r\n" +
+                "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                "Transfer-Encoding: chunked\r\n" +
+                "Content-Type: text/plain; version=0.0.4; charset=utf-8\r\n" +
+                "\r\n" +
+                "48\r\n" +
+                "# TYPE questdb_test_scrapes_total counter\n" +
+                "questdb_test_scrapes_total 1\n" +
+                "\n" +
+                "\r\n" +
+                "00\r\n" +
+                "\r\n";
+
+        new HttpMinTestBuilder()
+                .withTempFolder(temp)
+                .withScrapable(sink -> {
+                    counter.inc();
+                    metricsRegistry.scrapeIntoPrometheus(sink);
+                })
+                .withRenderInterval(3_600_000)
+                .run(engine -> new SendAndReceiveRequestBuilder()
+                        .withNetworkFacade(NetworkFacadeImpl.INSTANCE)
+                        .withExpectDisconnect(false)
+                        .withPrintOnly(false)
+                        .withRequestCount(5)
+                        .withPauseBetweenSendAndReceive(0)
+                        .execute(prometheusRequest, expectedResponse));
+        Assert.assertEquals(1, counter.getValue());
+    }
+
     private static class TestMetrics implements Scrapable {
         private static final short QUERY_CANCELLED = 0;
         private static final short SYNTAX_ERROR = 1;
@@ -53,6 +53,7 @@ import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
 import org.junit.After;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -64,6 +65,7 @@ import java.security.interfaces.ECPrivateKey;
 import java.security.interfaces.ECPublicKey;
 import java.util.Base64;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import static io.questdb.cutlass.line.tcp.AuthDb.EC_ALGORITHM;
@@ -323,6 +325,48 @@ public class LineTcpReceiverTest extends AbstractLineTcpReceiverTest {
         test(AUTH_KEY_ID1, AUTH_PRIVATE_KEY1, 768, 1_000, false);
     }
 
+    @Test
+    public void testIOURingDispatcherReceivesForWorkers() throws Exception {
+        Assume.assumeTrue(new IOURingFacadeImpl().isAvailable());
+        final AtomicInteger recvCalls = countRecvCalls();
+        ioURingEnabled = true;
+        test(AUTH_KEY_ID1, AUTH_PRIVATE_KEY1, 768, 1_000, false);
+        // workers find received data in place, recv() is submitted by the dispatcher in batches
+        Assert.assertEquals(0, recvCalls.get());
+    }
+
+    @Test
+    public void testIngestionStats() throws Exception {
+        assertMemoryLeak(() -> {
+            try (SqlCompiler compiler = new SqlCompiler(engine);
+                 SqlExecutionContext sqlExecutionContext = new SqlExecutionContextImpl(engine, 1)
+                         .with(
+                                 AllowAllCairoSecurityContext.INSTANCE,
+                                 new BindVariableServiceImpl(configuration),
+                                 null,
+                                 -1,
+                                 null)) {
+                runInContext((receiver) -> {
+                    String lineData =
+                            "stats v=1.0 631150000000000000\n" +
+                                    "stats v=2.0 631160000000000000\n" +
+                                    "stats v=3.0 631140000000000000\n";
+                    sendLinger(receiver, lineData, "stats");
+
+                    // writer stays in the engine pool, so the table is still listed
+                    TestUtils.assertSql(
+                            compiler,
+                            sqlExecutionContext,
+                            "select table, writer_thread, committed_rows, o3_rows, uncommitted_rows, ingested_bytes > 0 from table_ingestion_stats() where table = 'stats'",
+                            sink,
+                            "table\twriter_thread\tcommitted_rows\to3_rows\tuncommitted_rows\tcolumn\n" +
+                                    "stats\t0\t3\t1\t0\ttrue\n"
+                    );
+                });
+            }
+        });
+    }
+
     @Test(expected = LineSenderException.class)
     public void testInvalidSignature() throws Exception {
         test(AUTH_KEY_ID1, AUTH_PRIVATE_KEY2, 768, 6_000, true);
@@ -823,6 +867,14 @@ public class LineTcpReceiverTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testWorkersReceiveWithoutIOURing() throws Exception {
+        final AtomicInteger recvCalls = countRecvCalls();
+        test(AUTH_KEY_ID1, AUTH_PRIVATE_KEY1, 768, 1_000, false);
+        // readiness based dispatchers leave recv() to workers, one syscall per READ event at least
+        Assert.assertTrue(recvCalls.get() > 0);
+    }
+
     @Test
     public void testWriter17Fields() throws Exception {
         maxMeasurementSize = 1024;
@@ -1016,6 +1068,18 @@ public class LineTcpReceiverTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    private AtomicInteger countRecvCalls() {
+        final AtomicInteger recvCalls = new AtomicInteger();
+        nf = new NetworkFacadeImpl() {
+            @Override
+            public int recv(long fd, long buffer, int bufferLen) {
+                recvCalls.incrementAndGet();
+                return super.recv(fd, buffer, bufferLen);
+            }
+        };
+        return recvCalls;
+    }
+
     private void send(LineTcpReceiver receiver, String lineData, String tableName, int wait) {
         send(receiver, tableName, wait, () -> sendToSocket(lineData));
     }
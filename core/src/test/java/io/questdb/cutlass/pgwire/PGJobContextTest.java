@@ -39,6 +39,7 @@ import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContextImpl;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.metrics.Histogram;
 import io.questdb.mp.SOCountDownLatch;
 import io.questdb.mp.WorkerPool;
 import io.questdb.network.NetworkFacade;
@@ -4513,6 +4514,27 @@ nodejs code:
         });
     }
 
+    @Test
+    public void testPreparedStatementsRecordExecuteTime() throws Exception {
+        assertWithPgServer(CONN_AWARE_ALL, (connection, binary) -> {
+            final Histogram executeTime = metrics.pgWire().executeTimeHistogram();
+            final long executeCount = executeTime.getCount();
+            try (PreparedStatement statement = connection.prepareStatement("select x from long_sequence(10)")) {
+                for (int i = 0; i < 3; i++) {
+                    try (ResultSet rs = statement.executeQuery()) {
+                        int count = 0;
+                        while (rs.next()) {
+                            count++;
+                        }
+                        assertEquals(10, count);
+                    }
+                }
+            }
+            // statement may come from the cache, but every execution is timed
+            assertTrue(executeTime.getCount() >= executeCount + 3);
+        });
+    }
+
     @Test
     public void testPythonInsertDateSelectHex() throws Exception {
         String script = ">0000000804d2162f\n" +
@@ -92,6 +92,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getBindVariablePoolSize();
     }
 
+    @Override
+    public int getBloomFilterBitsPerValue() {
+        return conf.getBloomFilterBitsPerValue();
+    }
+
     @Override
     public BuildInformation getBuildInformation() {
         return conf.getBuildInformation();
@@ -222,6 +227,81 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getDefaultSymbolCapacity();
     }
 
+    @Override
+    public int getQueryLogCapacity() {
+        return conf.getQueryLogCapacity();
+    }
+
+    @Override
+    public int getQueryLogSqlTextMaxLength() {
+        return conf.getQueryLogSqlTextMaxLength();
+    }
+
+    @Override
+    public int getSqlHeavyQueryFrameCount() {
+        return conf.getSqlHeavyQueryFrameCount();
+    }
+
+    @Override
+    public int getSqlMaxConcurrentHeavyQueries() {
+        return conf.getSqlMaxConcurrentHeavyQueries();
+    }
+
+    @Override
+    public int getSqlPageFramePrefetchBufferCount() {
+        return conf.getSqlPageFramePrefetchBufferCount();
+    }
+
+    @Override
+    public int getSqlPageFramePrefetchBufferSize() {
+        return conf.getSqlPageFramePrefetchBufferSize();
+    }
+
+    @Override
+    public int getSqlPageFramePrefetchFrameCount() {
+        return conf.getSqlPageFramePrefetchFrameCount();
+    }
+
+    @Override
+    public int getSqlPlanCacheCapacity() {
+        return conf.getSqlPlanCacheCapacity();
+    }
+
+    @Override
+    public int getSqlPlanCachePoolCapacity() {
+        return conf.getSqlPlanCachePoolCapacity();
+    }
+
+    @Override
+    public long getSqlResultCacheEntryMaxSize() {
+        return conf.getSqlResultCacheEntryMaxSize();
+    }
+
+    @Override
+    public long getSqlResultCacheMemorySize() {
+        return conf.getSqlResultCacheMemorySize();
+    }
+
+    @Override
+    public int getSqlResultCachePageSize() {
+        return conf.getSqlResultCachePageSize();
+    }
+
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return conf.getSqlSpillRoot();
+    }
+
+    @Override
+    public long getSqlSpillThreshold() {
+        return conf.getSqlSpillThreshold();
+    }
+
+    @Override
+    public int getUpdateColumnQueueCapacity() {
+        return conf.getUpdateColumnQueueCapacity();
+    }
+
     @Override
     public boolean getWallEnabledDefault() {
         return conf.getWallEnabledDefault();
@@ -772,6 +852,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getWriterTickRowsCountMod();
     }
 
+    @Override
+    public boolean isColumnMappingCacheEnabled() {
+        return conf.isColumnMappingCacheEnabled();
+    }
+
+    @Override
+    public boolean isLatestByCacheEnabled() {
+        return conf.isLatestByCacheEnabled();
+    }
+
     @Override
     public boolean isO3QuickSortEnabled() {
         return conf.isO3QuickSortEnabled();
@@ -782,16 +872,31 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.isParallelIndexingEnabled();
     }
 
+    @Override
+    public boolean isSnapshotIncrementalEnabled() {
+        return conf.isSnapshotIncrementalEnabled();
+    }
+
     @Override
     public boolean isSnapshotRecoveryEnabled() {
         return conf.isSnapshotRecoveryEnabled();
     }
 
+    @Override
+    public boolean isSqlAsOfJoinIndexLookupEnabled() {
+        return conf.isSqlAsOfJoinIndexLookupEnabled();
+    }
+
     @Override
     public boolean isSqlJitDebugEnabled() {
         return conf.isSqlJitDebugEnabled();
     }
 
+    @Override
+    public boolean isSqlPageFramePrefetchEnabled() {
+        return conf.isSqlPageFramePrefetchEnabled();
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return conf.isSqlParallelFilterEnabled();
@@ -807,6 +912,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSqlCopyLogRetentionDays();
     }
 
+    @Override
+    public boolean isBloomFilterEnabled() {
+        return conf.isBloomFilterEnabled();
+    }
+
     @Override
     public boolean isIOURingEnabled() {
         return conf.isIOURingEnabled();
@@ -816,4 +926,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
     public int getMaxCrashFiles() {
         return conf.getMaxCrashFiles();
     }
+    @Override
+    public boolean isSqlParallelUpdateEnabled() {
+        return conf.isSqlParallelUpdateEnabled();
+    }
+    @Override
+    public boolean isSqlPlanCacheEnabled() {
+        return conf.isSqlPlanCacheEnabled();
+    }
+    @Override
+    public boolean isSqlResultCacheEnabled() {
+        return conf.isSqlResultCacheEnabled();
+    }
 }
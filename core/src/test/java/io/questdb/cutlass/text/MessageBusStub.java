@@ -26,6 +26,7 @@ package io.questdb.cutlass.text;
 
 import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.async.PageFrameReduceScheduler;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.mp.*;
 import io.questdb.tasks.*;
@@ -184,6 +185,11 @@ public class MessageBusStub implements MessageBus {
         return 0;
     }
 
+    @Override
+    public PageFrameReduceScheduler getPageFrameReduceScheduler() {
+        return null;
+    }
+
     @Override
     public MCSequence getPageFrameReduceSubSeq(int shard) {
         return null;
@@ -263,4 +269,19 @@ public class MessageBusStub implements MessageBus {
     public Sequence getTextImportRequestSubSeq() {
         return null;
     }
+
+    @Override
+    public MPSequence getUpdateColumnPubSeq() {
+        return null;
+    }
+
+    @Override
+    public RingQueue<UpdateColumnTask> getUpdateColumnQueue() {
+        return null;
+    }
+
+    @Override
+    public MCSequence getUpdateColumnSubSeq() {
+        return null;
+    }
 }
@@ -24,6 +24,10 @@
 
 package io.questdb.griffin;
 
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.join.AsOfJoinIndexedRecordCursorFactory;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
 import org.junit.Test;
 
 
@@ -743,4 +747,45 @@ public class AsOfJoinTest extends AbstractGriffinTest {
             printSqlResult(expected, query, "ts", false, true);
         });
     }
+
+    @Test
+    public void testAsOfJoinIndexLookupMatchesScan() throws Exception {
+        testIndexLookupMatchesScan("asof");
+    }
+
+    @Test
+    public void testLtJoinIndexLookupMatchesScan() throws Exception {
+        testIndexLookupMatchesScan("lt");
+    }
+
+    private void testIndexLookupMatchesScan(String joinType) throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table quotes as (" +
+                    "select rnd_symbol('AA', 'BB', 'CC', 'DD', null) sym, x bid, timestamp_sequence(3600000000, 600000000) ts" +
+                    " from long_sequence(1000)" +
+                    ") timestamp(ts) partition by hour");
+            compile("alter table quotes alter column sym add index");
+            // sparse master with keys that are missing from the slave and a row before the first quote
+            compile("create table orders as (" +
+                    "select rnd_symbol('AA', 'BB', 'CC', 'DD', 'EE', null) sym, x id, timestamp_sequence(0, 17000000000) ts" +
+                    " from long_sequence(40)" +
+                    ") timestamp(ts)");
+
+            final String query = "select o.id, o.sym, q.sym, q.bid, o.ts, q.ts from orders o " + joinType + " join quotes q on (sym)";
+
+            asOfJoinIndexLookupEnabled = false;
+            final StringSink expected = new StringSink();
+            TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+
+            asOfJoinIndexLookupEnabled = true;
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                final PlanSink planSink = new PlanSink();
+                factory.toPlan(planSink);
+                TestUtils.assertContains(planSink.getText(), AsOfJoinIndexedRecordCursorFactory.class.getName());
+            }
+            final StringSink actual = new StringSink();
+            TestUtils.printSql(compiler, sqlExecutionContext, query, actual);
+            TestUtils.assertEquals(expected, actual);
+        });
+    }
 }
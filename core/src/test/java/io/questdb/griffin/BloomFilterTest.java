@@ -0,0 +1,260 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.BloomFilterReader;
+import io.questdb.cairo.BloomFilterUtils;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.str.Path;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BloomFilterTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp() {
+        bloomFilterEnabled = true;
+        super.setUp();
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        bloomFilterEnabled = false;
+        assertMemoryLeak(() -> {
+            createTable();
+            assertPartitionFilter("1970-01-01", "s", false);
+            assertSql(
+                    "select s, ts from x where s = 'v30'",
+                    "s\tts\n" +
+                            "v30\t1970-01-02T05:00:00.000000Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testFiltersWrittenForSealedPartitionsOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertPartitionFilter("1970-01-01", "s", true);
+            assertPartitionFilter("1970-01-01", "sym", true);
+            assertPartitionFilter("1970-01-02", "s", true);
+            assertPartitionFilter("1970-01-02", "sym", true);
+            // last partition is still mutable
+            assertPartitionFilter("1970-01-03", "s", false);
+            assertPartitionFilter("1970-01-03", "sym", false);
+            // indexed symbols and other types are not filtered
+            assertPartitionFilter("1970-01-01", "isym", false);
+            assertPartitionFilter("1970-01-01", "l", false);
+
+            try (
+                    TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x");
+                    BloomFilterReader filter = new BloomFilterReader()
+            ) {
+                final int stringIndex = reader.getMetadata().getColumnIndex("s");
+                Assert.assertTrue(reader.openBloomFilter(0, stringIndex, filter));
+                for (int i = 1; i <= 24; i++) {
+                    Assert.assertTrue(filter.mightContain(BloomFilterUtils.hash("v" + i)));
+                }
+                Assert.assertFalse(filter.mightContain(BloomFilterUtils.hash("v30")));
+
+                final int symbolIndex = reader.getMetadata().getColumnIndex("sym");
+                final StaticSymbolTable symbolTable = reader.getSymbolMapReader(symbolIndex);
+                Assert.assertTrue(reader.openBloomFilter(1, symbolIndex, filter));
+                Assert.assertTrue(filter.mightContain(BloomFilterUtils.hash(symbolTable.keyOf("k1"))));
+                Assert.assertFalse(filter.mightContain(BloomFilterUtils.hash(symbolTable.keyOf("k0"))));
+
+                Assert.assertFalse(reader.openBloomFilter(2, stringIndex, filter));
+            }
+        });
+    }
+
+    @Test
+    public void testFilterRebuiltAfterO3() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            executeInsert("insert into x values ('new', 'new', 'k0', 100, '1970-01-01T10:30:00.000000Z')");
+
+            try (
+                    TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x");
+                    BloomFilterReader filter = new BloomFilterReader()
+            ) {
+                Assert.assertTrue(reader.openBloomFilter(0, reader.getMetadata().getColumnIndex("s"), filter));
+                Assert.assertTrue(filter.mightContain(BloomFilterUtils.hash("new")));
+            }
+
+            assertSql(
+                    "select s, sym, ts from x where s = 'new'",
+                    "s\tsym\tts\n" +
+                            "new\tnew\t1970-01-01T10:30:00.000000Z\n"
+            );
+            assertSql(
+                    "select s, sym, ts from x where sym = 'new'",
+                    "s\tsym\tts\n" +
+                            "new\tnew\t1970-01-01T10:30:00.000000Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testFilterRebuiltWhenPartitionSealed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            executeInsert("insert into x values ('next', 'next', 'k3', 100, '1970-01-04T00:00:00.000000Z')");
+            assertPartitionFilter("1970-01-03", "s", true);
+            assertPartitionFilter("1970-01-04", "s", false);
+            assertSql(
+                    "select s, ts from x where s in ('v50', 'next')",
+                    "s\tts\n" +
+                            "v50\t1970-01-03T01:00:00.000000Z\n" +
+                            "next\t1970-01-04T00:00:00.000000Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSelectBackward() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql(
+                    "select s, sym, ts from x where sym in ('k0', 'k2') and l > 47 order by ts desc limit 3",
+                    "s\tsym\tts\n" +
+                            "v72\tk2\t1970-01-03T23:00:00.000000Z\n" +
+                            "v71\tk2\t1970-01-03T22:00:00.000000Z\n" +
+                            "v70\tk2\t1970-01-03T21:00:00.000000Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSelectBindVariable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            bindVariableService.clear();
+            bindVariableService.setStr(0, "v30");
+            assertSql(
+                    "select s, ts from x where s = $1",
+                    "s\tts\n" +
+                            "v30\t1970-01-02T05:00:00.000000Z\n"
+            );
+            bindVariableService.setStr(0, "v3");
+            assertSql(
+                    "select s, ts from x where s = $1",
+                    "s\tts\n" +
+                            "v3\t1970-01-01T02:00:00.000000Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSelectNull() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            executeInsert("insert into x values (null, null, null, 100, '1970-01-03T12:30:00.000000Z')");
+            assertSql(
+                    "select s, sym, ts from x where s = null or sym in (null, 'k7')",
+                    "s\tsym\tts\n" +
+                            "\t\t1970-01-03T12:30:00.000000Z\n"
+            );
+            assertSql(
+                    "select s, sym, ts from x where sym in (null, 'k7')",
+                    "s\tsym\tts\n" +
+                            "\t\t1970-01-03T12:30:00.000000Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSelectString() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql(
+                    "select s, ts from x where s = 'v30'",
+                    "s\tts\n" +
+                            "v30\t1970-01-02T05:00:00.000000Z\n"
+            );
+            assertSql(
+                    "select s, ts from x where 'v30' = s and l > 0",
+                    "s\tts\n" +
+                            "v30\t1970-01-02T05:00:00.000000Z\n"
+            );
+            assertSql(
+                    "select s, ts from x where s in ('v2', 'v71', 'none')",
+                    "s\tts\n" +
+                            "v2\t1970-01-01T01:00:00.000000Z\n" +
+                            "v71\t1970-01-03T22:00:00.000000Z\n"
+            );
+            assertSql("select s, ts from x where s = 'none'", "s\tts\n");
+        });
+    }
+
+    @Test
+    public void testSelectSymbol() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql(
+                    "select count() from x where sym = 'k1'",
+                    "count\n" +
+                            "24\n"
+            );
+            assertSql(
+                    "select count() from x where sym in ('k0', 'k2')",
+                    "count\n" +
+                            "48\n"
+            );
+            assertSql(
+                    "select count() from x where sym = 'none'",
+                    "count\n" +
+                            "0\n"
+            );
+        });
+    }
+
+    private void assertPartitionFilter(String partition, String column, boolean expected) {
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat("x").concat(partition);
+            Assert.assertEquals(expected, FilesFacadeImpl.INSTANCE.exists(BloomFilterUtils.fileName(path, column, -1)));
+        }
+    }
+
+    private void createTable() throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " concat('v', x) s," +
+                        " cast(concat('k', (x - 1) / 24) as symbol) sym," +
+                        " cast(concat('k', (x - 1) / 24) as symbol) isym," +
+                        " x l," +
+                        " timestamp_sequence(0, 3600000000L) ts" +
+                        " from long_sequence(72)" +
+                        "), index(isym) timestamp(ts) partition by DAY",
+                sqlExecutionContext
+        );
+    }
+}
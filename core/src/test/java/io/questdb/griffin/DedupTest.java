@@ -0,0 +1,175 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import org.junit.Test;
+
+public class DedupTest extends AbstractGriffinTest {
+
+    @Test
+    public void testCreateTableAsSelectNotSupported() throws Exception {
+        assertFailure(
+                "create table t as (select x, timestamp_sequence(0, 1000) ts from long_sequence(1)) timestamp(ts) partition by DAY dedup upsert keys(ts)",
+                null,
+                114,
+                "deduplication is not supported in 'create table as ...' context"
+        );
+    }
+
+    @Test
+    public void testDuplicatesWithinBatch() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "t", "testing")) {
+                // in-order row followed by its duplicate goes through the uncommitted row move
+                appendRow(w, "2022-01-01T10:00:00.000000Z", "a", 1);
+                appendRow(w, "2022-01-01T10:00:00.000000Z", "a", 2);
+                // O3 duplicates
+                appendRow(w, "2022-01-01T09:00:00.000000Z", "b", 3);
+                appendRow(w, "2022-01-01T09:00:00.000000Z", "a", 4);
+                appendRow(w, "2022-01-01T09:00:00.000000Z", "b", 5);
+                appendRow(w, "2022-01-01T10:00:00.000000Z", "a", 6);
+                w.commit();
+            }
+
+            assertSql(
+                    "t order by ts, sym",
+                    "ts\tsym\tv\n" +
+                            "2022-01-01T09:00:00.000000Z\ta\t4\n" +
+                            "2022-01-01T09:00:00.000000Z\tb\t5\n" +
+                            "2022-01-01T10:00:00.000000Z\ta\t6\n"
+            );
+            assertSql("select count() from t", "count\n3\n");
+        });
+    }
+
+    @Test
+    public void testInOrderReplace() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            executeInsert("insert into t values ('2022-01-01T00:00:00.000000Z', 'a', 1)");
+            executeInsert("insert into t values ('2022-01-01T00:00:00.000000Z', 'b', 2)");
+            executeInsert("insert into t values ('2022-01-01T00:00:00.000000Z', 'a', 3)");
+            executeInsert("insert into t values ('2022-01-01T01:00:00.000000Z', 'a', 4)");
+
+            assertSql(
+                    "t order by ts, sym",
+                    "ts\tsym\tv\n" +
+                            "2022-01-01T00:00:00.000000Z\ta\t3\n" +
+                            "2022-01-01T00:00:00.000000Z\tb\t2\n" +
+                            "2022-01-01T01:00:00.000000Z\ta\t4\n"
+            );
+            assertSql("select count() from t", "count\n3\n");
+        });
+    }
+
+    @Test
+    public void testKeysMustBeFixedSize() throws Exception {
+        assertFailure(
+                "create table t (ts timestamp, s string) timestamp(ts) partition by DAY dedup upsert keys(ts, s)",
+                null,
+                93,
+                "deduplication key must be a fixed size column"
+        );
+    }
+
+    @Test
+    public void testKeysMustIncludeTimestamp() throws Exception {
+        assertFailure(
+                "create table t (ts timestamp, sym symbol) timestamp(ts) partition by DAY dedup upsert keys(sym)",
+                null,
+                94,
+                "deduplication keys must include the designated timestamp"
+        );
+    }
+
+    @Test
+    public void testO3ReplaceAcrossPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile(
+                    "insert into t select" +
+                            " timestamp_sequence('2022-01-01', 12 * 3600000000L)," +
+                            " case when x % 2 = 0 then 'a' else 'b' end," +
+                            " x" +
+                            " from long_sequence(6)"
+            );
+
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "t", "testing")) {
+                // replaces a row in the first partition and adds one to the second
+                appendRow(w, "2022-01-01T12:00:00.000000Z", "a", 20);
+                appendRow(w, "2022-01-02T00:00:00.000000Z", "a", 30);
+                // replaces the last row of the last partition and appends past it
+                appendRow(w, "2022-01-03T12:00:00.000000Z", "a", 60);
+                appendRow(w, "2022-01-03T13:00:00.000000Z", "b", 70);
+                w.commit();
+            }
+
+            final String expected = "ts\tsym\tv\n" +
+                    "2022-01-01T00:00:00.000000Z\tb\t1\n" +
+                    "2022-01-01T12:00:00.000000Z\ta\t20\n" +
+                    "2022-01-02T00:00:00.000000Z\ta\t30\n" +
+                    "2022-01-02T00:00:00.000000Z\tb\t3\n" +
+                    "2022-01-02T12:00:00.000000Z\ta\t4\n" +
+                    "2022-01-03T00:00:00.000000Z\tb\t5\n" +
+                    "2022-01-03T12:00:00.000000Z\ta\t60\n" +
+                    "2022-01-03T13:00:00.000000Z\tb\t70\n";
+            assertSql("t order by ts, sym", expected);
+            assertSql("select count() from t", "count\n8\n");
+
+            // row counts survive writer re-open
+            engine.releaseAllWriters();
+            engine.releaseAllReaders();
+            assertSql("t order by ts, sym", expected);
+            executeInsert("insert into t values ('2022-01-03T13:00:00.000000Z', 'b', 71)");
+            assertSql("select count(), sum(v) from t", "count\tsum\n8\t194\n");
+        });
+    }
+
+    @Test
+    public void testWalNotSupported() throws Exception {
+        assertFailure(
+                "create table t (ts timestamp, sym symbol) timestamp(ts) partition by DAY WAL dedup upsert keys(ts, sym)",
+                null,
+                77,
+                "deduplication is not supported on WAL tables"
+        );
+    }
+
+    private static void appendRow(TableWriter w, String timestamp, String sym, long v) throws Exception {
+        TableWriter.Row r = w.newRow(TimestampFormatUtils.parseUTCTimestamp(timestamp));
+        r.putSym(1, sym);
+        r.putLong(2, v);
+        r.append();
+    }
+
+    private static void createTable() throws SqlException {
+        compile("create table t (ts timestamp, sym symbol, v long) timestamp(ts) partition by DAY dedup upsert keys(ts, sym)");
+    }
+}
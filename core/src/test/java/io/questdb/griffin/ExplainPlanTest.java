@@ -0,0 +1,139 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExplainPlanTest extends AbstractGriffinTest {
+
+    @Test
+    public void testExplainAnalyzeAnnotatesEveryOperator() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            TestUtils.printSql(compiler, sqlExecutionContext, "explain analyze select s, count() from x where x > 100", sink);
+            final String[] lines = sink.toString().split("\n");
+            Assert.assertEquals("QUERY PLAN", lines[0]);
+            Assert.assertTrue(lines[1], lines[1].startsWith("GroupByRecord vectorized=false (actual rows=3 time="));
+            assertLine(lines, "FilteredRecordCursorFactory (actual rows=900 time=");
+            // parallel filter reduces page frames on the query owner thread when there are no workers
+            assertLine(lines, "reduce=owner=");
+            assertLine(lines, "DataFrameRecordCursorFactory (actual rows=0 time=");
+            assertLine(lines, " frames=1)");
+            Assert.assertTrue(lines[lines.length - 1], lines[lines.length - 1].startsWith("memory:"));
+        });
+    }
+
+    @Test
+    public void testExplainAnalyzeNestedModels() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            TestUtils.printSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "explain analyze select * from (select x, s from x where x <= 500 order by x desc limit 10) union all select x, s from x",
+                    sink
+            );
+            final String[] lines = sink.toString().split("\n");
+            Assert.assertTrue(lines[1], lines[1].startsWith("io.questdb.griffin.engine.union.UnionAllRecordCursorFactory (actual rows=1010 time="));
+            assertLine(lines, "LimitedSizeSortedLightRecordCursorFactory (actual rows=10 time=");
+            assertLine(lines, "FilteredRecordCursorFactory (actual rows=500 time=");
+            assertLine(lines, "    DataFrameRecordCursorFactory (actual rows=1000 time=");
+        });
+    }
+
+    @Test
+    public void testExplainAnalyzeResetsStatistics() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            try (RecordCursorFactory factory = compiler.compile("explain analyze select * from x where x > 10", sqlExecutionContext).getRecordCursorFactory()) {
+                for (int i = 0; i < 2; i++) {
+                    try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                        sink.clear();
+                        TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, TestUtils.printer);
+                    }
+                    assertLine(sink.toString().split("\n"), "(actual rows=990 time=");
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testExplainEmptyQuery() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            try {
+                compiler.compile("explain", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "query expected");
+            }
+        });
+    }
+
+    @Test
+    public void testExplainNonSelect() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            try {
+                compiler.compile("explain insert into x values (1, 'a', 0)", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(0, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "EXPLAIN is supported for SELECT queries only");
+            }
+        });
+    }
+
+    @Test
+    public void testExplainPrintsPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            final String plan = getPlan("select s, count() from x").getText().toString();
+            assertSql("EXPLAIN select s, count() from x", "QUERY PLAN\n" + plan + "\n");
+        });
+    }
+
+    private static void createX() throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select x, rnd_symbol('a','b','c') s, timestamp_sequence(0, 1000000) ts from long_sequence(1000)" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private static void assertLine(String[] lines, String expected) {
+        for (String line : lines) {
+            if (line.contains(expected)) {
+                return;
+            }
+        }
+        Assert.fail("expected line containing '" + expected + "' in:\n" + String.join("\n", lines));
+    }
+}
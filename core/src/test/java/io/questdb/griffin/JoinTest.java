@@ -32,7 +32,9 @@ import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.std.Chars;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
 import io.questdb.std.datetime.microtime.TimestampFormatUtils;
 import io.questdb.std.str.LPSZ;
 import io.questdb.test.tools.TestUtils;
@@ -2779,6 +2781,34 @@ public class JoinTest extends AbstractGriffinTest {
         testJoinForCursorLeaks("with crj as (select first(x) x, first(ts) ts from xx latest by x) select xx.x from xx join crj on xx.x = crj.x ");
     }
 
+    @Test
+    public void testHashJoinSpilledToDisk() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table a as (select x, x * 2 y from long_sequence(10000))");
+            compile("create table b as (select x, x * 3 z from long_sequence(10000))");
+            final String query = "select count(), sum(a.y), sum(b.z) from a join b on a.x = b.x";
+            final String expected = "count\tsum\tsum1\n" +
+                    "10000\t100010000\t150015000\n";
+
+            compiler.setFullFatJoins(true);
+            try {
+                assertSql(query, expected);
+
+                // the build side is moved to a temp file as soon as it is allocated
+                sqlSpillThreshold = 1L;
+                try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                    try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                        Assert.assertTrue(cursor.hasNext());
+                        Assert.assertTrue(Unsafe.getMemUsedByTag(MemoryTag.MMAP_SPILL) > 0);
+                    }
+                }
+                assertSql(query, expected);
+            } finally {
+                compiler.setFullFatJoins(false);
+            }
+        });
+    }
+
     @Test
     public void testJoinAliasBug() throws Exception {
         assertMemoryLeak(() -> {
@@ -0,0 +1,238 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.LatestByCache;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class LatestByCacheTest extends AbstractGriffinTest {
+
+    @BeforeClass
+    public static void setUpStatic() {
+        latestByCacheEnabled = true;
+        AbstractGriffinTest.setUpStatic();
+    }
+
+    @Test
+    public void testInOrderCommitsAdvanceCache() throws Exception {
+        testInOrderCommitsAdvanceCache("");
+    }
+
+    @Test
+    public void testInOrderCommitsAdvanceCacheIndexed() throws Exception {
+        testInOrderCommitsAdvanceCache(", index(sym)");
+    }
+
+    @Test
+    public void testNonPartitionedTableIsNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (sym symbol, price double, ts timestamp) timestamp(ts)");
+            executeInsert("insert into x values ('a', 1.0, '2022-01-01T00:00:00.000000Z')");
+            assertSql(
+                    "select * from x latest on ts partition by sym",
+                    "sym\tprice\tts\n" +
+                            "a\t1.0\t2022-01-01T00:00:00.000000Z\n"
+            );
+            Assert.assertNull(engine.getLatestByCacheRegistry().get(getTableId()));
+        });
+    }
+
+    @Test
+    public void testOutOfOrderCommitPatchesCache() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (sym symbol, price double, ts timestamp) timestamp(ts) partition by DAY");
+            executeInsert("insert into x values ('a', 1.0, '2022-01-01T00:00:00.000000Z')");
+            executeInsert("insert into x values ('b', 2.0, '2022-01-01T06:00:00.000000Z')");
+            executeInsert("insert into x values ('c', 3.0, '2022-01-02T00:00:00.000000Z')");
+            executeInsert("insert into x values ('b', 4.0, '2022-01-02T06:00:00.000000Z')");
+            executeInsert("insert into x values ('a', 5.0, '2022-01-03T00:00:00.000000Z')");
+
+            final String query = "select * from x latest on ts partition by sym";
+            assertSql(
+                    query,
+                    "sym\tprice\tts\n" +
+                            "c\t3.0\t2022-01-02T00:00:00.000000Z\n" +
+                            "b\t4.0\t2022-01-02T06:00:00.000000Z\n" +
+                            "a\t5.0\t2022-01-03T00:00:00.000000Z\n"
+            );
+            assertCacheCurrent();
+
+            // out-of-order row is the latest for 'c' and moves the latest row of 'b' within the partition
+            executeInsert("insert into x values ('c', 6.0, '2022-01-02T03:00:00.000000Z')");
+            assertCacheCurrent();
+            assertSql(
+                    query,
+                    "sym\tprice\tts\n" +
+                            "c\t6.0\t2022-01-02T03:00:00.000000Z\n" +
+                            "b\t4.0\t2022-01-02T06:00:00.000000Z\n" +
+                            "a\t5.0\t2022-01-03T00:00:00.000000Z\n"
+            );
+
+            try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "test")) {
+                // in-order and out-of-order rows in the same commit, including a new key
+                TableWriter.Row row = writer.newRow(1641211200000000L);
+                row.putSym(0, "b");
+                row.putDouble(1, 7.0);
+                row.append();
+                row = writer.newRow(1640998800000000L);
+                row.putSym(0, "d");
+                row.putDouble(1, 8.0);
+                row.append();
+                writer.commit();
+            }
+            assertCacheCurrent();
+            final String expected = "sym\tprice\tts\n" +
+                    "d\t8.0\t2022-01-01T01:00:00.000000Z\n" +
+                    "c\t6.0\t2022-01-02T03:00:00.000000Z\n" +
+                    "a\t5.0\t2022-01-03T00:00:00.000000Z\n" +
+                    "b\t7.0\t2022-01-03T12:00:00.000000Z\n";
+            assertSql(query, expected);
+            assertCacheCurrent();
+        });
+    }
+
+    @Test
+    public void testUpdateInvalidatesCache() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (sym symbol, price double, ts timestamp) timestamp(ts) partition by DAY");
+            executeInsert("insert into x values ('a', 1.0, '2022-01-01T00:00:00.000000Z')");
+            executeInsert("insert into x values ('b', 2.0, '2022-01-02T00:00:00.000000Z')");
+
+            final String query = "select * from x latest on ts partition by sym";
+            assertSql(
+                    query,
+                    "sym\tprice\tts\n" +
+                            "a\t1.0\t2022-01-01T00:00:00.000000Z\n" +
+                            "b\t2.0\t2022-01-02T00:00:00.000000Z\n"
+            );
+            assertCacheCurrent();
+
+            // updated symbol can change the latest row of any key
+            compile("update x set sym = 'aa' where sym = 'b'");
+            Assert.assertEquals(-1, getCache().getTxn());
+
+            assertSql(
+                    query,
+                    "sym\tprice\tts\n" +
+                            "a\t1.0\t2022-01-01T00:00:00.000000Z\n" +
+                            "aa\t2.0\t2022-01-02T00:00:00.000000Z\n"
+            );
+            assertCacheCurrent();
+        });
+    }
+
+    @Test
+    public void testRowsFromOpenWriterAreApplied() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (sym symbol, price double, ts timestamp) timestamp(ts) partition by DAY");
+            executeInsert("insert into x values ('a', 1.0, '2022-01-01T00:00:00.000000Z')");
+
+            final String query = "select * from x latest on ts partition by sym";
+            assertSql(
+                    query,
+                    "sym\tprice\tts\n" +
+                            "a\t1.0\t2022-01-01T00:00:00.000000Z\n"
+            );
+
+            try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "test")) {
+                // the writer attaches to the cache when it opens, the first commit is applied
+                TableWriter.Row row = writer.newRow(1641038400000000L);
+                row.putSym(0, "b");
+                row.putDouble(1, 2.0);
+                row.append();
+                row = writer.newRow(1641081600000000L);
+                row.putSym(0, "a");
+                row.putDouble(1, 3.0);
+                row.append();
+                row = writer.newRow(1641081600000000L);
+                row.putDouble(1, 4.0);
+                row.cancel();
+                writer.commit();
+            }
+            assertCacheCurrent();
+            assertSql(
+                    query,
+                    "sym\tprice\tts\n" +
+                            "b\t2.0\t2022-01-01T12:00:00.000000Z\n" +
+                            "a\t3.0\t2022-01-02T00:00:00.000000Z\n"
+            );
+        });
+    }
+
+    private void assertCacheCurrent() {
+        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+            Assert.assertEquals(reader.getTxn(), getCache().getTxn());
+        }
+    }
+
+    private LatestByCache getCache() {
+        final LatestByCache cache = engine.getLatestByCacheRegistry().get(getTableId());
+        Assert.assertNotNull(cache);
+        return cache;
+    }
+
+    private int getTableId() {
+        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+            return reader.getMetadata().getId();
+        }
+    }
+
+    private void testInOrderCommitsAdvanceCache(String index) throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (sym symbol, price double, ts timestamp)" + index + " timestamp(ts) partition by DAY");
+            executeInsert("insert into x values ('a', 1.0, '2022-01-01T00:00:00.000000Z')");
+            executeInsert("insert into x values ('b', 2.0, '2022-01-01T01:00:00.000000Z')");
+            executeInsert("insert into x values ('a', 3.0, '2022-01-01T02:00:00.000000Z')");
+
+            final String query = "select * from x latest on ts partition by sym";
+            assertSql(
+                    query,
+                    "sym\tprice\tts\n" +
+                            "b\t2.0\t2022-01-01T01:00:00.000000Z\n" +
+                            "a\t3.0\t2022-01-01T02:00:00.000000Z\n"
+            );
+            assertCacheCurrent();
+
+            // in-order rows, including a new key and a new partition, move the cache forward
+            executeInsert("insert into x values ('c', 4.0, '2022-01-01T03:00:00.000000Z')");
+            executeInsert("insert into x values ('b', 5.0, '2022-01-02T00:00:00.000000Z')");
+            assertCacheCurrent();
+
+            final String expected = "sym\tprice\tts\n" +
+                    "a\t3.0\t2022-01-01T02:00:00.000000Z\n" +
+                    "c\t4.0\t2022-01-01T03:00:00.000000Z\n" +
+                    "b\t5.0\t2022-01-02T00:00:00.000000Z\n";
+            assertSql(query, expected);
+            // answered from the cache twice in a row
+            assertSql(query, expected);
+            assertCacheCurrent();
+        });
+    }
+}
@@ -24,11 +24,42 @@
 
 package io.questdb.griffin;
 
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
 public class OrderByExpressionTest extends AbstractGriffinTest {
 
+    @Test
+    public void testOrderBySpilledToDisk() throws Exception {
+        assertMemoryLeak(() -> {
+            // sort values are moved to a temp file as soon as they are allocated
+            sqlSpillThreshold = 1L;
+            // union all does not support random access, so whole records are sorted
+            final String query = "select * from (" +
+                    "select x k, 'aa' c from long_sequence(50000) union all select x + 50000 k, 'bb' c from long_sequence(50000)" +
+                    ") order by k desc";
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    final Record record = cursor.getRecord();
+                    for (long k = 100000; k > 0; k--) {
+                        Assert.assertTrue(cursor.hasNext());
+                        Assert.assertEquals(k, record.getLong(0));
+                        TestUtils.assertEquals(k > 50000 ? "bb" : "aa", record.getStr(1));
+                    }
+                    Assert.assertTrue(Unsafe.getMemUsedByTag(MemoryTag.MMAP_SPILL) > 0);
+                    Assert.assertFalse(cursor.hasNext());
+                }
+            }
+        });
+    }
+
     @Test
     public void testOrderByTwoExpressions() throws Exception {
         assertQuery("x\n10\n9\n8\n7\n6\n",
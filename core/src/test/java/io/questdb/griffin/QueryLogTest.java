@@ -0,0 +1,117 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.griffin.engine.table.QueryLogRecordCursorFactory;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryLogTest extends AbstractGriffinTest {
+
+    @Test
+    public void testQueryLogFunction() throws Exception {
+        assertMemoryLeak(() -> {
+            currentMicros = 1_000_000;
+            final QueryLog queryLog = engine.getQueryLog();
+            Assert.assertNotNull(queryLog);
+            queryLog.log("select 1", QueryLog.PROTOCOL_PGWIRE, "admin", 10, 20, 1, 100, 4096, false, false);
+            queryLog.log("select * from x where b > 0", QueryLog.PROTOCOL_HTTP, null, 0, 30, 42, 200, 0, true, true);
+            assertSql(
+                    "select ts, protocol, principal, sql, compile_nanos, execution_nanos, rows, bytes_sent, peak_memory, plan_cache_hit, jit from query_log() limit -2",
+                    "ts\tprotocol\tprincipal\tsql\tcompile_nanos\texecution_nanos\trows\tbytes_sent\tpeak_memory\tplan_cache_hit\tjit\n" +
+                            "1970-01-01T00:00:01.000000Z\tpgwire\tadmin\tselect 1\t10\t20\t1\t100\t4096\tfalse\tfalse\n" +
+                            "1970-01-01T00:00:01.000000Z\thttp\t\tselect * from x where b > 0\t0\t30\t42\t200\t0\ttrue\ttrue\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSqlHashTellsApartTruncatedQueries() throws Exception {
+        assertMemoryLeak(() -> {
+            try (QueryLog queryLog = new QueryLog(new DefaultCairoConfiguration(root) {
+                @Override
+                public int getQueryLogSqlTextMaxLength() {
+                    return 8;
+                }
+            })) {
+                queryLog.log("select 1 from long_table", QueryLog.PROTOCOL_HTTP, null, 0, 0, 0, 0, 0, false, false);
+                queryLog.log("select 1 from long_table where x = 1", QueryLog.PROTOCOL_HTTP, null, 0, 0, 0, 0, 0, false, false);
+                assertLog(
+                        queryLog,
+                        "sql_hash\tsql\n" +
+                                "-8415785587591661970\tselect 1\n" +
+                                "-4496588786718380485\tselect 1\n"
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testWrapAround() throws Exception {
+        assertMemoryLeak(() -> {
+            try (QueryLog queryLog = new QueryLog(new DefaultCairoConfiguration(root) {
+                @Override
+                public int getQueryLogCapacity() {
+                    return 3;
+                }
+            })) {
+                // capacity is rounded up to the next power of 2
+                Assert.assertEquals(4, queryLog.getCapacity());
+                assertLog(queryLog, "sql_hash\tsql\n");
+                for (int i = 0; i < 6; i++) {
+                    queryLog.log("select " + i, QueryLog.PROTOCOL_PGWIRE, "admin", 0, 0, 0, 0, 0, false, false);
+                }
+                assertLog(
+                        queryLog,
+                        "sql_hash\tsql\n" +
+                                "3256776780302\tselect 2\n" +
+                                "3256776780303\tselect 3\n" +
+                                "3256776780304\tselect 4\n" +
+                                "3256776780305\tselect 5\n"
+                );
+            }
+        });
+    }
+
+    private static void assertLog(QueryLog queryLog, String expected) throws SqlException {
+        try (
+                QueryLogRecordCursorFactory factory = new QueryLogRecordCursorFactory(queryLog);
+                RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+        ) {
+            sink.clear();
+            TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, TestUtils.printer);
+        }
+        // only hash and text columns
+        final StringBuilder actual = new StringBuilder();
+        for (String line : sink.toString().split("\n")) {
+            final String[] values = line.split("\t");
+            actual.append(values[3]).append('\t').append(values[4]).append('\n');
+        }
+        TestUtils.assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.NetworkSqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.MemoryAccountant;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryMemoryLimitTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAccountantReleasedOnFree() {
+        final MemoryAccountant accountant = new MemoryAccountant();
+        accountant.setLimit(1024);
+        Unsafe.setMemoryAccountant(accountant);
+        try {
+            long ptr = Unsafe.malloc(512, MemoryTag.NATIVE_FAST_MAP);
+            Assert.assertEquals(512, accountant.getUsed());
+            ptr = Unsafe.realloc(ptr, 512, 1024, MemoryTag.NATIVE_FAST_MAP);
+            Assert.assertEquals(1024, accountant.getUsed());
+            try {
+                Unsafe.realloc(ptr, 1024, 2048, MemoryTag.NATIVE_FAST_MAP);
+                Assert.fail();
+            } catch (CairoException e) {
+                Assert.assertTrue(e.isInterruption());
+                TestUtils.assertContains(e.getFlyweightMessage(), "query memory limit exceeded");
+            }
+            // memory of tags that are not query-scoped is not charged
+            long other = Unsafe.malloc(4096, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(other, 4096, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(ptr, 1024, MemoryTag.NATIVE_FAST_MAP);
+            Assert.assertEquals(0, accountant.getUsed());
+        } finally {
+            Unsafe.setMemoryAccountant(null);
+        }
+    }
+
+    @Test
+    public void testCircuitBreakerUnbindsAccountant() {
+        try (NetworkSqlExecutionCircuitBreaker circuitBreaker = new NetworkSqlExecutionCircuitBreaker(
+                new DefaultSqlExecutionCircuitBreakerConfiguration(),
+                MemoryTag.NATIVE_DEFAULT
+        )) {
+            circuitBreaker.of(1);
+            Assert.assertSame(circuitBreaker.getMemoryAccountant(), Unsafe.getMemoryAccountant());
+            long ptr = Unsafe.malloc(512, MemoryTag.NATIVE_FAST_MAP);
+            circuitBreaker.unbind();
+            Assert.assertNull(Unsafe.getMemoryAccountant());
+
+            // memory the thread takes after the request is not charged to it
+            long other = Unsafe.malloc(1024, MemoryTag.NATIVE_FAST_MAP);
+            Unsafe.free(other, 1024, MemoryTag.NATIVE_FAST_MAP);
+            Unsafe.free(ptr, 512, MemoryTag.NATIVE_FAST_MAP);
+            Assert.assertEquals(512, circuitBreaker.getMemoryAccountant().getUsed());
+            Assert.assertEquals(512, circuitBreaker.getMemoryAccountant().getPeak());
+
+            // accountant bound by someone else stays in place
+            final MemoryAccountant accountant = new MemoryAccountant();
+            Unsafe.setMemoryAccountant(accountant);
+            circuitBreaker.unbind();
+            Assert.assertSame(accountant, Unsafe.getMemoryAccountant());
+        } finally {
+            Unsafe.setMemoryAccountant(null);
+        }
+    }
+
+    @Test
+    public void testGlobalQueryMemoryLimitExceeded() throws Exception {
+        assertMemoryLeak(() -> {
+            Unsafe.setQueryMemLimit(Unsafe.getQueryMemUsed() + 64 * 1024);
+            try {
+                assertLimitExceeded("global query memory limit exceeded");
+            } finally {
+                Unsafe.setQueryMemLimit(0);
+            }
+        });
+    }
+
+    @Test
+    public void testQueryMemoryLimitExceeded() throws Exception {
+        assertMemoryLeak(() -> {
+            final MemoryAccountant accountant = new MemoryAccountant();
+            accountant.setLimit(64 * 1024);
+            Unsafe.setMemoryAccountant(accountant);
+            try {
+                assertLimitExceeded("query memory limit exceeded");
+            } finally {
+                Unsafe.setMemoryAccountant(null);
+            }
+        });
+    }
+
+    @Test
+    public void testQueryWithinMemoryLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            final MemoryAccountant accountant = new MemoryAccountant();
+            accountant.setLimit(256 * 1024 * 1024);
+            Unsafe.setMemoryAccountant(accountant);
+            try {
+                try (RecordCursorFactory factory = compiler.compile("select x % 10 k, count() c from long_sequence(100000)", sqlExecutionContext).getRecordCursorFactory()) {
+                    try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                        int count = 0;
+                        while (cursor.hasNext()) {
+                            count++;
+                        }
+                        Assert.assertEquals(10, count);
+                        Assert.assertTrue(accountant.getUsed() > 0);
+                    }
+                }
+                Assert.assertEquals(0, accountant.getUsed());
+            } finally {
+                Unsafe.setMemoryAccountant(null);
+            }
+        });
+    }
+
+    private void assertLimitExceeded(CharSequence expectedMessage) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile("select x k, count() c from long_sequence(1000000)", sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                while (cursor.hasNext()) {
+                    // drain the cursor
+                }
+            }
+            Assert.fail();
+        } catch (CairoException e) {
+            Assert.assertTrue(e.isInterruption());
+            TestUtils.assertContains(e.getFlyweightMessage(), expectedMessage);
+        }
+    }
+}
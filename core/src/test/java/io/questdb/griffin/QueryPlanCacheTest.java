@@ -0,0 +1,227 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.pool.PoolListener;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.IntList;
+import io.questdb.std.str.StringSink;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class QueryPlanCacheTest extends AbstractGriffinTest {
+
+    @Test
+    public void testBindVariableTypesMustMatch() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a from long_sequence(5))");
+            try (QueryPlanCache cache = new QueryPlanCache(configuration, engine)) {
+                final String sql = "select * from x where a > $1";
+                bindVariableService.clear();
+                bindVariableService.setLong(0, 2);
+                final RecordCursorFactory factory = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory();
+                final IntList types = new IntList();
+                types.add(ColumnType.LONG);
+                cache.push(sql, types, factory);
+
+                // no bind variables is a mismatch
+                Assert.assertNull(cache.poll(sql));
+
+                bindVariableService.clear();
+                bindVariableService.setStr(0, "abc");
+                Assert.assertNull(cache.poll(sql, bindVariableService));
+
+                // undefined variables are defined by the cache
+                bindVariableService.clear();
+                final RecordCursorFactory polled = cache.poll(sql, bindVariableService);
+                Assert.assertSame(factory, polled);
+                Assert.assertEquals(ColumnType.LONG, bindVariableService.getFunction(0).getType());
+                bindVariableService.setLong(0, 3);
+                assertCursor("a\n4\n5\n", polled, true, true, false);
+                cache.push(sql, types, polled);
+            }
+        });
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a from long_sequence(5))");
+            try (QueryPlanCache cache = new QueryPlanCache(configuration, engine)) {
+                final String sql = "select * from x";
+                final RecordCursorFactory factory = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory();
+                final RecordCursorFactory inUse = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory();
+                cache.push(sql, null, factory);
+                cache.invalidate("select *  from x");
+                Assert.assertNull(cache.poll(sql));
+
+                // factory that was in use when entry was invalidated is discarded on push
+                cache.push(sql, null, inUse);
+                cache.invalidate(sql);
+                Assert.assertNull(cache.poll(sql));
+            }
+        });
+    }
+
+    @Test
+    public void testNormalize() {
+        final StringSink sink = new StringSink();
+        QueryPlanCache.normalize("  select\n\ta ,b  from   x where s = '  a\tb '  ", sink);
+        Assert.assertEquals("select a , b from x where s = '  a\tb '", sink.toString());
+        QueryPlanCache.normalize("select \"my  col\" from  x", sink);
+        Assert.assertEquals("select \"my  col\" from x", sink.toString());
+    }
+
+    @Test
+    public void testNormalizeDropsComments() {
+        final StringSink sink = new StringSink();
+        final StringSink other = new StringSink();
+        // line comment ends at new line, the rest of the statement is significant
+        QueryPlanCache.normalize("select * from t --\nwhere x = 1", sink);
+        Assert.assertEquals("select * from t where x = 1", sink.toString());
+        QueryPlanCache.normalize("select * from t -- where x = 1", other);
+        Assert.assertEquals("select * from t", other.toString());
+
+        // key is made of the same tokens the compiler sees, apostrophe
+        // in a comment must not make different statements collide
+        QueryPlanCache.normalize("select * from t /* its */ where  s = '  a'", sink);
+        Assert.assertEquals("select * from t where s = '  a'", sink.toString());
+        QueryPlanCache.normalize("select * from t /* it's */ where s = '  a'", other);
+        Assert.assertNotEquals(sink.toString(), other.toString());
+    }
+
+    @Test
+    public void testStalePlanIsNotHandedOut() throws Exception {
+        sqlPlanCacheEnabled = true;
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a from long_sequence(5))");
+            compile("create table y as (select x b from long_sequence(5))");
+            try (QueryPlanCache cache = new QueryPlanCache(configuration, engine)) {
+                final String sql = "select * from x join y on a = b";
+                final RecordCursorFactory factory = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory();
+                cache.push(sql, null, factory);
+
+                final AtomicInteger readerCount = new AtomicInteger();
+                engine.setPoolListener((factoryType, thread, name, event, segment, position) -> {
+                    if (factoryType == PoolListener.SRC_READER && (event == PoolListener.EV_GET || event == PoolListener.EV_CREATE)) {
+                        readerCount.incrementAndGet();
+                    }
+                });
+                try {
+                    // no table has changed structure, versions are not re-checked
+                    final RecordCursorFactory polled = cache.poll(sql);
+                    Assert.assertSame(factory, polled);
+                    Assert.assertEquals(0, readerCount.get());
+                    cache.push(sql, null, polled);
+
+                    compile("alter table y add column c int");
+                    readerCount.set(0);
+                    Assert.assertNull(cache.poll(sql));
+                    Assert.assertTrue(readerCount.get() > 0);
+                } finally {
+                    engine.setPoolListener(null);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testStatementNotPolledRecentlyIsEvicted() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a from long_sequence(5))");
+            final DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public int getSqlPlanCacheCapacity() {
+                    return 2;
+                }
+            };
+            try (QueryPlanCache cache = new QueryPlanCache(configuration, engine)) {
+                final String sql1 = "select * from x where a = 1";
+                final String sql2 = "select * from x where a = 2";
+                final String sql3 = "select * from x where a = 3";
+                cache.push(sql1, null, compiler.compile(sql1, sqlExecutionContext).getRecordCursorFactory());
+                cache.push(sql2, null, compiler.compile(sql2, sqlExecutionContext).getRecordCursorFactory());
+                final RecordCursorFactory factory1 = cache.poll(sql1);
+                Assert.assertNotNull(factory1);
+                cache.push(sql1, null, factory1);
+
+                // sql1 has been polled, sql2 has not, the latter makes room for sql3
+                cache.push(sql3, null, compiler.compile(sql3, sqlExecutionContext).getRecordCursorFactory());
+                final RecordCursorFactory factory3 = cache.poll(sql3);
+                Assert.assertNotNull(factory3);
+                cache.push(sql3, null, factory3);
+                Assert.assertNull(cache.poll(sql2));
+                Assert.assertSame(factory1, cache.poll(sql1));
+                cache.push(sql1, null, factory1);
+
+                // new statements keep getting cached
+                final String sql4 = "select * from x where a = 4";
+                cache.push(sql4, null, compiler.compile(sql4, sqlExecutionContext).getRecordCursorFactory());
+                final RecordCursorFactory factory4 = cache.poll(sql4);
+                Assert.assertNotNull(factory4);
+                cache.push(sql4, null, factory4);
+            }
+        });
+    }
+
+    @Test
+    public void testPoolCapacity() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a from long_sequence(5))");
+            final DefaultCairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public int getSqlPlanCachePoolCapacity() {
+                    return 2;
+                }
+            };
+            try (QueryPlanCache cache = new QueryPlanCache(configuration, engine)) {
+                final String sql = "select * from x";
+                final RecordCursorFactory f1 = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory();
+                final RecordCursorFactory f2 = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory();
+                final RecordCursorFactory f3 = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory();
+                cache.push(sql, null, f1);
+                cache.push(sql, null, f2);
+                // pool is full, factory is closed
+                cache.push(sql, null, f3);
+
+                final RecordCursorFactory p1 = cache.poll("select *\nfrom x");
+                final RecordCursorFactory p2 = cache.poll(sql);
+                Assert.assertNotNull(p1);
+                Assert.assertNotNull(p2);
+                Assert.assertNotSame(p1, p2);
+                Assert.assertNull(cache.poll(sql));
+
+                assertCursor("a\n1\n2\n3\n4\n5\n", p1, true, true, true);
+                cache.push(sql, null, p1);
+                cache.push(sql, null, p2);
+            }
+        });
+    }
+}
@@ -0,0 +1,328 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
+import io.questdb.std.MemoryAccountant;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryResultCacheTest extends AbstractGriffinTest {
+
+    @Test
+    public void testBindVariablesAreKeyed() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a, timestamp_sequence(0, 1000000) ts from long_sequence(5)) timestamp(ts)");
+            try (QueryResultCache cache = new QueryResultCache(configuration, engine)) {
+                final String sql = "select a from x where a > $1";
+                bindVariableService.clear();
+                bindVariableService.setLong(0, 3);
+                assertCached(cache, sql, "a\n4\n5\n");
+                bindVariableService.setLong(0, 4);
+                assertCached(cache, sql, "a\n5\n");
+                Assert.assertEquals(0, cache.getHitCount());
+
+                bindVariableService.setLong(0, 3);
+                assertCached(cache, sql, "a\n4\n5\n");
+                Assert.assertEquals(1, cache.getHitCount());
+            }
+        });
+    }
+
+    @Test
+    public void testCommentsAreNotKeyed() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a, timestamp_sequence(0, 1000000) ts from long_sequence(3)) timestamp(ts)");
+            try (QueryResultCache cache = new QueryResultCache(configuration, engine)) {
+                assertCached(cache, "select a from x --\nwhere a > 2", "a\n3\n");
+                assertCached(cache, "select a from x -- where a > 2", "a\n1\n2\n3\n");
+                Assert.assertEquals(0, cache.getHitCount());
+                assertCached(cache, "select a from x /* comment */ where a > 2", "a\n3\n");
+                Assert.assertEquals(1, cache.getHitCount());
+            }
+        });
+    }
+
+    @Test
+    public void testCommitInvalidatesResult() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a, rnd_symbol('a','b') s, timestamp_sequence(0, 1000000) ts from long_sequence(3)) timestamp(ts)");
+            try (QueryResultCache cache = new QueryResultCache(configuration, engine)) {
+                final String sql = "select a, s from x";
+                final String expected = "a\ts\n" +
+                        "1\ta\n" +
+                        "2\ta\n" +
+                        "3\tb\n";
+                assertCached(cache, sql, expected);
+                assertCached(cache, "select a, s\nfrom x", expected);
+                Assert.assertEquals(1, cache.getHitCount());
+                Assert.assertTrue(cache.getMemUsed() > 0);
+
+                executeInsert("insert into x values (4, 'b', 4000000)");
+                assertCached(cache, sql, expected + "4\tb\n");
+                Assert.assertEquals(1, cache.getHitCount());
+                assertCached(cache, sql, expected + "4\tb\n");
+                Assert.assertEquals(2, cache.getHitCount());
+
+                Assert.assertTrue(Unsafe.getMemUsedByTag(MemoryTag.NATIVE_RESULT_CACHE) > 0);
+                cache.clear();
+                Assert.assertEquals(0, cache.getMemUsed());
+                Assert.assertEquals(0, Unsafe.getMemUsedByTag(MemoryTag.NATIVE_RESULT_CACHE));
+            }
+        });
+    }
+
+    @Test
+    public void testCursorIsClosedWhenCachingFails() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a, timestamp_sequence(0, 1000000) ts from long_sequence(10)) timestamp(ts)");
+            final SqlExecutionCircuitBreaker circuitBreaker = new SqlExecutionCircuitBreaker() {
+                @Override
+                public boolean checkIfTripped() {
+                    return true;
+                }
+
+                @Override
+                public boolean checkIfTripped(long millis, long fd) {
+                    return true;
+                }
+
+                @Override
+                public SqlExecutionCircuitBreakerConfiguration getConfiguration() {
+                    return null;
+                }
+
+                @Override
+                public long getFd() {
+                    return -1;
+                }
+
+                @Override
+                public MemoryAccountant getMemoryAccountant() {
+                    return null;
+                }
+
+                @Override
+                public void resetTimer() {
+                }
+
+                @Override
+                public void setFd(long fd) {
+                }
+
+                @Override
+                public void statefulThrowExceptionIfTripped() {
+                    throw CairoException.nonCritical().put("tripped");
+                }
+            };
+            final String sql = "select a from x";
+            try (
+                    SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1)
+                            .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, circuitBreaker);
+                    QueryResultCache cache = new QueryResultCache(configuration, engine);
+                    RecordCursorFactory factory = compiler.compile(sql, executionContext).getRecordCursorFactory()
+            ) {
+                try {
+                    cache.getCursor(sql, factory, executionContext);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "tripped");
+                }
+                // cursor opened before the result failed to be copied holds no reader
+                Assert.assertEquals(0, engine.getBusyReaderCount());
+                Assert.assertEquals(0, cache.getMemUsed());
+            }
+        });
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResultIsEvicted() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a, timestamp_sequence(0, 1000000) ts from long_sequence(100)) timestamp(ts)");
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public long getSqlResultCacheMemorySize() {
+                    return 1590;
+                }
+
+                @Override
+                public int getSqlResultCachePageSize() {
+                    return 1024;
+                }
+            };
+            try (QueryResultCache cache = new QueryResultCache(configuration, engine)) {
+                final String sql1 = "select a from x where a < 50";
+                final String sql2 = "select a from x where a > 50";
+                final String sql3 = "select a from x where a = 50";
+                printCached(cache, sql1);
+                printCached(cache, sql2);
+                printCached(cache, sql1);
+                Assert.assertEquals(1, cache.getHitCount());
+
+                // sql2 is least recently used
+                printCached(cache, sql3);
+                Assert.assertTrue(cache.getMemUsed() <= 1590);
+                printCached(cache, sql1);
+                Assert.assertEquals(2, cache.getHitCount());
+                printCached(cache, sql2);
+                Assert.assertEquals(2, cache.getHitCount());
+            }
+        });
+    }
+
+    @Test
+    public void testLiveStateQueryIsNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a, timestamp_sequence(0, 1000000) ts from long_sequence(3)) timestamp(ts)");
+            try (QueryResultCache cache = new QueryResultCache(configuration, engine)) {
+                printCached(cache, "select a, name from x cross join tables()");
+                printCached(cache, "select a, name from x cross join tables()");
+                printCached(cache, "select a, q.* from x cross join query_log() q");
+                printCached(cache, "select a, q.* from x cross join query_log() q");
+                printCached(cache, "select a, s.* from x cross join table_ingestion_stats() s");
+                printCached(cache, "select a, s.* from x cross join table_ingestion_stats() s");
+                Assert.assertEquals(0, cache.getHitCount());
+                Assert.assertEquals(0, cache.getMemUsed());
+            }
+        });
+    }
+
+    @Test
+    public void testNamedBindVariablesAreNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a, timestamp_sequence(0, 1000000) ts from long_sequence(3)) timestamp(ts)");
+            try (QueryResultCache cache = new QueryResultCache(configuration, engine)) {
+                final String sql = "select a from x where a > :lo";
+                bindVariableService.clear();
+                bindVariableService.setLong("lo", 1);
+                assertCached(cache, sql, "a\n2\n3\n");
+                bindVariableService.setLong("lo", 2);
+                assertCached(cache, sql, "a\n3\n");
+                Assert.assertEquals(0, cache.getHitCount());
+                Assert.assertEquals(0, cache.getMemUsed());
+            }
+        });
+    }
+
+    @Test
+    public void testRecreatedTableIsNotServedFromCache() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a, timestamp_sequence(0, 1000000) ts from long_sequence(3)) timestamp(ts)");
+            try (QueryResultCache cache = new QueryResultCache(configuration, engine)) {
+                final String sql = "select a from x";
+                assertCached(cache, sql, "a\n1\n2\n3\n");
+                final long txn = getTxn();
+
+                compile("drop table x");
+                compile("create table x (a long, ts timestamp) timestamp(ts)");
+                while (getTxn() < txn) {
+                    executeInsert("insert into x values (42, 0)");
+                }
+                Assert.assertEquals(txn, getTxn());
+                printCached(cache, sql);
+                Assert.assertEquals(0, cache.getHitCount());
+                Assert.assertFalse(sink.toString().contains("1\n2\n3\n"));
+            }
+        });
+    }
+
+    @Test
+    public void testTooBigResultIsNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a, timestamp_sequence(0, 1000000) ts from long_sequence(1000)) timestamp(ts)");
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public long getSqlResultCacheEntryMaxSize() {
+                    return 1024;
+                }
+
+                @Override
+                public int getSqlResultCachePageSize() {
+                    return 1024;
+                }
+            };
+            try (QueryResultCache cache = new QueryResultCache(configuration, engine)) {
+                final String sql = "select count() from (select a from x)";
+                printCached(cache, "select a from x");
+                printCached(cache, "select a from x");
+                Assert.assertEquals(0, cache.getHitCount());
+                Assert.assertEquals(0, cache.getMemUsed());
+                assertCached(cache, sql, "count\n1000\n");
+            }
+        });
+    }
+
+    @Test
+    public void testVolatileQueryIsNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x a, timestamp_sequence(0, 1000000) ts from long_sequence(3)) timestamp(ts)");
+            try (QueryResultCache cache = new QueryResultCache(configuration, engine)) {
+                printCached(cache, "select a, rnd_int() from x");
+                printCached(cache, "select a, rnd_int() from x");
+                printCached(cache, "select a from x where ts < now()");
+                printCached(cache, "select a from x where ts < now()");
+                printCached(cache, "select a, systimestamp() from x");
+                printCached(cache, "select a, systimestamp() from x");
+                printCached(cache, "select x from long_sequence(3)");
+                printCached(cache, "select x from long_sequence(3)");
+                Assert.assertEquals(0, cache.getHitCount());
+                Assert.assertEquals(0, cache.getMemUsed());
+            }
+        });
+    }
+
+    private static long getTxn() {
+        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+            return reader.getTxn();
+        }
+    }
+
+    private void assertCached(QueryResultCache cache, String sql, String expected) throws SqlException {
+        printCached(cache, sql);
+        TestUtils.assertEquals(expected, sink);
+    }
+
+    private void printCached(QueryResultCache cache, String sql) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory();
+                RecordCursor cursor = cache.getCursor(sql, factory, (SqlExecutionContextImpl) sqlExecutionContext)
+        ) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true, sink);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RollupTest extends AbstractGriffinTest {
+    private static final String ROLLUP_QUERY = "select ts, sym, sum(price) total, count() n from ticks sample by 1h align to calendar";
+
+    @Test
+    public void testAppendRefreshesLastBucket() throws Exception {
+        assertMemoryLeak(() -> {
+            createRollup();
+            // rollups are refreshed only after their base table commits
+            Assert.assertFalse(refresh());
+            executeInsert("insert into ticks values ('2022-01-01T01:50:00.000000Z', 'a', 10)");
+            executeInsert("insert into ticks values ('2022-01-02T00:10:00.000000Z', 'b', 7)");
+            Assert.assertTrue(refresh());
+            Assert.assertFalse(refresh());
+
+            assertSql(
+                    "r order by ts, sym",
+                    "ts\tsym\ttotal\tn\n" +
+                            "2022-01-01T00:00:00.000000Z\ta\t2.0\t1\n" +
+                            "2022-01-01T00:00:00.000000Z\tb\t4.0\t2\n" +
+                            "2022-01-01T01:00:00.000000Z\ta\t20.0\t3\n" +
+                            "2022-01-01T01:00:00.000000Z\tb\t5.0\t1\n" +
+                            "2022-01-02T00:00:00.000000Z\tb\t7.0\t1\n"
+            );
+        });
+    }
+
+    @Test
+    public void testCachedFactoryChecksFreshnessOnEveryExecution() throws Exception {
+        assertMemoryLeak(() -> {
+            createRollup();
+            executeInsert("insert into r values ('2022-01-01T02:00:00.000000Z', 'z', 42, 1)");
+            // factory is compiled once and executed twice, the way query caches reuse it
+            try (RecordCursorFactory factory = compiler.compile(ROLLUP_QUERY, sqlExecutionContext).getRecordCursorFactory()) {
+                assertFactory(
+                        "ts\tsym\ttotal\tn\n" +
+                                "2022-01-01T00:00:00.000000Z\ta\t2.0\t1\n" +
+                                "2022-01-01T00:00:00.000000Z\tb\t4.0\t2\n" +
+                                "2022-01-01T01:00:00.000000Z\ta\t10.0\t2\n" +
+                                "2022-01-01T01:00:00.000000Z\tb\t5.0\t1\n" +
+                                "2022-01-01T02:00:00.000000Z\tz\t42.0\t1\n",
+                        factory
+                );
+
+                executeInsert("insert into ticks values ('2022-01-01T02:10:00.000000Z', 'a', 1)");
+                assertFactory(
+                        "ts\tsym\ttotal\tn\n" +
+                                "2022-01-01T00:00:00.000000Z\tb\t4.0\t2\n" +
+                                "2022-01-01T00:00:00.000000Z\ta\t2.0\t1\n" +
+                                "2022-01-01T01:00:00.000000Z\ta\t10.0\t2\n" +
+                                "2022-01-01T01:00:00.000000Z\tb\t5.0\t1\n" +
+                                "2022-01-01T02:00:00.000000Z\ta\t1.0\t1\n",
+                        factory
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testCommentsAreIgnoredInDefinition() throws Exception {
+        assertMemoryLeak(() -> {
+            createRollup();
+            // a row only the rollup has tells whether the query has been answered from the rollup
+            executeInsert("insert into r values ('2022-01-01T02:00:00.000000Z', 'z', 42, 1)");
+            assertSql(
+                    "select ts, sym, sum(price) total, count() n from ticks -- hourly\nsample by 1h /* it's */ align to calendar",
+                    "ts\tsym\ttotal\tn\n" +
+                            "2022-01-01T00:00:00.000000Z\ta\t2.0\t1\n" +
+                            "2022-01-01T00:00:00.000000Z\tb\t4.0\t2\n" +
+                            "2022-01-01T01:00:00.000000Z\ta\t10.0\t2\n" +
+                            "2022-01-01T01:00:00.000000Z\tb\t5.0\t1\n" +
+                            "2022-01-01T02:00:00.000000Z\tz\t42.0\t1\n"
+            );
+        });
+    }
+
+    @Test
+    public void testCreate() throws Exception {
+        assertMemoryLeak(() -> {
+            createRollup();
+            assertSql(
+                    "r order by ts, sym",
+                    "ts\tsym\ttotal\tn\n" +
+                            "2022-01-01T00:00:00.000000Z\ta\t2.0\t1\n" +
+                            "2022-01-01T00:00:00.000000Z\tb\t4.0\t2\n" +
+                            "2022-01-01T01:00:00.000000Z\ta\t10.0\t2\n" +
+                            "2022-01-01T01:00:00.000000Z\tb\t5.0\t1\n"
+            );
+            Assert.assertEquals(1, engine.getRollupRegistry().size());
+        });
+    }
+
+    @Test
+    public void testDropRollupUnregisters() throws Exception {
+        assertMemoryLeak(() -> {
+            createRollup();
+            compile("drop table r");
+            Assert.assertEquals(0, engine.getRollupRegistry().size());
+            Assert.assertNull(engine.getRollupRegistry().getByDefinition(ROLLUP_QUERY));
+        });
+    }
+
+    @Test
+    public void testFillNotSupported() throws Exception {
+        assertFailure(
+                "create rollup r as (select ts, sym, sum(price) from ticks sample by 1h fill(null) align to calendar)",
+                "create table ticks (ts timestamp, sym symbol, price double) timestamp(ts) partition by DAY",
+                76,
+                "FILL is not supported in rollups"
+        );
+    }
+
+    @Test
+    public void testFirstObservationNotSupported() throws Exception {
+        assertFailure(
+                "create rollup r as (select ts, sym, sum(price) from ticks sample by 1h)",
+                "create table ticks (ts timestamp, sym symbol, price double) timestamp(ts) partition by DAY",
+                68,
+                "rollup query must be aligned to calendar"
+        );
+    }
+
+    @Test
+    public void testO3RefreshesTouchedBuckets() throws Exception {
+        assertMemoryLeak(() -> {
+            createRollup();
+            executeInsert("insert into ticks values ('2022-01-01T00:30:00.000000Z', 'a', 100)");
+            executeInsert("insert into ticks values ('2022-01-01T01:10:00.000000Z', 'c', 50)");
+            Assert.assertTrue(refresh());
+
+            assertSql(
+                    "r order by ts, sym",
+                    "ts\tsym\ttotal\tn\n" +
+                            "2022-01-01T00:00:00.000000Z\ta\t102.0\t2\n" +
+                            "2022-01-01T00:00:00.000000Z\tb\t4.0\t2\n" +
+                            "2022-01-01T01:00:00.000000Z\ta\t10.0\t2\n" +
+                            "2022-01-01T01:00:00.000000Z\tb\t5.0\t1\n" +
+                            "2022-01-01T01:00:00.000000Z\tc\t50.0\t1\n"
+            );
+        });
+    }
+
+    @Test
+    public void testQueryReadsFreshRollup() throws Exception {
+        assertMemoryLeak(() -> {
+            createRollup();
+            // a row only the rollup has, base table is unchanged so the rollup is considered fresh
+            executeInsert("insert into r values ('2022-01-01T02:00:00.000000Z', 'z', 42, 1)");
+            try (RecordCursorFactory factory = compiler.compile(ROLLUP_QUERY, sqlExecutionContext).getRecordCursorFactory()) {
+                assertFactory(
+                        "ts\tsym\ttotal\tn\n" +
+                                "2022-01-01T00:00:00.000000Z\ta\t2.0\t1\n" +
+                                "2022-01-01T00:00:00.000000Z\tb\t4.0\t2\n" +
+                                "2022-01-01T01:00:00.000000Z\ta\t10.0\t2\n" +
+                                "2022-01-01T01:00:00.000000Z\tb\t5.0\t1\n" +
+                                "2022-01-01T02:00:00.000000Z\tz\t42.0\t1\n",
+                        factory
+                );
+            }
+
+            // stale rollup is bypassed
+            executeInsert("insert into ticks values ('2022-01-01T02:10:00.000000Z', 'a', 1)");
+            assertSql(
+                    ROLLUP_QUERY,
+                    "ts\tsym\ttotal\tn\n" +
+                            "2022-01-01T00:00:00.000000Z\tb\t4.0\t2\n" +
+                            "2022-01-01T00:00:00.000000Z\ta\t2.0\t1\n" +
+                            "2022-01-01T01:00:00.000000Z\ta\t10.0\t2\n" +
+                            "2022-01-01T01:00:00.000000Z\tb\t5.0\t1\n" +
+                            "2022-01-01T02:00:00.000000Z\ta\t1.0\t1\n"
+            );
+        });
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        assertMemoryLeak(() -> {
+            createRollup();
+            engine.getRollupRegistry().clear();
+            engine.getRollupRegistry().reload();
+            Assert.assertNotNull(engine.getRollupRegistry().getByDefinition(ROLLUP_QUERY));
+
+            // first refresh after reload rebuilds the rollup
+            Assert.assertTrue(refresh());
+            assertSql("select count() from r", "count\n4\n");
+        });
+    }
+
+    @Test
+    public void testTruncateBase() throws Exception {
+        assertMemoryLeak(() -> {
+            createRollup();
+            compile("truncate table ticks");
+            executeInsert("insert into ticks values ('2022-01-03T00:10:00.000000Z', 'a', 3)");
+            Assert.assertTrue(refresh());
+            assertSql(
+                    "r",
+                    "ts\tsym\ttotal\tn\n" +
+                            "2022-01-03T00:00:00.000000Z\ta\t3.0\t1\n"
+            );
+        });
+    }
+
+    private static void assertFactory(CharSequence expected, RecordCursorFactory factory) throws SqlException {
+        // a rollup factory may answer from either table, so the cursor is checked as if it had no random access
+        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+            sink.clear();
+            TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, printer);
+            TestUtils.assertEquals(expected, sink);
+        }
+    }
+
+    private static void createRollup() throws SqlException {
+        compile("create table ticks (ts timestamp, sym symbol, price double) timestamp(ts) partition by DAY");
+        compile(
+                "insert into ticks select" +
+                        " timestamp_sequence('2022-01-01', 20 * 60000000L)," +
+                        " case when x % 2 = 0 then 'a' else 'b' end," +
+                        " x" +
+                        " from long_sequence(6)"
+        );
+        compile("create rollup r as (" + ROLLUP_QUERY + ")");
+    }
+
+    private static boolean refresh() {
+        return engine.getRollupRegistry().refreshAll(compiler, sqlExecutionContext);
+    }
+}
@@ -33,6 +33,7 @@ import io.questdb.cairo.sql.InsertMethod;
 import io.questdb.cairo.sql.InsertOperation;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
+import io.questdb.std.MemoryAccountant;
 import io.questdb.std.Misc;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
 import io.questdb.std.datetime.microtime.Timestamps;
@@ -136,6 +137,11 @@ public class SecurityTest extends AbstractGriffinTest {
             public long getFd() {
                 return -1;
             }
+
+            @Override
+            public MemoryAccountant getMemoryAccountant() {
+                return null;
+            }
         };
 
         readOnlyExecutionContext = new SqlExecutionContextImpl(memoryRestrictedEngine, 1)
@@ -563,6 +563,214 @@ public class SnapshotTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testSnapshotPrepareIncrementalCopiesTableData() throws Exception {
+        assertMemoryLeak(() -> {
+            snapshotIncrementalEnabled = true;
+
+            final String tableName = "t";
+            compile("create table " + tableName + " as " +
+                            "(select rnd_symbol('A','B','C') s, x, timestamp_sequence(0, 100000000000) ts from long_sequence(3)) timestamp(ts) partition by day",
+                    sqlExecutionContext);
+
+            compiler.compile("snapshot prepare", sqlExecutionContext);
+
+            path.trimTo(rootLen).concat(tableName);
+            final int tableLen = path.length();
+            final FilesFacade ff = configuration.getFilesFacade();
+            // Linked non-last partition.
+            Assert.assertTrue(ff.exists(path.trimTo(tableLen).concat("1970-01-01").concat("x.d").$()));
+            // Copied active partition.
+            Assert.assertTrue(ff.exists(path.trimTo(tableLen).concat("1970-01-03").concat("x.d").$()));
+            // Symbol map.
+            Assert.assertTrue(ff.exists(path.trimTo(tableLen).concat("s.c").$()));
+
+            path.trimTo(tableLen).concat(TableUtils.SNAPSHOT_MANIFEST_FILE_NAME).$();
+            try (MemoryCMARW mem = Vm.getCMARWInstance()) {
+                mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
+                final int entryCount = mem.getInt(0);
+                try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), tableName)) {
+                    Assert.assertEquals(reader.getMetadata().getId(), mem.getInt(TableUtils.SNAPSHOT_MANIFEST_OFFSET_TABLE_ID));
+                }
+                boolean foundActivePartitionFile = false;
+                long offset = TableUtils.SNAPSHOT_MANIFEST_OFFSET_ENTRIES;
+                for (int i = 0; i < entryCount; i++) {
+                    final CharSequence name = mem.getStr(offset);
+                    offset += Vm.getStorageLength(name);
+                    final long size = mem.getLong(offset);
+                    offset += Long.BYTES;
+                    if (Chars.equals(name, "1970-01-03/x.d")) {
+                        foundActivePartitionFile = true;
+                        Assert.assertTrue(size >= Long.BYTES);
+                    }
+                }
+                Assert.assertTrue(foundActivePartitionFile);
+            }
+
+            compiler.compile("snapshot complete", sqlExecutionContext);
+        });
+    }
+
+    @Test
+    public void testRecoverIncrementalSnapshotRestoresMissingPartition() throws Exception {
+        final String snapshotId = "id1";
+        final String restartedId = "id2";
+        assertMemoryLeak(() -> {
+            snapshotInstanceId = snapshotId;
+            snapshotIncrementalEnabled = true;
+
+            final String tableName = "t";
+            compile("create table " + tableName + " as " +
+                            "(select rnd_symbol('A','B','C') s, x, timestamp_sequence(0, 100000000000) ts from long_sequence(20)) timestamp(ts) partition by day",
+                    sqlExecutionContext);
+            final String expected = "s\tx\tts\n" +
+                    "A\t1\t1970-01-01T00:00:00.000000Z\n" +
+                    "A\t2\t1970-01-02T03:46:40.000000Z\n" +
+                    "B\t3\t1970-01-03T07:33:20.000000Z\n";
+            assertSql("select * from " + tableName + " limit 3", expected);
+
+            compiler.compile("snapshot prepare", sqlExecutionContext);
+
+            compile("insert into " + tableName +
+                    " select rnd_symbol('D','E') s, x+20 x, timestamp_sequence(0, 100000000000) ts from long_sequence(3)", sqlExecutionContext);
+
+            // Release all readers and writers, but keep the snapshot dir around.
+            snapshotAgent.clear();
+            engine.releaseAllReaders();
+            engine.releaseAllWriters();
+
+            // Lose the first partition version referenced by the snapshot, it is restored from the snapshot.
+            try (Path tablePath = new Path()) {
+                tablePath.of(configuration.getRoot()).concat(tableName).concat("1970-01-01").$();
+                configuration.getFilesFacade().rmdir(tablePath);
+            }
+
+            snapshotInstanceId = restartedId;
+
+            DatabaseSnapshotAgent.recoverSnapshot(engine);
+
+            assertSql("select count() from " + tableName, "count\n20\n");
+            assertSql("select * from " + tableName + " limit 3", expected);
+        });
+    }
+
+    @Test
+    public void testRecoverIncrementalSnapshotAfterTruncate() throws Exception {
+        final String snapshotId = "id1";
+        final String restartedId = "id2";
+        assertMemoryLeak(() -> {
+            snapshotInstanceId = snapshotId;
+            snapshotIncrementalEnabled = true;
+
+            // truncate rewrites symbol maps and columns of non-partitioned tables in place
+            final String tableName = "t";
+            compile("create table " + tableName + " as " +
+                            "(select rnd_symbol('A','B','C') s, x from long_sequence(20))",
+                    sqlExecutionContext);
+            final String expected = "s\tx\n" +
+                    "A\t1\n" +
+                    "A\t2\n" +
+                    "B\t3\n";
+            assertSql("select * from " + tableName + " limit 3", expected);
+
+            compiler.compile("snapshot prepare", sqlExecutionContext);
+
+            snapshotAgent.clear();
+            engine.releaseAllReaders();
+            compile("truncate table " + tableName, sqlExecutionContext);
+            // more rows than in the snapshot, every live file is longer than its snapshot copy
+            compile("insert into " + tableName +
+                    " select rnd_symbol('D','E','F','G') s, x + 100 x from long_sequence(30)", sqlExecutionContext);
+
+            engine.releaseAllReaders();
+            engine.releaseAllWriters();
+
+            snapshotInstanceId = restartedId;
+
+            DatabaseSnapshotAgent.recoverSnapshot(engine);
+
+            assertSql("select count() from " + tableName, "count\n20\n");
+            assertSql("select * from " + tableName + " limit 3", expected);
+        });
+    }
+
+    @Test
+    public void testRecoverIncrementalSnapshotRestoresDroppedTable() throws Exception {
+        final String snapshotId = "id1";
+        final String restartedId = "id2";
+        assertMemoryLeak(() -> {
+            snapshotInstanceId = snapshotId;
+            snapshotIncrementalEnabled = true;
+
+            final String tableName = "t";
+            compile("create table " + tableName + " as " +
+                            "(select rnd_symbol('A','B','C') s, x, timestamp_sequence(0, 100000000000) ts from long_sequence(20)) timestamp(ts) partition by day",
+                    sqlExecutionContext);
+            final String expected = "s\tx\tts\n" +
+                    "A\t1\t1970-01-01T00:00:00.000000Z\n" +
+                    "A\t2\t1970-01-02T03:46:40.000000Z\n" +
+                    "B\t3\t1970-01-03T07:33:20.000000Z\n";
+            assertSql("select * from " + tableName + " limit 3", expected);
+
+            compiler.compile("snapshot prepare", sqlExecutionContext);
+
+            snapshotAgent.clear();
+            engine.releaseAllReaders();
+            compile("drop table " + tableName, sqlExecutionContext);
+
+            snapshotInstanceId = restartedId;
+
+            DatabaseSnapshotAgent.recoverSnapshot(engine);
+
+            assertSql("select count() from " + tableName, "count\n20\n");
+            assertSql("select * from " + tableName + " limit 3", expected);
+        });
+    }
+
+    @Test
+    public void testRecoverIncrementalSnapshotFailsOnTruncatedFile() throws Exception {
+        final String snapshotId = "id1";
+        final String restartedId = "id2";
+        assertMemoryLeak(() -> {
+            snapshotInstanceId = snapshotId;
+            snapshotIncrementalEnabled = true;
+
+            final String tableName = "t";
+            compile("create table " + tableName + " as " +
+                            "(select x, timestamp_sequence(0, 100000000000) ts from long_sequence(20)) timestamp(ts) partition by day",
+                    sqlExecutionContext);
+
+            compiler.compile("snapshot prepare", sqlExecutionContext);
+
+            compile("insert into " + tableName +
+                    " select x+20 x, timestamp_sequence(100000000000, 100000000000) ts from long_sequence(3)", sqlExecutionContext);
+
+            snapshotAgent.clear();
+            engine.releaseAllReaders();
+            engine.releaseAllWriters();
+
+            // Damage the active partition copy in the snapshot.
+            final FilesFacade ff = configuration.getFilesFacade();
+            path.trimTo(rootLen).concat(tableName).concat("1970-01-22").concat("x.d").$();
+            long fd = ff.openRW(path, CairoConfiguration.O_NONE);
+            Assert.assertTrue(fd > -1);
+            Assert.assertTrue(ff.truncate(fd, 0));
+            ff.close(fd);
+
+            snapshotInstanceId = restartedId;
+
+            try {
+                DatabaseSnapshotAgent.recoverSnapshot(engine);
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "snapshot file is missing or truncated");
+            }
+
+            // The table is left as is.
+            assertSql("select count() from " + tableName, "count\n23\n");
+        });
+    }
+
     @Ignore("Enable when table readers start preventing from column file deletion. This could be done along with column versioning.")
     @Test
     public void testRecoverSnapshotRestoresDroppedColumns() throws Exception {
@@ -24,6 +24,7 @@
 
 package io.questdb.griffin;
 
+import io.questdb.WorkerPoolAwareConfiguration;
 import io.questdb.cairo.*;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.security.CairoSecurityContextImpl;
@@ -32,6 +33,7 @@ import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.engine.ops.UpdateOperation;
+import io.questdb.mp.WorkerPool;
 import io.questdb.std.Chars;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacadeImpl;
@@ -39,6 +41,7 @@ import io.questdb.std.Rnd;
 import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
@@ -1005,6 +1008,16 @@ public class UpdateTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testUpdateMultipartitionedTableParallel() throws Exception {
+        testUpdateMultipartitionedTable(true);
+    }
+
+    @Test
+    public void testUpdateMultipartitionedTableSerial() throws Exception {
+        testUpdateMultipartitionedTable(false);
+    }
+
     @Test
     public void testUpdateNoFilter() throws Exception {
         assertMemoryLeak(() -> {
@@ -1025,6 +1038,42 @@ public class UpdateTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testUpdateNoFilterParallel() throws Exception {
+        enableParallelUpdate = true;
+        WorkerPool pool = new WorkerPool((WorkerPoolAwareConfiguration) () -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    compiler.compile("create table up as" +
+                            " (select timestamp_sequence(0, 3600000000) ts," +
+                            " x," +
+                            " rnd_str(5,10,2) s" +
+                            " from long_sequence(100))" +
+                            " timestamp(ts) partition by DAY", sqlExecutionContext);
+                    // column top in the last partition
+                    try (OperationFuture future = compiler.compile("alter table up add column v int", sqlExecutionContext).execute(null)) {
+                        future.await();
+                    }
+                    compiler.compile("insert into up select timestamp_sequence(360000000000, 3600000000), x + 100, rnd_str(5,10,2), rnd_int() from long_sequence(30)", sqlExecutionContext);
+
+                    final String expectedQuery = "select ts, x * 2 x, concat('u', s) s, cast(x as int) v from up";
+                    final StringSink expected = new StringSink();
+                    TestUtils.printSql(compiler, sqlExecutionContext, expectedQuery, expected);
+
+                    final CompiledQuery cq = compiler.compile("update up set x = x * 2, s = concat('u', s), v = cast(x as int)", sqlExecutionContext);
+                    try (
+                            UpdateOperation op = cq.getUpdateOperation();
+                            OperationFuture future = cq.<UpdateOperation>getDispatcher().execute(op, sqlExecutionContext, null)
+                    ) {
+                        future.await();
+                        Assert.assertEquals(130, future.getAffectedRowsCount());
+                    }
+
+                    TestUtils.assertSql(compiler, sqlExecutionContext, "up", sink, expected);
+                },
+                configuration
+        );
+    }
+
     @Test
     public void testUpdateNoFilterOnAlteredTable() throws Exception {
         assertMemoryLeak(() -> {
@@ -2283,4 +2332,44 @@ public class UpdateTest extends AbstractGriffinTest {
             assertSql("up", expectedData);
         });
     }
+
+    private void testUpdateMultipartitionedTable(boolean parallel) throws Exception {
+        enableParallelUpdate = parallel;
+        WorkerPool pool = new WorkerPool((WorkerPoolAwareConfiguration) () -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    compiler.compile("create table up as" +
+                            " (select timestamp_sequence(0, 3600000000) ts," +
+                            " x," +
+                            " rnd_int() v," +
+                            " rnd_str(5,10,2) s," +
+                            " rnd_symbol('a','b','c',null) sym" +
+                            " from long_sequence(2000))" +
+                            ", index(sym) timestamp(ts) partition by DAY", sqlExecutionContext);
+
+                    final String expectedQuery = "select ts, x," +
+                            " case when x % 7 = 0 then v * 2 else v end v," +
+                            " case when x % 7 = 0 then concat('u', s) else s end s," +
+                            " case when x % 7 = 0 then 'dd' else cast(sym as string) end sym" +
+                            " from up";
+                    final StringSink expected = new StringSink();
+                    TestUtils.printSql(compiler, sqlExecutionContext, expectedQuery, expected);
+                    final StringSink expectedD = new StringSink();
+                    TestUtils.printSql(compiler, sqlExecutionContext, "select * from (" + expectedQuery + ") where sym = 'dd'", expectedD);
+
+                    final CompiledQuery cq = compiler.compile("update up set v = v * 2, s = concat('u', s), sym = 'dd' where x % 7 = 0", sqlExecutionContext);
+                    try (
+                            UpdateOperation op = cq.getUpdateOperation();
+                            OperationFuture future = cq.<UpdateOperation>getDispatcher().execute(op, sqlExecutionContext, null)
+                    ) {
+                        future.await();
+                        Assert.assertEquals(285, future.getAffectedRowsCount());
+                    }
+
+                    TestUtils.assertSql(compiler, sqlExecutionContext, "up", sink, expected);
+                    // index has to be rebuilt in all updated partitions
+                    TestUtils.assertSql(compiler, sqlExecutionContext, "up where sym = 'dd'", sink, expectedD);
+                },
+                configuration
+        );
+    }
 }
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.Chars;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TopKPerGroupRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final String DDL = "create table trades as (" +
+            "select rnd_symbol('AA', 'BB', 'CC', 'DD') sym, rnd_int(1, 20, 0) size, timestamp_sequence(0, 3600000000) ts " +
+            "from long_sequence(500)" +
+            ") timestamp(ts) partition by DAY";
+
+    @Test
+    public void testDescendingTopThreePerSymbol() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table trades (sym symbol, size int, ts timestamp) timestamp(ts) partition by DAY");
+            executeInsert("insert into trades values " +
+                    "('a', 5, '2022-01-01T00:00:00.000000Z'), " +
+                    "('b', 1, '2022-01-01T01:00:00.000000Z'), " +
+                    "('a', 7, '2022-01-01T02:00:00.000000Z'), " +
+                    "('a', 5, '2022-01-01T03:00:00.000000Z'), " +
+                    "('a', 9, '2022-01-01T04:00:00.000000Z'), " +
+                    "('b', 3, '2022-01-01T05:00:00.000000Z'), " +
+                    "('a', 1, '2022-01-01T06:00:00.000000Z')"
+            );
+
+            final String query = "select * from (" +
+                    "select sym, size, ts, row_number() over (partition by sym order by size desc) rn from trades" +
+                    ") where rn < 3";
+            assertTopK(query);
+            // the later of equal rows ranks first, rows come back in table order
+            assertSql(
+                    query,
+                    "sym\tsize\tts\trn\n" +
+                            "b\t1\t2022-01-01T01:00:00.000000Z\t1\n" +
+                            "a\t7\t2022-01-01T02:00:00.000000Z\t1\n" +
+                            "a\t5\t2022-01-01T03:00:00.000000Z\t2\n" +
+                            "a\t9\t2022-01-01T04:00:00.000000Z\t0\n" +
+                            "b\t3\t2022-01-01T05:00:00.000000Z\t0\n"
+            );
+        });
+    }
+
+    @Test
+    public void testInclusiveAndReversedBounds() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            assertSameAsAnalytic("rn <= 4", "rn + 0 <= 4");
+            assertSameAsAnalytic("4 > rn", "rn + 0 < 4");
+            assertSameAsAnalytic("4 >= rn", "rn + 0 <= 4");
+        });
+    }
+
+    @Test
+    public void testLimitLargerThanGroups() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            assertSameAsAnalytic("rn < 1000", "rn + 0 < 1000");
+        });
+    }
+
+    @Test
+    public void testMatchesAnalyticFunction() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            assertSameAsAnalytic("rn < 1", "rn + 0 < 1");
+            assertSameAsAnalytic("rn < 5", "rn + 0 < 5");
+            assertSameAsAnalytic("rn < 17", "rn + 0 < 17");
+        });
+    }
+
+    @Test
+    public void testMultipleAnalyticColumnsNotOptimised() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            final String query = "select * from (" +
+                    "select sym, size, ts, " +
+                    "row_number() over (partition by sym order by size desc) rn, " +
+                    "row_number() over (partition by sym order by ts) rn2 " +
+                    "from trades) where rn < 3";
+            Assert.assertFalse(Chars.contains(getPlan(query).getText(), "TopKPerGroup"));
+        });
+    }
+
+    @Test
+    public void testPartitionByExpression() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL);
+            final String query = "select * from (" +
+                    "select sym, size, ts, row_number() over (partition by sym, timestamp_floor('d', ts) order by size desc, ts) rn from trades" +
+                    ") where rn < 2";
+            assertTopK(query);
+            final String analytic = "select * from (" +
+                    "select sym, size, ts, row_number() over (partition by sym, timestamp_floor('d', ts) order by size desc, ts) rn from trades" +
+                    ") where rn + 0 < 2";
+            assertSameResult(analytic, query);
+        });
+    }
+
+    private void assertSameAsAnalytic(String bound, String analyticBound) throws Exception {
+        final String select = "select * from (" +
+                "select sym, size, ts, row_number() over (partition by sym order by size desc) rn from trades" +
+                ") where ";
+        assertTopK(select + bound);
+        assertSameResult(select + analyticBound, select + bound);
+    }
+
+    private void assertSameResult(String expectedQuery, String query) throws Exception {
+        final StringSink expected = new StringSink();
+        TestUtils.printSql(compiler, sqlExecutionContext, expectedQuery, expected);
+        assertSql(query, expected);
+    }
+
+    private void assertTopK(String query) throws Exception {
+        Assert.assertTrue(Chars.contains(getPlan(query).getText(), "TopKPerGroup"));
+    }
+}
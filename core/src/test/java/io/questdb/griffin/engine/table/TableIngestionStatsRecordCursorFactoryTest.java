@@ -0,0 +1,95 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.TableIngestionStats;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TableIngestionStatsRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testCommitsAndO3Rows() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, v int) timestamp(ts) partition by DAY", sqlExecutionContext);
+            executeInsert("insert into x values ('2022-01-02T00:00:00.000000Z', 1)");
+            executeInsert("insert into x values ('2022-01-03T00:00:00.000000Z', 2)");
+            // out-of-order row
+            executeInsert("insert into x values ('2022-01-01T00:00:00.000000Z', 3)");
+            assertSql(
+                    "select table, writer_thread, committed_rows, o3_rows, uncommitted_rows, commits from table_ingestion_stats() where table = 'x'",
+                    "table\twriter_thread\tcommitted_rows\to3_rows\tuncommitted_rows\tcommits\n" +
+                            "x\t-1\t3\t1\t0\t3\n"
+            );
+        });
+    }
+
+    @Test
+    public void testPrometheus() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table y as (select x from long_sequence(10))", sqlExecutionContext);
+            // table writer is registered while it is open
+            engine.getWriter(sqlExecutionContext.getCairoSecurityContext(), "y", "test").close();
+            final StringSink sink = new StringSink();
+            engine.getMetrics().scrapeIntoPrometheus(sink);
+            TestUtils.assertContains(sink, "# TYPE questdb_table_committed_rows_total counter\n");
+            TestUtils.assertContains(sink, "questdb_table_committed_rows_total{table=\"y\"} 10\n");
+            TestUtils.assertContains(sink, "# TYPE questdb_table_rows_per_second gauge\n");
+            TestUtils.assertContains(sink, "questdb_table_writer_thread{table=\"y\"} -1\n");
+        });
+    }
+
+    @Test
+    public void testRates() {
+        final TableIngestionStats stats = new TableIngestionStats(1, "x");
+        stats.addBytes(1000);
+        stats.onCommit(100, 0, 0, 1_000_000);
+        // the first window is not complete yet
+        Assert.assertEquals(0, stats.getRowsPerSecond(1_500_000));
+
+        stats.addBytes(3000);
+        stats.onCommit(300, 0, 0, 3_000_000);
+        Assert.assertEquals(200, stats.getRowsPerSecond(3_500_000));
+        Assert.assertEquals(2000, stats.getBytesPerSecond(3_500_000));
+
+        // idle for longer than two windows
+        Assert.assertEquals(0, stats.getRowsPerSecond(7_000_001));
+        Assert.assertEquals(0, stats.getBytesPerSecond(7_000_001));
+    }
+
+    @Test
+    public void testRemovedWhenWriterClosed() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table z (v int)", sqlExecutionContext);
+            executeInsert("insert into z values (1)");
+            assertSql("select table, committed_rows from table_ingestion_stats() where table = 'z'", "table\tcommitted_rows\nz\t1\n");
+            engine.releaseAllWriters();
+            assertSql("select table, committed_rows from table_ingestion_stats() where table = 'z'", "table\tcommitted_rows\n");
+        });
+    }
+}
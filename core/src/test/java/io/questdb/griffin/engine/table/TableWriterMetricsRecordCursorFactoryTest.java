@@ -38,6 +38,7 @@ import io.questdb.griffin.SqlExecutionContextImpl;
 import io.questdb.griffin.engine.functions.bind.BindVariableServiceImpl;
 import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Objects;
@@ -108,6 +109,25 @@ public class TableWriterMetricsRecordCursorFactoryTest extends AbstractGriffinTe
         });
     }
 
+    @Test
+    public void testCommitAndO3MergeTimeHistograms() throws Exception {
+        assertMemoryLeak(() -> {
+            final TableWriterMetrics writerMetrics = engine.getMetrics().tableWriter();
+            final long commitsBefore = writerMetrics.getCommitTimeHistogram().getCount();
+            final long o3MergesBefore = writerMetrics.getO3MergeTimeHistogram().getCount();
+
+            compile("create table x (ts timestamp, v int) timestamp(ts) partition by DAY", sqlExecutionContext);
+            executeInsert("insert into x values ('2022-01-02T00:00:00.000000Z', 1)");
+            Assert.assertEquals(commitsBefore + 1, writerMetrics.getCommitTimeHistogram().getCount());
+            Assert.assertEquals(o3MergesBefore, writerMetrics.getO3MergeTimeHistogram().getCount());
+
+            // out-of-order row
+            executeInsert("insert into x values ('2022-01-01T00:00:00.000000Z', 2)");
+            Assert.assertEquals(commitsBefore + 2, writerMetrics.getCommitTimeHistogram().getCount());
+            Assert.assertEquals(o3MergesBefore + 1, writerMetrics.getO3MergeTimeHistogram().getCount());
+        });
+    }
+
     @Test
     public void testCursor() throws Exception{
         try (TableWriterMetricsRecordCursorFactory factory = new TableWriterMetricsRecordCursorFactory();
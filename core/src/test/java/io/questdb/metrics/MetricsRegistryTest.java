@@ -24,11 +24,15 @@
 
 package io.questdb.metrics;
 
+import io.questdb.cutlass.pgwire.PGWireMetrics;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.concurrent.CyclicBarrier;
+
 public class MetricsRegistryTest {
 
     @Test
@@ -87,6 +91,97 @@ public class MetricsRegistryTest {
         assertScrapable(counter, expected);
     }
 
+    @Test
+    public void testHistogram() {
+        MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+        Histogram histogram = metricsRegistry.newHistogram("latency", new long[]{10, 100});
+
+        histogram.record(5);
+        histogram.record(10);
+        histogram.record(50);
+        histogram.record(1000);
+
+        Assert.assertEquals(4, histogram.getCount());
+        Assert.assertEquals(1065, histogram.getSum());
+        Assert.assertEquals(2, histogram.getBucketCount(0));
+        Assert.assertEquals(1, histogram.getBucketCount(1));
+        Assert.assertEquals(1, histogram.getBucketCount(2));
+
+        String expected = "# TYPE questdb_latency histogram\n" +
+                "questdb_latency_bucket{le=\"10\"} 2\n" +
+                "questdb_latency_bucket{le=\"100\"} 3\n" +
+                "questdb_latency_bucket{le=\"+Inf\"} 4\n" +
+                "questdb_latency_sum 1065\n" +
+                "questdb_latency_count 4\n" +
+                "\n";
+        assertScrapable(histogram, expected);
+    }
+
+    @Test
+    public void testHistogramConcurrentRecording() throws Exception {
+        MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+        Histogram histogram = metricsRegistry.newHistogram("latency", Histogram.LATENCY_MICROS_BOUNDS);
+
+        final int threadCount = 4;
+        final int iterations = 10_000;
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        final Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread(() -> {
+                TestUtils.await(barrier);
+                for (int i = 0; i < iterations; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (int t = 0; t < threadCount; t++) {
+            threads[t].join();
+        }
+
+        Assert.assertEquals(threadCount * iterations, histogram.getCount());
+        Assert.assertEquals(threadCount * ((long) iterations * (iterations - 1) / 2), histogram.getSum());
+        long total = 0;
+        for (int i = 0; i <= Histogram.LATENCY_MICROS_BOUNDS.length; i++) {
+            total += histogram.getBucketCount(i);
+        }
+        Assert.assertEquals(threadCount * iterations, total);
+    }
+
+    @Test
+    public void testPGWireLatencyHistograms() {
+        MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+        PGWireMetrics metrics = new PGWireMetrics(metricsRegistry);
+
+        metrics.recordCompileTime(2_000);
+        metrics.recordExecuteTime(30_000);
+        metrics.recordExecuteTime(5_000_000);
+
+        Assert.assertEquals(1, metrics.compileTimeHistogram().getCount());
+        Assert.assertEquals(2, metrics.compileTimeHistogram().getSum());
+        Assert.assertEquals(2, metrics.executeTimeHistogram().getCount());
+        Assert.assertEquals(5030, metrics.executeTimeHistogram().getSum());
+
+        StringSink sink = new StringSink();
+        metricsRegistry.scrapeIntoPrometheus(sink);
+        String scraped = sink.toString();
+        Assert.assertTrue(scraped.contains("# TYPE questdb_pg_wire_queries_compile_time_micros histogram\n"));
+        Assert.assertTrue(scraped.contains("questdb_pg_wire_queries_compile_time_micros_count 1\n"));
+        Assert.assertTrue(scraped.contains("# TYPE questdb_pg_wire_queries_execute_time_micros histogram\n"));
+        Assert.assertTrue(scraped.contains("questdb_pg_wire_queries_execute_time_micros_sum 5030\n"));
+        Assert.assertTrue(scraped.contains("questdb_pg_wire_queries_execute_time_micros_count 2\n"));
+    }
+
+    @Test
+    public void testNullHistogram() {
+        MetricsRegistry metricsRegistry = new NullMetricsRegistry();
+        Histogram histogram = metricsRegistry.newHistogram("latency", Histogram.LATENCY_MICROS_BOUNDS);
+
+        histogram.record(42);
+        Assert.assertEquals(0, histogram.getCount());
+        assetNull(histogram);
+    }
+
     @Test
     public void testNullCounter() {
         MetricsRegistry metricsRegistry = new NullMetricsRegistry();
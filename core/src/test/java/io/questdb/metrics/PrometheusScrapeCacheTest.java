@@ -0,0 +1,98 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.metrics;
+
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Test;
+
+public class PrometheusScrapeCacheTest {
+    private static final String SCRAPE_1 = "# TYPE questdb_counter_total counter\nquestdb_counter_total 1\n\n";
+    private static final String SCRAPE_2 = "# TYPE questdb_counter_total counter\nquestdb_counter_total 2\n\n";
+    private static final String SCRAPE_3 = "# TYPE questdb_counter_total counter\nquestdb_counter_total 3\n\n";
+    private long now = 0;
+
+    @Test
+    public void testRendersOncePerInterval() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+            final Counter counter = metricsRegistry.newCounter("counter");
+            try (PrometheusScrapeCache cache = new PrometheusScrapeCache(metricsRegistry, 1000, () -> now)) {
+                counter.inc();
+                assertScrape(cache, SCRAPE_1);
+
+                counter.inc();
+                now += 999_999;
+                assertScrape(cache, SCRAPE_1);
+
+                now += 1;
+                assertScrape(cache, SCRAPE_2);
+            }
+        });
+    }
+
+    @Test
+    public void testReaderKeepsBufferIntact() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+            final Counter counter = metricsRegistry.newCounter("counter");
+            try (PrometheusScrapeCache cache = new PrometheusScrapeCache(metricsRegistry, 0, () -> now)) {
+                counter.inc();
+                final PrometheusScrapeCache.Buffer slowReader = cache.acquire();
+                assertBuffer(SCRAPE_1, slowReader);
+
+                counter.inc();
+                assertScrape(cache, SCRAPE_2);
+
+                // the spare buffer is still being read, so the last published text is served
+                counter.inc();
+                assertScrape(cache, SCRAPE_2);
+                assertBuffer(SCRAPE_1, slowReader);
+
+                cache.release(slowReader);
+                assertScrape(cache, SCRAPE_3);
+            }
+        });
+    }
+
+    private static void assertBuffer(String expected, PrometheusScrapeCache.Buffer buffer) {
+        final StringSink sink = new StringSink();
+        for (long p = buffer.getLo(), hi = buffer.getHi(); p < hi; p++) {
+            sink.put((char) Unsafe.getUnsafe().getByte(p));
+        }
+        TestUtils.assertEquals(expected, sink);
+    }
+
+    private static void assertScrape(PrometheusScrapeCache cache, String expected) {
+        final PrometheusScrapeCache.Buffer buffer = cache.acquire();
+        try {
+            assertBuffer(expected, buffer);
+        } finally {
+            cache.release(buffer);
+        }
+    }
+}
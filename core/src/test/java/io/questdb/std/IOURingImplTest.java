@@ -25,6 +25,7 @@
 package io.questdb.std;
 
 import io.questdb.cairo.CairoException;
+import io.questdb.network.Net;
 import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
@@ -71,6 +72,62 @@ public class IOURingImplTest {
         Assert.assertTrue(IOURingFacadeImpl.isAvailableOn("7.1.1"));
     }
 
+    @Test
+    public void testPoll() throws Exception {
+        Assume.assumeTrue(rf.isAvailable());
+
+        TestUtils.assertMemoryLeak(() -> {
+            File file = temp.newFile();
+            TestUtils.writeStringToFile(file, "abc");
+
+            try (Path path = new Path()) {
+                long fd = Files.openRO(path.of(file.getAbsolutePath()).$());
+                Assert.assertTrue(fd > -1);
+                try (IOURing ring = rf.newInstance(4)) {
+                    // regular files are always readable
+                    Assert.assertEquals(42, ring.enqueuePoll(fd, 0x1, 42));
+                    // there is no such poll
+                    Assert.assertEquals(43, ring.enqueuePollRemove(1000, 43));
+                    Assert.assertEquals(2, ring.submit());
+
+                    boolean pollSeen = false;
+                    boolean removeSeen = false;
+                    for (int i = 0; i < 2; i++) {
+                        while (!ring.nextCqe()) {
+                            Os.pause();
+                        }
+                        if (ring.getCqeId() == 42) {
+                            Assert.assertTrue((ring.getCqeRes() & 0x1) != 0);
+                            pollSeen = true;
+                        } else {
+                            Assert.assertEquals(43, ring.getCqeId());
+                            // -ENOENT
+                            Assert.assertEquals(-2, ring.getCqeRes());
+                            removeSeen = true;
+                        }
+                    }
+                    Assert.assertTrue(pollSeen && removeSeen);
+
+                    // reads still work after poll sqes have been used
+                    long buf = Unsafe.malloc(3, MemoryTag.NATIVE_DEFAULT);
+                    try {
+                        long id = ring.enqueueRead(fd, 0, buf, 3);
+                        Assert.assertEquals(1, ring.submit());
+                        while (!ring.nextCqe()) {
+                            Os.pause();
+                        }
+                        Assert.assertEquals(id, ring.getCqeId());
+                        Assert.assertEquals(3, ring.getCqeRes());
+                    } finally {
+                        Unsafe.free(buf, 3, MemoryTag.NATIVE_DEFAULT);
+                    }
+                } finally {
+                    Files.close(fd);
+                }
+            }
+        });
+    }
+
     @Test
     public void testRead() throws Exception {
         Assume.assumeTrue(rf.isAvailable());
@@ -134,6 +191,73 @@ public class IOURingImplTest {
         });
     }
 
+    @Test
+    public void testRecv() throws Exception {
+        Assume.assumeTrue(rf.isAvailable());
+
+        TestUtils.assertMemoryLeak(() -> {
+            final long serverFd = Net.socketTcp(true);
+            Assert.assertTrue(Net.bindTcp(serverFd, "127.0.0.1", 9031));
+            Net.listen(serverFd, 1);
+            final long sockaddr = Net.sockaddr("127.0.0.1", 9031);
+            final long clientFd = Net.socketTcp(true);
+            final long buf = Unsafe.malloc(8, MemoryTag.NATIVE_DEFAULT);
+            long fd = -1;
+            try (IOURing ring = rf.newInstance(4)) {
+                Assert.assertEquals(0, TestUtils.connect(clientFd, sockaddr));
+                fd = Net.accept(serverFd);
+                Assert.assertTrue(fd > -1);
+                // dispatchers keep their sockets non-blocking, recv still waits for data
+                Net.configureNonBlocking(fd);
+
+                Assert.assertEquals(42, ring.enqueueRecv(fd, buf, 8, 42));
+                Assert.assertEquals(1, ring.submit());
+                Assert.assertFalse(ring.nextCqe());
+
+                Unsafe.getUnsafe().putInt(buf + 4, 0x636261);
+                Assert.assertEquals(3, Net.send(clientFd, buf + 4, 3));
+                while (!ring.nextCqe()) {
+                    Os.pause();
+                }
+                Assert.assertEquals(42, ring.getCqeId());
+                Assert.assertEquals(3, ring.getCqeRes());
+                TestUtils.assertEquals("abc", new DirectByteCharSequence().of(buf, buf + 3));
+
+                // in-flight recv can be cancelled
+                Assert.assertEquals(43, ring.enqueueRecv(fd, buf, 8, 43));
+                Assert.assertEquals(1, ring.submit());
+                Assert.assertEquals(44, ring.enqueueCancel(43, 44));
+                Assert.assertEquals(1, ring.submit());
+
+                boolean recvSeen = false;
+                boolean cancelSeen = false;
+                for (int i = 0; i < 2; i++) {
+                    while (!ring.nextCqe()) {
+                        Os.pause();
+                    }
+                    if (ring.getCqeId() == 43) {
+                        // -ECANCELED
+                        Assert.assertEquals(-125, ring.getCqeRes());
+                        recvSeen = true;
+                    } else {
+                        Assert.assertEquals(44, ring.getCqeId());
+                        Assert.assertEquals(0, ring.getCqeRes());
+                        cancelSeen = true;
+                    }
+                }
+                Assert.assertTrue(recvSeen && cancelSeen);
+            } finally {
+                Unsafe.free(buf, 8, MemoryTag.NATIVE_DEFAULT);
+                if (fd > -1) {
+                    Net.close(fd);
+                }
+                Net.close(clientFd);
+                Net.close(serverFd);
+                Net.freeSockAddr(sockaddr);
+            }
+        });
+    }
+
     @Test
     public void testSqOverflow() throws Exception {
         Assume.assumeTrue(rf.isAvailable());